@@ -0,0 +1,68 @@
+package ua.lokha.jediswrapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.util.SafeEncoder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость поиска слушателей по каналу в потоке подписки {@link JedisPubSubWrapper} и
+ * {@link BinaryJedisPubSubWrapper}: хеш {@link ChannelKey#hash(byte[])} пришедшего имени канала и поиск
+ * по байтам в {@link ChannelMap}, без создания ключа.
+ *
+ * <p>Лежит в пакете {@code ua.lokha.jediswrapper}, поскольку {@link ChannelMap} и {@link ChannelKey}
+ * видны только внутри него.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelMapBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int channels;
+
+    @Param({"16", "128"})
+    public int channelLength;
+
+    private ChannelMap<Object> map;
+    private byte[][] lookups;
+
+    @Setup
+    public void setup() {
+        map = new ChannelMap<>();
+        lookups = new byte[channels][];
+        for (int i = 0; i < channels; i++) {
+            StringBuilder name = new StringBuilder("channel-").append(i);
+            while (name.length() < channelLength) {
+                name.append('x');
+            }
+            map.put(new ChannelKey(SafeEncoder.encode(name.toString())), name);
+            lookups[i] = SafeEncoder.encode(name.toString()); // отдельный массив, как при чтении из сокета
+        }
+    }
+
+    @Benchmark
+    public Object lookup() {
+        byte[] channel = lookups[ThreadLocalRandom.current().nextInt(channels)];
+        return map.get(channel, ChannelKey.hash(channel));
+    }
+
+    @Benchmark
+    public int hashOnly() {
+        return ChannelKey.hash(lookups[ThreadLocalRandom.current().nextInt(channels)]);
+    }
+}
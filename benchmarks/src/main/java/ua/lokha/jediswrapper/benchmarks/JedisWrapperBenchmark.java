@@ -0,0 +1,135 @@
+package ua.lokha.jediswrapper.benchmarks;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Transaction;
+import ua.lokha.jediswrapper.JedisPipeline;
+import ua.lokha.jediswrapper.JedisTransaction;
+import ua.lokha.jediswrapper.JedisWrapper;
+import ua.lokha.jediswrapper.RespServer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы {@link JedisWrapper} на вызов по сравнению с прямой работой через {@link JedisPool} и
+ * {@link Jedis}, а также стоимость создания {@link JedisWrapper#pipelined()} и {@link JedisWrapper#multi()},
+ * включая запись полей {@link Jedis} через рефлексию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JedisWrapperBenchmark {
+
+    /**
+     * Задержка сервера на каждую пачку команд, чтобы смоделировать время прохождения по сети.
+     */
+    @Param({"0"})
+    public int latencyMicros;
+
+    private RespServer server;
+    private JedisPool pool;
+    private JedisWrapper wrapper;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new RespServer();
+        server.setLatency(latencyMicros, TimeUnit.MICROSECONDS);
+        GenericObjectPoolConfig config = new GenericObjectPoolConfig();
+        config.setMaxTotal(64);
+        config.setMaxIdle(64);
+        pool = new JedisPool(config, server.getHost(), server.getPort());
+        wrapper = new JedisWrapper(pool);
+        wrapper.set("key", "value");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        wrapper.close();
+        pool.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String rawGet() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.get("key");
+        }
+    }
+
+    @Benchmark
+    public String wrapperGet() {
+        return wrapper.get("key");
+    }
+
+    @Benchmark
+    public Object rawPipeline() {
+        try (Jedis jedis = pool.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            pipeline.get("key");
+            return pipeline.syncAndReturnAll();
+        }
+    }
+
+    @Benchmark
+    public Object wrapperPipelined() {
+        try (JedisPipeline pipeline = wrapper.pipelined()) {
+            pipeline.get("key");
+            return pipeline.syncAndReturnAll();
+        }
+    }
+
+    @Benchmark
+    public Object rawMulti() {
+        try (Jedis jedis = pool.getResource()) {
+            Transaction transaction = jedis.multi();
+            transaction.get("key");
+            return transaction.exec();
+        }
+    }
+
+    @Benchmark
+    public Object wrapperMulti() {
+        try (JedisTransaction transaction = wrapper.multi()) {
+            transaction.get("key");
+            return transaction.exec();
+        }
+    }
+
+    /**
+     * Только создание и закрытие {@link JedisPipeline}, без отправки команд.
+     */
+    @Benchmark
+    public JedisPipeline wrapperPipelinedSetup() {
+        JedisPipeline pipeline = wrapper.pipelined();
+        pipeline.close();
+        return pipeline;
+    }
+
+    /**
+     * Только создание и закрытие {@link Pipeline} через пул, без отправки команд.
+     */
+    @Benchmark
+    public Pipeline rawPipelineSetup() {
+        try (Jedis jedis = pool.getResource()) {
+            return jedis.pipelined();
+        }
+    }
+}
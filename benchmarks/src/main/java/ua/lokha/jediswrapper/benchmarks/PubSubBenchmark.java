@@ -0,0 +1,117 @@
+package ua.lokha.jediswrapper.benchmarks;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.util.SafeEncoder;
+import ua.lokha.jediswrapper.BinaryJedisPubSubWrapper;
+import ua.lokha.jediswrapper.JedisPubSubWrapper;
+import ua.lokha.jediswrapper.RespServer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность и задержка доставки сообщений в {@link JedisPubSubWrapper} и
+ * {@link BinaryJedisPubSubWrapper} при большом количестве каналов и слушателей.
+ *
+ * <p>Бенчмарки {@code dispatch*} вызывают обработку сообщения подписки напрямую, без сети, и измеряют только
+ * поиск слушателей и их вызов. Бенчмарк {@code publishRoundTrip} измеряет полный путь от {@code PUBLISH}
+ * до вызова слушателя через сервер.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PubSubBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int channels;
+
+    @Param({"1", "10"})
+    public int listenersPerChannel;
+
+    private RespServer server;
+    private JedisPool pool;
+    private JedisPubSubWrapper pubSubWrapper;
+    private BinaryJedisPubSubWrapper binaryPubSubWrapper;
+    private Jedis publisher;
+
+    private String[] channelNames;
+    private byte[][] binaryChannelNames;
+    private final AtomicLong received = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        server = new RespServer();
+        pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort());
+        pubSubWrapper = new JedisPubSubWrapper(pool);
+        binaryPubSubWrapper = new BinaryJedisPubSubWrapper(pool);
+        publisher = pool.getResource();
+
+        channelNames = new String[channels];
+        binaryChannelNames = new byte[channels][];
+        for (int i = 0; i < channels; i++) {
+            channelNames[i] = "channel-" + i;
+            binaryChannelNames[i] = SafeEncoder.encode(channelNames[i]);
+            for (int j = 0; j < listenersPerChannel; j++) {
+                pubSubWrapper.subscribe((channel, message) -> received.incrementAndGet(), channelNames[i]);
+                binaryPubSubWrapper.subscribe((channel, message) -> received.incrementAndGet(), binaryChannelNames[i]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        publisher.close();
+        pubSubWrapper.close();
+        binaryPubSubWrapper.close();
+        pool.close();
+        server.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void dispatch(Blackhole blackhole) {
+        String channel = channelNames[ThreadLocalRandom.current().nextInt(channels)];
+        pubSubWrapper.getPubSub().onMessage(channel, "message");
+        blackhole.consume(received.get());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void dispatchBinary(Blackhole blackhole) {
+        byte[] channel = binaryChannelNames[ThreadLocalRandom.current().nextInt(channels)];
+        binaryPubSubWrapper.getPubSub().onMessage(channel, channel);
+        blackhole.consume(received.get());
+    }
+
+    /**
+     * Задержка от {@code PUBLISH} до вызова всех слушателей канала в обеих подписках.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    public void publishRoundTrip() {
+        long expected = received.get() + 2L * listenersPerChannel;
+        publisher.publish(channelNames[ThreadLocalRandom.current().nextInt(channels)], "message");
+        while (received.get() < expected) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ua.lokha.jediswrapper;
+
+import java.util.List;
+
+/**
+ * Интерфейс для обработки сообщений канала пакетами.
+ *
+ * <p>Сообщения одного канала копятся и передаются одним вызовом, когда их набралось заданное количество
+ * или когда с первого сообщения пакета прошла заданная задержка. Это уменьшает количество задач в
+ * {@link java.util.concurrent.Executor} и позволяет слушателю, например, записать весь пакет в базу одним запросом.
+ *
+ * <p>Подписка создается методом {@link JedisPubSubWrapper#subscribeBatch(BatchJedisPubSubListener, String, int, long, java.util.concurrent.TimeUnit)}.
+ */
+public interface BatchJedisPubSubListener {
+
+    /**
+     * Вызывается, когда пакет сообщений канала готов.
+     *
+     * @param channel  канал, на который пришли сообщения.
+     * @param messages сообщения в порядке получения, не пустой список.
+     */
+    void onMessages(String channel, List<String> messages) throws Exception;
+}
@@ -1,8 +1,5 @@
 package ua.lokha.jediswrapper;
 
-import lombok.Getter;
-import lombok.Setter;
-import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
@@ -10,12 +7,9 @@ import redis.clients.util.Pool;
 import redis.clients.util.SafeEncoder;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Обертка над {@link BinaryJedisPubSub}, использование которой даст следующие преимущества:
@@ -37,7 +31,17 @@ import java.util.concurrent.locks.ReentrantLock;
  *     <li>Возобновления работы подписки в случае ее завершения с ошибкой, например, от потери соединения с redis-сервером.
  *     Если внутренняя подписка {@link BinaryJedisPubSub} завершит свою работу с ошибкой, тогда будет создана новая подписка
  *     {@link BinaryJedisPubSub} с новым соединением {@link Jedis}. Все подписанные каналы будут заново зарегистрированы
- *     в новой подписке.</li>
+ *     в новой подписке командами по {@value JedisPubSubEngine#chunkSize} каналов. Между неудачными попытками
+ *     выдерживается задержка {@link #setBackoff(JedisBackoff)}, а о восстановлении можно узнать через
+ *     {@link #setReconnectListener(JedisReconnectListener)}.</li>
+ *     <li>Несколько соединений. Если одного потока подписки не хватает, чтобы разбирать все входящие сообщения,
+ *     можно создать обертку с несколькими соединениями {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)}.
+ *     Каналы распределяются между соединениями по хешу имени канала, у каждого соединения свой поток
+ *     и своя повторная подписка.</li>
+ *     <li>Общее соединение со строковой подпиской. Обертка, созданная конструктором
+ *     {@link #BinaryJedisPubSubWrapper(JedisPubSubWrapper)}, использует те же соединения и потоки, что и {@link JedisPubSubWrapper}.
+ *     Сообщения читаются в байтах и переводятся в {@link String} один раз, только если на канал подписан
+ *     строковый слушатель.</li>
  * </ul>
  *
  * <p>Эта обретка является ресурсом. После завершения работы с ней, следует вызвать {@link #close()}.
@@ -48,161 +52,88 @@ import java.util.concurrent.locks.ReentrantLock;
 public class BinaryJedisPubSubWrapper implements AutoCloseable {
 
     /**
-     * Канал-загрушка. В библиотеке Jedis для создания и работы подписки {@link BinaryJedisPubSub}
-     * нужен минимум один канал, иначе будет ошибка.
+     * Подписка, на которой работает обертка. Может быть общей с {@link JedisPubSubWrapper}.
      */
-    private static final byte[] dummyChannel = SafeEncoder.encode("binary-jedis-pubsub-keep");
-
-    /**
-     * Используется для поддержки многопоточности.
-     */
-    private final Lock lock = new ReentrantLock();
-    private final Condition subscribed = lock.newCondition();
-    private final Condition unsubscribed = lock.newCondition();
+    private final JedisPubSubEngine engine;
 
     /**
      * Используется для пометки этого ресурса как закрытого.
      */
-    @Getter
-    private boolean closed = false;
-
-    /**
-     * Поток, в котором работает подписка.
-     */
-    @Getter
-    private Thread thread;
-
-    /**
-     * Объект подписки Jedis, на основе которого работает обертка.
-     */
-    @Getter
-    private BinaryJedisPubSub pubSub;
-
-    /**
-     * Все подписки, ключем выступает имя канала, в значении список слушателей.
-     */
-    private Map<ByteArrayWrapper, Set<BinaryJedisPubSubListener>> subscribes = new HashMap<>();
-
-    /**
-     * Пул для получения соединения {@link Jedis}, служит для инициализации подписки.
-     * А так же для возобновления соединения в случае ее обрыва.
-     */
-    @Getter
-    private Pool<Jedis> pool;
-
-    /**
-     * Executor, в котором будут обрабатываться сообщения, которые приходят на подписанные каналы.
-     */
-    @Getter
-    private Executor executor;
-
-    /**
-     * Счетчик, сколько раз соединение подписка была зарегистрирована.
-     * Увеличивается в случае первой подписки и последующих, если подписка будет обрываться.
-     */
-    @Getter
-    private int resubscribeCount = 0;
-
-    /**
-     * Стоит ли подписка на паузе.
-     *
-     * Если установить значение {@code true}, тогда подписка будет игнорировать входящие сообщения
-     * и не будет вызывать слушатели сообщений.
-     */
-    @Setter
-    @Getter
-    private boolean pause = false;
+    private volatile boolean closed = false;
 
     /**
-     * Работает так же, как и {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean)}.
+     * Работает так же, как и {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)}.
      * <p>Для параметра {@code executor} задается значение по умолчанию {@code Runnable::run}, что означает
      * обрабатывать сообщения в потоке подписки.
      * <p>Для параметра {@code lazyInit} задается значение по умолчанию {@code true}.
+     * <p>Для параметра {@code connections} задается значение по умолчанию {@code 1}.
      *
-     * @see #BinaryJedisPubSubWrapper(Pool, Executor, boolean)
+     * @see #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)
      */
     public BinaryJedisPubSubWrapper(Pool<Jedis> pool) {
         this(pool, Runnable::run, true);
     }
 
     /**
-     * Работает так же, как и {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean)}.
-     * Для параметра {@code lazyInit} задается значение по умолчанию {@code true}.
+     * Работает так же, как и {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)}.
+     * <p>Для параметра {@code lazyInit} задается значение по умолчанию {@code true}.
+     * <p>Для параметра {@code connections} задается значение по умолчанию {@code 1}.
      *
-     * @see #BinaryJedisPubSubWrapper(Pool, Executor, boolean)
+     * @see #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)
      */
     public BinaryJedisPubSubWrapper(Pool<Jedis> pool, Executor executor) {
         this(pool, executor, true);
     }
 
+    /**
+     * Работает так же, как и {@link #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)}.
+     * <p>Для параметра {@code connections} задается значение по умолчанию {@code 1}.
+     *
+     * @see #BinaryJedisPubSubWrapper(Pool, Executor, boolean, int)
+     */
+    public BinaryJedisPubSubWrapper(Pool<Jedis> pool, Executor executor, boolean lazyInit) {
+        this(pool, executor, lazyInit, 1);
+    }
+
     /**
      * Создание обертки над {@link BinaryJedisPubSub}.
      *
-     * @param pool пул соединений с Redis.
-     *             Поскольку эта обертка умеет возобновлять подписку в случае ошибки, нужен именно пул соединений,
-     *             а не конкретное соединиение.
+     * @param pool     пул соединений с Redis.
+     *                 Поскольку эта обертка умеет возобновлять подписку в случае ошибки, нужен именно пул соединений,
+     *                 а не конкретное соединиение.
      * @param executor обработчик, в котором будет вызываться обработка сообщений, приходящих на канал подписки.
+     *                 Если передать {@link JedisOrderedExecutor}, то сообщения одного канала будут обрабатываться
+     *                 по порядку, а разных каналов - параллельно.
      *                 Метод слушателя {@link BinaryJedisPubSubListener#onMessage(byte[], byte[])} будет вызываться
      *                 именно в этом обработчике.
      * @param lazyInit ленивая инициализация. Если указать значение {@code true}, тогда инициализация будет перенесена до
      *                 первого вызова {@link #subscribe(BinaryJedisPubSubListener, byte[])}, если {@code false}, тогда
      *                 инициализация будет вызвана в конструкторе. В инициализацию входит создание подписки PubSub,
      *                 создание потока для этой подписки и ожидание полной готовности подписки.
+     * @param connections количество соединений подписки, каждое со своим потоком. Каналы распределяются между
+     *                 соединениями по хешу имени канала, по этому сообщения одного канала всегда приходят
+     *                 через одно соединение и по порядку.
      */
-    public BinaryJedisPubSubWrapper(Pool<Jedis> pool, Executor executor, boolean lazyInit) {
-        this.pool = pool;
-        this.executor = executor;
-
+    public BinaryJedisPubSubWrapper(Pool<Jedis> pool, Executor executor, boolean lazyInit, int connections) {
+        this.engine = new JedisPubSubEngine(pool, executor, connections, this.getClass().getSimpleName());
         if (!lazyInit) {
-            this.lazyInit();
-
-            lock.lock();
-            try {
-                this.awaitSubscribed();
-            } finally {
-                lock.unlock();
-            }
+            engine.start();
         }
     }
 
-    private void lazyInit() {
-        if (thread != null) {
-            return; // уже проинициализировано
-        }
+    /**
+     * Создание обертки, которая использует те же соединения подписки, поток, {@link #getExecutor()}, очередь
+     * {@link #getDispatchQueue()} и паузу {@link #setPause(boolean)}, что и {@code shared}. Соединения будут закрыты,
+     * когда будут закрыты обе обертки.
+     *
+     * @param shared строковая обертка, с которой будет общее соединение.
+     */
+    public BinaryJedisPubSubWrapper(JedisPubSubWrapper shared) {
+        this.engine = shared.getEngine().retain();
+    }
 
-        thread = new Thread(() -> {
-            while (!(closed || Thread.currentThread().isInterrupted() || pool.isClosed())) {
-                try (Jedis jedis = pool.getResource()) {
-                    lock.lock();
-                    byte[][] channels;
-                    try {
-                        pubSub = new PubSub();
-
-                        channels = new byte[subscribes.size() + 1][];
-                        channels[0] = dummyChannel;
-                        int i = 1;
-                        for (ByteArrayWrapper channel : subscribes.keySet()) {
-                            channels[i++] = channel.getBytes();
-                        }
-                    } finally {
-                        lock.unlock();
-                    }
-                    jedis.subscribe(pubSub, channels);
-                } catch (Exception e) {
-                    //noinspection ConstantConditions
-                    if (e instanceof InterruptedException) {
-                        break;
-                    }
-                    log.severe("Подписка оборвалась с ошибкой.");
-                    e.printStackTrace();
-                }
-            }
-
-            // на всякий случай, если поток завершил работу в результате ошибки
-            close();
-        }, this.getClass().getSimpleName() + " Thread");
-
-        thread.start();
+    JedisPubSubEngine getEngine() {
+        return engine;
     }
 
     /**
@@ -217,25 +148,30 @@ public class BinaryJedisPubSubWrapper implements AutoCloseable {
      * с помощью слушателя можно отменить подписку методом {@link #unsubscribe(BinaryJedisPubSubListener)}.
      */
     public BinaryJedisPubSubListener subscribe(BinaryJedisPubSubListener listener, byte[] channel) {
-        lock.lock();
-        try {
-            this.checkForClosed();
-            this.lazyInit();
-            this.awaitSubscribed();
-            subscribes.computeIfAbsent(new ByteArrayWrapper(channel), key -> {
-                try {
-                    pubSub.subscribe(channel);
-                } catch (Exception ignored) {
-                    // если будет ошибка, значит подписка оборвалась,
-                    // в таком случае канал зарегистрирует при повторной подписке
-                }
-                return new HashSet<>(1);
-            }).add(listener);
-            log.info("Подписали на канал '" + SafeEncoder.encode(channel) + "' listener: " + listener);
-            return listener;
-        } finally {
-            lock.unlock();
-        }
+        this.checkForClosed();
+        engine.subscribe(new JedisPubSubEngine.Subscriber(listener, true), channel);
+        log.info("Подписали на канал '" + SafeEncoder.encode(channel) + "' listener: " + listener);
+        return listener;
+    }
+
+    /**
+     * Подписаться на прослушивание нескольких каналов одной командой.
+     *
+     * <p>В отличии от вызова {@link #subscribe(BinaryJedisPubSubListener, byte[])} для каждого канала, все каналы регистрируются
+     * за одно взятие блокировки и отправляются в Redis командами {@code SUBSCRIBE} по {@value JedisPubSubEngine#chunkSize} каналов,
+     * без ожидания ответа на каждый канал. По этому подписка на десятки тысяч каналов занимает
+     * несколько обращений к Redis, а не по одному на канал.
+     *
+     * @param listener слушатель, который будет вызываться, когда будет приходить сообщение на указанные каналы.
+     * @param channels имена каналов.
+     * @return future, который завершится слушателем, переданным параметром {@code listener}, когда Redis подтвердит
+     * подписку на все каналы. Если обертка будет закрыта раньше, future завершится с {@link IllegalStateException}.
+     */
+    public CompletableFuture<BinaryJedisPubSubListener> subscribeAll(BinaryJedisPubSubListener listener, Collection<byte[]> channels) {
+        this.checkForClosed();
+        CompletableFuture<Void> future = engine.subscribeAll(new JedisPubSubEngine.Subscriber(listener, true), channels);
+        log.info("Подписали на " + channels.size() + " каналов listener: " + listener);
+        return future.thenApply(ignored -> listener);
     }
 
     /**
@@ -248,73 +184,337 @@ public class BinaryJedisPubSubWrapper implements AutoCloseable {
      * тогда вернет false.
      */
     public boolean unsubscribe(BinaryJedisPubSubListener listener) {
-        lock.lock();
-        try {
-            this.checkForClosed();
-            return subscribes.entrySet().removeIf(setEntry -> {
-                if (setEntry.getValue().remove(listener)) {
-                    log.info("Отписали от канала " + SafeEncoder.encode(setEntry.getKey().getBytes()) +
-                        " listener: " + listener);
-                    if (setEntry.getValue().isEmpty() && pubSub != null) {
-                        try {
-                            pubSub.unsubscribe(setEntry.getKey().getBytes());
-                        } catch (Exception e) {
-                            // если будет ошибка, значит подписка оборвалась,
-                            // и уже все равно все каналы отписало
-                        }
-                        return true;
-                    }
-                }
-                return false;
-            });
-        } finally {
-            lock.unlock();
+        this.checkForClosed();
+        boolean removed = engine.unsubscribe(new JedisPubSubEngine.Subscriber(listener, true));
+        if (removed) {
+            log.info("Отписали от каналов listener: " + listener);
         }
+        return removed;
     }
 
     /**
-     * Ждать, пока подписка полностью будет создана.
+     * Подписаться на прослушивание канала слушателем, который получает канал и сообщение в виде {@link java.nio.ByteBuffer}
+     * без копирования. Перевод сообщения в строку или разбор своим кодеком выполняется в {@link #getExecutor()},
+     * а не в потоке подписки, см. {@link ByteBufferJedisPubSubListener#decoded}.
+     *
+     * @param listener слушатель, который будет вызываться, когда будет приходить сообщение на указанный канал.
+     * @param channel имя канала.
+     * @return слушатель, переданный параметром {@code listener}. Он выступает индентификатором подписки,
+     * с помощью слушателя можно отменить подписку методом {@link #unsubscribe(ByteBufferJedisPubSubListener)}.
      */
-    @SneakyThrows
-    private void awaitSubscribed() {
-        while (pubSub == null || !pubSub.isSubscribed()) {
-            if (!subscribed.await(10, TimeUnit.SECONDS)) {
-                throw new TimeoutException("Таймаут ожидания создания подписки pubSub.");
-            }
+    public ByteBufferJedisPubSubListener subscribeBuffer(ByteBufferJedisPubSubListener listener, byte[] channel) {
+        this.checkForClosed();
+        engine.subscribe(new JedisPubSubEngine.Subscriber(listener, true), channel);
+        log.info("Подписали на канал '" + SafeEncoder.encode(channel) + "' listener: " + listener);
+        return listener;
+    }
+
+    /**
+     * Отменить подписку, созданную методом {@link #subscribeBuffer(ByteBufferJedisPubSubListener, byte[])}.
+     * Работает так же, как и {@link #unsubscribe(BinaryJedisPubSubListener)}.
+     */
+    public boolean unsubscribe(ByteBufferJedisPubSubListener listener) {
+        this.checkForClosed();
+        boolean removed = engine.unsubscribe(new JedisPubSubEngine.Subscriber(listener, true));
+        if (removed) {
+            log.info("Отписали от каналов listener: " + listener);
         }
+        return removed;
+    }
+
+    /**
+     * Подписаться на прослушивание каналов по шаблону, например {@code news.*}, как в команде {@code PSUBSCRIBE}.
+     *
+     * <p>Подписка по шаблону работает через то же общее соединение и поток, что и {@link #subscribe(BinaryJedisPubSubListener, byte[])},
+     * и так же восстанавливается после обрыва соединения. Если соединений несколько, то все шаблоны слушаются
+     * через первое соединение.
+     *
+     * @param listener слушатель, который будет вызываться, когда будет приходить сообщение на канал,
+     *                 подходящий под шаблон.
+     * @param pattern шаблон каналов.
+     * @return слушатель, переданный параметром {@code listener}. Он выступает индентификатором подписки,
+     * с помощью слушателя можно отменить подписку методом {@link #punsubscribe(BinaryJedisPubSubPatternListener)}.
+     */
+    public BinaryJedisPubSubPatternListener psubscribe(BinaryJedisPubSubPatternListener listener, byte[] pattern) {
+        this.checkForClosed();
+        engine.psubscribe(new JedisPubSubEngine.Subscriber(listener, true), pattern);
+        log.info("Подписали на шаблон '" + SafeEncoder.encode(pattern) + "' listener: " + listener);
+        return listener;
     }
 
     /**
-     * Вызвать обработку сообщения по каналу.
-     * Все слущатели указанного канала будут вызваны.
+     * Отменить подписку по шаблону по указанному слушателю.
      *
-     * @param channel канал.
-     * @param message сообщение.
-     */
-    private void callListeners(byte[] channel, byte[] message) {
-        lock.lock();
-        try {
-            if (pause) {
-                log.info("Игнорируем пришедшее сообщение на канал, поскольку подписка стоит на паузе. " +
-                    "Канал " + Arrays.toString(channel) + " (" + SafeEncoder.encode(channel) + "), " +
-                    "сообщение: " + Arrays.toString(message) + " (" + SafeEncoder.encode(message) + ")");
-                return;
-            }
-            for (BinaryJedisPubSubListener listener : subscribes.getOrDefault(new ByteArrayWrapper(channel), Collections.emptySet())) {
-                executor.execute((() -> { // каждое сообщение вызывается в отдельном вызове Executor'a
-                    try {
-                        listener.onMessage(channel, message);
-                    } catch (Exception e) {
-                        log.info("Ошибка обработки канала " + Arrays.toString(channel) + " (" + SafeEncoder.encode(channel) + "), " +
-                            "listener: " + listener +
-                            ", сообщение: " + Arrays.toString(message) + " (" + SafeEncoder.encode(message) + ")");
-                        e.printStackTrace();
-                    }
-                }));
-            }
-        } finally {
-            lock.unlock();
+     * @param listener слушатель, используемый в подписках по шаблону, которые должны быть отменены.
+     * @return true, если была отменена хотя бы одна подписка. Если подписок с указанным слушателем не было найдено,
+     * тогда вернет false.
+     */
+    public boolean punsubscribe(BinaryJedisPubSubPatternListener listener) {
+        this.checkForClosed();
+        boolean removed = engine.punsubscribe(new JedisPubSubEngine.Subscriber(listener, true));
+        if (removed) {
+            log.info("Отписали от шаблонов listener: " + listener);
         }
+        return removed;
+    }
+
+    /**
+     * Включить ограниченную очередь {@link JedisDispatchQueue} между потоком подписки и {@link #getExecutor()}.
+     * Поток подписки будет только класть сообщения в очередь, а передавать их слушателям будет поток очереди.
+     * Если слушатели не успевают и очередь заполнена, сообщение обрабатывается по {@code policy}.
+     *
+     * <p>Если очередь уже была включена, то предыдущая будет закрыта после доставки сообщений,
+     * которые в ней остались. Очередь общая для всех оберток одного соединения.
+     *
+     * @param capacity максимальное количество сообщений в очереди.
+     * @param policy   что делать с сообщением, если очередь заполнена.
+     * @return созданная очередь.
+     */
+    public JedisDispatchQueue enableDispatchQueue(int capacity, JedisDispatchQueue.OverflowPolicy policy) {
+        return engine.enableDispatchQueue(capacity, policy);
+    }
+
+    /**
+     * Выключить очередь, включенную методом {@link #enableDispatchQueue(int, JedisDispatchQueue.OverflowPolicy)}.
+     * Сообщения, которые остались в очереди, будут доставлены. Если очередь не была включена, ничего не произойдет.
+     */
+    public void disableDispatchQueue() {
+        engine.disableDispatchQueue();
+    }
+
+    /**
+     * Получить очередь между потоком подписки и {@link #getExecutor()}, если она включена методом
+     * {@link #enableDispatchQueue(int, JedisDispatchQueue.OverflowPolicy)}, иначе {@code null}.
+     */
+    public JedisDispatchQueue getDispatchQueue() {
+        return engine.getDispatchQueue();
+    }
+
+    /**
+     * Включить режим последнего значения для канала. Если слушатель еще обрабатывает сообщение канала,
+     * новые сообщения для него не копятся в {@link #getExecutor()}, а заменяют друг друга, и когда слушатель
+     * освободится, он получит только последнее. Подходит для каналов со снимками состояния, где важно только
+     * свежее значение, а медленный слушатель не должен накапливать очередь.
+     *
+     * <p>Режим работает для подписок на каналы, сообщения по шаблонам доставляются как обычно.
+     *
+     * @param channel имя канала.
+     */
+    public void enableConflation(byte[] channel) {
+        engine.enableConflation(channel);
+    }
+
+    /**
+     * Выключить режим последнего значения для канала, включенный методом {@link #enableConflation(byte[])}.
+     *
+     * @param channel имя канала.
+     */
+    public void disableConflation(byte[] channel) {
+        engine.disableConflation(channel);
+    }
+
+    /**
+     * Сколько сообщений было заменено более новыми в режиме последнего значения, не дойдя до слушателя.
+     */
+    public long getConflatedCount() {
+        return engine.getConflatedCount();
+    }
+
+    /**
+     * Включить проверку соединений подписки. Каждые {@code interval} в соединение отправляется служебная команда,
+     * на которую Redis сразу отвечает. Если из соединения ничего не пришло дольше {@code timeout}, например после
+     * обрыва TCP без закрытия соединения, оно будет закрыто и подписка будет восстановлена с новым соединением,
+     * не дожидаясь, пока обрыв заметит операционная система.
+     *
+     * <p>Если проверка уже была включена, она будет перезапущена с новыми параметрами.
+     * Проверка общая для всех оберток одного соединения.
+     *
+     * @param interval как часто проверять соединение.
+     * @param timeout  сколько ждать ответа, должно быть больше {@code interval}.
+     * @param unit     единица измерения {@code interval} и {@code timeout}.
+     */
+    public void enableHeartbeat(long interval, long timeout, TimeUnit unit) {
+        engine.enableHeartbeat(interval, timeout, unit);
+    }
+
+    /**
+     * Выключить проверку соединений, включенную методом {@link #enableHeartbeat(long, long, TimeUnit)}.
+     * Если проверка не была включена, ничего не произойдет.
+     */
+    public void disableHeartbeat() {
+        engine.disableHeartbeat();
+    }
+
+    /**
+     * Включена ли проверка соединений методом {@link #enableHeartbeat(long, long, TimeUnit)}.
+     */
+    public boolean isHeartbeatEnabled() {
+        return engine.isHeartbeatEnabled();
+    }
+
+    /**
+     * Сколько раз соединение было переподключено, потому что не ответило на проверку вовремя.
+     */
+    public long getHeartbeatTimeouts() {
+        return engine.getHeartbeatTimeouts();
+    }
+
+    /**
+     * Стоит ли подписка на паузе.
+     */
+    public boolean isPause() {
+        return engine.isPause();
+    }
+
+    /**
+     * Поставить подписку на паузу.
+     *
+     * <p>Если установить значение {@code true}, тогда подписка не будет вызывать слушатели сообщений.
+     * Входящие сообщения будут отброшены, а если включен буфер {@link #enablePauseBuffer(int, JedisDispatchQueue.OverflowPolicy)},
+     * то сохранены и доставлены по порядку, когда пауза будет снята. Отброшенные сообщения не пишутся в лог,
+     * а считаются в {@link #getPauseDropped()}. Пауза общая для всех оберток одного соединения.
+     *
+     * <p>Если снять паузу при включенном буфере, этот метод доставит сообщения из буфера в {@link #getExecutor()}
+     * перед тем, как вернуть управление.
+     */
+    public void setPause(boolean pause) {
+        engine.setPause(pause);
+    }
+
+    /**
+     * Включить буфер для сообщений, которые приходят во время паузы {@link #setPause(boolean)}. Когда пауза будет
+     * снята, сообщения из буфера будут доставлены по порядку, и только после них новые сообщения.
+     *
+     * <p>Если буфер уже был включен, сообщения из него будут перенесены в новый.
+     *
+     * @param capacity максимальное количество сообщений в буфере.
+     * @param policy   что делать с сообщением, если буфер заполнен: {@link JedisDispatchQueue.OverflowPolicy#DROP_NEWEST}
+     *                 или {@link JedisDispatchQueue.OverflowPolicy#DROP_OLDEST}. Отброшенные сообщения считаются
+     *                 в {@link #getPauseDropped()}.
+     */
+    public void enablePauseBuffer(int capacity, JedisDispatchQueue.OverflowPolicy policy) {
+        engine.enablePauseBuffer(capacity, policy);
+    }
+
+    /**
+     * Выключить буфер паузы, включенный методом {@link #enablePauseBuffer(int, JedisDispatchQueue.OverflowPolicy)}.
+     * Сообщения, которые в нем остались, будут отброшены. Если буфер не был включен, ничего не произойдет.
+     */
+    public void disablePauseBuffer() {
+        engine.disablePauseBuffer();
+    }
+
+    /**
+     * Сколько сообщений сейчас ждет в буфере паузы.
+     */
+    public int getPauseBuffered() {
+        return engine.getPauseBuffered();
+    }
+
+    /**
+     * Сколько сообщений было отброшено из-за паузы.
+     */
+    public long getPauseDropped() {
+        return engine.getPauseDropped();
+    }
+
+    /**
+     * Пул для получения соединения {@link Jedis}, служит для инициализации подписки.
+     * А так же для возобновления соединения в случае ее обрыва.
+     */
+    public Pool<Jedis> getPool() {
+        return engine.getPool();
+    }
+
+    /**
+     * Executor, в котором будут обрабатываться сообщения, которые приходят на подписанные каналы.
+     */
+    public Executor getExecutor() {
+        return engine.getExecutor();
+    }
+
+    /**
+     * Поток, в котором работает подписка первого соединения, или {@code null}, если подписка еще не создана.
+     */
+    public Thread getThread() {
+        return engine.getThread();
+    }
+
+    /**
+     * Объект подписки Jedis первого соединения, на основе которого работает обертка,
+     * или {@code null}, если подписка еще не создана.
+     */
+    public BinaryJedisPubSub getPubSub() {
+        return engine.getPubSub();
+    }
+
+    /**
+     * Количество соединений подписки.
+     */
+    public int getConnectionCount() {
+        return engine.getConnectionCount();
+    }
+
+    /**
+     * Подписаны ли сейчас все соединения. После обрыва подписка считается восстановленной только тогда,
+     * когда Redis подтвердил все ее каналы и шаблоны.
+     */
+    public boolean isSubscribed() {
+        return engine.isSubscribed();
+    }
+
+    /**
+     * Счетчик, сколько раз подписка была зарегистрирована, сумма по всем соединениям.
+     * Увеличивается в случае первой подписки и последующих, если подписка будет обрываться.
+     */
+    public int getResubscribeCount() {
+        return engine.getResubscribeCount();
+    }
+
+    /**
+     * Сколько миллисекунд соединения суммарно были без подписки после обрывов.
+     */
+    public long getDowntimeMillis() {
+        return engine.getDowntimeMillis();
+    }
+
+    /**
+     * Задержка между попытками восстановить оборвавшуюся подписку.
+     */
+    public JedisBackoff getBackoff() {
+        return engine.getBackoff();
+    }
+
+    /**
+     * Установить задержку между попытками восстановить оборвавшуюся подписку. По умолчанию {@link JedisBackoff#DEFAULT}.
+     * Задержка общая для всех оберток одного соединения.
+     */
+    public void setBackoff(JedisBackoff backoff) {
+        engine.setBackoff(Objects.requireNonNull(backoff, "backoff"));
+    }
+
+    /**
+     * Слушатель восстановления подписки после обрыва или {@code null}.
+     */
+    public JedisReconnectListener getReconnectListener() {
+        return engine.getReconnectListener();
+    }
+
+    /**
+     * Установить слушатель, который будет вызываться, когда подписка восстановлена после обрыва.
+     * Слушатель общий для всех оберток одного соединения.
+     *
+     * @param listener слушатель или {@code null}, чтобы убрать его.
+     */
+    public void setReconnectListener(JedisReconnectListener listener) {
+        engine.setReconnectListener(listener);
+    }
+
+    /**
+     * Закрыт ли этот ресурс.
+     */
+    public boolean isClosed() {
+        return closed || engine.isClosed();
     }
 
     private void checkForClosed() throws IllegalStateException {
@@ -326,10 +526,13 @@ public class BinaryJedisPubSubWrapper implements AutoCloseable {
     /**
      * Завершить работу подписки:
      * <ul>
-     *     <li>Внутренняя подписка будет отписана с помощью {@link BinaryJedisPubSub#unsubscribe()}.</li>
-     *     <li>Поток будет остановлен, который блокировала подписка.</li>
+     *     <li>Внутренние подписки всех соединений будут отписаны с помощью {@link BinaryJedisPubSub#unsubscribe()}.</li>
+     *     <li>Потоки будут остановлены, которые блокировали подписки.</li>
      * </ul>
      *
+     * <p>Если соединение общее с {@link JedisPubSubWrapper}, которая еще не закрыта, то будут отменены только подписки
+     * этой обертки, а соединение продолжит работу.
+     *
      * <p>Этот метод блокирует поток, пока внутренняя подписка {@link BinaryJedisPubSub} не будет полностью отменена.
      *
      * <p>Этот метод не будет освождать полученный через конструктор пул потоков {@link #getPool()}.
@@ -338,91 +541,32 @@ public class BinaryJedisPubSubWrapper implements AutoCloseable {
      */
     @Override
     public void close() {
-        lock.lock();
-        try {
-            if (closed) {
-                return;
-            }
-            closed = true; // mark closed
-            try {
-                if (pubSub != null) {
-                    pubSub.unsubscribe();
-                    while (pubSub.isSubscribed()) {
-                        if (!unsubscribed.await(10, TimeUnit.SECONDS)) {
-                            throw new TimeoutException("Таймаут ожидания отмены подписки pubSub.");
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                log.severe("Unsubscribe " + this.getClass().getSimpleName() + " exception, " +
-                    "ignore this exception for idempotency of " + this.getClass().getSimpleName() + ".close().");
-                e.printStackTrace();
-            }
-
-            try {
-                if (thread != null && !thread.isInterrupted()) {
-                    thread.interrupt();
-                }
-            } catch (Exception e) {
-                log.severe("Interrupt thread " + this.getClass().getSimpleName() + " exception, " +
-                    "ignore this exception for idempotency of " + this.getClass().getSimpleName() + ".close().");
-                e.printStackTrace();
-            }
-        } finally {
-            lock.unlock();
-        }
-    }
-
-    private class PubSub extends BinaryJedisPubSub {
-        @Override
-        public void onMessage(byte[] channel, byte[] message) {
-            callListeners(channel, message);
-        }
-
-        @Override
-        public void onSubscribe(byte[] channel, int subscribedChannels) {
-            if (Arrays.equals(channel, dummyChannel)) {
-                resubscribeCount++;
-                if (resubscribeCount > 1) {
-                    // вызывается в случае повторной регистрации подписки,
-                    // если предыдущая по какой-то причине оборвалась
-                    log.info("Подписка зарегистрирована заново в " + resubscribeCount + " раз.");
-                }
-
-                lock.lock();
-                try {
-                    subscribed.signalAll();
-                } finally {
-                    lock.unlock();
-                }
-            }
-        }
-
-        @Override
-        public void onUnsubscribe(byte[] channel, int subscribedChannels) {
-            if (!this.isSubscribed()) {
-                lock.lock();
-                try {
-                    unsubscribed.signalAll();
-                } finally {
-                    lock.unlock();
-                }
-            }
+        if (closed) {
+            return;
         }
+        closed = true;
+        engine.release(true);
     }
 
-
     /**
      * Все подписки, ключем выступает имя канала, в значении список слушателей.
      */
     public Map<ByteArrayWrapper, Set<BinaryJedisPubSubListener>> getSubscribes() {
-        lock.lock();
-        try {
-            Map<ByteArrayWrapper, Set<BinaryJedisPubSubListener>> copy = new HashMap<>();
-            subscribes.forEach((channel, listeners) -> copy.put(channel, new HashSet<>(listeners)));
-            return copy;
-        } finally {
-            lock.unlock();
-        }
+        return this.getListeners(false);
+    }
+
+    /**
+     * Все подписки по шаблонам, ключем выступает шаблон, в значении список слушателей.
+     */
+    public Map<ByteArrayWrapper, Set<BinaryJedisPubSubPatternListener>> getPatternSubscribes() {
+        return this.getListeners(true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <L> Map<ByteArrayWrapper, Set<L>> getListeners(boolean patterns) {
+        Map<ByteArrayWrapper, Set<L>> copy = new HashMap<>();
+        engine.getListeners(patterns, true, patterns ? BinaryJedisPubSubPatternListener.class : BinaryJedisPubSubListener.class).forEach((key, listeners) ->
+            copy.put(new ByteArrayWrapper(key.getBytes()), new HashSet<>((List<L>) listeners)));
+        return copy;
     }
 }
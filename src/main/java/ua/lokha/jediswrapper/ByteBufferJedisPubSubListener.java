@@ -0,0 +1,53 @@
+package ua.lokha.jediswrapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Интерфейс для обработки сообщений, которые приходят на прослушиваемый канал, без копирования.
+ *
+ * <p>В отличии от {@link BinaryJedisPubSubListener}, канал и сообщение передаются как {@link ByteBuffer}
+ * только для чтения поверх байтов, прочитанных из соединения. Все слушатели одного сообщения видят одни и те же
+ * байты, по этому буферы нельзя сохранять после вызова, если сообщение нужно позже, его надо скопировать.
+ *
+ * <p>Разбор сообщения (в строку или своим кодеком) выполняется в {@link java.util.concurrent.Executor} обертки,
+ * а не в потоке подписки, см. {@link #decoded(Function, BiConsumer)}.
+ */
+public interface ByteBufferJedisPubSubListener {
+
+    /**
+     * Вызывается, когда на канал приходит сообщение.
+     *
+     * @param channel канал, на который пришло сообщение, буфер только для чтения.
+     * @param message сообщение, буфер только для чтения.
+     */
+    void onMessage(ByteBuffer channel, ByteBuffer message) throws Exception;
+
+    /**
+     * Создать слушатель, который разбирает сообщение кодеком {@code codec} в потоке обработки сообщений.
+     *
+     * @param codec    разбор сообщения из буфера.
+     * @param listener обработка канала и разобранного сообщения.
+     */
+    static <T> ByteBufferJedisPubSubListener decoded(Function<ByteBuffer, T> codec, BiConsumer<String, T> listener) {
+        return (channel, message) -> listener.accept(decode(channel), codec.apply(message));
+    }
+
+    /**
+     * Перевести буфер в строку UTF-8, не меняя его позицию.
+     */
+    static String decode(ByteBuffer buffer) {
+        return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+    }
+
+    /**
+     * Скопировать оставшиеся байты буфера в новый массив, не меняя его позицию.
+     */
+    static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
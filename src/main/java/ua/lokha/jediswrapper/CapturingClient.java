@@ -0,0 +1,124 @@
+package ua.lokha.jediswrapper;
+
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+
+import java.util.function.Function;
+
+/**
+ * {@link Client}, который не отправляет команду, а только запоминает ее имя и аргументы.
+ * Так можно узнать, какую команду отправит вызов метода {@link Pipeline} или {@link Jedis},
+ * не дублируя разбор аргументов, который уже есть в Jedis.
+ */
+class CapturingClient extends Client {
+
+    /**
+     * Прерывает выполнение метода {@link Jedis} сразу после записи команды, чтобы он не ждал ответа.
+     */
+    private static final Captured captured = new Captured();
+
+    private final boolean abort;
+
+    private Protocol.Command command;
+    private byte[][] args;
+    private int count;
+
+    /**
+     * @param abort прерывать ли вызов сразу после записи первой команды. Нужно для {@link Jedis},
+     *              методы которого после отправки ждут ответ. Методы {@link Pipeline} ответ не ждут.
+     */
+    CapturingClient(boolean abort) {
+        this.abort = abort;
+    }
+
+    /**
+     * Записать команду, которую отправит {@code action}, вызванный на {@link Pipeline}.
+     */
+    static CapturingClient capturePipelined(Function<Pipeline, ?> action) {
+        CapturingClient client = new CapturingClient(false);
+        Pipeline pipeline = new Pipeline();
+        pipeline.setClient(client);
+        action.apply(pipeline);
+        return client;
+    }
+
+    /**
+     * Записать первую команду, которую отправит {@code action}, вызванный на {@link Jedis}.
+     */
+    static CapturingClient capture(Function<Jedis, ?> action) {
+        CapturingClient client = new CapturingClient(true);
+        try {
+            action.apply(new CapturingJedis(client));
+        } catch (RuntimeException e) {
+            if (e != captured) {
+                throw e;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Имя последней записанной команды или {@code null}, если команда не отправлялась.
+     */
+    Protocol.Command getCommand() {
+        return command;
+    }
+
+    /**
+     * Аргументы последней записанной команды.
+     */
+    byte[][] getArgs() {
+        return args;
+    }
+
+    /**
+     * Сколько команд было записано.
+     */
+    int getCount() {
+        return count;
+    }
+
+    @Override
+    protected Connection sendCommand(Protocol.Command cmd, byte[]... args) {
+        this.command = cmd;
+        this.args = args;
+        this.count++;
+        if (abort) {
+            throw captured;
+        }
+        return this;
+    }
+
+    @Override
+    public void connect() {
+        // не подключается
+    }
+
+    @Override
+    public void setTimeoutInfinite() {
+    }
+
+    @Override
+    public void rollbackTimeout() {
+    }
+
+    private static class CapturingJedis extends Jedis {
+        private CapturingJedis(CapturingClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * Исключение без стека и подавленных исключений, создается один раз.
+     */
+    private static class Captured extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private Captured() {
+            super("captured", null, false, false);
+        }
+    }
+}
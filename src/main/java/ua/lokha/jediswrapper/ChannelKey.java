@@ -0,0 +1,62 @@
+package ua.lokha.jediswrapper;
+
+import redis.clients.util.SafeEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Неизменяемое имя канала или шаблона в байтах для реестров подписок.
+ *
+ * <p>В отличии от {@link ByteArrayWrapper}, хеш считается один раз при создании, а массив байтов не копируется
+ * и не должен меняться после создания ключа.
+ */
+final class ChannelKey {
+    private final byte[] bytes;
+    private final int hash;
+
+    ChannelKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = hash(bytes);
+    }
+
+    /**
+     * Хеш массива байтов, такой же, как у ключа с этими байтами. Позволяет найти ключ в {@link ChannelMap},
+     * не создавая его.
+     */
+    static int hash(byte[] bytes) {
+        return Arrays.hashCode(bytes);
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Совпадает ли ключ с байтами {@code bytes}, хеш которых {@code hash}.
+     */
+    boolean matches(byte[] bytes, int hash) {
+        return this.hash == hash && Arrays.equals(this.bytes, bytes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ChannelKey)) {
+            return false;
+        }
+        ChannelKey other = (ChannelKey) o;
+        return this.matches(other.bytes, other.hash);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return SafeEncoder.encode(bytes);
+    }
+}
@@ -0,0 +1,203 @@
+package ua.lokha.jediswrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+/**
+ * Карта каналов с открытой адресацией для поиска слушателей в потоке подписки.
+ *
+ * <p>Поиск {@link #get(byte[], int)} идет прямо по байтам пришедшего сообщения: без создания ключа, без
+ * блокировок и без повторного подсчета хеша сохраненных ключей. Изменения карты синхронизированы между собой
+ * и происходят редко (подписка и отписка), при расширении таблица строится заново и публикуется целиком,
+ * по этому читающие потоки всегда видят целостную таблицу.
+ *
+ * @param <V> значение, должно быть неизменяемым или безопасно опубликованным.
+ */
+final class ChannelMap<V> {
+
+    /**
+     * Метка удаленной записи, на ней поиск не останавливается.
+     */
+    private static final Entry<?> removed = new Entry<>(null, null);
+
+    private volatile AtomicReferenceArray<Entry<V>> table = new AtomicReferenceArray<>(16);
+
+    /**
+     * Количество записей.
+     */
+    private volatile int size;
+
+    /**
+     * Количество занятых ячеек, включая удаленные записи.
+     */
+    private int used;
+
+    /**
+     * Найти значение по байтам канала.
+     *
+     * @param hash хеш {@link ChannelKey#hash(byte[])} этих байтов.
+     */
+    V get(byte[] bytes, int hash) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int mask = table.length() - 1;
+        for (int i = spread(hash) & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+            Entry<V> entry = table.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.key != null && entry.key.matches(bytes, hash)) {
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    V get(ChannelKey key) {
+        return this.get(key.getBytes(), key.hashCode());
+    }
+
+    /**
+     * @return предыдущее значение или {@code null}.
+     */
+    synchronized V put(ChannelKey key, V value) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int mask = table.length() - 1;
+        int free = -1;
+        int i = spread(key.hashCode()) & mask;
+        for (int n = 0; n <= mask; i = (i + 1) & mask, n++) {
+            Entry<V> entry = table.get(i);
+            if (entry == null) {
+                break;
+            }
+            if (entry == removed) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (entry.key.equals(key)) {
+                table.set(i, new Entry<>(entry.key, value));
+                return entry.value;
+            }
+        }
+        if (free >= 0) {
+            table.set(free, new Entry<>(key, value));
+        } else {
+            table.set(i, new Entry<>(key, value));
+            used++;
+        }
+        size++;
+        if (used * 4 >= table.length() * 3) {
+            this.rebuild(size * 4 >= table.length() ? table.length() * 2 : table.length());
+        }
+        return null;
+    }
+
+    /**
+     * Добавить значение, если ключа еще нет в карте.
+     *
+     * @return текущее значение, если ключ уже есть, иначе {@code null}.
+     */
+    synchronized V putIfAbsent(ChannelKey key, V value) {
+        V current = this.get(key);
+        if (current == null) {
+            this.put(key, value);
+        }
+        return current;
+    }
+
+    /**
+     * @return удаленное значение или {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized V remove(ChannelKey key) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        int mask = table.length() - 1;
+        for (int i = spread(key.hashCode()) & mask, n = 0; n <= mask; i = (i + 1) & mask, n++) {
+            Entry<V> entry = table.get(i);
+            if (entry == null) {
+                return null;
+            }
+            if (entry != removed && entry.key.equals(key)) {
+                table.set(i, (Entry<V>) removed);
+                size--;
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Снимок ключей карты.
+     */
+    List<ChannelKey> keys() {
+        List<ChannelKey> keys = new ArrayList<>(size);
+        this.forEach((key, value) -> keys.add(key));
+        return keys;
+    }
+
+    /**
+     * Снимок значений карты.
+     */
+    List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        this.forEach((key, value) -> values.add(value));
+        return values;
+    }
+
+    void forEach(BiConsumer<ChannelKey, V> action) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        for (int i = 0; i < table.length(); i++) {
+            Entry<V> entry = table.get(i);
+            if (entry != null && entry != removed) {
+                action.accept(entry.key, entry.value);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        table = new AtomicReferenceArray<>(16);
+        size = 0;
+        used = 0;
+    }
+
+    private void rebuild(int capacity) {
+        AtomicReferenceArray<Entry<V>> table = this.table;
+        AtomicReferenceArray<Entry<V>> rebuilt = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < table.length(); i++) {
+            Entry<V> entry = table.get(i);
+            if (entry != null && entry != removed) {
+                int j = spread(entry.key.hashCode()) & mask;
+                while (rebuilt.get(j) != null) {
+                    j = (j + 1) & mask;
+                }
+                rebuilt.set(j, entry);
+            }
+        }
+        used = size;
+        this.table = rebuilt;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Entry<V> {
+        private final ChannelKey key;
+        private final V value;
+
+        private Entry(ChannelKey key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
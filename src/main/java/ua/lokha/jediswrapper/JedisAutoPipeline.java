@@ -0,0 +1,284 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Lombok;
+import lombok.extern.java.Log;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.util.Pool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Автоматический pipeline. Команды, которые одновременно вызываются из разных потоков, складываются
+ * в общую очередь и отправляются пачками через {@link Pipeline} на общем соединении {@link Jedis}.
+ * Каждый вызывающий поток при этом получает свой собственный результат.
+ *
+ * <p>Пачка отправляется, когда в очереди набралось {@link #getMaxBatchSize()} команд, или когда с момента
+ * получения первой команды пачки прошло {@link #getFlushWindowMicros()} микросекунд. Пока одна пачка
+ * ожидает ответа от Redis, следующие команды копятся в очереди, по этому под нагрузкой пачки
+ * собираются сами собой даже без окна ожидания.
+ *
+ * <p>Внутри создается {@link #getConnections()} потоков, каждый из которых держит свое соединение {@link Jedis}.
+ * Если соединение оборвется, команды текущей пачки завершатся с ошибкой, а для следующей пачки
+ * будет взято новое соединение из пула.
+ *
+ * <p>Не стоит отправлять через автоматический pipeline блокирующие команды (например, {@code BLPOP})
+ * и команды, которые меняют состояние соединения (например, {@code WATCH}), поскольку соединение общее.
+ *
+ * <p>Этот объект является ресурсом. После завершения работы с ним, следует вызвать {@link #close()}.
+ */
+@Log
+public class JedisAutoPipeline implements AutoCloseable {
+
+    /**
+     * Пул, из которого берутся соединения для отправки пачек команд.
+     */
+    @Getter
+    private final Pool<Jedis> pool;
+
+    /**
+     * Количество соединений (и потоков), через которые параллельно отправляются пачки команд.
+     */
+    @Getter
+    private final int connections;
+
+    /**
+     * Максимальное количество команд в одной пачке.
+     */
+    @Getter
+    private final int maxBatchSize;
+
+    /**
+     * Сколько микросекунд ждать добора пачки, после того как в очередь пришла первая команда.
+     * Значение {@code 0} означает отправлять все, что уже накопилось в очереди, без ожидания.
+     */
+    @Getter
+    private final long flushWindowMicros;
+
+    /**
+     * Используется для пометки этого ресурса как закрытого.
+     */
+    @Getter
+    private volatile boolean closed = false;
+
+    private final BlockingQueue<PipelinedCommand<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread[] threads;
+
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder commandCount = new LongAdder();
+
+    /**
+     * Создание автоматического pipeline.
+     *
+     * @param pool              пул соединений с Redis.
+     * @param connections       количество соединений (и потоков), через которые параллельно отправляются пачки.
+     * @param maxBatchSize      максимальное количество команд в одной пачке.
+     * @param flushWindowMicros сколько микросекунд ждать добора пачки, {@code 0} - не ждать.
+     */
+    public JedisAutoPipeline(Pool<Jedis> pool, int connections, int maxBatchSize, long flushWindowMicros) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be positive: " + connections);
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive: " + maxBatchSize);
+        }
+        if (flushWindowMicros < 0) {
+            throw new IllegalArgumentException("flushWindowMicros must not be negative: " + flushWindowMicros);
+        }
+        this.pool = pool;
+        this.connections = connections;
+        this.maxBatchSize = maxBatchSize;
+        this.flushWindowMicros = flushWindowMicros;
+
+        threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            threads[i] = new Thread(this::run, this.getClass().getSimpleName() + " Thread " + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Поставить команду в очередь на отправку.
+     *
+     * @param action команда, которую нужно добавить в {@link Pipeline}.
+     * @return результат команды, который завершится после получения ответа от Redis.
+     */
+    public <T> CompletableFuture<T> submit(Function<Pipeline, Response<T>> action) {
+        this.checkForClosed();
+        PipelinedCommand<T> command = new PipelinedCommand<>(action);
+        queue.add(command);
+        if (closed && queue.remove(command)) {
+            // ресурс закрыли параллельно, потоки уже могли не увидеть эту команду
+            command.completeExceptionally(new IllegalStateException("this resource is closed"));
+        }
+        return command;
+    }
+
+    /**
+     * Поставить команду в очередь на отправку и дождаться ее результата.
+     *
+     * @param action команда, которую нужно добавить в {@link Pipeline}.
+     * @return результат команды.
+     */
+    public <T> T execute(Function<Pipeline, Response<T>> action) {
+        try {
+            return this.submit(action).join();
+        } catch (CompletionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        }
+    }
+
+    private void run() {
+        List<PipelinedCommand<?>> batch = new ArrayList<>(maxBatchSize);
+        long flushWindowNanos = TimeUnit.MICROSECONDS.toNanos(flushWindowMicros);
+        Jedis jedis = null;
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                if (flushWindowNanos > 0 && batch.size() < maxBatchSize) {
+                    LockSupport.parkNanos(flushWindowNanos);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                jedis = this.flush(jedis, batch);
+                batch.clear();
+            }
+        } catch (InterruptedException ignored) {
+            // закрытие ресурса
+        } finally {
+            IllegalStateException closedException = new IllegalStateException("this resource is closed");
+            batch.forEach(command -> command.completeExceptionally(closedException));
+            PipelinedCommand<?> command;
+            while ((command = queue.poll()) != null) {
+                command.completeExceptionally(closedException);
+            }
+            if (jedis != null) {
+                jedis.close();
+            }
+        }
+    }
+
+    /**
+     * Отправить пачку команд одним pipeline и раздать ответы.
+     *
+     * @return соединение, которое можно использовать для следующей пачки, или {@code null},
+     * если соединение оборвалось и для следующей пачки нужно взять новое.
+     */
+    private Jedis flush(Jedis jedis, List<PipelinedCommand<?>> batch) {
+        try {
+            if (jedis == null) {
+                jedis = pool.getResource();
+            }
+            Pipeline pipeline = jedis.pipelined();
+            for (PipelinedCommand<?> command : batch) {
+                command.apply(pipeline);
+            }
+            pipeline.sync();
+            flushCount.increment();
+            commandCount.add(batch.size());
+            for (PipelinedCommand<?> command : batch) {
+                command.completeResponse();
+            }
+            return jedis;
+        } catch (Exception e) {
+            for (PipelinedCommand<?> command : batch) {
+                command.completeExceptionally(e);
+            }
+            if (jedis != null) {
+                try {
+                    jedis.close(); // сломанное соединение не вернется в пул как рабочее
+                } catch (Exception ignored) {
+                }
+            }
+            log.severe("Ошибка отправки пачки из " + batch.size() + " команд: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Сколько пачек было отправлено.
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * Сколько команд было отправлено во всех пачках.
+     */
+    public long getCommandCount() {
+        return commandCount.sum();
+    }
+
+    /**
+     * Количество команд, которые ожидают отправки.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    private void checkForClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("this resource is closed");
+        }
+    }
+
+    /**
+     * Завершить работу автоматического pipeline. Потоки будут остановлены, соединения возвращены в пул,
+     * а команды, которые не успели отправиться, завершатся с ошибкой {@link IllegalStateException}.
+     *
+     * <p>Этот метод не будет освождать полученный через конструктор пул соединений {@link #getPool()}.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+    }
+
+    private static class PipelinedCommand<T> extends CompletableFuture<T> {
+        private final Function<Pipeline, Response<T>> action;
+        private Response<T> response;
+
+        private PipelinedCommand(Function<Pipeline, Response<T>> action) {
+            this.action = action;
+        }
+
+        private void apply(Pipeline pipeline) {
+            try {
+                response = action.apply(pipeline);
+            } catch (Exception e) {
+                // ошибка в аргументах команды, до отправки в соединение дело не дошло
+                this.completeExceptionally(e);
+            }
+        }
+
+        private void completeResponse() {
+            if (response == null) {
+                return;
+            }
+            try {
+                this.complete(response.get());
+            } catch (Exception e) {
+                this.completeExceptionally(e);
+            }
+        }
+    }
+}
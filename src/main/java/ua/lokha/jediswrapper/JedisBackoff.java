@@ -0,0 +1,71 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Экспоненциальная задержка между попытками восстановить соединение со случайным разбросом.
+ *
+ * <p>Задержка перед попыткой {@code n} равна {@code initialDelay * multiplier^(n - 1)}, но не больше
+ * {@code maxDelay}, после чего уменьшается на случайную долю до {@code jitter}. Разброс нужен, чтобы после
+ * перезапуска Redis все клиенты не переподключались в один и тот же момент.
+ *
+ * <p>Используется в {@link JedisPubSubWrapper#setBackoff(JedisBackoff)} и
+ * {@link BinaryJedisPubSubWrapper#setBackoff(JedisBackoff)}.
+ */
+@Getter
+public class JedisBackoff {
+
+    /**
+     * Задержка по умолчанию: от 100 мс, в 2 раза больше с каждой попыткой, до 5 секунд, разброс 50%.
+     */
+    public static final JedisBackoff DEFAULT = new JedisBackoff(100, 5_000, 2, 0.5);
+
+    /**
+     * Задержка перед первой повторной попыткой в миллисекундах.
+     */
+    private final long initialDelay;
+
+    /**
+     * Максимальная задержка в миллисекундах.
+     */
+    private final long maxDelay;
+
+    /**
+     * Во сколько раз увеличивается задержка с каждой попыткой.
+     */
+    private final double multiplier;
+
+    /**
+     * Доля задержки от 0 до 1, на которую она может быть случайно уменьшена.
+     */
+    private final double jitter;
+
+    /**
+     * @param initialDelay задержка перед первой повторной попыткой в миллисекундах.
+     * @param maxDelay     максимальная задержка в миллисекундах.
+     * @param multiplier   во сколько раз увеличивается задержка с каждой попыткой, не меньше 1.
+     * @param jitter       доля задержки от 0 до 1, на которую она может быть случайно уменьшена.
+     */
+    public JedisBackoff(long initialDelay, long maxDelay, double multiplier, double jitter) {
+        if (initialDelay < 0 || maxDelay < initialDelay || multiplier < 1 || jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("invalid backoff: initialDelay " + initialDelay + ", maxDelay " + maxDelay +
+                ", multiplier " + multiplier + ", jitter " + jitter);
+        }
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Задержка перед попыткой в миллисекундах.
+     *
+     * @param attempt номер повторной попытки, начиная с 1.
+     */
+    public long delay(int attempt) {
+        double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, Math.max(0, attempt - 1)));
+        return (long) (delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,73 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+
+/**
+ * Снимок статистики одной команды Redis, собранной {@link JedisMetrics}. Все времена в микросекундах.
+ */
+@Getter
+public class JedisCommandStats {
+
+    /**
+     * Имя команды, например {@code GET}.
+     */
+    private final String name;
+
+    /**
+     * Сколько раз команда была вызвана.
+     */
+    private final long calls;
+
+    /**
+     * Сколько вызовов завершились ошибкой.
+     */
+    private final long errors;
+
+    /**
+     * Среднее время выполнения команды без ожидания соединения из пула.
+     */
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+
+    /**
+     * Среднее время ожидания соединения из пула.
+     */
+    private final double borrowMeanMicros;
+    private final double borrowP99Micros;
+
+    /**
+     * Сколько байт аргументов было отправлено, если включен {@link JedisMetrics#setTrackPayload(boolean)}.
+     */
+    private final long bytesSent;
+
+    /**
+     * Примерный объем полученных ответов в байтах, если включен {@link JedisMetrics#setTrackPayload(boolean)}.
+     */
+    private final long bytesReceived;
+
+    JedisCommandStats(String name, long calls, long errors, LatencyHistogram latency, LatencyHistogram borrow,
+                      long bytesSent, long bytesReceived) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanMicros = latency.getMean() / 1000;
+        this.p50Micros = latency.getPercentile(50) / 1000.0;
+        this.p99Micros = latency.getPercentile(99) / 1000.0;
+        this.p999Micros = latency.getPercentile(99.9) / 1000.0;
+        this.maxMicros = latency.getMax() / 1000.0;
+        this.borrowMeanMicros = borrow.getMean() / 1000;
+        this.borrowP99Micros = borrow.getPercentile(99) / 1000.0;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+    }
+
+    @Override
+    public String toString() {
+        return name + " calls=" + calls + " errors=" + errors +
+            " p50=" + p50Micros + "us p99=" + p99Micros + "us p99.9=" + p999Micros + "us max=" + maxMicros + "us" +
+            " borrow=" + borrowMeanMicros + "us";
+    }
+}
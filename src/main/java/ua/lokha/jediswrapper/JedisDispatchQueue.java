@@ -0,0 +1,257 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * Ограниченная очередь между потоком подписки и обработчиком сообщений {@link java.util.concurrent.Executor}.
+ *
+ * <p>Поток подписки только кладет сообщение в кольцевой буфер и сразу возвращается к чтению соединения,
+ * а отдельный поток очереди передает сообщения слушателям в том же порядке. Если слушатели не успевают
+ * и буфер заполнен, поведение определяется {@link OverflowPolicy}: ждать (без потерь) или отбрасывать
+ * сообщения (ограниченная память, Redis не отключит клиента по {@code client-output-buffer-limit pubsub}).
+ *
+ * <p>Включается методом {@code enableDispatchQueue} в {@link JedisPubSubWrapper} и {@link BinaryJedisPubSubWrapper}.
+ *
+ * <p>Этот объект является ресурсом. После завершения работы с ним, следует вызвать {@link #close()}.
+ */
+@Log
+public class JedisDispatchQueue implements AutoCloseable {
+
+    /**
+     * Что делать с сообщением, если очередь заполнена.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Поток подписки ждет, пока в очереди освободится место. Сообщения не теряются, но пока поток ждет,
+         * сообщения накапливаются в буфере Redis.
+         */
+        BLOCK,
+        /**
+         * Отбросить пришедшее сообщение.
+         */
+        DROP_NEWEST,
+        /**
+         * Отбросить самое старое сообщение в очереди, чтобы положить пришедшее.
+         */
+        DROP_OLDEST,
+        /**
+         * Пока очередь заполнена, каждое {@link #getSampleRate()}-е сообщение заменяет самое старое в очереди,
+         * а остальные отбрасываются. Слушатели продолжают получать свежие сообщения, но реже.
+         */
+        SAMPLE
+    }
+
+    /**
+     * Максимальное количество сообщений в очереди.
+     */
+    @Getter
+    private final int capacity;
+
+    /**
+     * Что делать с сообщением, если очередь заполнена.
+     */
+    @Getter
+    private final OverflowPolicy policy;
+
+    /**
+     * Для {@link OverflowPolicy#SAMPLE}: какое по счету сообщение при заполненной очереди будет принято.
+     */
+    @Getter
+    private final int sampleRate;
+
+    /**
+     * Используется для пометки этого ресурса как закрытого.
+     */
+    @Getter
+    private volatile boolean closed;
+
+    private final Runnable[] ring;
+    private int head;
+    private int size;
+    private long overflowCount;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    private final Thread thread;
+
+    /**
+     * Работает так же, как и {@link #JedisDispatchQueue(int, OverflowPolicy, int)}.
+     * <p>Для параметра {@code sampleRate} задается значение по умолчанию {@code 10}.
+     */
+    public JedisDispatchQueue(int capacity, OverflowPolicy policy) {
+        this(capacity, policy, 10);
+    }
+
+    /**
+     * @param capacity   максимальное количество сообщений в очереди.
+     * @param policy     что делать с сообщением, если очередь заполнена.
+     * @param sampleRate для {@link OverflowPolicy#SAMPLE}: какое по счету сообщение при заполненной очереди
+     *                   будет принято.
+     */
+    public JedisDispatchQueue(int capacity, OverflowPolicy policy, int sampleRate) {
+        if (capacity < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("capacity and sampleRate must be positive");
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+        this.sampleRate = sampleRate;
+        this.ring = new Runnable[capacity];
+
+        thread = new Thread(this::drain, this.getClass().getSimpleName() + " Thread");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Положить доставку сообщения в очередь.
+     *
+     * @param delivery доставка сообщения слушателям, выполняется в потоке очереди.
+     * @return true, если сообщение принято, false, если оно отброшено по {@link #getPolicy()}.
+     */
+    public boolean offer(Runnable delivery) {
+        offered.increment();
+        lock.lock();
+        try {
+            if (closed) {
+                dropped.increment();
+                return false;
+            }
+            if (size == capacity) {
+                switch (policy) {
+                    case BLOCK:
+                        long start = System.nanoTime();
+                        try {
+                            while (size == capacity && !closed) {
+                                notFull.awaitUninterruptibly();
+                            }
+                        } finally {
+                            blockedNanos.add(System.nanoTime() - start);
+                        }
+                        if (closed) {
+                            dropped.increment();
+                            return false;
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        dropped.increment();
+                        return false;
+                    case SAMPLE:
+                        if (++overflowCount % sampleRate != 0) {
+                            dropped.increment();
+                            return false;
+                        }
+                        this.dropOldest(); // принятое сообщение заменяет самое старое
+                        break;
+                    case DROP_OLDEST:
+                        this.dropOldest();
+                        break;
+                }
+            }
+            ring[(head + size) % capacity] = delivery;
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отбросить самое старое сообщение очереди, чтобы освободить место. Вызывается под блокировкой.
+     */
+    private void dropOldest() {
+        ring[head] = null;
+        head = (head + 1) % capacity;
+        size--;
+        dropped.increment();
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable delivery;
+            lock.lock();
+            try {
+                while (size == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    notEmpty.awaitUninterruptibly();
+                }
+                delivery = ring[head];
+                ring[head] = null;
+                head = (head + 1) % capacity;
+                size--;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                delivery.run();
+            } catch (Throwable e) {
+                log.log(Level.SEVERE, "Ошибка доставки сообщения в " + this.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    /**
+     * Количество сообщений, которые сейчас ждут в очереди.
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Количество сообщений, пришедших в очередь, включая отброшенные.
+     */
+    public long getOffered() {
+        return offered.sum();
+    }
+
+    /**
+     * Количество отброшенных сообщений.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Сколько наносекунд поток подписки суммарно ждал места в очереди при {@link OverflowPolicy#BLOCK}.
+     */
+    public long getBlockedNanos() {
+        return blockedNanos.sum();
+    }
+
+    /**
+     * Завершить работу очереди. Сообщения, которые уже в очереди, будут доставлены, а новые будут отброшены.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ua.lokha.jediswrapper;
+
+/**
+ * Перехватчик команд {@link JedisWrapper}. Через перехватчики можно добавить замеры времени, повторы,
+ * маршрутизацию или кеширование ко всем командам сразу, не меняя сами методы {@link JedisWrapper}.
+ *
+ * <p>Перехватчики добавляются методом {@link JedisWrapper#addInterceptor(JedisInterceptor)} и вызываются
+ * по цепочке в порядке добавления. Пока не добавлено ни одного перехватчика, {@link JedisInvocation}
+ * не создается и команда выполняется сразу.
+ *
+ * <p>Через перехватчики проходят и чтения из локального кеша {@link JedisWrapper#enableNearCache(int, long)},
+ * которые не обращаются к Redis.
+ *
+ * <p>Пример перехватчика, который замеряет время выполнения команд:
+ * <pre>
+ *     wrapper.addInterceptor(new JedisInterceptor() {
+ *         &#64;Override
+ *         public &lt;T&gt; T intercept(JedisInvocation&lt;T&gt; invocation) {
+ *             long start = System.nanoTime();
+ *             try {
+ *                 return invocation.proceed();
+ *             } finally {
+ *                 record(invocation.getName(), System.nanoTime() - start);
+ *             }
+ *         }
+ *     });
+ * </pre>
+ */
+public interface JedisInterceptor {
+
+    /**
+     * Вызывается при выполнении каждой команды.
+     *
+     * @param invocation выполняемая команда. Чтобы передать выполнение дальше по цепочке,
+     *                   нужно вызвать {@link JedisInvocation#proceed()}.
+     * @return результат команды.
+     */
+    <T> T intercept(JedisInvocation<T> invocation);
+}
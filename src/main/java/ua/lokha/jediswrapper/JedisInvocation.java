@@ -0,0 +1,345 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Команда {@link JedisWrapper}, которая проходит через цепочку перехватчиков {@link JedisInterceptor}.
+ *
+ * <p>Имя команды и аргументы определяются лениво, при первом обращении к {@link #getCommand()},
+ * {@link #getArgs()} или {@link #getKeys()}, по этому перехватчик, которому они не нужны, за них не платит.
+ * Имя команды запоминается для каждого метода {@link JedisWrapper}, по этому повторные вызовы
+ * {@link #getCommand()} и {@link #getName()} ничего не создают.
+ *
+ * <p>Не потокобезопасен, используется только в потоке, который вызвал команду.
+ */
+public class JedisInvocation<T> {
+
+    private static final byte[][] noArgs = new byte[0][];
+
+    /**
+     * Команды по классу лямбды. Каждая лямбда в {@link JedisWrapper} всегда отправляет одну и ту же команду.
+     */
+    private static final Map<Class<?>, Protocol.Command> commands = new ConcurrentHashMap<>();
+
+    /**
+     * Обертка, в которой выполняется команда.
+     */
+    @Getter
+    private final JedisWrapper wrapper;
+
+    private JedisInterceptor[] interceptors;
+    private Function<Jedis, T> action;
+    private Function<Pipeline, Response<T>> pipelinedAction;
+
+    /**
+     * Выполнение команды без обращения к {@link JedisWrapper#executeDirect}, например чтение из локального кеша
+     * {@link JedisNearCache}, или {@code null}.
+     */
+    private Supplier<T> local;
+
+    private int index;
+    private CapturingClient captured;
+    private long borrowNanos;
+
+    JedisInvocation(JedisWrapper wrapper, JedisInterceptor[] interceptors,
+                    Function<Jedis, T> action, Function<Pipeline, Response<T>> pipelinedAction, Supplier<T> local) {
+        this.wrapper = wrapper;
+        this.interceptors = interceptors;
+        this.action = action;
+        this.pipelinedAction = pipelinedAction;
+        this.local = local;
+    }
+
+    /**
+     * Подготовить объект к выполнению новой команды, см. {@link JedisWrapper#execute}.
+     */
+    void reset(JedisInterceptor[] interceptors, Function<Jedis, T> action,
+               Function<Pipeline, Response<T>> pipelinedAction, Supplier<T> local) {
+        this.interceptors = interceptors;
+        this.action = action;
+        this.pipelinedAction = pipelinedAction;
+        this.local = local;
+        this.index = 0;
+        this.captured = null;
+        this.borrowNanos = 0;
+    }
+
+    /**
+     * Команда выполнена, объект можно использовать для следующей команды.
+     */
+    void release() {
+        this.reset(null, null, null, null);
+    }
+
+    /**
+     * Выполняется ли сейчас команда этим объектом.
+     */
+    boolean isActive() {
+        return action != null;
+    }
+
+    /**
+     * Передать выполнение следующему перехватчику, а если перехватчиков больше нет, то выполнить команду.
+     * Можно вызывать несколько раз, например, чтобы повторить команду после ошибки.
+     *
+     * <p>Команды {@code GET}, {@code HGET} и {@code HGETALL} при включенном локальном кеше
+     * {@link JedisWrapper#enableNearCache(int, long)} читаются из кеша, и в Redis идут только при промахе.
+     *
+     * @return результат команды.
+     */
+    public T proceed() {
+        int current = index;
+        if (current == interceptors.length) {
+            return local != null ? local.get() : wrapper.executeDirect(action, pipelinedAction, this);
+        }
+        index = current + 1;
+        try {
+            return interceptors[current].intercept(this);
+        } finally {
+            index = current;
+        }
+    }
+
+    /**
+     * Выполнить команду в указанном соединении, минуя оставшиеся перехватчики, автоматический pipeline и пул
+     * {@link JedisWrapper#getPool()}. Например, чтобы отправить команду на другой сервер.
+     *
+     * @param jedis соединение, в котором нужно выполнить команду. Не освобождается этим методом.
+     * @return результат команды.
+     */
+    public T apply(Jedis jedis) {
+        return action.apply(jedis);
+    }
+
+    /**
+     * Можно ли отправить эту команду через {@link Pipeline}. Блокирующие команды, {@code WATCH}, {@code SCAN}
+     * и команды без аналога в {@link Pipeline} выполняются только в отдельном соединении.
+     */
+    public boolean isPipelinable() {
+        return pipelinedAction != null;
+    }
+
+    /**
+     * Команда Redis, например {@link Protocol.Command#GET}.
+     */
+    public Protocol.Command getCommand() {
+        Class<?> type = pipelinedAction != null ? pipelinedAction.getClass() : action.getClass();
+        Protocol.Command command = commands.get(type);
+        if (command == null) {
+            command = this.captured().getCommand();
+            if (command != null) {
+                commands.put(type, command);
+            }
+        }
+        return command;
+    }
+
+    /**
+     * Команда Redis, которую отправляет лямбда. Определяется по классу лямбды, а при первом вызове
+     * лямбда выполняется на {@link CapturingClient}, по этому повторные вызовы ничего не создают.
+     */
+    static Protocol.Command commandOf(Function<Jedis, ?> action, Function<Pipeline, ?> pipelinedAction) {
+        Class<?> type = pipelinedAction != null ? pipelinedAction.getClass() : action.getClass();
+        Protocol.Command command = commands.get(type);
+        if (command == null) {
+            command = (pipelinedAction != null
+                ? CapturingClient.capturePipelined(pipelinedAction)
+                : CapturingClient.capture(action)).getCommand();
+            if (command != null) {
+                commands.put(type, command);
+            }
+        }
+        return command;
+    }
+
+    /**
+     * Имя команды Redis, например {@code GET}.
+     */
+    public String getName() {
+        Protocol.Command command = this.getCommand();
+        return command == null ? "UNKNOWN" : command.name();
+    }
+
+    /**
+     * Аргументы команды в том виде, в котором они отправляются в Redis, без имени команды.
+     */
+    public byte[][] getArgs() {
+        byte[][] args = this.captured().getArgs();
+        return args == null ? noArgs : args;
+    }
+
+    /**
+     * Ключи, с которыми работает команда. Для большинства команд это первый аргумент, для команд с несколькими
+     * ключами ({@code MGET}, {@code DEL}, {@code MSET}, {@code EVAL} и т.д.) ключи выбираются по правилам
+     * этих команд, а у команд без ключей ({@code PING}, {@code KEYS}, {@code SCAN} и т.д.) ключей нет.
+     */
+    public byte[][] getKeys() {
+        Protocol.Command command = this.getCommand();
+        byte[][] args = this.getArgs();
+        if (command == null || args.length == 0) {
+            return noArgs;
+        }
+        switch (command) {
+            case PING:
+            case ECHO:
+            case INFO:
+            case KEYS:
+            case SCAN:
+            case RANDOMKEY:
+            case DBSIZE:
+            case FLUSHDB:
+            case FLUSHALL:
+            case PUBLISH:
+            case PUBSUB:
+            case UNWATCH:
+            case TIME:
+            case CONFIG:
+            case CLIENT:
+            case SCRIPT:
+            case SLOWLOG:
+            case WAIT:
+                return noArgs;
+            case MGET:
+            case DEL:
+            case UNLINK:
+            case EXISTS:
+            case TOUCH:
+            case WATCH:
+            case RENAME:
+            case RENAMENX:
+            case RPOPLPUSH:
+            case SINTER:
+            case SINTERSTORE:
+            case SUNION:
+            case SUNIONSTORE:
+            case SDIFF:
+            case SDIFFSTORE:
+            case PFCOUNT:
+            case PFMERGE:
+                return args;
+            case SMOVE:
+                return Arrays.copyOf(args, 2); // последний аргумент - элемент множества
+            case BLPOP:
+            case BRPOP:
+            case BRPOPLPUSH:
+                return Arrays.copyOf(args, args.length - 1); // последний аргумент - таймаут
+            case MSET:
+            case MSETNX: {
+                byte[][] keys = new byte[args.length / 2][];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = args[i * 2];
+                }
+                return keys;
+            }
+            case EVAL:
+            case EVALSHA:
+                return Arrays.copyOfRange(args, 2, 2 + Integer.parseInt(new String(args[1])));
+            case ZUNIONSTORE:
+            case ZINTERSTORE: {
+                int count = Integer.parseInt(new String(args[1]));
+                byte[][] keys = new byte[count + 1][];
+                keys[0] = args[0];
+                System.arraycopy(args, 2, keys, 1, count);
+                return keys;
+            }
+            case BITOP:
+                return Arrays.copyOfRange(args, 1, args.length);
+            case OBJECT:
+                // первый аргумент - подкоманда: OBJECT ENCODING key, у OBJECT HELP ключа нет
+                return args.length > 1 ? new byte[][]{args[1]} : noArgs;
+            case DEBUG:
+                // ключ есть только у DEBUG OBJECT key
+                return args.length > 1 && isKeyword(args[0], "OBJECT") ? new byte[][]{args[1]} : noArgs;
+            case SORT:
+                return sortKeys(args);
+            case MIGRATE:
+                return migrateKeys(args);
+            default:
+                return new byte[][]{args[0]};
+        }
+    }
+
+    /**
+     * Ключи {@code SORT key [BY pattern] [LIMIT offset count] [GET pattern ...] [ASC|DESC] [ALPHA] [STORE destination]}.
+     */
+    private static byte[][] sortKeys(byte[][] args) {
+        for (int i = 1; i < args.length - 1; i++) {
+            if (isKeyword(args[i], "BY") || isKeyword(args[i], "GET")) {
+                i++; // шаблон может совпасть с ключевым словом
+            } else if (isKeyword(args[i], "LIMIT")) {
+                i += 2;
+            } else if (isKeyword(args[i], "STORE")) {
+                return new byte[][]{args[0], args[i + 1]};
+            }
+        }
+        return new byte[][]{args[0]};
+    }
+
+    /**
+     * Ключи {@code MIGRATE host port key|"" db timeout [COPY] [REPLACE] [AUTH password] [KEYS key ...]}.
+     */
+    private static byte[][] migrateKeys(byte[][] args) {
+        if (args.length < 3) {
+            return noArgs;
+        }
+        if (args[2].length > 0) {
+            return new byte[][]{args[2]};
+        }
+        for (int i = 5; i < args.length; i++) {
+            if (isKeyword(args[i], "AUTH")) {
+                i++;
+            } else if (isKeyword(args[i], "AUTH2")) {
+                i += 2;
+            } else if (isKeyword(args[i], "KEYS")) {
+                return Arrays.copyOfRange(args, i + 1, args.length);
+            }
+        }
+        return noArgs;
+    }
+
+    /**
+     * Совпадает ли аргумент с ключевым словом без учета регистра, Jedis отправляет их в нижнем регистре.
+     */
+    private static boolean isKeyword(byte[] arg, String keyword) {
+        if (arg.length != keyword.length()) {
+            return false;
+        }
+        for (int i = 0; i < arg.length; i++) {
+            if (Character.toUpperCase((char) arg[i]) != keyword.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Сколько наносекунд команда ждала свободное соединение из пула {@link JedisWrapper#getPool()}.
+     * Равно {@code 0}, если команда отправлялась через автоматический pipeline или неблокирующий транспорт.
+     */
+    public long getBorrowNanos() {
+        return borrowNanos;
+    }
+
+    void borrowed(long nanos) {
+        borrowNanos += nanos;
+    }
+
+    private CapturingClient captured() {
+        if (captured == null) {
+            captured = pipelinedAction != null
+                ? CapturingClient.capturePipelined(pipelinedAction)
+                : CapturingClient.capture(action);
+        }
+        return captured;
+    }
+}
@@ -0,0 +1,236 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Lombok;
+import lombok.Setter;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Tuple;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика команд {@link JedisWrapper}: количество вызовов и ошибок, гистограммы задержек (p50/p99/p99.9)
+ * по каждой команде Redis, время ожидания соединения из пула отдельно от времени выполнения команды,
+ * и, по желанию, объем отправленных и полученных данных.
+ *
+ * <p>Подключается как перехватчик методом {@link JedisWrapper#enableMetrics()} или
+ * {@link JedisWrapper#addInterceptor(JedisInterceptor)}. Запись статистики не берет блокировок,
+ * счетчики и корзины гистограмм распределены по {@link LongAdder}. Если статистика включена методом
+ * {@link JedisWrapper#enableMetrics()} и других перехватчиков нет, то команда выполняется через объект
+ * {@link JedisInvocation}, который используется потоком повторно, и сбор статистики не создает своих объектов.
+ * С другими перехватчиками объект {@link JedisInvocation} создается на каждый вызов.
+ *
+ * <p>Статистику можно получить снимком {@link #getCommands()} или через JMX, зарегистрировав
+ * {@link #registerMBean(String)}.
+ */
+public class JedisMetrics implements JedisInterceptor, JedisMetricsMXBean {
+
+    private final AtomicReferenceArray<CommandMetrics> commands =
+        new AtomicReferenceArray<>(Protocol.Command.values().length + 1);
+
+    /**
+     * Считать ли объем отправленных и полученных данных. Для этого нужно разбирать аргументы каждой команды,
+     * что создает объекты на каждый вызов, по этому по умолчанию выключено.
+     */
+    @Getter
+    @Setter
+    private volatile boolean trackPayload = false;
+
+    /**
+     * Имя, под которым статистика зарегистрирована в JMX, или {@code null}.
+     */
+    @Getter
+    private volatile ObjectName objectName;
+
+    @Override
+    public <T> T intercept(JedisInvocation<T> invocation) {
+        Protocol.Command command = invocation.getCommand();
+        CommandMetrics metrics = this.metrics(command);
+        if (trackPayload) {
+            long bytes = command == null ? 0 : command.raw.length;
+            for (byte[] arg : invocation.getArgs()) {
+                bytes += arg.length;
+            }
+            metrics.bytesSent.add(bytes);
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = invocation.proceed();
+            success = true;
+            if (trackPayload) {
+                metrics.bytesReceived.add(sizeOf(result));
+            }
+            return result;
+        } finally {
+            long borrow = invocation.getBorrowNanos();
+            metrics.latency.record(System.nanoTime() - start - borrow);
+            metrics.borrow.record(borrow);
+            metrics.calls.increment();
+            if (!success) {
+                metrics.errors.increment();
+            }
+        }
+    }
+
+    private CommandMetrics metrics(Protocol.Command command) {
+        int index = command == null ? commands.length() - 1 : command.ordinal();
+        CommandMetrics metrics = commands.get(index);
+        if (metrics == null) {
+            commands.compareAndSet(index, null, new CommandMetrics(command == null ? "UNKNOWN" : command.name()));
+            metrics = commands.get(index);
+        }
+        return metrics;
+    }
+
+    /**
+     * Снимок статистики по каждой вызванной команде, ключем выступает имя команды.
+     */
+    @Override
+    public Map<String, JedisCommandStats> getCommands() {
+        Map<String, JedisCommandStats> snapshot = new TreeMap<>();
+        for (int i = 0; i < commands.length(); i++) {
+            CommandMetrics metrics = commands.get(i);
+            if (metrics != null) {
+                snapshot.put(metrics.name, metrics.snapshot());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Снимок статистики указанной команды или {@code null}, если команда не вызывалась.
+     */
+    public JedisCommandStats getCommand(Protocol.Command command) {
+        CommandMetrics metrics = commands.get(command.ordinal());
+        return metrics == null ? null : metrics.snapshot();
+    }
+
+    @Override
+    public long getCalls() {
+        long calls = 0;
+        for (int i = 0; i < commands.length(); i++) {
+            CommandMetrics metrics = commands.get(i);
+            if (metrics != null) {
+                calls += metrics.calls.sum();
+            }
+        }
+        return calls;
+    }
+
+    @Override
+    public long getErrors() {
+        long errors = 0;
+        for (int i = 0; i < commands.length(); i++) {
+            CommandMetrics metrics = commands.get(i);
+            if (metrics != null) {
+                errors += metrics.errors.sum();
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Зарегистрировать статистику в JMX как {@code ua.lokha.jediswrapper:type=JedisMetrics,name=<name>}.
+     *
+     * @param name имя, которое отличает эту статистику от статистики других {@link JedisWrapper}.
+     * @return имя, под которым статистика зарегистрирована.
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName("ua.lokha.jediswrapper:type=JedisMetrics,name=" +
+                ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return objectName;
+        } catch (Exception e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Отменить регистрацию в JMX, сделанную методом {@link #registerMBean(String)}.
+     * Если статистика не зарегистрирована, ничего не произойдет.
+     */
+    public void unregisterMBean() {
+        ObjectName objectName = this.objectName;
+        if (objectName == null) {
+            return;
+        }
+        this.objectName = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (Exception e) {
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Примерный объем ответа в байтах.
+     */
+    static long sizeOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof Number) {
+            return 8;
+        }
+        if (value instanceof Collection) {
+            long size = 0;
+            for (Object element : (Collection<?>) value) {
+                size += sizeOf(element);
+            }
+            return size;
+        }
+        if (value instanceof Map) {
+            long size = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += sizeOf(entry);
+            }
+            return size;
+        }
+        if (value instanceof Map.Entry) {
+            return sizeOf(((Map.Entry<?, ?>) value).getKey()) + sizeOf(((Map.Entry<?, ?>) value).getValue());
+        }
+        if (value instanceof Tuple) {
+            return ((Tuple) value).getBinaryElement().length + 8;
+        }
+        if (value instanceof ScanResult) {
+            return ((ScanResult<?>) value).getCursorAsBytes().length + sizeOf(((ScanResult<?>) value).getResult());
+        }
+        return 0;
+    }
+
+    private static class CommandMetrics {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram borrow = new LatencyHistogram();
+
+        private CommandMetrics(String name) {
+            this.name = name;
+        }
+
+        private JedisCommandStats snapshot() {
+            return new JedisCommandStats(name, calls.sum(), errors.sum(), latency, borrow,
+                bytesSent.sum(), bytesReceived.sum());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package ua.lokha.jediswrapper;
+
+import java.util.Map;
+
+/**
+ * JMX интерфейс для {@link JedisMetrics}.
+ */
+public interface JedisMetricsMXBean {
+
+    /**
+     * Статистика по каждой вызванной команде, ключем выступает имя команды.
+     */
+    Map<String, JedisCommandStats> getCommands();
+
+    /**
+     * Сколько всего команд было вызвано.
+     */
+    long getCalls();
+
+    /**
+     * Сколько всего команд завершились ошибкой.
+     */
+    long getErrors();
+}
@@ -0,0 +1,443 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Локальный кеш для команд чтения {@code GET}, {@code HGET} и {@code HGETALL}. Попадание в кеш не ходит в сеть,
+ * не берет блокировок и не создает объектов.
+ *
+ * <p>Кеш сбрасывается по уведомлениям Redis об изменении ключей (keyspace notifications), которые приходят
+ * через общую подписку {@link JedisPubSubWrapper} на каналы {@code __keyevent@<db>__:<event>}.
+ * Для этого на Redis должны быть включены уведомления, например:
+ * <pre>
+ *     CONFIG SET notify-keyspace-events Eg$hxe
+ * </pre>
+ * Команды {@code FLUSHDB} и {@code FLUSHALL} уведомлений не отправляют, после них кеш следует очистить
+ * вручную методом {@link #clear()}.
+ *
+ * <p>Уведомления приходят асинхронно, по этому запись через другое соединение станет видна в кеше
+ * спустя время доставки уведомления. Пока подписка оборвана, кеш не используется, а после
+ * повторной подписки полностью очищается, поскольку уведомления за это время могли быть потеряны.
+ *
+ * <p>Размер кеша ограничен количеством ключей и примерным объемом значений в байтах. Вытеснение работает
+ * по алгоритму CLOCK, который приближает LRU и не требует блокировок при чтении.
+ *
+ * <p>Карта, которую возвращает {@link #hgetAll(String)}, неизменяемая.
+ *
+ * <p>Этот объект является ресурсом. После завершения работы с ним, следует вызвать {@link #close()}.
+ */
+@Log
+public class JedisNearCache implements AutoCloseable {
+
+    /**
+     * Значение ключа еще не загружено.
+     */
+    private static final Object NOT_LOADED = new Object();
+
+    /**
+     * Ключ отсутствует в Redis (nil).
+     */
+    private static final Object NIL = new Object();
+
+    /**
+     * События, после которых значение строки или хеш-таблицы могло измениться. {@code setbit} отправляют
+     * {@code SETBIT} и {@code BITFIELD}, {@code pfadd} отправляют {@code PFADD} и {@code PFMERGE}
+     * (значение HyperLogLog это строка), {@code copy_to} и {@code sortstore} перезаписывают ключ назначения.
+     */
+    private static final String[] events = {
+        "set", "setrange", "append", "incrby", "incrbyfloat", "setbit", "pfadd",
+        "del", "expired", "evicted", "rename_from", "rename_to", "move_from", "move_to", "restore",
+        "copy_to", "sortstore",
+        "hset", "hincrby", "hincrbyfloat", "hdel", "hexpired"
+    };
+
+    /**
+     * Максимальное количество ключей в кеше.
+     */
+    @Getter
+    private final int maxEntries;
+
+    /**
+     * Примерный максимальный объем значений в кеше, в байтах.
+     */
+    @Getter
+    private final long maxBytes;
+
+    /**
+     * Подписка, через которую приходят уведомления об изменении ключей.
+     */
+    @Getter
+    private final JedisPubSubWrapper pubSubWrapper;
+
+    private final Function<String, String> getLoader;
+    private final BiFunction<String, String, String> hgetLoader;
+    private final Function<String, Map<String, String>> hgetAllLoader;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Очередь для вытеснения по алгоритму CLOCK.
+     */
+    private final Queue<Entry> clock = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger clockSize = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final JedisPubSubListener invalidationListener = (channel, key) -> this.invalidate(key);
+    private volatile int resubscribeCount;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Используется для пометки этого ресурса как закрытого.
+     */
+    @Getter
+    private volatile boolean closed = false;
+
+    /**
+     * Создание кеша. В конструкторе выполняется подписка на уведомления об изменении ключей.
+     *
+     * @param pubSubWrapper подписка, через которую будут приходить уведомления.
+     * @param database      номер базы, уведомления которой нужно слушать.
+     * @param maxEntries    максимальное количество ключей в кеше.
+     * @param maxBytes      примерный максимальный объем значений в кеше, в байтах.
+     * @param getLoader     загрузка значения {@code GET} из Redis при промахе.
+     * @param hgetLoader    загрузка значения {@code HGET} из Redis при промахе.
+     * @param hgetAllLoader загрузка значения {@code HGETALL} из Redis при промахе.
+     */
+    public JedisNearCache(JedisPubSubWrapper pubSubWrapper, int database, int maxEntries, long maxBytes,
+                          Function<String, String> getLoader,
+                          BiFunction<String, String, String> hgetLoader,
+                          Function<String, Map<String, String>> hgetAllLoader) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        this.pubSubWrapper = pubSubWrapper;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.getLoader = getLoader;
+        this.hgetLoader = hgetLoader;
+        this.hgetAllLoader = hgetAllLoader;
+
+        for (String event : events) {
+            pubSubWrapper.subscribe(invalidationListener, "__keyevent@" + database + "__:" + event);
+        }
+        resubscribeCount = pubSubWrapper.getResubscribeCount();
+    }
+
+    /**
+     * Значение строки по ключу, как {@code GET}.
+     */
+    public String get(String key) {
+        if (!this.isActive()) {
+            return getLoader.apply(key);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            Object value = entry.value;
+            if (value != NOT_LOADED) {
+                this.hit(entry);
+                return value == NIL ? null : (String) value;
+            }
+        } else {
+            entry = this.reserve(key);
+        }
+        misses.increment();
+        String value = getLoader.apply(key);
+        if (entries.get(key) == entry) { // если ключ успели изменить, то значение уже могло устареть
+            entry.value = value == null ? NIL : value;
+            this.added(entry, value == null ? 0 : value.length());
+        }
+        return value;
+    }
+
+    /**
+     * Значение поля хеш-таблицы, как {@code HGET}.
+     */
+    public String hget(String key, String field) {
+        if (!this.isActive()) {
+            return hgetLoader.apply(key, field);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            Map<String, String> all = entry.all;
+            if (all != null) {
+                this.hit(entry);
+                return all.get(field);
+            }
+            ConcurrentHashMap<String, Object> fields = entry.fields;
+            Object value = fields == null ? null : fields.get(field);
+            if (value != null) {
+                this.hit(entry);
+                return value == NIL ? null : (String) value;
+            }
+        } else {
+            entry = this.reserve(key);
+        }
+        misses.increment();
+        String value = hgetLoader.apply(key, field);
+        if (entries.get(key) == entry) {
+            entry.fields().put(field, value == null ? NIL : value);
+            this.added(entry, field.length() + (value == null ? 0 : value.length()));
+        }
+        return value;
+    }
+
+    /**
+     * Все поля хеш-таблицы, как {@code HGETALL}. Возвращаемая карта неизменяемая.
+     */
+    public Map<String, String> hgetAll(String key) {
+        if (!this.isActive()) {
+            return hgetAllLoader.apply(key);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            Map<String, String> all = entry.all;
+            if (all != null) {
+                this.hit(entry);
+                return all;
+            }
+        } else {
+            entry = this.reserve(key);
+        }
+        misses.increment();
+        Map<String, String> all = Collections.unmodifiableMap(hgetAllLoader.apply(key));
+        if (entries.get(key) == entry) {
+            entry.all = all;
+            int size = 0;
+            for (Map.Entry<String, String> field : all.entrySet()) {
+                size += field.getKey().length() + field.getValue().length();
+            }
+            this.added(entry, size);
+        }
+        return all;
+    }
+
+    /**
+     * Удалить ключ из кеша.
+     */
+    public void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            bytes.addAndGet(-entry.bytes.get());
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Очистить весь кеш.
+     */
+    public void clear() {
+        for (Entry entry : entries.values()) {
+            if (entries.remove(entry.key, entry)) {
+                bytes.addAndGet(-entry.bytes.get());
+            }
+        }
+    }
+
+    /**
+     * Можно ли сейчас пользоваться кешем. Если подписка была создана заново, то уведомления
+     * могли быть потеряны, в таком случае кеш очищается.
+     *
+     * <p>{@link JedisPubSubWrapper#isSubscribed()} снова становится {@code true} только после того, как Redis
+     * подтвердил подписку на все каналы уведомлений, а счетчик повторных подписок к этому моменту уже увеличен,
+     * по этому значение, загруженное до этого момента, в кеше не останется.
+     */
+    private boolean isActive() {
+        if (closed) {
+            return false;
+        }
+        if (!pubSubWrapper.isSubscribed()) {
+            return false;
+        }
+        int current = pubSubWrapper.getResubscribeCount();
+        if (current != resubscribeCount) {
+            resubscribeCount = current;
+            this.clear();
+            log.info("Кеш очищен после повторной подписки на уведомления.");
+        }
+        return true;
+    }
+
+    private void hit(Entry entry) {
+        if (!entry.accessed) {
+            entry.accessed = true;
+        }
+        hits.increment();
+    }
+
+    private Entry reserve(String key) {
+        Entry created = new Entry(key);
+        Entry previous = entries.putIfAbsent(key, created);
+        if (previous != null) {
+            return previous;
+        }
+        clock.add(created);
+        clockSize.incrementAndGet();
+        this.evictIfNeeded();
+        return created;
+    }
+
+    /**
+     * Учесть объем загруженного значения. Учет идет внутри {@link ConcurrentHashMap#computeIfPresent},
+     * по этому не пересекается с удалением ключа: удаленный ключ уже не учитывается, а удаление
+     * вычитает объем ключа целиком.
+     */
+    private void added(Entry entry, int chars) {
+        long size = key(entry) + chars * 2L;
+        entries.computeIfPresent(entry.key, (key, current) -> {
+            if (current == entry) {
+                entry.bytes.addAndGet(size);
+                bytes.addAndGet(size);
+            }
+            return current;
+        });
+        this.evictIfNeeded();
+    }
+
+    private static long key(Entry entry) {
+        return 64 + entry.key.length() * 2L;
+    }
+
+    private void evictIfNeeded() {
+        if (entries.size() <= maxEntries && bytes.get() <= maxBytes && clockSize.get() <= maxEntries * 2) {
+            return;
+        }
+        if (!evictionLock.tryLock()) {
+            return; // вытесняет другой поток
+        }
+        try {
+            while (entries.size() > maxEntries || bytes.get() > maxBytes || clockSize.get() > maxEntries * 2) {
+                Entry entry = clock.poll();
+                if (entry == null) {
+                    break;
+                }
+                clockSize.decrementAndGet();
+                if (entries.get(entry.key) != entry) {
+                    continue; // уже удален
+                }
+                if (entry.accessed && entries.size() <= maxEntries && bytes.get() <= maxBytes) {
+                    // очередь разрослась из-за удаленных ключей, живой ключ просто возвращаем в конец
+                    clock.add(entry);
+                    clockSize.incrementAndGet();
+                    continue;
+                }
+                if (entry.accessed) {
+                    entry.accessed = false; // второй шанс
+                    clock.add(entry);
+                    clockSize.incrementAndGet();
+                    continue;
+                }
+                if (entries.remove(entry.key, entry)) {
+                    bytes.addAndGet(-entry.bytes.get());
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Количество ключей в кеше.
+     */
+    public int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Примерный объем значений в кеше, в байтах.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Количество попаданий в кеш.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Количество промахов, после которых значение загружалось из Redis.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Количество ключей, вытесненных из-за ограничения размера.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Количество ключей, удаленных по уведомлению об изменении.
+     */
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    /**
+     * Отписаться от уведомлений и очистить кеш. Все последующие чтения пойдут напрямую в Redis.
+     *
+     * <p>Этот метод не будет закрывать полученную через конструктор подписку {@link #getPubSubWrapper()}.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!pubSubWrapper.isClosed()) {
+            pubSubWrapper.unsubscribe(invalidationListener);
+        }
+        this.clear();
+    }
+
+    private static class Entry {
+        private final String key;
+        private final AtomicLong bytes = new AtomicLong();
+        private volatile Object value = NOT_LOADED;
+        private volatile ConcurrentHashMap<String, Object> fields;
+        private volatile Map<String, String> all;
+        private volatile boolean accessed;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        private ConcurrentHashMap<String, Object> fields() {
+            ConcurrentHashMap<String, Object> fields = this.fields;
+            if (fields == null) {
+                synchronized (this) {
+                    fields = this.fields;
+                    if (fields == null) {
+                        this.fields = fields = new ConcurrentHashMap<>();
+                    }
+                }
+            }
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Lombok;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.SafeEncoder;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Неблокирующий транспорт на основе NIO. Несколько потоков {@link java.nio.channels.Selector} обслуживают
+ * небольшое количество соединений с Redis, по каждому из которых одновременно идет много запросов.
+ * Ответы сопоставляются с запросами по порядку, как в {@link Pipeline}.
+ *
+ * <p>В отличии от {@link redis.clients.jedis.JedisPool}, поток не занимает соединение на время запроса,
+ * по этому тысячи одновременных вызовов обслуживаются несколькими соединениями без переключения
+ * потоков на каждую команду.
+ *
+ * <p>Команды описываются так же, как и для {@link JedisAutoPipeline}: функцией, которая вызывает
+ * нужный метод {@link Pipeline}. Команда не отправляется через {@link Pipeline}, а только записывается,
+ * после чего отправляется в одно из соединений транспорта. Команды с одинаковым первым аргументом (ключом)
+ * всегда идут через одно и то же соединение, по этому порядок команд над одним ключом сохраняется.
+ *
+ * <p>Транспорт можно подключить к {@link JedisWrapper} методом {@link JedisWrapper#setNioTransport(JedisNioTransport)}.
+ *
+ * <p>Этот объект является ресурсом. После завершения работы с ним, следует вызвать {@link #close()}.
+ */
+public class JedisNioTransport implements AutoCloseable {
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /**
+     * Адрес Redis.
+     */
+    @Getter
+    private final String host;
+
+    /**
+     * Порт Redis.
+     */
+    @Getter
+    private final int port;
+
+    /**
+     * Сколько миллисекунд ждать ответа в {@link #execute(Function)}.
+     */
+    @Getter
+    private final int timeout;
+
+    /**
+     * Используется для пометки этого ресурса как закрытого.
+     */
+    @Getter
+    private volatile boolean closed = false;
+
+    private final NioEventLoop[] loops;
+    private final NioEventLoop.Connection[] connections;
+    private final AtomicInteger nextConnection = new AtomicInteger();
+
+    /**
+     * Работает так же, как и {@link #JedisNioTransport(String, int, String, int, int, int, int)}.
+     * <p>Без пароля, с базой {@code 0}, 2 соединениями в 1 потоке и таймаутом {@link Protocol#DEFAULT_TIMEOUT}.
+     */
+    public JedisNioTransport(String host, int port) {
+        this(host, port, null, Protocol.DEFAULT_DATABASE, 2, 1, Protocol.DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Создание транспорта. Соединения открываются лениво, при первой команде.
+     *
+     * @param host        адрес Redis.
+     * @param port        порт Redis.
+     * @param password    пароль или {@code null}, если он не нужен.
+     * @param database    номер базы.
+     * @param connections количество соединений с Redis.
+     * @param eventLoops  количество потоков, между которыми распределяются соединения.
+     * @param timeout     сколько миллисекунд ждать ответа в {@link #execute(Function)}.
+     */
+    public JedisNioTransport(String host, int port, String password, int database,
+                             int connections, int eventLoops, int timeout) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be positive: " + connections);
+        }
+        if (eventLoops < 1 || eventLoops > connections) {
+            throw new IllegalArgumentException("eventLoops must be in [1, connections]: " + eventLoops);
+        }
+        this.host = host;
+        this.port = port;
+        this.timeout = timeout;
+
+        List<byte[]> handshake = new ArrayList<>();
+        if (password != null) {
+            handshake.add(encode(Protocol.Command.AUTH, new byte[][]{SafeEncoder.encode(password)}));
+        }
+        if (database != Protocol.DEFAULT_DATABASE) {
+            handshake.add(encode(Protocol.Command.SELECT, new byte[][]{Protocol.toByteArray(database)}));
+        }
+        byte[][] handshakeCommands = handshake.toArray(new byte[0][]);
+
+        InetSocketAddress address = new InetSocketAddress(host, port);
+        this.loops = new NioEventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) {
+            loops[i] = new NioEventLoop(this.getClass().getSimpleName() + " Thread " + i);
+        }
+        this.connections = new NioEventLoop.Connection[connections];
+        for (int i = 0; i < connections; i++) {
+            this.connections[i] = new NioEventLoop.Connection(loops[i % eventLoops], address, handshakeCommands);
+        }
+    }
+
+    /**
+     * Отправить команду.
+     *
+     * @param action команда, описанная вызовом метода {@link Pipeline}.
+     * @return результат команды, который завершится в потоке транспорта после получения ответа от Redis.
+     */
+    public <T> CompletableFuture<T> submit(Function<Pipeline, Response<T>> action) {
+        this.checkForClosed();
+        CapturingClient client = new CapturingClient(false);
+        Pipeline pipeline = new Pipeline();
+        pipeline.setClient(client);
+        Response<T> response = action.apply(pipeline);
+        if (client.getCount() != 1) {
+            throw new IllegalArgumentException("action must send exactly one command, but sent " + client.getCount());
+        }
+
+        NioCommand<T> command = new NioCommand<>(encode(client.getCommand(), client.getArgs()), response);
+        this.selectConnection(client.getArgs()).send(command);
+        return command;
+    }
+
+    /**
+     * Отправить команду и дождаться ее результата, но не дольше {@link #getTimeout()}.
+     *
+     * @param action команда, описанная вызовом метода {@link Pipeline}.
+     * @return результат команды.
+     */
+    public <T> T execute(Function<Pipeline, Response<T>> action) {
+        try {
+            return this.submit(action).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        } catch (TimeoutException e) {
+            throw new JedisConnectionException("Timeout waiting reply from " + host + ":" + port, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw Lombok.sneakyThrow(e);
+        }
+    }
+
+    private NioEventLoop.Connection selectConnection(byte[][] args) {
+        if (connections.length == 1) {
+            return connections[0];
+        }
+        int hash = args.length > 0 ? Arrays.hashCode(args[0]) : nextConnection.getAndIncrement();
+        return connections[(hash & Integer.MAX_VALUE) % connections.length];
+    }
+
+    /**
+     * Количество запросов, которые отправлены или ожидают отправки, но еще не получили ответ.
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (NioEventLoop.Connection connection : connections) {
+            count += connection.getPending().get();
+        }
+        return count;
+    }
+
+    /**
+     * Количество соединений с Redis.
+     */
+    public int getConnections() {
+        return connections.length;
+    }
+
+    /**
+     * Количество потоков, между которыми распределяются соединения.
+     */
+    public int getEventLoops() {
+        return loops.length;
+    }
+
+    /**
+     * Записать команду в формате RESP.
+     */
+    static byte[] encode(Protocol.Command command, byte[][] args) {
+        int size = headerSize(args.length + 1) + bulkSize(command.raw);
+        for (byte[] arg : args) {
+            size += bulkSize(arg);
+        }
+        byte[] bytes = new byte[size];
+        int position = writeHeader(bytes, 0, '*', args.length + 1);
+        position = writeBulk(bytes, position, command.raw);
+        for (byte[] arg : args) {
+            position = writeBulk(bytes, position, arg);
+        }
+        return bytes;
+    }
+
+    private static int headerSize(int length) {
+        return 1 + Integer.toString(length).length() + 2;
+    }
+
+    private static int bulkSize(byte[] bulk) {
+        return headerSize(bulk.length) + bulk.length + 2;
+    }
+
+    private static int writeHeader(byte[] bytes, int position, char type, int length) {
+        bytes[position++] = (byte) type;
+        byte[] digits = Integer.toString(length).getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(digits, 0, bytes, position, digits.length);
+        position += digits.length;
+        System.arraycopy(CRLF, 0, bytes, position, 2);
+        return position + 2;
+    }
+
+    private static int writeBulk(byte[] bytes, int position, byte[] bulk) {
+        position = writeHeader(bytes, position, '$', bulk.length);
+        System.arraycopy(bulk, 0, bytes, position, bulk.length);
+        position += bulk.length;
+        System.arraycopy(CRLF, 0, bytes, position, 2);
+        return position + 2;
+    }
+
+    private void checkForClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("this resource is closed");
+        }
+    }
+
+    /**
+     * Закрыть все соединения и остановить потоки. Команды, которые не получили ответ, завершатся с ошибкой.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (NioEventLoop loop : loops) {
+            loop.close();
+        }
+    }
+
+    private static class NioCommand<T> extends CompletableFuture<T> implements NioEventLoop.Request {
+        private final byte[] bytes;
+        private final Response<T> response;
+
+        private NioCommand(byte[] bytes, Response<T> response) {
+            this.bytes = bytes;
+            this.response = response;
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public void onReply(Object reply) {
+            try {
+                response.set(reply);
+                this.complete(response.get());
+            } catch (Exception e) {
+                this.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            this.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.SneakyThrows;
+import lombok.extern.java.Log;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Executor для обработки сообщений подписок, который сохраняет порядок сообщений одного канала
+ * (или одного слушателя), а разные каналы обрабатывает параллельно.
+ *
+ * <p>Задачи распределяются по полосам (stripes) по хешу ключа. Каждая полоса выполняет свои задачи строго
+ * по очереди, а разные полосы выполняются параллельно в нижележащем {@link Executor}. Очередь каждой полосы
+ * ограничена, если она заполнена, поток подписки ждет, пока в ней освободится место.
+ *
+ * <p>Чтобы включить этот режим, нужно передать {@code JedisOrderedExecutor} в конструктор
+ * {@link JedisPubSubWrapper}, {@link BinaryJedisPubSubWrapper} или {@link JedisWrapper} вместо обычного
+ * {@link Executor}:
+ * <pre>
+ *     JedisOrderedExecutor executor = new JedisOrderedExecutor(Runtime.getRuntime().availableProcessors(), 1024);
+ *     JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, executor);
+ * </pre>
+ *
+ * <p>Слушатель не должен синхронно ждать выполнения другой задачи этого executor'а, если она может попасть
+ * в ту же полосу, иначе полоса остановится.
+ *
+ * <p>Если executor создан со своими потоками {@link #JedisOrderedExecutor(int, int)}, то он является ресурсом.
+ * После завершения работы с ним, следует вызвать {@link #close()}.
+ */
+@Log
+public class JedisOrderedExecutor implements Executor, AutoCloseable {
+
+    /**
+     * По какому ключу сохраняется порядок сообщений.
+     */
+    public enum Ordering {
+        /**
+         * Сообщения одного канала обрабатываются по порядку всеми его слушателями, разные каналы - параллельно.
+         */
+        CHANNEL,
+        /**
+         * Каждый слушатель получает сообщения по порядку, разные слушатели одного канала работают параллельно.
+         */
+        LISTENER
+    }
+
+    /**
+     * Сколько задач полоса выполняет подряд, прежде чем уступить поток нижележащего {@link Executor}
+     * другим полосам.
+     */
+    private static final int drainBatch = 64;
+
+    /**
+     * По какому ключу сохраняется порядок сообщений.
+     */
+    @Getter
+    private final Ordering ordering;
+
+    /**
+     * Максимальное количество задач в очереди одной полосы.
+     */
+    @Getter
+    private final int queueCapacity;
+
+    private final Executor executor;
+
+    /**
+     * Потоки, созданные этим executor'ом, или {@code null}, если используется внешний {@link Executor}.
+     */
+    private final ExecutorService ownExecutor;
+
+    private final Stripe[] stripes;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Работает так же, как и {@link #JedisOrderedExecutor(Executor, int, int, Ordering)}, но задачи выполняются
+     * в {@code parallelism} собственных потоках, а полос создается в 4 раза больше, чем потоков, чтобы
+     * каналы распределялись равномернее.
+     * <p>Для параметра {@code ordering} задается значение по умолчанию {@link Ordering#CHANNEL}.
+     */
+    public JedisOrderedExecutor(int parallelism, int queueCapacity) {
+        this(Executors.newFixedThreadPool(parallelism, new DaemonThreadFactory()), true,
+            parallelism * 4, queueCapacity, Ordering.CHANNEL);
+    }
+
+    /**
+     * @param executor      нижележащий executor, в котором выполняются полосы. Этот executor не будет закрыт
+     *                      методом {@link #close()}.
+     * @param stripes       количество полос.
+     * @param queueCapacity максимальное количество задач в очереди одной полосы.
+     * @param ordering      по какому ключу сохраняется порядок сообщений.
+     */
+    public JedisOrderedExecutor(Executor executor, int stripes, int queueCapacity, Ordering ordering) {
+        this(executor, false, stripes, queueCapacity, ordering);
+    }
+
+    private JedisOrderedExecutor(Executor executor, boolean own, int stripes, int queueCapacity, Ordering ordering) {
+        if (stripes < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("stripes and queueCapacity must be positive");
+        }
+        this.executor = executor;
+        this.ownExecutor = own ? (ExecutorService) executor : null;
+        this.queueCapacity = queueCapacity;
+        this.ordering = ordering;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(queueCapacity);
+        }
+    }
+
+    /**
+     * Выполнить задачу без сохранения порядка относительно других задач. Задачи распределяются
+     * по полосам по очереди.
+     */
+    @Override
+    public void execute(Runnable task) {
+        stripes[Math.floorMod(next.getAndIncrement(), stripes.length)].add(task);
+    }
+
+    /**
+     * Выполнить задачу после всех ранее добавленных задач с тем же ключом. Если очередь полосы заполнена,
+     * поток ждет, пока в ней освободится место.
+     *
+     * @param key  ключ, задачи с равными ключами ({@link Object#equals(Object)}) выполняются по порядку.
+     * @param task задача.
+     */
+    public void execute(Object key, Runnable task) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        stripes[Math.floorMod(hash, stripes.length)].add(task);
+    }
+
+    /**
+     * Выполнить обработку сообщения слушателем, сохраняя порядок по {@link #getOrdering()}.
+     *
+     * @param channelHash хеш содержимого канала, передается числом, чтобы не создавать ключ на каждое сообщение.
+     */
+    void execute(int channelHash, Object listener, Runnable task) {
+        int hash = ordering == Ordering.CHANNEL ? channelHash : listener.hashCode();
+        hash ^= hash >>> 16;
+        stripes[Math.floorMod(hash, stripes.length)].add(task);
+    }
+
+    /**
+     * Количество задач, которые ждут выполнения во всех полосах.
+     */
+    public int getQueueSize() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.queue.size();
+        }
+        return size;
+    }
+
+    /**
+     * Количество полос.
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * Остановить собственные потоки, если они были созданы конструктором {@link #JedisOrderedExecutor(int, int)}.
+     * Задачи, которые уже в очереди, будут выполнены. Внешний {@link Executor} не закрывается.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        if (ownExecutor != null) {
+            ownExecutor.shutdown();
+        }
+    }
+
+    private class Stripe implements Runnable {
+        private final BlockingQueue<Runnable> queue;
+
+        /**
+         * Запущена ли полоса в {@link #executor}. Одновременно полоса выполняется не больше, чем в одном потоке.
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Stripe(int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        @SneakyThrows
+        private void add(Runnable task) {
+            queue.put(task);
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < drainBatch; i++) {
+                    Runnable task = queue.poll();
+                    if (task == null) {
+                        break;
+                    }
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        log.log(Level.SEVERE, "Ошибка выполнения задачи в " +
+                            JedisOrderedExecutor.class.getSimpleName(), e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // задачи, добавленные после выхода из цикла, должна забрать эта или следующая полоса
+            if (!queue.isEmpty()) {
+                this.schedule();
+            }
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger number = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, JedisOrderedExecutor.class.getSimpleName() + " Thread " +
+                number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,1974 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.SneakyThrows;
+import lombok.extern.java.Log;
+import redis.clients.jedis.BinaryJedisPubSub;
+import redis.clients.jedis.Client;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+
+/**
+ * Общая подписка, на которой работают {@link JedisPubSubWrapper} и {@link BinaryJedisPubSubWrapper}.
+ *
+ * <p>Соединения подписки читают сообщения как есть, в байтах. Слушатели обоих видов хранятся в общем реестре
+ * по каналу, по этому строковой и бинарной обертке достаточно одного соединения, одного потока и одного
+ * канала-заглушки. Сообщение переводится в {@link String} один раз и только если у канала есть строковые слушатели.
+ *
+ * <p>Движок используется несколькими обертками, он закрывается, когда закрыта последняя из них,
+ * см. {@link #retain()} и {@link #release(boolean)}.
+ */
+@Log
+class JedisPubSubEngine {
+
+    /**
+     * Канал-загрушка. В библиотеке Jedis для создания и работы подписки {@link BinaryJedisPubSub}
+     * нужен минимум один канал, иначе будет ошибка.
+     */
+    private static final byte[] dummyChannel = SafeEncoder.encode("jedis-pubsub-keep");
+
+    /**
+     * Максимальное количество каналов в одной команде {@code SUBSCRIBE} или {@code UNSUBSCRIBE}.
+     */
+    static final int chunkSize = 1000;
+
+    /**
+     * Используется для поддержки многопоточности.
+     */
+    private final Lock lock = new ReentrantLock();
+    private final Condition subscribed = lock.newCondition();
+    private final Condition unsubscribed = lock.newCondition();
+
+    /**
+     * Используется для пометки этого ресурса как закрытого.
+     */
+    @Getter
+    private volatile boolean closed = false;
+
+    /**
+     * Количество оберток, которые используют этот движок.
+     */
+    private int references = 1;
+
+    /**
+     * Имя для потоков подписки.
+     */
+    private final String name;
+
+    /**
+     * Соединения подписки. Каналы распределяются между ними по хешу имени канала {@link #connectionOf(ChannelKey)},
+     * а подписки по шаблонам всегда используют первое соединение.
+     */
+    private final Connection[] connections;
+
+    /**
+     * Все подписки, ключем выступает имя канала, в значении слушатели обоих видов.
+     *
+     * <p>Массив слушателей не меняется, при подписке или отписке он заменяется новым, по этому поток подписки
+     * читает эту карту без блокировок и без создания ключа, см. {@link ChannelMap#get(byte[], int)}.
+     * Изменяется карта только под блокировкой {@link #lock}.
+     */
+    private final ChannelMap<Subscriber[]> subscribes = new ChannelMap<>();
+
+    /**
+     * Все подписки по шаблонам, ключем выступает шаблон, в значении слушатели.
+     * Работает так же, как и {@link #subscribes}.
+     */
+    private final ChannelMap<Subscriber[]> patternSubscribes = new ChannelMap<>();
+
+    /**
+     * Каналы, на которых слушатели получают только последнее сообщение, см. {@link #enableConflation(byte[])}.
+     */
+    private final ChannelMap<Conflation> conflations = new ChannelMap<>();
+
+    /**
+     * Сколько сообщений было заменено более новыми, не дойдя до слушателя.
+     */
+    private final LongAdder conflated = new LongAdder();
+
+    /**
+     * Поток, который отправляет пакеты сообщений по истечении задержки, см. {@link Subscriber#Subscriber(Object, int, long)}.
+     * Создается при первой пакетной подписке под блокировкой {@link #lock}.
+     */
+    private volatile ScheduledExecutorService batchTimer;
+
+    /**
+     * Пакетные подписки {@link #subscribeAll}, которые ждут подтверждения Redis, по каналам.
+     */
+    private final Map<ChannelKey, List<Batch>> pendingAcks = new ConcurrentHashMap<>();
+
+    /**
+     * Пул для получения соединения {@link Jedis}, служит для инициализации подписки.
+     * А так же для возобновления соединения в случае ее обрыва.
+     */
+    @Getter
+    private final Pool<Jedis> pool;
+
+    /**
+     * Executor, в котором будут обрабатываться сообщения, которые приходят на подписанные каналы.
+     */
+    @Getter
+    private final Executor executor;
+
+    /**
+     * Очередь между потоком подписки и {@link #executor}, если она включена, иначе {@code null}.
+     */
+    @Getter
+    private volatile JedisDispatchQueue dispatchQueue;
+
+    /**
+     * Стоит ли подписка на паузе.
+     */
+    @Getter
+    private volatile boolean pause = false;
+
+    /**
+     * Буфер сообщений, пришедших во время паузы, или {@code null}, если такие сообщения отбрасываются,
+     * см. {@link #enablePauseBuffer(int, JedisDispatchQueue.OverflowPolicy)}.
+     */
+    private volatile PauseBuffer pauseBuffer;
+
+    /**
+     * Пауза снята, но сообщения из {@link #pauseBuffer} еще доставляются. Новые сообщения в это время тоже
+     * кладутся в буфер, чтобы не обогнать старые.
+     */
+    private volatile boolean replaying;
+
+    /**
+     * Сколько сообщений было отброшено из-за паузы.
+     */
+    private final LongAdder pauseDropped = new LongAdder();
+
+    /**
+     * Задержка между попытками восстановить оборвавшуюся подписку.
+     */
+    @Getter
+    @Setter
+    private volatile JedisBackoff backoff = JedisBackoff.DEFAULT;
+
+    /**
+     * Слушатель восстановления подписки после обрыва или {@code null}.
+     */
+    @Getter
+    @Setter
+    private volatile JedisReconnectListener reconnectListener;
+
+    /**
+     * Сколько наносекунд соединения суммарно были без подписки после обрывов.
+     */
+    private final LongAdder downtimeNanos = new LongAdder();
+
+    /**
+     * Поток проверки соединений, см. {@link #enableHeartbeat(long, long, TimeUnit)}, или {@code null}, если проверка
+     * выключена. Меняется под блокировкой {@link #lock}.
+     */
+    private ScheduledExecutorService heartbeat;
+
+    /**
+     * Сколько раз соединение было принудительно переподключено, потому что не ответило на проверку вовремя.
+     */
+    private final LongAdder heartbeatTimeouts = new LongAdder();
+
+    /**
+     * @param pool        пул соединений с Redis.
+     * @param executor    обработчик, в котором будет вызываться обработка сообщений.
+     * @param connections количество соединений подписки.
+     * @param name        имя для потоков подписки.
+     */
+    JedisPubSubEngine(Pool<Jedis> pool, Executor executor, int connections, String name) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections must be positive: " + connections);
+        }
+        this.pool = pool;
+        this.executor = executor;
+        this.name = name;
+        this.connections = new Connection[connections];
+        for (int i = 0; i < connections; i++) {
+            this.connections[i] = new Connection(i);
+        }
+    }
+
+    /**
+     * Запустить подписку и дождаться, пока все соединения будут подписаны.
+     */
+    void start() {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            this.lazyInit();
+            for (Connection connection : connections) {
+                this.awaitSubscribed(connection);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отметить, что движок используется еще одной оберткой.
+     *
+     * @return этот движок.
+     */
+    JedisPubSubEngine retain() {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            references++;
+            return this;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Обертка больше не использует движок: удалить все ее слушатели, а если это была последняя обертка,
+     * то закрыть движок.
+     *
+     * @param binary какие слушатели удалить, бинарные или строковые.
+     */
+    void release(boolean binary) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (--references == 0) {
+                this.close();
+                return;
+            }
+            this.unsubscribeAll(subscribes, binary, this::sendUnsubscribe);
+            this.unsubscribeAll(patternSubscribes, binary, this::sendPunsubscribe);
+            for (Conflation conflation : conflations.values()) {
+                conflation.slots.keySet().removeIf(subscriber -> subscriber.binary == binary);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unsubscribeAll(ChannelMap<Subscriber[]> registry, boolean binary,
+                                Consumer<List<ChannelKey>> send) {
+        List<ChannelKey> empty = new ArrayList<>();
+        for (ChannelKey key : registry.keys()) {
+            Subscriber[] subscribers = registry.get(key);
+            List<Subscriber> left = new ArrayList<>();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.binary != binary) {
+                    left.add(subscriber);
+                }
+            }
+            if (left.isEmpty()) {
+                registry.remove(key);
+                empty.add(key);
+            } else if (left.size() != subscribers.length) {
+                registry.put(key, left.toArray(new Subscriber[0]));
+            }
+        }
+        send.accept(empty);
+    }
+
+    /**
+     * Выполнить инициализацию, если она еще не выполнена
+     */
+    private void lazyInit() {
+        if (connections[0].thread != null) {
+            return; // уже проинициализировано
+        }
+
+        for (Connection connection : connections) {
+            connection.start();
+        }
+    }
+
+    /**
+     * Соединение, через которое слушается канал.
+     */
+    private Connection connectionOf(ChannelKey channel) {
+        if (connections.length == 1) {
+            return connections[0];
+        }
+        int hash = channel.hashCode();
+        return connections[Math.floorMod(hash ^ (hash >>> 16), connections.length)];
+    }
+
+    /**
+     * Подписать слушателя на канал.
+     */
+    void subscribe(Subscriber subscriber, byte[] channel) {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            this.lazyInit();
+            if (subscriber.batchSize > 0 && batchTimer == null) {
+                batchTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, name + " Batch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            ChannelKey key = new ChannelKey(channel);
+            Connection connection = this.connectionOf(key);
+            this.awaitSubscribed(connection);
+            if (addListener(subscribes, key, subscriber)) {
+                try {
+                    connection.pubSub.subscribe(channel);
+                } catch (Exception ignored) {
+                    // если будет ошибка, значит подписка оборвалась,
+                    // в таком случае канал зарегистрирует при повторной подписке
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подписать слушателя на несколько каналов командами {@code SUBSCRIBE} по {@value #chunkSize} каналов.
+     *
+     * @return future, который завершится, когда Redis подтвердит подписку на все каналы.
+     */
+    CompletableFuture<Void> subscribeAll(Subscriber subscriber, Collection<byte[]> channels) {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            this.lazyInit();
+            for (Connection connection : connections) {
+                this.awaitSubscribed(connection);
+            }
+            Batch batch = new Batch();
+            List<List<byte[]>> send = new ArrayList<>(connections.length);
+            for (int i = 0; i < connections.length; i++) {
+                send.add(new ArrayList<>());
+            }
+            for (byte[] channel : channels) {
+                ChannelKey key = new ChannelKey(channel);
+                if (addListener(subscribes, key, subscriber)) {
+                    batch.await(key);
+                    send.get(this.connectionOf(key).index).add(channel);
+                } else if (pendingAcks.computeIfPresent(key, (ignored, batches) -> {
+                    batches.add(batch); // канал уже отправлен другой пакетной подпиской
+                    return batches;
+                }) != null) {
+                    batch.remaining.incrementAndGet();
+                }
+            }
+            for (Connection connection : connections) {
+                connection.send(send.get(connection.index), connection.pubSub::subscribe);
+            }
+            return batch.ready();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отменить подписки слушателя на все каналы.
+     *
+     * @return true, если была отменена хотя бы одна подписка.
+     */
+    boolean unsubscribe(Subscriber subscriber) {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            List<ChannelKey> empty = new ArrayList<>();
+            boolean removed = removeListener(subscribes, subscriber, (channel, last) -> {
+                if (last) {
+                    empty.add(channel);
+                }
+                Conflation conflation = conflations.get(channel);
+                if (conflation != null) {
+                    conflation.slots.remove(subscriber);
+                }
+            });
+            this.sendUnsubscribe(empty);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendUnsubscribe(List<ChannelKey> channels) {
+        List<List<byte[]>> send = new ArrayList<>(connections.length);
+        for (int i = 0; i < connections.length; i++) {
+            send.add(new ArrayList<>());
+        }
+        for (ChannelKey channel : channels) {
+            send.get(this.connectionOf(channel).index).add(channel.getBytes());
+        }
+        for (Connection connection : connections) {
+            PubSub pubSub = connection.pubSub;
+            if (pubSub != null) {
+                connection.send(send.get(connection.index), pubSub::unsubscribe);
+            }
+        }
+    }
+
+    /**
+     * Подписать слушателя на шаблон через первое соединение.
+     */
+    void psubscribe(Subscriber subscriber, byte[] pattern) {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            this.lazyInit();
+            this.awaitSubscribed(connections[0]);
+            if (addListener(patternSubscribes, new ChannelKey(pattern), subscriber)) {
+                try {
+                    connections[0].pubSub.psubscribe(pattern);
+                } catch (Exception ignored) {
+                    // если будет ошибка, значит подписка оборвалась,
+                    // в таком случае шаблон зарегистрирует при повторной подписке
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отменить подписки слушателя на все шаблоны.
+     *
+     * @return true, если была отменена хотя бы одна подписка.
+     */
+    boolean punsubscribe(Subscriber subscriber) {
+        lock.lock();
+        try {
+            this.checkForClosed();
+            List<ChannelKey> empty = new ArrayList<>();
+            boolean removed = removeListener(patternSubscribes, subscriber, (pattern, last) -> {
+                if (last) {
+                    empty.add(pattern);
+                }
+            });
+            this.sendPunsubscribe(empty);
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sendPunsubscribe(List<ChannelKey> patterns) {
+        PubSub pubSub = connections[0].pubSub;
+        if (patterns.isEmpty() || pubSub == null) {
+            return;
+        }
+        try {
+            byte[][] bytes = new byte[patterns.size()][];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = patterns.get(i).getBytes();
+            }
+            pubSub.punsubscribe(bytes);
+        } catch (Exception e) {
+            // если будет ошибка, значит подписка оборвалась,
+            // и уже все равно все шаблоны отписало
+        }
+    }
+
+    /**
+     * Добавить слушателя в реестр подписок. Массив слушателей не меняется, а заменяется новым.
+     *
+     * @return true, если это первый слушатель ключа и на него нужно подписаться в Redis.
+     */
+    private boolean addListener(ChannelMap<Subscriber[]> registry, ChannelKey key, Subscriber subscriber) {
+        Subscriber[] subscribers = registry.get(key);
+        if (subscribers == null) {
+            registry.put(key, new Subscriber[]{this.forKey(subscriber)});
+            return true;
+        }
+        if (!Arrays.asList(subscribers).contains(subscriber)) {
+            subscribers = Arrays.copyOf(subscribers, subscribers.length + 1);
+            subscribers[subscribers.length - 1] = this.forKey(subscriber);
+            registry.put(key, subscribers);
+        }
+        return false;
+    }
+
+    /**
+     * Слушатель для записи в реестр подписок под новым ключом. Пакетный слушатель получает свой буфер.
+     */
+    private Subscriber forKey(Subscriber subscriber) {
+        if (subscriber.batchSize == 0) {
+            return subscriber;
+        }
+        return new Subscriber(subscriber.listener, subscriber.binary, subscriber.batchSize, subscriber.batchDelay,
+            new Buffer(subscriber));
+    }
+
+    /**
+     * Удалить слушателя из всех ключей реестра подписок.
+     *
+     * @param removed вызывается для каждого ключа, из которого удален слушатель. Второй параметр равен
+     *                {@code true}, если у ключа не осталось слушателей и от него нужно отписаться в Redis.
+     * @return true, если слушатель был удален хотя бы из одного ключа.
+     */
+    private static boolean removeListener(ChannelMap<Subscriber[]> registry, Subscriber subscriber,
+                                          BiConsumer<ChannelKey, Boolean> removed) {
+        boolean found = false;
+        for (ChannelKey key : registry.keys()) {
+            Subscriber[] subscribers = registry.get(key);
+            int index = Arrays.asList(subscribers).indexOf(subscriber);
+            if (index < 0) {
+                continue;
+            }
+            found = true;
+            if (subscribers.length > 1) {
+                Subscriber[] left = Arrays.copyOf(subscribers, subscribers.length - 1);
+                System.arraycopy(subscribers, index + 1, left, index, subscribers.length - index - 1);
+                registry.put(key, left);
+                removed.accept(key, false);
+            } else {
+                registry.remove(key);
+                removed.accept(key, true);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Слушатели одного вида по каналам или шаблонам.
+     *
+     * @param patterns слушатели подписок по шаблонам, иначе по каналам.
+     * @param binary   бинарные или строковые слушатели.
+     * @param type     тип слушателей, которые попадут в результат.
+     */
+    Map<ChannelKey, List<Object>> getListeners(boolean patterns, boolean binary, Class<?> type) {
+        lock.lock();
+        try {
+            Map<ChannelKey, List<Object>> copy = new HashMap<>();
+            (patterns ? patternSubscribes : subscribes).forEach((key, subscribers) -> {
+                for (Subscriber subscriber : subscribers) {
+                    if (subscriber.binary == binary && type.isInstance(subscriber.listener)) {
+                        copy.computeIfAbsent(key, ignored -> new ArrayList<>()).add(subscriber.listener);
+                    }
+                }
+            });
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ждать, пока подписка соединения полностью будет создана, а Redis подтвердит все ее каналы.
+     */
+    @SneakyThrows
+    private void awaitSubscribed(Connection connection) {
+        while (connection.pubSub == null || !connection.pubSub.isSubscribed() || !connection.pubSub.confirmed) {
+            if (!subscribed.await(10, TimeUnit.SECONDS)) {
+                throw new TimeoutException("Таймаут ожидания создания подписки pubSub.");
+            }
+        }
+    }
+
+    /**
+     * Вызвать обработку сообщения по каналу.
+     * Все слущатели указанного канала будут вызваны.
+     *
+     * <p>Вызывается в потоке подписки и не берет блокировок, по этому подписка и отписка в других потоках,
+     * которые ждут ответа Redis под блокировкой {@link #lock}, не задерживают доставку сообщений.
+     * Поиск слушателей не создает объектов: хеш канала считается один раз и используется для поиска
+     * в {@link #subscribes}, {@link #conflations} и для выбора потока обработки. Доставка найденным слушателям
+     * создает по задаче для {@link #executor} на каждого из них, см. {@link #deliver}.
+     *
+     * @param connection соединение, из которого пришло сообщение.
+     * @param channel канал.
+     * @param message сообщение.
+     */
+    private void callListeners(Connection connection, byte[] channel, byte[] message) {
+        if ((pause || replaying) && this.hold(null, channel, message)) {
+            return;
+        }
+        int hash = ChannelKey.hash(channel);
+        Subscriber[] subscribers = subscribes.get(channel, hash);
+        if (subscribers == null) {
+            return;
+        }
+        Conflation conflation = conflations.isEmpty() ? null : conflations.get(channel, hash);
+        this.dispatch(subscribers, conflation, null, channel, hash, message);
+    }
+
+    /**
+     * Вызвать обработку сообщения, пришедшего по шаблону. Работает так же, как и {@link #callListeners}.
+     *
+     * @param connection соединение, из которого пришло сообщение.
+     * @param pattern шаблон, по которому пришло сообщение.
+     * @param channel канал.
+     * @param message сообщение.
+     */
+    private void callPatternListeners(Connection connection, byte[] pattern, byte[] channel, byte[] message) {
+        if ((pause || replaying) && this.hold(pattern, channel, message)) {
+            return;
+        }
+        Subscriber[] subscribers = patternSubscribes.get(pattern, ChannelKey.hash(pattern));
+        if (subscribers == null) {
+            return;
+        }
+        this.dispatch(subscribers, null, pattern, channel, ChannelKey.hash(channel), message);
+    }
+
+    /**
+     * Передать сообщение слушателям напрямую или через очередь {@link #dispatchQueue}, если она включена.
+     */
+    private void dispatch(Subscriber[] subscribers, Conflation conflation, byte[] pattern, byte[] channel,
+                          int channelHash, byte[] message) {
+        JedisDispatchQueue dispatchQueue = this.dispatchQueue;
+        if (dispatchQueue != null) {
+            dispatchQueue.offer(() -> this.deliver(subscribers, conflation, pattern, channel, channelHash, message));
+        } else {
+            this.deliver(subscribers, conflation, pattern, channel, channelHash, message);
+        }
+    }
+
+    /**
+     * Придержать сообщение, пришедшее во время паузы: положить его в {@link #pauseBuffer} или отбросить,
+     * если буфер не включен. Сообщения не пишутся в лог по одному, отброшенные считаются в {@link #pauseDropped}.
+     *
+     * @param pattern шаблон, по которому пришло сообщение, или {@code null}, если оно пришло по каналу.
+     * @return false, если пауза уже закончилась и сообщение нужно доставить как обычно.
+     */
+    private boolean hold(byte[] pattern, byte[] channel, byte[] message) {
+        PauseBuffer buffer = pauseBuffer;
+        if (buffer == null) {
+            if (!pause) {
+                return false;
+            }
+            pauseDropped.increment();
+            return true;
+        }
+        synchronized (buffer) {
+            if (!pause && !replaying) {
+                return false;
+            }
+            if (pauseBuffer != buffer || !buffer.add(new Paused(pattern, channel, message))) {
+                pauseDropped.increment();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Передать сообщение слушателям канала или шаблона в {@link #executor}.
+     *
+     * <p>Здесь байты не копируются и не переводятся в {@link String}: строковые слушатели получают общий
+     * {@link Text}, который переводится в строку один раз, в потоке обработки первого из них,
+     * а {@link ByteBufferJedisPubSubListener} получает буферы только для чтения поверх тех же байтов.
+     *
+     * <p>На каждого слушателя создается одна задача для {@link #executor}. Буферы только для чтения создаются
+     * один раз на сообщение и достаются первому {@link ByteBufferJedisPubSubListener}, а остальные получают
+     * их копии {@link ByteBuffer#duplicate()} со своей позицией, чтобы слушатели не сдвигали позицию друг другу.
+     *
+     * @param conflation слушатели канала получают только последнее сообщение, или {@code null}.
+     * @param pattern шаблон, по которому пришло сообщение, или {@code null}, если оно пришло по каналу.
+     * @param channelHash хеш канала {@link ChannelKey#hash(byte[])}, посчитанный при поиске слушателей.
+     */
+    private void deliver(Subscriber[] subscribers, Conflation conflation, byte[] pattern, byte[] channel,
+                         int channelHash, byte[] message) {
+        Text patternText = null;
+        Text channelText = null;
+        Text messageText = null;
+        ByteBuffer channelBuffer = null;
+        ByteBuffer messageBuffer = null;
+        for (Subscriber subscriber : subscribers) {
+            Object listener = subscriber.listener;
+            if (subscriber.buffer != null) {
+                subscriber.buffer.add(channelHash, channel, message);
+                continue;
+            }
+            Runnable task; // каждое сообщение вызывается в отдельном вызове Executor'a
+            if (listener instanceof ByteBufferJedisPubSubListener) {
+                ByteBuffer channelValue;
+                ByteBuffer messageValue;
+                if (channelBuffer == null) {
+                    channelValue = channelBuffer = ByteBuffer.wrap(channel).asReadOnlyBuffer();
+                    messageValue = messageBuffer = ByteBuffer.wrap(message).asReadOnlyBuffer();
+                } else {
+                    // первый слушатель мог уже сдвинуть позицию, по этому копия сбрасывается на весь массив
+                    channelValue = channelBuffer.duplicate();
+                    messageValue = messageBuffer.duplicate();
+                    ((java.nio.Buffer) channelValue).clear(); // через Buffer, ByteBuffer.clear() появился только в Java 9
+                    ((java.nio.Buffer) messageValue).clear();
+                }
+                task = () -> {
+                    try {
+                        ((ByteBufferJedisPubSubListener) listener).onMessage(channelValue, messageValue);
+                    } catch (Exception e) {
+                        log.info("Ошибка обработки канала " + Arrays.toString(channel) + " (" + SafeEncoder.encode(channel) + "), " +
+                            "listener: " + listener +
+                            ", сообщение: " + Arrays.toString(message) + " (" + SafeEncoder.encode(message) + ")");
+                        e.printStackTrace();
+                    }
+                };
+            } else if (subscriber.binary) {
+                task = () -> {
+                    try {
+                        if (pattern == null) {
+                            ((BinaryJedisPubSubListener) listener).onMessage(channel, message);
+                        } else {
+                            ((BinaryJedisPubSubPatternListener) listener).onMessage(pattern, channel, message);
+                        }
+                    } catch (Exception e) {
+                        log.info("Ошибка обработки " + (pattern == null ? "" : "шаблона " + SafeEncoder.encode(pattern) + ", ") +
+                            "канала " + Arrays.toString(channel) + " (" + SafeEncoder.encode(channel) + "), " +
+                            "listener: " + listener +
+                            ", сообщение: " + Arrays.toString(message) + " (" + SafeEncoder.encode(message) + ")");
+                        e.printStackTrace();
+                    }
+                };
+            } else {
+                if (messageText == null) {
+                    patternText = pattern == null ? null : new Text(pattern);
+                    channelText = new Text(channel);
+                    messageText = new Text(message);
+                }
+                Text patternValue = patternText;
+                Text channelValue = channelText;
+                Text messageValue = messageText;
+                task = () -> {
+                    try {
+                        if (patternValue == null) {
+                            ((JedisPubSubListener) listener).onMessage(channelValue.get(), messageValue.get());
+                        } else {
+                            ((JedisPubSubPatternListener) listener).onMessage(patternValue.get(),
+                                channelValue.get(), messageValue.get());
+                        }
+                    } catch (Exception e) {
+                        log.info("Ошибка обработки " + (patternValue == null ? "" : "шаблона " + patternValue.get() + ", ") +
+                            "канала " + channelValue.get() + ", " +
+                            "listener: " + listener +
+                            ", сообщение: " + messageValue.get());
+                        e.printStackTrace();
+                    }
+                };
+            }
+            if (conflation != null) {
+                Slot slot = conflation.slots.get(subscriber);
+                if (slot == null) {
+                    slot = this.newSlot(conflation, subscriber, channel, channelHash);
+                }
+                slot.offer(task);
+            } else {
+                this.execute(channelHash, listener, task);
+            }
+        }
+    }
+
+    /**
+     * Создать слот слушателя канала в режиме последнего значения. Сообщение могло ждать доставки, пока слушатель
+     * отписывался, тогда отписка не застала этот слот, и он сразу удаляется, чтобы не остаться в
+     * {@link Conflation#slots} навсегда. Сообщение все равно доставляется, как и слушателям без этого режима.
+     */
+    private Slot newSlot(Conflation conflation, Subscriber subscriber, byte[] channel, int channelHash) {
+        Slot slot = conflation.slots.computeIfAbsent(subscriber,
+            ignored -> new Slot(channelHash, subscriber.listener));
+        Subscriber[] current = subscribes.get(channel, channelHash);
+        if (current == null || !Arrays.asList(current).contains(subscriber)) {
+            conflation.slots.remove(subscriber, slot);
+        }
+        return slot;
+    }
+
+    private void execute(int channelHash, Object listener, Runnable task) {
+        if (executor instanceof JedisOrderedExecutor) {
+            ((JedisOrderedExecutor) executor).execute(channelHash, listener, task);
+        } else {
+            executor.execute(task);
+        }
+    }
+
+    /**
+     * Байты, которые переводятся в {@link String} при первом обращении. Если несколько потоков обратятся
+     * одновременно, строка может быть создана несколько раз, но результат всегда одинаковый.
+     */
+    private static final class Text {
+        private final byte[] bytes;
+        private volatile String text;
+
+        private Text(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        private String get() {
+            String text = this.text;
+            if (text == null) {
+                this.text = text = SafeEncoder.encode(bytes);
+            }
+            return text;
+        }
+    }
+
+    /**
+     * Отправить команду в соединение подписки одной записью в сокет, минуя буфер {@link Client}.
+     *
+     * <p>Поток подписки перед каждым чтением сообщения вызывает {@link Client#flush()}, по этому запись в общий
+     * буфер из другого потока, как это делают {@link BinaryJedisPubSub#subscribe(byte[]...)} и
+     * {@link BinaryJedisPubSub#unsubscribe(byte[]...)}, может перемешать байты команд.
+     *
+     * @param client соединение подписки или {@code null}, если подписка еще не создана.
+     */
+    static void send(Client client, Protocol.Command command, byte[]... args) {
+        if (client == null) {
+            throw new JedisConnectionException("JedisPubSub is not subscribed to a Jedis instance.");
+        }
+        try {
+            OutputStream out = client.getSocket().getOutputStream();
+            byte[] encoded = JedisNioTransport.encode(command, args);
+            synchronized (out) { // команды пишутся и из потока проверки соединения, без блокировки lock
+                out.write(encoded);
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new JedisConnectionException(e);
+        }
+    }
+
+    /**
+     * Включить ограниченную очередь {@link JedisDispatchQueue} между потоком подписки и {@link #executor}.
+     * Если очередь уже была включена, то предыдущая будет закрыта после доставки сообщений,
+     * которые в ней остались.
+     */
+    JedisDispatchQueue enableDispatchQueue(int capacity, JedisDispatchQueue.OverflowPolicy policy) {
+        JedisDispatchQueue previous = dispatchQueue;
+        dispatchQueue = new JedisDispatchQueue(capacity, policy);
+        if (previous != null) {
+            previous.close();
+        }
+        return dispatchQueue;
+    }
+
+    /**
+     * Выключить очередь, включенную методом {@link #enableDispatchQueue(int, JedisDispatchQueue.OverflowPolicy)}.
+     */
+    void disableDispatchQueue() {
+        JedisDispatchQueue previous = dispatchQueue;
+        dispatchQueue = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Включить проверку соединений. Каждые {@code interval} в соединение отправляется повторный {@code SUBSCRIBE}
+     * служебного канала, на который Redis отвечает подтверждением. Если из соединения ничего не пришло дольше
+     * {@code timeout}, оно закрывается, и поток подписки переподключается.
+     *
+     * <p>Вместо {@code PING} используется {@code SUBSCRIBE}, потому что {@link BinaryJedisPubSub} не умеет
+     * разбирать ответ {@code PONG} и оборвал бы подписку.
+     */
+    void enableHeartbeat(long interval, long timeout, TimeUnit unit) {
+        if (interval <= 0 || timeout <= interval) {
+            throw new IllegalArgumentException("interval must be positive and less than timeout: " + interval + ", " + timeout);
+        }
+        long timeoutNanos = unit.toNanos(timeout);
+        lock.lock();
+        try {
+            this.checkForClosed();
+            this.disableHeartbeat();
+            heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, name + " Heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeat.scheduleWithFixedDelay(() -> this.heartbeat(timeoutNanos), interval, interval, unit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выключить проверку соединений, включенную методом {@link #enableHeartbeat(long, long, TimeUnit)}.
+     */
+    void disableHeartbeat() {
+        lock.lock();
+        try {
+            if (heartbeat != null) {
+                heartbeat.shutdownNow();
+                heartbeat = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Включена ли проверка соединений.
+     */
+    boolean isHeartbeatEnabled() {
+        return heartbeat != null;
+    }
+
+    /**
+     * Сколько раз соединение было принудительно переподключено, потому что не ответило на проверку вовремя.
+     */
+    long getHeartbeatTimeouts() {
+        return heartbeatTimeouts.sum();
+    }
+
+    private void heartbeat(long timeoutNanos) {
+        for (Connection connection : connections) {
+            PubSub pubSub = connection.pubSub;
+            if (pubSub == null || !pubSub.restored || pubSub.expired || pubSub.client == null) {
+                continue;
+            }
+            long silence = System.nanoTime() - pubSub.lastActivity;
+            if (silence > timeoutNanos) {
+                pubSub.expired = true;
+                heartbeatTimeouts.increment();
+                log.warning("Соединение подписки не отвечает " + TimeUnit.NANOSECONDS.toMillis(silence) + " мс, " +
+                    "переподключаемся.");
+                try {
+                    // закрытие сокета прерывает чтение в потоке подписки, после чего он переподключится
+                    pubSub.client.getSocket().close();
+                } catch (Exception ignored) {
+                    // соединение уже закрыто
+                }
+            } else {
+                try {
+                    pubSub.ping();
+                } catch (Exception ignored) {
+                    // если будет ошибка, значит подписка оборвалась, поток подписки переподключится сам
+                }
+            }
+        }
+    }
+
+    /**
+     * Включить режим последнего значения для канала: если слушатель еще обрабатывает сообщение, новые сообщения
+     * канала для него не копятся, а заменяют друг друга, и после обработки он получит только последнее.
+     */
+    void enableConflation(byte[] channel) {
+        conflations.putIfAbsent(new ChannelKey(channel), new Conflation());
+    }
+
+    /**
+     * Выключить режим последнего значения для канала. Сообщения, которые уже ждут слушателей, будут доставлены.
+     */
+    void disableConflation(byte[] channel) {
+        Conflation conflation = conflations.remove(new ChannelKey(channel));
+        if (conflation != null) {
+            conflation.slots.clear(); // слоты с недоставленным сообщением уже в executor и доставят его
+        }
+    }
+
+    /**
+     * Количество слотов слушателей в режиме последнего значения по всем каналам.
+     */
+    int getConflationSlots() {
+        int count = 0;
+        for (Conflation conflation : conflations.values()) {
+            count += conflation.slots.size();
+        }
+        return count;
+    }
+
+    /**
+     * Сколько сообщений было заменено более новыми в режиме последнего значения, не дойдя до слушателя.
+     */
+    long getConflatedCount() {
+        return conflated.sum();
+    }
+
+    /**
+     * Ожидающие доставки сообщения канала в режиме последнего значения, по одному на слушателя.
+     */
+    private static final class Conflation {
+        private final Map<Subscriber, Slot> slots = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Последнее недоставленное сообщение одного слушателя одного канала. В {@link #executor} одновременно
+     * находится не больше одной задачи слота, по этому задач столько, сколько успевает слушатель,
+     * а не столько, сколько сообщений публикуется.
+     */
+    private final class Slot implements Runnable {
+        private final int channelHash;
+        private final Object listener;
+        private final AtomicReference<Runnable> latest = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Slot(int channelHash, Object listener) {
+            this.channelHash = channelHash;
+            this.listener = listener;
+        }
+
+        private void offer(Runnable task) {
+            if (latest.getAndSet(task) != null) {
+                conflated.increment();
+            }
+            this.schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                execute(channelHash, listener, this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Runnable task = latest.getAndSet(null);
+                if (task != null) {
+                    task.run();
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // сообщение, пришедшее во время обработки, должна забрать эта или следующая задача
+            if (latest.get() != null) {
+                this.schedule();
+            }
+        }
+    }
+
+    /**
+     * Сообщения одного канала, которые копятся для {@link BatchJedisPubSubListener}. Пакет отправляется
+     * в {@link #executor}, когда в нем {@link Subscriber#batchSize} сообщений или когда с первого сообщения
+     * прошло {@link Subscriber#batchDelay}, смотря что наступит раньше.
+     */
+    private final class Buffer {
+        private final Subscriber subscriber;
+        private List<byte[]> messages;
+        private byte[] channel;
+        private int channelHash;
+
+        /**
+         * Номер пакета, чтобы таймер не отправил раньше времени пакет, начатый после отправки по размеру.
+         */
+        private long generation;
+
+        private Buffer(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        private void add(int channelHash, byte[] channel, byte[] message) {
+            List<byte[]> full = null;
+            long timer = -1;
+            synchronized (this) {
+                if (messages == null) {
+                    messages = new ArrayList<>(Math.min(subscriber.batchSize, 64));
+                    this.channel = channel;
+                    this.channelHash = channelHash;
+                    timer = ++generation;
+                }
+                messages.add(message);
+                if (messages.size() >= subscriber.batchSize) {
+                    full = this.take();
+                    timer = -1;
+                }
+            }
+            if (full != null) {
+                this.flush(full);
+            } else if (timer != -1) {
+                long scheduled = timer;
+                ScheduledExecutorService batchTimer = JedisPubSubEngine.this.batchTimer;
+                try {
+                    batchTimer.schedule(() -> this.expire(scheduled), subscriber.batchDelay, TimeUnit.NANOSECONDS);
+                } catch (Exception e) {
+                    // таймер остановлен при закрытии подписки
+                    this.expire(scheduled);
+                }
+            }
+        }
+
+        private void expire(long generation) {
+            List<byte[]> messages;
+            synchronized (this) {
+                if (this.generation != generation || this.messages == null) {
+                    return; // этот пакет уже отправлен по размеру
+                }
+                messages = this.take();
+            }
+            this.flush(messages);
+        }
+
+        private List<byte[]> take() {
+            List<byte[]> messages = this.messages;
+            this.messages = null;
+            return messages;
+        }
+
+        private void flush(List<byte[]> messages) {
+            byte[] channel = this.channel;
+            BatchJedisPubSubListener listener = (BatchJedisPubSubListener) subscriber.listener;
+            execute(channelHash, listener, () -> {
+                String channelText = SafeEncoder.encode(channel);
+                List<String> texts = new ArrayList<>(messages.size());
+                for (byte[] message : messages) {
+                    texts.add(SafeEncoder.encode(message));
+                }
+                try {
+                    listener.onMessages(channelText, texts);
+                } catch (Exception e) {
+                    log.log(Level.SEVERE, "Ошибка обработки пакета из " + texts.size() + " сообщений канала " +
+                        channelText + ", listener: " + listener, e);
+                }
+            });
+        }
+    }
+
+    void setPause(boolean pause) {
+        PauseBuffer buffer = pauseBuffer;
+        if (pause || buffer == null) {
+            if (this.pause != pause) {
+                log.info(pause ? "Подписка поставлена на паузу." : "Подписка снята с паузы, " +
+                    "отброшено сообщений за все время: " + pauseDropped.sum() + ".");
+            }
+            this.pause = pause;
+            return;
+        }
+        synchronized (buffer) {
+            if (!this.pause || replaying) {
+                return;
+            }
+            replaying = true;
+            this.pause = false;
+        }
+        int replayed = 0;
+        try {
+            while (true) {
+                List<Paused> messages;
+                synchronized (buffer) {
+                    // если пауза поставлена снова, остальные сообщения дождутся ее снятия
+                    messages = this.pause ? Collections.emptyList() : buffer.drain();
+                    if (messages.isEmpty()) {
+                        replaying = false;
+                        break;
+                    }
+                }
+                for (Paused paused : messages) {
+                    this.replay(paused);
+                }
+                replayed += messages.size();
+            }
+        } finally {
+            replaying = false;
+        }
+        log.info("Подписка снята с паузы, доставлено сообщений из буфера: " + replayed + ", " +
+            "отброшено сообщений за все время: " + pauseDropped.sum() + ".");
+    }
+
+    private void replay(Paused paused) {
+        if (paused.pattern == null) {
+            int hash = ChannelKey.hash(paused.channel);
+            Subscriber[] subscribers = subscribes.get(paused.channel, hash);
+            if (subscribers != null) {
+                this.dispatch(subscribers, conflations.get(paused.channel, hash), null, paused.channel, hash,
+                    paused.message);
+            }
+        } else {
+            Subscriber[] subscribers = patternSubscribes.get(paused.pattern, ChannelKey.hash(paused.pattern));
+            if (subscribers != null) {
+                this.dispatch(subscribers, null, paused.pattern, paused.channel, ChannelKey.hash(paused.channel),
+                    paused.message);
+            }
+        }
+    }
+
+    /**
+     * Включить буфер для сообщений, которые приходят во время паузы {@link #setPause(boolean)}. Когда пауза
+     * будет снята, сообщения из буфера будут доставлены по порядку, а потом уже новые сообщения.
+     *
+     * @param capacity максимальное количество сообщений в буфере.
+     * @param policy   что делать с сообщением, если буфер заполнен: {@link JedisDispatchQueue.OverflowPolicy#DROP_NEWEST}
+     *                 или {@link JedisDispatchQueue.OverflowPolicy#DROP_OLDEST}.
+     */
+    void enablePauseBuffer(int capacity, JedisDispatchQueue.OverflowPolicy policy) {
+        if (policy != JedisDispatchQueue.OverflowPolicy.DROP_NEWEST && policy != JedisDispatchQueue.OverflowPolicy.DROP_OLDEST) {
+            throw new IllegalArgumentException("pause buffer supports only DROP_NEWEST and DROP_OLDEST: " + policy);
+        }
+        PauseBuffer buffer = new PauseBuffer(capacity, policy);
+        PauseBuffer previous = pauseBuffer;
+        if (previous != null) {
+            synchronized (previous) {
+                buffer.addAll(previous.drain(), pauseDropped);
+                pauseBuffer = buffer;
+            }
+        } else {
+            pauseBuffer = buffer;
+        }
+    }
+
+    /**
+     * Выключить буфер паузы. Сообщения, которые в нем остались, будут отброшены.
+     */
+    void disablePauseBuffer() {
+        PauseBuffer previous = pauseBuffer;
+        if (previous != null) {
+            synchronized (previous) {
+                pauseDropped.add(previous.drain().size());
+                pauseBuffer = null;
+            }
+        }
+    }
+
+    /**
+     * Сколько сообщений сейчас ждет в буфере паузы.
+     */
+    int getPauseBuffered() {
+        PauseBuffer buffer = pauseBuffer;
+        if (buffer == null) {
+            return 0;
+        }
+        synchronized (buffer) {
+            return buffer.size;
+        }
+    }
+
+    /**
+     * Сколько сообщений было отброшено из-за паузы.
+     */
+    long getPauseDropped() {
+        return pauseDropped.sum();
+    }
+
+    /**
+     * Сообщение, пришедшее во время паузы.
+     */
+    private static final class Paused {
+        private final byte[] pattern;
+        private final byte[] channel;
+        private final byte[] message;
+
+        private Paused(byte[] pattern, byte[] channel, byte[] message) {
+            this.pattern = pattern;
+            this.channel = channel;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Кольцевой буфер сообщений, пришедших во время паузы. Все методы вызываются под блокировкой на самом буфере.
+     */
+    private static final class PauseBuffer {
+        private final JedisDispatchQueue.OverflowPolicy policy;
+        private final Paused[] ring;
+        private int head;
+        private int size;
+
+        private PauseBuffer(int capacity, JedisDispatchQueue.OverflowPolicy policy) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            this.policy = policy;
+            this.ring = new Paused[capacity];
+        }
+
+        /**
+         * @return false, если буфер заполнен и сообщение отброшено. При {@link JedisDispatchQueue.OverflowPolicy#DROP_OLDEST}
+         * вместо него отбрасывается самое старое сообщение, в этом случае тоже вернется false.
+         */
+        private boolean add(Paused paused) {
+            boolean accepted = true;
+            if (size == ring.length) {
+                if (policy == JedisDispatchQueue.OverflowPolicy.DROP_NEWEST) {
+                    return false;
+                }
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+                size--;
+                accepted = false;
+            }
+            ring[(head + size) % ring.length] = paused;
+            size++;
+            return accepted;
+        }
+
+        private void addAll(List<Paused> messages, LongAdder dropped) {
+            for (Paused paused : messages) {
+                if (!this.add(paused)) {
+                    dropped.increment();
+                }
+            }
+        }
+
+        private List<Paused> drain() {
+            List<Paused> messages = new ArrayList<>(size);
+            for (; size > 0; size--) {
+                messages.add(ring[head]);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+            }
+            return messages;
+        }
+    }
+
+    void checkForClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("this resource is closed");
+        }
+    }
+
+    /**
+     * Поток, в котором работает подписка первого соединения, или {@code null}, если подписка еще не создана.
+     */
+    Thread getThread() {
+        return connections[0].thread;
+    }
+
+    /**
+     * Объект подписки Jedis первого соединения или {@code null}, если подписка еще не создана.
+     */
+    PubSub getPubSub() {
+        return connections[0].pubSub;
+    }
+
+    /**
+     * Количество соединений подписки.
+     */
+    int getConnectionCount() {
+        return connections.length;
+    }
+
+    /**
+     * Подписаны ли сейчас все соединения и подтвердил ли Redis все их каналы и шаблоны.
+     */
+    boolean isSubscribed() {
+        for (Connection connection : connections) {
+            PubSub pubSub = connection.pubSub;
+            if (pubSub == null || !pubSub.isSubscribed() || !pubSub.confirmed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Счетчик, сколько раз подписка была зарегистрирована, сумма по всем соединениям. Увеличивается, когда
+     * Redis подтвердил служебный канал соединения, еще до восстановления остальных каналов, а {@link #isSubscribed()}
+     * становится {@code true} позже, после подтверждения всех каналов и шаблонов.
+     */
+    int getResubscribeCount() {
+        int count = 0;
+        for (Connection connection : connections) {
+            count += connection.resubscribeCount;
+        }
+        return count;
+    }
+
+    /**
+     * Сколько миллисекунд соединения суммарно были без подписки после обрывов.
+     */
+    long getDowntimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(downtimeNanos.sum());
+    }
+
+    /**
+     * Завершить работу подписки: отписать все соединения, дождаться отмены подписок и остановить потоки.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+
+            // поток подписки может ждать места в очереди, его нужно отпустить до ожидания отписки
+            disableDispatchQueue();
+            disableHeartbeat();
+            if (batchTimer != null) {
+                batchTimer.shutdown(); // пакеты, которые ждут задержки, будут отправлены
+            }
+
+            for (List<Batch> batches : pendingAcks.values()) {
+                batches.forEach(Batch::fail);
+            }
+            pendingAcks.clear();
+
+            for (Connection connection : connections) {
+                try {
+                    PubSub pubSub = connection.pubSub;
+                    if (pubSub != null && pubSub.isSubscribed()) {
+                        pubSub.unsubscribe();
+                        if (connection.index == 0 && !patternSubscribes.isEmpty()) {
+                            pubSub.punsubscribe();
+                        }
+                    }
+                } catch (Exception e) {
+                    log.severe("Unsubscribe " + name + " exception, " +
+                        "ignore this exception for idempotency of " + name + ".close().");
+                    e.printStackTrace();
+                }
+            }
+
+            for (Connection connection : connections) {
+                try {
+                    PubSub pubSub = connection.pubSub;
+                    if (pubSub != null) {
+                        while (pubSub.isSubscribed()) {
+                            if (!unsubscribed.await(10, TimeUnit.SECONDS)) {
+                                throw new TimeoutException("Таймаут ожидания отмены подписки pubSub.");
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    log.severe("Unsubscribe " + name + " exception, " +
+                        "ignore this exception for idempotency of " + name + ".close().");
+                    e.printStackTrace();
+                }
+
+                try {
+                    Thread thread = connection.thread;
+                    if (thread != null && !thread.isInterrupted()) {
+                        thread.interrupt();
+                    }
+                } catch (Exception e) {
+                    log.severe("Interrupt thread " + name + " exception, " +
+                        "ignore this exception for idempotency of " + name + ".close().");
+                    e.printStackTrace();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Слушатель в реестре подписок вместе с тем, в каком виде он получает сообщения.
+     */
+    static final class Subscriber {
+        private final Object listener;
+        private final boolean binary;
+
+        /**
+         * Максимальный размер пакета для {@link BatchJedisPubSubListener} или {@code 0}, если слушатель получает
+         * сообщения по одному.
+         */
+        private final int batchSize;
+
+        /**
+         * Максимальная задержка пакета в наносекундах.
+         */
+        private final long batchDelay;
+
+        /**
+         * Накопленные сообщения канала, в реестре подписок у пакетного слушателя свой буфер на каждый канал.
+         */
+        private final Buffer buffer;
+
+        /**
+         * @param listener слушатель: {@link JedisPubSubListener}, {@link BinaryJedisPubSubListener},
+         *                 {@link JedisPubSubPatternListener} или {@link BinaryJedisPubSubPatternListener}.
+         * @param binary   получает ли слушатель сообщения в байтах.
+         */
+        Subscriber(Object listener, boolean binary) {
+            this(listener, binary, 0, 0, null);
+        }
+
+        /**
+         * Пакетный слушатель {@link BatchJedisPubSubListener}.
+         *
+         * @param batchSize  максимальный размер пакета.
+         * @param batchDelay максимальная задержка пакета в наносекундах.
+         */
+        Subscriber(Object listener, int batchSize, long batchDelay) {
+            this(listener, false, batchSize, batchDelay, null);
+            if (batchSize < 1 || batchDelay < 0) {
+                throw new IllegalArgumentException("batchSize must be positive and batchDelay not negative: " +
+                    batchSize + ", " + batchDelay);
+            }
+        }
+
+        private Subscriber(Object listener, boolean binary, int batchSize, long batchDelay, Buffer buffer) {
+            this.listener = listener;
+            this.binary = binary;
+            this.batchSize = batchSize;
+            this.batchDelay = batchDelay;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Subscriber)) {
+                return false;
+            }
+            Subscriber other = (Subscriber) o;
+            return binary == other.binary && listener.equals(other.listener);
+        }
+
+        @Override
+        public int hashCode() {
+            return listener.hashCode();
+        }
+    }
+
+    /**
+     * Пакетная подписка, которая ждет подтверждения всех своих каналов.
+     */
+    private class Batch {
+        /**
+         * Сколько каналов еще не подтверждено. Начинается с 1, чтобы пакет не завершился, пока
+         * каналы еще добавляются, см. {@link #ready}.
+         */
+        private final AtomicInteger remaining = new AtomicInteger(1);
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        /**
+         * Ждать подтверждения канала, вызывается под блокировкой {@link #lock} до отправки канала в Redis.
+         */
+        private void await(ChannelKey channel) {
+            remaining.incrementAndGet();
+            pendingAcks.compute(channel, (key, batches) -> {
+                if (batches == null) {
+                    batches = new ArrayList<>(1);
+                }
+                batches.add(this);
+                return batches;
+            });
+        }
+
+        private void ack() {
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(null);
+            }
+        }
+
+        private void fail() {
+            future.completeExceptionally(new IllegalStateException("this resource is closed"));
+        }
+
+        private CompletableFuture<Void> ready() {
+            this.ack();
+            return future;
+        }
+    }
+
+    /**
+     * Соединение подписки со своим потоком. Поток держит подписку {@link PubSub} и создает ее заново
+     * с новым соединением {@link Jedis}, если она оборвалась.
+     */
+    private class Connection {
+        private final int index;
+
+        /**
+         * Поток, в котором работает подписка.
+         */
+        private Thread thread;
+
+        /**
+         * Объект подписки Jedis этого соединения.
+         */
+        private volatile PubSub pubSub;
+
+        /**
+         * Счетчик, сколько раз подписка этого соединения была зарегистрирована.
+         */
+        private int resubscribeCount;
+
+        /**
+         * Сколько попыток подписаться подряд завершились ошибкой. Сбрасывается при успешной подписке.
+         */
+        private int failures;
+
+        /**
+         * Время {@link System#nanoTime()}, когда подписка оборвалась, или {@code 0}, если она работает.
+         */
+        private long downSince;
+
+        private Connection(int index) {
+            this.index = index;
+        }
+
+        private void start() {
+            String threadName = name + " Thread";
+            thread = new SubscriptionThread(() -> {
+                while (!(closed || Thread.currentThread().isInterrupted() || pool.isClosed())) {
+                    try (Jedis jedis = pool.getResource()) {
+                        PubSub pubSub = new PubSub(this);
+                        this.pubSub = pubSub;
+                        try {
+                            // каналы отправляются после подтверждения служебного канала, см. PubSub#onSubscribe
+                            jedis.subscribe(pubSub, dummyChannel);
+                        } catch (Exception e) {
+                            // соединение может остаться в режиме подписки, в пул его возвращать нельзя
+                            jedis.disconnect();
+                            throw e;
+                        }
+                    } catch (Exception e) {
+                        if (closed) {
+                            break;
+                        }
+                        if (++failures == 1) {
+                            log.log(Level.WARNING, "Подписка оборвалась с ошибкой.", e);
+                        } else {
+                            // полный стек пишется только для первой ошибки, чтобы не засорять лог, пока Redis недоступен
+                            log.warning("Не удалось восстановить подписку, попытка " + failures + ": " + e);
+                        }
+                    }
+                    if (closed) {
+                        break;
+                    }
+                    if (downSince == 0) {
+                        downSince = System.nanoTime();
+                    }
+                    if (failures > 0) {
+                        try {
+                            Thread.sleep(backoff.delay(failures));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                }
+
+                // на всякий случай, если поток завершил работу в результате ошибки
+                close();
+            }, connections.length == 1 ? threadName : threadName + " " + index);
+
+            thread.start();
+        }
+
+        /**
+         * Отправить каналы командами {@code SUBSCRIBE} или {@code UNSUBSCRIBE} по {@code chunkSize} каналов.
+         */
+        private void send(List<byte[]> channels, Consumer<byte[][]> command) {
+            try {
+                for (int from = 0; from < channels.size(); from += chunkSize) {
+                    List<byte[]> chunk = channels.subList(from, Math.min(channels.size(), from + chunkSize));
+                    command.accept(chunk.toArray(new byte[0][]));
+                }
+            } catch (Exception ignored) {
+                // если будет ошибка, значит подписка оборвалась, в таком случае
+                // повторная подписка зарегистрирует каналы заново по реестру подписок
+            }
+        }
+    }
+
+    /**
+     * Поток подписки, который помнит, что его остановили.
+     * <p>
+     * Флаг прерывания обычного потока не переживает его завершение: в Java 8 завершенный поток
+     * всегда возвращает {@code false} из {@link Thread#isInterrupted()}, даже если его прервали.
+     * Поток подписки после {@link #close()} быстро завершается, поэтому остановка запоминается
+     * отдельно, и {@link #isInterrupted()} возвращает {@code true} и после завершения потока.
+     */
+    private static class SubscriptionThread extends Thread {
+
+        /**
+         * Поток был прерван через {@link #interrupt()}.
+         */
+        private volatile boolean stopped;
+
+        private SubscriptionThread(Runnable target, String name) {
+            super(target, name);
+        }
+
+        @Override
+        public void interrupt() {
+            stopped = true;
+            super.interrupt();
+        }
+
+        @Override
+        public boolean isInterrupted() {
+            return stopped || super.isInterrupted();
+        }
+    }
+
+    class PubSub extends BinaryJedisPubSub {
+
+        private final Connection connection;
+
+        /**
+         * Соединение подписки. Команды в него пишутся методом {@link JedisPubSubEngine#send}.
+         */
+        private volatile Client client;
+
+        /**
+         * Эта подписка в виде {@link JedisPubSub} для {@link JedisPubSubWrapper#getPubSub()}.
+         */
+        private JedisPubSub view;
+
+        /**
+         * Отправлены ли каналы этого соединения после подтверждения служебного канала. Следующие подтверждения
+         * служебного канала являются ответами на проверку соединения.
+         */
+        private volatile boolean restored;
+
+        /**
+         * Подтвердил ли Redis все каналы и шаблоны, отправленные при восстановлении подписки. После каналов
+         * служебный канал отправляется еще раз, и Redis отвечает на команды по порядку, по этому его
+         * подтверждение означает, что все каналы перед ним уже подписаны.
+         */
+        private volatile boolean confirmed;
+
+        /**
+         * Сколько каналов и шаблонов было отправлено при восстановлении подписки.
+         */
+        private int restoredChannels;
+
+        /**
+         * Время {@link System#nanoTime()}, когда из соединения последний раз что-то пришло.
+         */
+        private volatile long lastActivity = System.nanoTime();
+
+        /**
+         * Соединение закрыто проверкой, потому что не отвечало.
+         */
+        private volatile boolean expired;
+
+        private PubSub(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void proceed(Client client, byte[]... channels) {
+            this.client = client;
+            super.proceed(client, channels);
+        }
+
+        @Override
+        public void subscribe(byte[]... channels) {
+            JedisPubSubEngine.send(client, Protocol.Command.SUBSCRIBE, channels);
+        }
+
+        @Override
+        public void unsubscribe(byte[]... channels) {
+            JedisPubSubEngine.send(client, Protocol.Command.UNSUBSCRIBE, channels);
+        }
+
+        @Override
+        public void unsubscribe() {
+            JedisPubSubEngine.send(client, Protocol.Command.UNSUBSCRIBE);
+        }
+
+        @Override
+        public void psubscribe(byte[]... patterns) {
+            JedisPubSubEngine.send(client, Protocol.Command.PSUBSCRIBE, patterns);
+        }
+
+        @Override
+        public void punsubscribe(byte[]... patterns) {
+            JedisPubSubEngine.send(client, Protocol.Command.PUNSUBSCRIBE, patterns);
+        }
+
+        @Override
+        public void punsubscribe() {
+            JedisPubSubEngine.send(client, Protocol.Command.PUNSUBSCRIBE);
+        }
+
+        /**
+         * Проверить соединение повторным {@code SUBSCRIBE} служебного канала, на который Redis отвечает
+         * подтверждением. Пока подписки восстанавливаются, проверка не отправляется: ее подтверждение
+         * приняли бы за подтверждение восстановления.
+         */
+        void ping() {
+            if (client == null) {
+                throw new JedisConnectionException("JedisPubSub is not subscribed to a Jedis instance.");
+            }
+            if (restored) {
+                JedisPubSubEngine.send(client, Protocol.Command.SUBSCRIBE, dummyChannel);
+            }
+        }
+
+        @Override
+        public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
+            lastActivity = System.nanoTime();
+            callPatternListeners(connection, pattern, channel, message);
+        }
+
+        @Override
+        public void onMessage(byte[] channel, byte[] message) {
+            lastActivity = System.nanoTime();
+            callListeners(connection, channel, message);
+        }
+
+        @Override
+        public void onSubscribe(byte[] channel, int subscribedChannels) {
+            lastActivity = System.nanoTime();
+            if (!pendingAcks.isEmpty()) {
+                List<Batch> batches = pendingAcks.remove(new ChannelKey(channel));
+                if (batches != null) {
+                    batches.forEach(Batch::ack);
+                }
+            }
+            if (Arrays.equals(channel, dummyChannel)) {
+                if (!restored) {
+                    this.restore();
+                } else if (!confirmed) {
+                    this.confirm();
+                }
+                // иначе это ответ на проверку соединения
+            }
+        }
+
+        /**
+         * Отправить каналы и шаблоны этого соединения после подтверждения служебного канала,
+         * а за ними служебный канал еще раз, см. {@link #confirmed}.
+         */
+        private void restore() {
+            connection.failures = 0;
+            connection.resubscribeCount++;
+            int restored = 0;
+            lock.lock();
+            try {
+                // каналы и шаблоны отправляются командами по chunkSize, а не одной командой на все каналы,
+                // чтобы повторная подписка на десятки тысяч каналов не упиралась в размер одной команды
+                List<byte[]> channels = new ArrayList<>();
+                for (ChannelKey key : subscribes.keys()) {
+                    if (connectionOf(key) == connection) {
+                        channels.add(key.getBytes());
+                    }
+                }
+                connection.send(channels, this::subscribe);
+                restored += channels.size();
+
+                if (connection.index == 0 && !patternSubscribes.isEmpty()) {
+                    List<byte[]> patterns = new ArrayList<>();
+                    for (ChannelKey pattern : patternSubscribes.keys()) {
+                        patterns.add(pattern.getBytes());
+                    }
+                    connection.send(patterns, this::psubscribe);
+                    restored += patterns.size();
+                }
+                connection.send(Collections.singletonList(dummyChannel), this::subscribe);
+                restoredChannels = restored;
+                this.restored = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Redis подтвердил все каналы и шаблоны соединения, подписка полностью восстановлена.
+         */
+        private void confirm() {
+            int resubscribeCount = connection.resubscribeCount;
+            lock.lock();
+            try {
+                confirmed = true;
+                subscribed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            int restored = restoredChannels;
+            long downSince = connection.downSince;
+            if (downSince != 0) {
+                // вызывается в случае повторной регистрации подписки,
+                // если предыдущая по какой-то причине оборвалась
+                connection.downSince = 0;
+                long downtime = System.nanoTime() - downSince;
+                downtimeNanos.add(downtime);
+                log.info("Подписка зарегистрирована заново в " + resubscribeCount + " раз, " +
+                    "без подписки " + TimeUnit.NANOSECONDS.toMillis(downtime) + " мс, " +
+                    "восстановлено каналов и шаблонов: " + restored + ".");
+                JedisReconnectListener reconnectListener = JedisPubSubEngine.this.reconnectListener;
+                if (reconnectListener != null) {
+                    try {
+                        reconnectListener.onReconnect(connection.index, resubscribeCount,
+                            TimeUnit.NANOSECONDS.toMillis(downtime), restored);
+                    } catch (Exception e) {
+                        log.log(Level.SEVERE, "Ошибка обработки восстановления подписки, listener: " + reconnectListener, e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onPUnsubscribe(byte[] pattern, int subscribedChannels) {
+            this.onUnsubscribe(pattern, subscribedChannels);
+        }
+
+        @Override
+        public void onUnsubscribe(byte[] channel, int subscribedChannels) {
+            lastActivity = System.nanoTime();
+            if (!this.isSubscribed()) {
+                lock.lock();
+                try {
+                    unsubscribed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Эта подписка в виде {@link JedisPubSub}. Команды переводятся в байты и отправляются в это же соединение.
+         */
+        JedisPubSub asJedisPubSub() {
+            JedisPubSub view = this.view;
+            if (view == null) {
+                this.view = view = new JedisPubSub() {
+                    @Override
+                    public void subscribe(String... channels) {
+                        PubSub.this.subscribe(SafeEncoder.encodeMany(channels));
+                    }
+
+                    @Override
+                    public void unsubscribe(String... channels) {
+                        PubSub.this.unsubscribe(SafeEncoder.encodeMany(channels));
+                    }
+
+                    @Override
+                    public void unsubscribe() {
+                        PubSub.this.unsubscribe();
+                    }
+
+                    @Override
+                    public void psubscribe(String... patterns) {
+                        PubSub.this.psubscribe(SafeEncoder.encodeMany(patterns));
+                    }
+
+                    @Override
+                    public void punsubscribe(String... patterns) {
+                        PubSub.this.punsubscribe(SafeEncoder.encodeMany(patterns));
+                    }
+
+                    @Override
+                    public void punsubscribe() {
+                        PubSub.this.punsubscribe();
+                    }
+
+                    @Override
+                    public void ping() {
+                        // BinaryJedisPubSub не умеет разбирать ответ PONG, по этому вместо PING отправляется проверка
+                        PubSub.this.ping();
+                    }
+
+                    @Override
+                    public boolean isSubscribed() {
+                        return PubSub.this.isSubscribed();
+                    }
+
+                    @Override
+                    public int getSubscribedChannels() {
+                        return PubSub.this.getSubscribedChannels();
+                    }
+                };
+            }
+            return view;
+        }
+    }
+}
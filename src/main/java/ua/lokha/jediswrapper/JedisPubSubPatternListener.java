@@ -0,0 +1,16 @@
+package ua.lokha.jediswrapper;
+
+/**
+ * Интерфейс для обработки сообщений, которые приходят на каналы, подходящие под шаблон подписки.
+ */
+public interface JedisPubSubPatternListener {
+
+    /**
+     * Вызывается, когда на канал, подходящий под шаблон, приходит сообщение.
+     *
+     * @param pattern шаблон, по которому была оформлена подписка.
+     * @param channel канал, на который пришло сообщение.
+     * @param message сообщение.
+     */
+    void onMessage(String pattern, String channel, String message) throws Exception;
+}
@@ -0,0 +1,17 @@
+package ua.lokha.jediswrapper;
+
+/**
+ * Интерфейс для уведомлений о восстановлении соединения подписки после обрыва.
+ */
+public interface JedisReconnectListener {
+
+    /**
+     * Вызывается в потоке подписки, когда соединение снова подписано, а Redis подтвердил все каналы и шаблоны.
+     *
+     * @param connection       номер соединения подписки, начиная с 0.
+     * @param resubscribeCount сколько раз подписка этого соединения была зарегистрирована.
+     * @param downtimeMillis   сколько миллисекунд соединение было без подписки.
+     * @param channels         сколько каналов и шаблонов было подписано заново.
+     */
+    void onReconnect(int connection, int resubscribeCount, long downtimeMillis, int channels) throws Exception;
+}
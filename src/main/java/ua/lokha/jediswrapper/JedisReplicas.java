@@ -0,0 +1,317 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Setter;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.util.Pool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Реплики, на которые {@link JedisWrapper} отправляет команды чтения, чтобы разгрузить мастер.
+ * Включается методом {@link JedisWrapper#enableReplicas(List, Balancing)}.
+ *
+ * <p>На реплики отправляются только команды из {@link #getReadOnlyCommands()}: {@code GET}, {@code MGET},
+ * {@code HGET}, {@code ZRANGE*}, {@code GEORADIUS_RO}, {@code SCAN} и т.д. Команды записи, блокирующие команды,
+ * {@code WATCH}, {@link JedisWrapper#pipelined()}, {@link JedisWrapper#multi()} и подписки по прежнему выполняются
+ * на мастере {@link JedisWrapper#getPool()}.
+ *
+ * <p>Реплики отстают от мастера, по этому только что записанное значение может быть еще не видно. Если это важно,
+ * чтение можно выполнить на мастере:
+ * <ul>
+ *     <li>для отдельного вызова: {@code replicas.onMaster(() -> jedisWrapper.get(key))};</li>
+ *     <li>для потока после записи: {@link #setReadYourWritesMillis(long)}, тогда поток, который выполнил команду
+ *     записи, указанное время читает с мастера.</li>
+ * </ul>
+ *
+ * <p>Если реплика недоступна, команда повторяется на мастере.
+ */
+public class JedisReplicas {
+
+    /**
+     * Способ выбора реплики для команды.
+     */
+    public enum Balancing {
+        /**
+         * Реплика с наименьшим количеством выполняющихся команд. Подходит, когда реплики одинаковые.
+         */
+        LEAST_OUTSTANDING,
+        /**
+         * Из двух случайных реплик выбирается та, у которой меньше среднее время ответа, умноженное на количество
+         * выполняющихся команд. Подходит, когда реплики находятся на разном расстоянии или по разному загружены.
+         */
+        LATENCY_WEIGHTED
+    }
+
+    /**
+     * Команды, которые можно выполнять на репликах.
+     */
+    private static final Set<Protocol.Command> readOnlyCommands = Collections.unmodifiableSet(EnumSet.of(
+        Protocol.Command.GET, Protocol.Command.MGET, Protocol.Command.EXISTS, Protocol.Command.TYPE,
+        Protocol.Command.TTL, Protocol.Command.PTTL, Protocol.Command.STRLEN, Protocol.Command.GETRANGE,
+        Protocol.Command.SUBSTR, Protocol.Command.GETBIT, Protocol.Command.BITCOUNT, Protocol.Command.BITPOS,
+        Protocol.Command.DUMP, Protocol.Command.KEYS, Protocol.Command.SCAN, Protocol.Command.RANDOMKEY,
+        Protocol.Command.DBSIZE,
+        Protocol.Command.HGET, Protocol.Command.HMGET, Protocol.Command.HGETALL, Protocol.Command.HKEYS,
+        Protocol.Command.HVALS, Protocol.Command.HLEN, Protocol.Command.HEXISTS, Protocol.Command.HSTRLEN,
+        Protocol.Command.HSCAN,
+        Protocol.Command.LLEN, Protocol.Command.LRANGE, Protocol.Command.LINDEX,
+        Protocol.Command.SCARD, Protocol.Command.SISMEMBER, Protocol.Command.SMEMBERS, Protocol.Command.SRANDMEMBER,
+        Protocol.Command.SINTER, Protocol.Command.SUNION, Protocol.Command.SDIFF, Protocol.Command.SSCAN,
+        Protocol.Command.ZCARD, Protocol.Command.ZSCORE, Protocol.Command.ZRANK, Protocol.Command.ZREVRANK,
+        Protocol.Command.ZRANGE, Protocol.Command.ZREVRANGE, Protocol.Command.ZRANGEBYSCORE,
+        Protocol.Command.ZREVRANGEBYSCORE, Protocol.Command.ZRANGEBYLEX, Protocol.Command.ZREVRANGEBYLEX,
+        Protocol.Command.ZCOUNT, Protocol.Command.ZLEXCOUNT, Protocol.Command.ZSCAN,
+        Protocol.Command.GEOPOS, Protocol.Command.GEODIST, Protocol.Command.GEOHASH,
+        Protocol.Command.GEORADIUS_RO, Protocol.Command.GEORADIUSBYMEMBER_RO
+    ));
+
+    /**
+     * Сколько наносекунд считать временем ответа реплики после ошибки соединения, чтобы
+     * {@link Balancing#LATENCY_WEIGHTED} реже ее выбирал.
+     */
+    private static final long failurePenaltyNanos = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Реплики в порядке, в котором пулы были переданы в {@link JedisWrapper#enableReplicas(List, Balancing)}.
+     */
+    @Getter
+    private final List<Replica> replicas;
+
+    /**
+     * Способ выбора реплики.
+     */
+    @Getter
+    private final Balancing balancing;
+
+    /**
+     * Сколько миллисекунд после команды записи поток читает с мастера. {@code 0} - не читать с мастера после записи.
+     */
+    @Getter
+    @Setter
+    private volatile long readYourWritesMillis;
+
+    /**
+     * Количество команд чтения, которые выполнились на мастере из-за {@link #onMaster(Supplier)},
+     * {@link #setReadYourWritesMillis(long)} или недоступности реплики.
+     */
+    private final LongAdder masterReads = new LongAdder();
+
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(ThreadState::new);
+
+    JedisReplicas(List<? extends Pool<Jedis>> pools, Balancing balancing) {
+        if (pools.isEmpty()) {
+            throw new IllegalArgumentException("replicas is empty");
+        }
+        List<Replica> replicas = new ArrayList<>(pools.size());
+        for (Pool<Jedis> pool : pools) {
+            replicas.add(new Replica(pool));
+        }
+        this.replicas = Collections.unmodifiableList(replicas);
+        this.balancing = balancing;
+    }
+
+    /**
+     * Команды, которые выполняются на репликах.
+     */
+    public static Set<Protocol.Command> getReadOnlyCommands() {
+        return readOnlyCommands;
+    }
+
+    /**
+     * Выполнить команды на мастере. Все команды чтения, которые выполнит текущий поток внутри {@code call},
+     * пойдут на мастер, а не на реплики.
+     *
+     * @return результат {@code call}.
+     */
+    public <R> R onMaster(Supplier<R> call) {
+        ThreadState state = threadState.get();
+        state.masterDepth++;
+        try {
+            return call.get();
+        } finally {
+            state.masterDepth--;
+        }
+    }
+
+    /**
+     * Работает так же, как и {@link #onMaster(Supplier)}, но без результата.
+     */
+    public void onMaster(Runnable call) {
+        this.onMaster(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Количество команд чтения, которые выполнились на мастере из-за {@link #onMaster(Supplier)},
+     * {@link #setReadYourWritesMillis(long)} или недоступности реплики.
+     */
+    public long getMasterReads() {
+        return masterReads.sum();
+    }
+
+    /**
+     * Определить, выполнять ли команду на реплике. Для команд записи запоминает время записи текущего потока,
+     * если включен {@link #setReadYourWritesMillis(long)}.
+     *
+     * @param command команда или {@code null}, если ее не удалось определить.
+     * @return true, если команду нужно выполнить на реплике.
+     */
+    boolean isReplicaRead(Protocol.Command command) {
+        long readYourWritesMillis = this.readYourWritesMillis;
+        if (command == null || !readOnlyCommands.contains(command)) {
+            if (readYourWritesMillis > 0) {
+                threadState.get().lastWriteNanos = System.nanoTime();
+            }
+            return false;
+        }
+        ThreadState state = threadState.get();
+        if (state.masterDepth > 0 || (readYourWritesMillis > 0 && state.lastWriteNanos != 0 &&
+            System.nanoTime() - state.lastWriteNanos < TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis))) {
+            masterReads.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Выполнить команду чтения на выбранной реплике.
+     *
+     * @throws JedisConnectionException если реплика недоступна, в таком случае команду надо выполнить на мастере.
+     */
+    <T> T execute(Function<Jedis, T> action, JedisInvocation<T> invocation) {
+        Replica replica = this.select();
+        replica.outstanding.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result;
+            try (Jedis jedis = replica.pool.getResource()) {
+                if (invocation != null) {
+                    invocation.borrowed(System.nanoTime() - start);
+                }
+                result = action.apply(jedis);
+            }
+            replica.update(System.nanoTime() - start);
+            replica.requests.increment();
+            return result;
+        } catch (JedisConnectionException e) {
+            replica.update(failurePenaltyNanos);
+            replica.failures.increment();
+            masterReads.increment();
+            throw e;
+        } finally {
+            replica.outstanding.decrementAndGet();
+        }
+    }
+
+    private Replica select() {
+        List<Replica> replicas = this.replicas;
+        int size = replicas.size();
+        if (size == 1) {
+            return replicas.get(0);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (balancing == Balancing.LATENCY_WEIGHTED) {
+            Replica first = replicas.get(random.nextInt(size));
+            Replica second = replicas.get(random.nextInt(size - 1));
+            if (second == first) {
+                second = replicas.get(size - 1);
+            }
+            return first.score() <= second.score() ? first : second;
+        }
+        int start = random.nextInt(size); // случайное начало, чтобы при равенстве не выбирать всегда первую
+        Replica best = null;
+        int bestOutstanding = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            int outstanding = replica.outstanding.get();
+            if (outstanding < bestOutstanding) {
+                best = replica;
+                bestOutstanding = outstanding;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Реплика и ее статистика.
+     */
+    public static class Replica {
+
+        /**
+         * Пул соединений реплики.
+         */
+        @Getter
+        private final Pool<Jedis> pool;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        /**
+         * Экспоненциально сглаженное время ответа в наносекундах, включая ожидание соединения из пула.
+         */
+        private volatile long latencyNanos;
+
+        private Replica(Pool<Jedis> pool) {
+            this.pool = pool;
+        }
+
+        /**
+         * Количество команд, которые выполняются на реплике прямо сейчас.
+         */
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        /**
+         * Количество выполненных на реплике команд.
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * Количество ошибок соединения с репликой.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Сглаженное время ответа реплики в наносекундах.
+         */
+        public long getLatencyNanos() {
+            return latencyNanos;
+        }
+
+        private void update(long nanos) {
+            long latency = this.latencyNanos;
+            // гонка между потоками допустима, теряется только одно из одновременных измерений
+            this.latencyNanos = latency == 0 ? nanos : latency + (nanos - latency) / 8;
+        }
+
+        private long score() {
+            return Math.max(latencyNanos, 1) * (outstanding.get() + 1);
+        }
+    }
+
+    private static class ThreadState {
+        private int masterDepth;
+        private long lastWriteNanos;
+    }
+}
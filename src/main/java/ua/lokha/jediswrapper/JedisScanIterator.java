@@ -0,0 +1,164 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Lombok;
+import lombok.Setter;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Ленивый обход команд {@code SCAN}, {@code HSCAN}, {@code SSCAN} и {@code ZSCAN}. Страницы запрашиваются
+ * у Redis по мере чтения, по этому в памяти находится не больше одной страницы (двух с предзагрузкой), а Redis
+ * не блокируется, как при {@code KEYS}, {@code SMEMBERS} или {@code HGETALL} на больших данных.
+ *
+ * <p>Курсор ведется внутри итератора. Как и в самом {@code SCAN}, элемент, который добавили или удалили
+ * во время обхода, может быть возвращен или пропущен, а некоторые элементы могут быть возвращены несколько раз.
+ *
+ * <p>Если задан {@link #setPrefetchExecutor(Executor)}, следующая страница запрашивается в этом {@link Executor}
+ * сразу после получения текущей, пока вызывающий поток обрабатывает ее элементы.
+ *
+ * <p>Объект этого класса является ресурсом. После завершения работы с ним, следует вызвать {@link #close()},
+ * чтобы отменить предзагрузку следующей страницы.
+ *
+ * <p>Пример использования:
+ * <pre>
+ *     try (JedisScanIterator&lt;String&gt; keys = jedisWrapper.scanAll(new ScanParams().match("user:*").count(1000))) {
+ *         keys.stream().forEach(key -&gt; ...);
+ *     }
+ * </pre>
+ *
+ * <p>Итератор не потокобезопасен.
+ */
+public class JedisScanIterator<T> implements Iterator<T>, AutoCloseable {
+
+    /**
+     * Запрос страницы по курсору.
+     */
+    private final Function<String, ScanResult<T>> fetch;
+
+    /**
+     * Executor, в котором запрашивается следующая страница, пока читается текущая. Если значение {@code null},
+     * страницы запрашиваются в потоке, который читает итератор.
+     */
+    @Getter
+    @Setter
+    private Executor prefetchExecutor;
+
+    /**
+     * Количество запрошенных страниц.
+     */
+    @Getter
+    private long pages;
+
+    @Getter
+    private boolean closed;
+
+    private Iterator<T> page = Collections.emptyIterator();
+
+    /**
+     * Курсор следующей страницы или {@code null}, если обход завершен.
+     */
+    private String cursor = ScanParams.SCAN_POINTER_START;
+
+    /**
+     * Следующая страница, которая загружается в {@link #prefetchExecutor}.
+     */
+    private CompletableFuture<ScanResult<T>> prefetched;
+
+    /**
+     * @param fetch функция, которая выполняет команду сканирования с указанным курсором.
+     */
+    public JedisScanIterator(Function<String, ScanResult<T>> fetch) {
+        this.fetch = fetch;
+    }
+
+    @Override
+    public boolean hasNext() {
+        this.checkForClosed();
+        while (!page.hasNext()) {
+            if (cursor == null) {
+                return false;
+            }
+            this.nextPage();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * Получить ленивый {@link Stream} по оставшимся элементам. Закрытие стрима закрывает этот итератор.
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    private void nextPage() {
+        ScanResult<T> result;
+        if (prefetched != null) {
+            try {
+                result = prefetched.join();
+            } catch (CompletionException e) {
+                throw Lombok.sneakyThrow(e.getCause());
+            } finally {
+                prefetched = null;
+            }
+        } else {
+            result = fetch.apply(cursor);
+        }
+        pages++;
+
+        String next = result.getStringCursor();
+        cursor = result.isCompleteIteration() ? null : next;
+        page = result.getResult().iterator();
+
+        Executor executor = this.prefetchExecutor;
+        if (executor != null && cursor != null) {
+            prefetched = CompletableFuture.supplyAsync(() -> fetch.apply(next), executor);
+        }
+    }
+
+    private void checkForClosed() throws IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("this resource is closed");
+        }
+    }
+
+    /**
+     * Завершить обход. Уже запущенная предзагрузка страницы не прерывается, но ее результат будет отброшен.
+     *
+     * <p>Этот метод является идемпотентным, повторный его вызов не приведет к ошибке, а просто будет проигнорирован.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (prefetched != null) {
+            prefetched.cancel(false);
+            prefetched = null;
+        }
+        page = Collections.emptyIterator();
+        cursor = null;
+    }
+}
@@ -2,17 +2,30 @@ package ua.lokha.jediswrapper;
 
 import lombok.Getter;
 import lombok.Lombok;
+import lombok.Setter;
+import lombok.extern.java.Log;
 import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.params.geo.GeoRadiusParam;
 import redis.clients.jedis.params.sortedset.ZAddParams;
 import redis.clients.jedis.params.sortedset.ZIncrByParams;
 import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 
 /**
  * {@code JedisWrapper} это оболочка для {@link Jedis} + {@link JedisPool}. {@code JedisWrapper} служит для
@@ -48,14 +61,29 @@ import java.util.concurrent.Executor;
  *
  * <p>{@code JedisWrapper} поддерживает pipeline {@link #pipelined()} и транзации {@link #multi()}.
  *
+ * <p>{@code JedisWrapper} поддерживает автоматический pipeline {@link #enableAutoPipelining(int, int, long)},
+ * в котором одновременные вызовы из разных потоков отправляются в Redis общими пачками.
+ *
+ * <p>{@code JedisWrapper} поддерживает локальный кеш {@link #enableNearCache(int, long)} для {@code GET},
+ * {@code HGET} и {@code HGETALL}, который сбрасывается по уведомлениям Redis об изменении ключей.
+ *
+ * <p>Команды чтения можно отправлять на реплики {@link #enableReplicas(List, JedisReplicas.Balancing)},
+ * чтобы разгрузить мастер.
+ *
+ * <p>Все команды {@code JedisWrapper} проходят через общий путь выполнения, к которому можно добавить перехватчики
+ * {@link #addInterceptor(JedisInterceptor)}, например, для замеров времени или повторов.
+ *
  * <p>В {@code JedisWrapper} встроены улучшенные подписки {@link #subscribe(JedisPubSubListener, String...)} и
  * {@link #subscribe(BinaryJedisPubSubListener, byte[]...)}.
  *
  * <p>К этому классу есть <a href="https://github.com/lokha/jedis-wrapper#api">документация</a>.
  */
+@Log
 public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedisCommands, MultiKeyBinaryCommands,
     AutoCloseable {
 
+    private static final JedisInterceptor[] noInterceptors = new JedisInterceptor[0];
+
     /**
      * Получить пул соединений Redis, который был передан в конструктор этого класса.
      */
@@ -74,6 +102,61 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
     @Getter
 	private BinaryJedisPubSubWrapper binaryPubSubWrapper;
 
+    /**
+     * Получить автоматический pipeline, если он включен методом {@link #enableAutoPipelining(int, int, long)},
+     * иначе {@code null}.
+     */
+    @Getter
+    private volatile JedisAutoPipeline autoPipeline;
+
+    /**
+     * Неблокирующий транспорт, через который отправляются команды, у которых есть аналог в {@link Pipeline}.
+     * Если значение {@code null}, команды выполняются через {@link #getAutoPipeline()} или в отдельно взятом
+     * ресурсе {@link Jedis}.
+     *
+     * <p>Блокирующие команды, {@code WATCH}, {@code KEYS}, подписки, {@link #pipelined()} и {@link #multi()}
+     * по прежнему используют пул {@link #getPool()}.
+     *
+     * <p>{@code JedisWrapper} не закроет этот транспорт, по этому его надо закрывать отдельно.
+     */
+    @Getter
+    @Setter
+    private volatile JedisNioTransport nioTransport;
+
+    /**
+     * Получить локальный кеш для {@link #get(String)}, {@link #hget(String, String)} и {@link #hgetAll(String)},
+     * если он включен методом {@link #enableNearCache(int, long)}, иначе {@code null}.
+     */
+    @Getter
+    private volatile JedisNearCache nearCache;
+
+    /**
+     * Получить реплики для команд чтения, если они включены методом {@link #enableReplicas(List, JedisReplicas.Balancing)},
+     * иначе {@code null}.
+     */
+    @Getter
+    private volatile JedisReplicas replicas;
+
+    /**
+     * Перехватчики команд. Массив не меняется, при добавлении или удалении перехватчика он заменяется новым,
+     * по этому при выполнении команды его можно читать без блокировок.
+     */
+    private volatile JedisInterceptor[] interceptors = noInterceptors;
+
+    /**
+     * Получить статистику команд, если она включена методом {@link #enableMetrics()}, иначе {@code null}.
+     */
+    @Getter
+    private volatile JedisMetrics metrics;
+
+    /**
+     * Объект команды для каждого потока, который используется повторно, если из перехватчиков включена только
+     * статистика {@link #metrics}. Статистика не хранит объект команды после вызова, по этому создавать его
+     * на каждую команду не нужно.
+     */
+    private final ThreadLocal<JedisInvocation<Object>> metricsInvocation =
+        ThreadLocal.withInitial(() -> new JedisInvocation<>(this, noInterceptors, null, null, null));
+
     /**
      * Работает так же, как и {@link #JedisWrapper(Pool, Executor)}.
      * <p>Для параметра {@code executor} задается значение по умолчанию {@code Runnable::run}, что означает
@@ -95,10 +178,351 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 		this.pool = pool;
 
 		this.pubSubWrapper = new JedisPubSubWrapper(pool, executor);
-		this.binaryPubSubWrapper = new BinaryJedisPubSubWrapper(pool, executor);
+		this.binaryPubSubWrapper = new BinaryJedisPubSubWrapper(pubSubWrapper);
 	}
 
 
+    /**
+     * Включить автоматический pipeline. После включения команды, которые одновременно вызываются из разных потоков,
+     * будут отправляться в Redis общими пачками через {@link JedisAutoPipeline}, а каждый вызывающий поток
+     * получит свой результат, как и раньше. Вызывающий код при этом менять не нужно.
+     *
+     * <p>Через автоматический pipeline не отправляются блокирующие команды ({@code BLPOP}, {@code BRPOP},
+     * {@code BRPOPLPUSH}), {@code WATCH}, {@code KEYS}, команды подписок и команды без аналога в {@link Pipeline},
+     * они по прежнему выполняются в отдельно взятом ресурсе {@link Jedis}.
+     *
+     * <p>Если автоматический pipeline уже был включен, то предыдущий будет закрыт.
+     *
+     * @param connections       количество соединений, через которые параллельно отправляются пачки.
+     * @param maxBatchSize      максимальное количество команд в одной пачке.
+     * @param flushWindowMicros сколько микросекунд ждать добора пачки, {@code 0} - отправлять все, что
+     *                          накопилось, без ожидания.
+     * @return созданный автоматический pipeline.
+     */
+    public JedisAutoPipeline enableAutoPipelining(int connections, int maxBatchSize, long flushWindowMicros) {
+        JedisAutoPipeline previous = autoPipeline;
+        autoPipeline = new JedisAutoPipeline(pool, connections, maxBatchSize, flushWindowMicros);
+        if (previous != null) {
+            previous.close();
+        }
+        return autoPipeline;
+    }
+
+    /**
+     * Выключить автоматический pipeline, включенный методом {@link #enableAutoPipelining(int, int, long)}.
+     * Если он не был включен, ничего не произойдет.
+     */
+    public void disableAutoPipelining() {
+        JedisAutoPipeline previous = autoPipeline;
+        autoPipeline = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Включить локальный кеш {@link JedisNearCache} для методов {@link #get(String)}, {@link #hget(String, String)}
+     * и {@link #hgetAll(String)}. Повторное чтение ключа, который не менялся, не будет ходить в Redis.
+     *
+     * <p>Кеш сбрасывается по уведомлениям об изменении ключей, которые приходят через {@link #getPubSubWrapper()},
+     * по этому на Redis должны быть включены уведомления, например {@code CONFIG SET notify-keyspace-events Eg$hxe}.
+     *
+     * <p>Значения в кеш всегда загружаются с мастера, даже если включены реплики.
+     *
+     * <p>Чтения из кеша проходят через перехватчики {@link #addInterceptor(JedisInterceptor)} как обычные
+     * команды, по этому статистика {@link #enableMetrics()} учитывает и попадания в кеш. Промах загружает
+     * значение из Redis в рамках той же команды, второй раз через перехватчики она не проходит.
+     *
+     * <p>Если кеш уже был включен, то предыдущий будет закрыт.
+     *
+     * @param maxEntries максимальное количество ключей в кеше.
+     * @param maxBytes   примерный максимальный объем значений в кеше, в байтах.
+     * @return созданный кеш.
+     */
+    public JedisNearCache enableNearCache(int maxEntries, long maxBytes) {
+        int database;
+        try (Jedis jedis = pool.getResource()) {
+            database = jedis.getDB().intValue();
+        }
+        JedisNearCache previous = nearCache;
+        nearCache = new JedisNearCache(pubSubWrapper, database, maxEntries, maxBytes,
+            key -> loadOnMaster(() -> executeDirect(jedis -> jedis.get(key), pipeline -> pipeline.get(key), null)),
+            (key, field) -> loadOnMaster(() -> executeDirect(jedis -> jedis.hget(key, field),
+                pipeline -> pipeline.hget(key, field), null)),
+            key -> loadOnMaster(() -> executeDirect(jedis -> jedis.hgetAll(key),
+                pipeline -> pipeline.hgetAll(key), null)));
+        if (previous != null) {
+            previous.close();
+        }
+        return nearCache;
+    }
+
+    /**
+     * Загрузить значение в локальный кеш с мастера, даже если включены реплики
+     * {@link #enableReplicas(List, JedisReplicas.Balancing)}. Уведомления об изменении ключей приходят с мастера, и значение, прочитанное с отстающей реплики,
+     * осталось бы в кеше до следующего изменения ключа.
+     */
+    private <T> T loadOnMaster(Supplier<T> load) {
+        JedisReplicas replicas = this.replicas;
+        return replicas != null ? replicas.onMaster(load) : load.get();
+    }
+
+    /**
+     * Выключить локальный кеш, включенный методом {@link #enableNearCache(int, long)}.
+     * Если он не был включен, ничего не произойдет.
+     */
+    public void disableNearCache() {
+        JedisNearCache previous = nearCache;
+        nearCache = null;
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Включить отправку команд чтения на реплики {@link JedisReplicas}. Команды записи, блокирующие команды,
+     * {@link #pipelined()}, {@link #multi()} и подписки по прежнему выполняются на мастере {@link #getPool()}.
+     *
+     * <p>Команды чтения, отправленные на реплику, не проходят через автоматический pipeline и неблокирующий
+     * транспорт, они выполняются в отдельно взятом ресурсе пула реплики. Загрузка значений в локальный кеш
+     * {@link #enableNearCache(int, long)} на реплики не идет.
+     *
+     * <p>Если реплики уже были включены, то они будут заменены. Пулы реплик {@code JedisWrapper} не закрывает.
+     *
+     * @param replicas  пулы соединений реплик.
+     * @param balancing способ выбора реплики для команды.
+     * @return созданные реплики, через которые можно выполнить чтение с мастера {@link JedisReplicas#onMaster(Supplier)}.
+     */
+    public JedisReplicas enableReplicas(List<? extends Pool<Jedis>> replicas, JedisReplicas.Balancing balancing) {
+        this.replicas = new JedisReplicas(replicas, balancing);
+        return this.replicas;
+    }
+
+    /**
+     * Выключить реплики, включенные методом {@link #enableReplicas(List, JedisReplicas.Balancing)}, все команды
+     * снова будут выполняться на мастере. Если реплики не были включены, ничего не произойдет.
+     */
+    public void disableReplicas() {
+        replicas = null;
+    }
+
+    /**
+     * Добавить перехватчик, через который будут проходить все команды этой обертки, кроме {@link #pipelined()},
+     * {@link #multi()} и подписок. Перехватчики вызываются по цепочке в порядке добавления.
+     *
+     * @param interceptor перехватчик.
+     */
+    public void addInterceptor(JedisInterceptor interceptor) {
+        synchronized (this) {
+            JedisInterceptor[] interceptors = Arrays.copyOf(this.interceptors, this.interceptors.length + 1);
+            interceptors[interceptors.length - 1] = interceptor;
+            this.interceptors = interceptors;
+        }
+    }
+
+    /**
+     * Удалить перехватчик, добавленный методом {@link #addInterceptor(JedisInterceptor)}.
+     *
+     * @return true, если перехватчик был удален, false, если такого перехватчика не было.
+     */
+    public boolean removeInterceptor(JedisInterceptor interceptor) {
+        synchronized (this) {
+            List<JedisInterceptor> interceptors = new ArrayList<>(Arrays.asList(this.interceptors));
+            if (!interceptors.remove(interceptor)) {
+                return false;
+            }
+            this.interceptors = interceptors.toArray(new JedisInterceptor[0]);
+            return true;
+        }
+    }
+
+    /**
+     * Включить сбор статистики команд {@link JedisMetrics}. Статистика добавляется первым перехватчиком,
+     * по этому время других перехватчиков в нее тоже входит.
+     *
+     * <p>Если статистика уже была включена, то вернется существующая.
+     *
+     * @return статистика команд.
+     */
+    public JedisMetrics enableMetrics() {
+        synchronized (this) {
+            if (metrics == null) {
+                JedisMetrics metrics = new JedisMetrics();
+                JedisInterceptor[] interceptors = new JedisInterceptor[this.interceptors.length + 1];
+                interceptors[0] = metrics;
+                System.arraycopy(this.interceptors, 0, interceptors, 1, this.interceptors.length);
+                this.interceptors = interceptors;
+                this.metrics = metrics;
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Выключить сбор статистики, включенный методом {@link #enableMetrics()}. Если статистика
+     * была зарегистрирована в JMX, то регистрация будет отменена.
+     */
+    public void disableMetrics() {
+        JedisMetrics metrics;
+        synchronized (this) {
+            metrics = this.metrics;
+            if (metrics == null) {
+                return;
+            }
+            this.metrics = null;
+            this.removeInterceptor(metrics);
+        }
+        metrics.unregisterMBean();
+    }
+
+    /**
+     * Все перехватчики в порядке вызова.
+     */
+    public List<JedisInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    /**
+     * Выполнить команду. Через этот метод проходят все команды обертки. Сначала команда проходит через
+     * перехватчики {@link #getInterceptors()}, если они есть, после чего выполняется {@link #executeDirect}.
+     *
+     * <p>Без перехватчиков команда сразу передается в {@link #executeDirect}, но лямбды {@code action}
+     * и {@code pipelinedAction}, которые захватывают аргументы, метод команды создает на каждый вызов.
+     *
+     * @param action          команда для выполнения в ресурсе {@link Jedis}.
+     * @param pipelinedAction та же команда для выполнения в {@link Pipeline} или {@code null}, если
+     *                        у команды нет аналога в {@link Pipeline} или ее нельзя отправлять
+     *                        через общее соединение.
+     */
+    private <T> T execute(Function<Jedis, T> action, Function<Pipeline, Response<T>> pipelinedAction) {
+        return this.execute(action, pipelinedAction, null);
+    }
+
+    /**
+     * Работает так же, как и {@link #execute(Function, Function)}, но после перехватчиков выполняет
+     * {@code local} вместо {@link #executeDirect}, если он задан.
+     *
+     * @param local выполнение команды без обращения к {@link #executeDirect}, например чтение из локального
+     *              кеша, или {@code null}.
+     */
+    private <T> T execute(Function<Jedis, T> action, Function<Pipeline, Response<T>> pipelinedAction,
+                          Supplier<T> local) {
+        JedisInterceptor[] interceptors = this.interceptors;
+        if (interceptors.length == 0) {
+            return local != null ? local.get() : this.executeDirect(action, pipelinedAction, null);
+        }
+        if (interceptors.length == 1 && interceptors[0] == metrics) {
+            @SuppressWarnings("unchecked")
+            JedisInvocation<T> invocation = (JedisInvocation<T>) (JedisInvocation<?>) metricsInvocation.get();
+            if (!invocation.isActive()) { // объект уже занят, если команда вызвана изнутри другой команды
+                invocation.reset(interceptors, action, pipelinedAction, local);
+                try {
+                    return invocation.proceed();
+                } finally {
+                    invocation.release();
+                }
+            }
+        }
+        return new JedisInvocation<>(this, interceptors, action, pipelinedAction, local).proceed();
+    }
+
+    /**
+     * Выполнить команду без перехватчиков. Если включены реплики {@link #getReplicas()} и это команда чтения, то
+     * она будет выполнена на реплике. Иначе, если задан неблокирующий транспорт {@link #getNioTransport()}, то
+     * команда будет отправлена через него, если включен автоматический pipeline, то через него,
+     * иначе будет выполнена в отдельно взятом ресурсе {@link Jedis}.
+     *
+     * @param action          команда для выполнения в ресурсе {@link Jedis}.
+     * @param pipelinedAction та же команда для выполнения в {@link Pipeline} или {@code null}.
+     * @param invocation      команда, прошедшая через перехватчики, в которую записывается время ожидания
+     *                        соединения из пула, или {@code null}.
+     */
+    <T> T executeDirect(Function<Jedis, T> action, Function<Pipeline, Response<T>> pipelinedAction,
+                        JedisInvocation<T> invocation) {
+        JedisReplicas replicas = this.replicas;
+        if (replicas != null) {
+            // команда берется из кеша по классу лямбды, без создания JedisInvocation на каждый вызов
+            Protocol.Command command = invocation != null ? invocation.getCommand()
+                : JedisInvocation.commandOf(action, pipelinedAction);
+            if (replicas.isReplicaRead(command)) {
+                try {
+                    return replicas.execute(action, invocation);
+                } catch (JedisConnectionException e) {
+                    log.log(Level.FINE, "replica is unavailable, read from master", e);
+                }
+            }
+        }
+        if (pipelinedAction != null) {
+            JedisNioTransport nioTransport = this.nioTransport;
+            if (nioTransport != null) {
+                return nioTransport.execute(pipelinedAction);
+            }
+            JedisAutoPipeline autoPipeline = this.autoPipeline;
+            if (autoPipeline != null) {
+                return autoPipeline.execute(pipelinedAction);
+            }
+        }
+        if (invocation == null) {
+            try (Jedis jedis = pool.getResource()) {
+                return action.apply(jedis);
+            }
+        }
+        long start = System.nanoTime();
+        try (Jedis jedis = pool.getResource()) {
+            invocation.borrowed(System.nanoTime() - start);
+            return action.apply(jedis);
+        }
+    }
+
+    /**
+     * Асинхронный вариант {@link #execute(Function, Function)}.
+     *
+     * <p>Если добавлены перехватчики или включены реплики, команда целиком выполняется в {@code executor},
+     * чтобы перехватчики и выбор реплики работали так же, как и для синхронных команд.
+     *
+     * @param action          команда для выполнения в ресурсе {@link Jedis}.
+     * @param pipelinedAction та же команда для выполнения в {@link Pipeline} или {@code null}, если
+     *                        команду нельзя отправлять через автоматический pipeline.
+     * @param executor        обработчик, в котором выполнится команда, если она не будет отправлена
+     *                        через автоматический pipeline.
+     */
+    <T> CompletableFuture<T> executeAsync(Function<Jedis, T> action,
+                                          Function<Pipeline, Response<T>> pipelinedAction,
+                                          Executor executor) {
+        if (pipelinedAction != null && interceptors.length == 0 && replicas == null) {
+            JedisNioTransport nioTransport = this.nioTransport;
+            if (nioTransport != null) {
+                return nioTransport.submit(pipelinedAction);
+            }
+            JedisAutoPipeline autoPipeline = this.autoPipeline;
+            if (autoPipeline != null) {
+                return autoPipeline.submit(pipelinedAction);
+            }
+        }
+        return CompletableFuture.supplyAsync(() -> this.execute(action, pipelinedAction), executor);
+    }
+
+    /**
+     * Получить асинхронную версию этой обертки {@link JedisWrapperAsync}, методы которой
+     * возвращают {@link CompletableFuture}.
+     *
+     * @param executor обработчик, в котором будут выполняться команды, которые не отправляются
+     *                 через автоматический pipeline.
+     */
+    public JedisWrapperAsync async(Executor executor) {
+        return new JedisWrapperAsync(this, executor);
+    }
+
+    /**
+     * Работает так же, как и {@link #async(Executor)}.
+     * <p>Для параметра {@code executor} задается значение по умолчанию {@link ForkJoinPool#commonPool()}.
+     * Для большого количества асинхронных команд лучше передать свой {@link Executor}, поскольку
+     * каждая команда блокирует поток на время запроса к Redis.
+     */
+    public JedisWrapperAsync async() {
+        return this.async(ForkJoinPool.commonPool());
+    }
+
     private static Field jedisTransactionField;
 
     static {
@@ -199,6 +623,85 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         return pipeline;
     }
 
+    /**
+     * Лениво обойти ключи текущей базы командой {@code SCAN}. Страницы запрашиваются по мере чтения
+     * {@link JedisScanIterator}, по этому, в отличии от {@link #keys(String)}, весь список ключей не хранится
+     * в памяти, а Redis не блокируется на время обхода.
+     *
+     * <p>{@link JedisScanIterator} является ресурсом. После завершения работы с ним, следует вызвать
+     * {@link JedisScanIterator#close()}.
+     *
+     * <p>Пример использования:
+     * <pre>
+     *     try (JedisScanIterator&lt;String&gt; keys = jedisWrapper.scanAll(new ScanParams().match("user:*"))) {
+     *         keys.setPrefetchExecutor(executor); // необязательно
+     *         keys.forEachRemaining(key -&gt; ...);
+     *     }
+     * </pre>
+     *
+     * @param params параметры {@code MATCH} и {@code COUNT}, {@code COUNT} задает примерный размер страницы.
+     */
+    public JedisScanIterator<String> scanAll(ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.scan(cursor, params));
+    }
+
+    /**
+     * Работает так же, как и {@link #scanAll(ScanParams)}, только возвращает ключи в виде массивов байтов.
+     */
+    public JedisScanIterator<byte[]> scanAllBinary(ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.scan(SafeEncoder.encode(cursor), params));
+    }
+
+    /**
+     * Лениво обойти поля хеша командой {@code HSCAN}, вместо {@link #hgetAll(String)} для больших хешей.
+     *
+     * @see #scanAll(ScanParams)
+     */
+    public JedisScanIterator<Map.Entry<String, String>> hscanAll(String key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.hscan(key, cursor, params));
+    }
+
+    /**
+     * Работает так же, как и {@link #hscanAll(String, ScanParams)}.
+     */
+    public JedisScanIterator<Map.Entry<byte[], byte[]>> hscanAll(byte[] key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.hscan(key, SafeEncoder.encode(cursor), params));
+    }
+
+    /**
+     * Лениво обойти элементы множества командой {@code SSCAN}, вместо {@link #smembers(String)} для больших
+     * множеств.
+     *
+     * @see #scanAll(ScanParams)
+     */
+    public JedisScanIterator<String> sscanAll(String key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.sscan(key, cursor, params));
+    }
+
+    /**
+     * Работает так же, как и {@link #sscanAll(String, ScanParams)}.
+     */
+    public JedisScanIterator<byte[]> sscanAll(byte[] key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.sscan(key, SafeEncoder.encode(cursor), params));
+    }
+
+    /**
+     * Лениво обойти элементы отсортированного множества командой {@code ZSCAN}. Элементы возвращаются
+     * не по порядку оценок.
+     *
+     * @see #scanAll(ScanParams)
+     */
+    public JedisScanIterator<Tuple> zscanAll(String key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.zscan(key, cursor, params));
+    }
+
+    /**
+     * Работает так же, как и {@link #zscanAll(String, ScanParams)}.
+     */
+    public JedisScanIterator<Tuple> zscanAll(byte[] key, ScanParams params) {
+        return new JedisScanIterator<>(cursor -> this.zscan(key, SafeEncoder.encode(cursor), params));
+    }
+
 	/**
 	 * Set the string value as value of the key. The string can't be longer than 1073741824 bytes (1
 	 * GB).
@@ -211,16 +714,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String set(final byte[] key, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value);
-        }
+        return execute(jedis -> jedis.set(key, value), pipeline -> pipeline.set(key, value));
 	}
 
 	@Override
 	public String set(byte[] key, byte[] value, byte[] nxxx){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value, nxxx);
-        }
+        return execute(jedis -> jedis.set(key, value, nxxx), pipeline -> pipeline.set(key, value, nxxx));
 	}
 
 	/**
@@ -238,9 +737,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public String set(final byte[] key, final byte[] value, final byte[] nxxx, final byte[] expx,
 	                  final long time){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.set(key, value, nxxx, expx, time);
-		}
+		return execute(jedis -> jedis.set(key, value, nxxx, expx, time), null);
 	}
 
 	/**
@@ -253,9 +750,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * @return Status code reply
 	 */
 	public String set(final byte[] key, final byte[] value, final byte[] expx, final long time){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value, expx, time);
-        }
+        return execute(jedis -> jedis.set(key, value, expx, time), null);
 	}
 
 	/**
@@ -270,9 +765,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] get(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.get(key);
-        }
+        return execute(jedis -> jedis.get(key), pipeline -> pipeline.get(key));
 	}
 
 
@@ -286,9 +779,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long exists(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.exists(keys);
-        }
+        return execute(jedis -> jedis.exists(keys), pipeline -> pipeline.exists(keys));
 	}
 
 	/**
@@ -301,9 +792,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean exists(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.exists(key);
-        }
+        return execute(jedis -> jedis.exists(key), pipeline -> pipeline.exists(key));
 	}
 
 	/**
@@ -316,16 +805,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long del(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.del(keys);
-        }
+        return execute(jedis -> jedis.del(keys), pipeline -> pipeline.del(keys));
 	}
 
 	@Override
 	public Long del(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.del(key);
-        }
+        return execute(jedis -> jedis.del(key), pipeline -> pipeline.del(key));
 	}
 
 	/**
@@ -344,16 +829,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long unlink(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.unlink(keys);
-        }
+        return execute(jedis -> jedis.unlink(keys), pipeline -> pipeline.unlink(keys));
 	}
 
 	@Override
 	public Long unlink(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.unlink(key);
-        }
+        return execute(jedis -> jedis.unlink(key), pipeline -> pipeline.unlink(key));
 	}
 
 	/**
@@ -368,9 +849,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String type(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.type(key);
-        }
+        return execute(jedis -> jedis.type(key), pipeline -> pipeline.type(key));
 	}
 
 	/**
@@ -398,15 +877,15 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * <p>
 	 * Time complexity: O(n) (with n being the number of keys in the DB, and assuming keys and pattern
 	 * of limited length)
+	 * <p>
+	 * Для обхода больших баз используйте {@link #scanAllBinary(ScanParams)}.
 	 *
 	 * @param pattern
 	 * @return Multi bulk reply
 	 */
 	@Override
 	public Set<byte[]> keys(final byte[] pattern){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.keys(pattern);
-        }
+        return execute(jedis -> jedis.keys(pattern), null);
 	}
 
 	/**
@@ -419,9 +898,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] randomBinaryKey(){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.randomBinaryKey();
-        }
+        return execute(jedis -> jedis.randomBinaryKey(), null);
 	}
 
 	/**
@@ -436,9 +913,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String rename(final byte[] oldkey, final byte[] newkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rename(oldkey, newkey);
-        }
+        return execute(jedis -> jedis.rename(oldkey, newkey), pipeline -> pipeline.rename(oldkey, newkey));
 	}
 
 	/**
@@ -452,9 +927,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long renamenx(final byte[] oldkey, final byte[] newkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.renamenx(oldkey, newkey);
-        }
+        return execute(jedis -> jedis.renamenx(oldkey, newkey), pipeline -> pipeline.renamenx(oldkey, newkey));
 	}
 
 	/**
@@ -480,9 +953,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long expire(final byte[] key, final int seconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.expire(key, seconds);
-        }
+        return execute(jedis -> jedis.expire(key, seconds), pipeline -> pipeline.expire(key, seconds));
 	}
 
 	/**
@@ -510,9 +981,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long expireAt(final byte[] key, final long unixTime){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.expireAt(key, unixTime);
-        }
+        return execute(jedis -> jedis.expireAt(key, unixTime), pipeline -> pipeline.expireAt(key, unixTime));
 	}
 
 	/**
@@ -527,9 +996,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long ttl(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.ttl(key);
-        }
+        return execute(jedis -> jedis.ttl(key), pipeline -> pipeline.ttl(key));
 	}
 
 	/**
@@ -541,16 +1008,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long touch(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.touch(keys);
-        }
+        return execute(jedis -> jedis.touch(keys), pipeline -> pipeline.touch(keys));
 	}
 
 	@Override
 	public Long touch(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.touch(key);
-        }
+        return execute(jedis -> jedis.touch(key), pipeline -> pipeline.touch(key));
 	}
 
 	/**
@@ -566,16 +1029,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long move(final byte[] key, final int dbIndex){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.move(key, dbIndex);
-        }
+        return execute(jedis -> jedis.move(key, dbIndex), pipeline -> pipeline.move(key, dbIndex));
 	}
 
 	@Override
 	public Long bitcount(byte[] key){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.bitcount(key);
-		}
+		return execute(jedis -> jedis.bitcount(key), pipeline -> pipeline.bitcount(key));
 	}
 
 	/**
@@ -591,9 +1050,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] getSet(final byte[] key, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getSet(key, value);
-        }
+        return execute(jedis -> jedis.getSet(key, value), pipeline -> pipeline.getSet(key, value));
 	}
 
 	/**
@@ -608,9 +1065,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> mget(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.mget(keys);
-        }
+        return execute(jedis -> jedis.mget(keys), pipeline -> pipeline.mget(keys));
 	}
 
 	/**
@@ -625,9 +1080,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long setnx(final byte[] key, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setnx(key, value);
-        }
+        return execute(jedis -> jedis.setnx(key, value), pipeline -> pipeline.setnx(key, value));
 	}
 
 	/**
@@ -644,9 +1097,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String setex(final byte[] key, final int seconds, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setex(key, seconds, value);
-        }
+        return execute(jedis -> jedis.setex(key, seconds, value), pipeline -> pipeline.setex(key, seconds, value));
 	}
 
 	/**
@@ -668,9 +1119,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String mset(final byte[]... keysvalues){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.mset(keysvalues);
-        }
+        return execute(jedis -> jedis.mset(keysvalues), pipeline -> pipeline.mset(keysvalues));
 	}
 
 	/**
@@ -693,9 +1142,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long msetnx(final byte[]... keysvalues){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.msetnx(keysvalues);
-        }
+        return execute(jedis -> jedis.msetnx(keysvalues), pipeline -> pipeline.msetnx(keysvalues));
 	}
 
 	/**
@@ -719,9 +1166,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long decrBy(final byte[] key, final long decrement){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.decrBy(key, decrement);
-        }
+        return execute(jedis -> jedis.decrBy(key, decrement), pipeline -> pipeline.decrBy(key, decrement));
 	}
 
 	/**
@@ -744,9 +1189,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long decr(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.decr(key);
-        }
+        return execute(jedis -> jedis.decr(key), pipeline -> pipeline.decr(key));
 	}
 
 	/**
@@ -770,9 +1213,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long incrBy(final byte[] key, final long increment){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incrBy(key, increment);
-        }
+        return execute(jedis -> jedis.incrBy(key, increment), pipeline -> pipeline.incrBy(key, increment));
 	}
 
 	/**
@@ -797,9 +1238,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double incrByFloat(final byte[] key, final double increment){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incrByFloat(key, increment);
-        }
+        return execute(jedis -> jedis.incrByFloat(key, increment), pipeline -> pipeline.incrByFloat(key, increment));
 	}
 
 	/**
@@ -822,9 +1261,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long incr(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incr(key);
-        }
+        return execute(jedis -> jedis.incr(key), pipeline -> pipeline.incr(key));
 	}
 
 	/**
@@ -842,9 +1279,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long append(final byte[] key, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.append(key, value);
-        }
+        return execute(jedis -> jedis.append(key, value), pipeline -> pipeline.append(key, value));
 	}
 
 	/**
@@ -866,9 +1301,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] substr(final byte[] key, final int start, final int end){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.substr(key, start, end);
-        }
+        return execute(jedis -> jedis.substr(key, start, end), null);
 	}
 
 	/**
@@ -886,16 +1319,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hset(final byte[] key, final byte[] field, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hset(key, field, value);
-        }
+        return execute(jedis -> jedis.hset(key, field, value), pipeline -> pipeline.hset(key, field, value));
 	}
 
 	@Override
 	public Long hset(final byte[] key, final Map<byte[], byte[]> hash){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hset(key, hash);
-        }
+        return execute(jedis -> jedis.hset(key, hash), pipeline -> pipeline.hset(key, hash));
 	}
 
 	/**
@@ -911,9 +1340,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] hget(final byte[] key, final byte[] field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hget(key, field);
-        }
+        return execute(jedis -> jedis.hget(key, field), pipeline -> pipeline.hget(key, field));
 	}
 
 	/**
@@ -928,9 +1355,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hsetnx(final byte[] key, final byte[] field, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hsetnx(key, field, value);
-        }
+        return execute(jedis -> jedis.hsetnx(key, field, value), pipeline -> pipeline.hsetnx(key, field, value));
 	}
 
 	/**
@@ -946,9 +1371,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String hmset(final byte[] key, final Map<byte[], byte[]> hash){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hmset(key, hash);
-        }
+        return execute(jedis -> jedis.hmset(key, hash), pipeline -> pipeline.hmset(key, hash));
 	}
 
 	/**
@@ -966,9 +1389,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> hmget(final byte[] key, final byte[]... fields){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hmget(key, fields);
-        }
+        return execute(jedis -> jedis.hmget(key, fields), pipeline -> pipeline.hmget(key, fields));
 	}
 
 	/**
@@ -988,9 +1409,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hincrBy(final byte[] key, final byte[] field, final long value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hincrBy(key, field, value);
-        }
+        return execute(jedis -> jedis.hincrBy(key, field, value), pipeline -> pipeline.hincrBy(key, field, value));
 	}
 
 	/**
@@ -1012,9 +1431,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double hincrByFloat(final byte[] key, final byte[] field, final double value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hincrByFloat(key, field, value);
-        }
+        return execute(jedis -> jedis.hincrByFloat(key, field, value), pipeline -> pipeline.hincrByFloat(key, field, value));
 	}
 
 	/**
@@ -1027,9 +1444,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean hexists(final byte[] key, final byte[] field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hexists(key, field);
-        }
+        return execute(jedis -> jedis.hexists(key, field), pipeline -> pipeline.hexists(key, field));
 	}
 
 	/**
@@ -1044,9 +1459,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hdel(final byte[] key, final byte[]... fields){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hdel(key, fields);
-        }
+        return execute(jedis -> jedis.hdel(key, fields), pipeline -> pipeline.hdel(key, fields));
 	}
 
 	/**
@@ -1060,9 +1473,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hlen(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hlen(key);
-        }
+        return execute(jedis -> jedis.hlen(key), pipeline -> pipeline.hlen(key));
 	}
 
 	/**
@@ -1075,9 +1486,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> hkeys(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hkeys(key);
-        }
+        return execute(jedis -> jedis.hkeys(key), pipeline -> pipeline.hkeys(key));
 	}
 
 	/**
@@ -1090,16 +1499,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> hvals(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hvals(key);
-        }
+        return execute(jedis -> jedis.hvals(key), pipeline -> pipeline.hvals(key));
 	}
 
 	@Override
 	public Map<byte[], byte[]> hgetAll(byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hgetAll(key);
-        }
+        return execute(jedis -> jedis.hgetAll(key), pipeline -> pipeline.hgetAll(key));
 	}
 
 	/**
@@ -1117,9 +1522,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long rpush(final byte[] key, final byte[]... strings){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpush(key, strings);
-        }
+        return execute(jedis -> jedis.rpush(key, strings), pipeline -> pipeline.rpush(key, strings));
 	}
 
 	/**
@@ -1137,9 +1540,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long lpush(final byte[] key, final byte[]... strings){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpush(key, strings);
-        }
+        return execute(jedis -> jedis.lpush(key, strings), pipeline -> pipeline.lpush(key, strings));
 	}
 
 	/**
@@ -1154,9 +1555,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long llen(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.llen(key);
-        }
+        return execute(jedis -> jedis.llen(key), pipeline -> pipeline.llen(key));
 	}
 
 	/**
@@ -1194,9 +1593,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> lrange(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.lrange(key, start, stop), pipeline -> pipeline.lrange(key, start, stop));
 	}
 
 	/**
@@ -1232,9 +1629,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String ltrim(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.ltrim(key, start, stop);
-        }
+        return execute(jedis -> jedis.ltrim(key, start, stop), pipeline -> pipeline.ltrim(key, start, stop));
 	}
 
 	/**
@@ -1256,9 +1651,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] lindex(final byte[] key, final long index){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lindex(key, index);
-        }
+        return execute(jedis -> jedis.lindex(key, index), pipeline -> pipeline.lindex(key, index));
 	}
 
 	/**
@@ -1283,9 +1676,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String lset(final byte[] key, final long index, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lset(key, index, value);
-        }
+        return execute(jedis -> jedis.lset(key, index, value), pipeline -> pipeline.lset(key, index, value));
 	}
 
 	/**
@@ -1306,9 +1697,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long lrem(final byte[] key, final long count, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lrem(key, count, value);
-        }
+        return execute(jedis -> jedis.lrem(key, count, value), pipeline -> pipeline.lrem(key, count, value));
 	}
 
 	/**
@@ -1324,9 +1713,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] lpop(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpop(key);
-        }
+        return execute(jedis -> jedis.lpop(key), pipeline -> pipeline.lpop(key));
 	}
 
 	/**
@@ -1342,9 +1729,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] rpop(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpop(key);
-        }
+        return execute(jedis -> jedis.rpop(key), pipeline -> pipeline.rpop(key));
 	}
 
 	/**
@@ -1365,9 +1750,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] rpoplpush(final byte[] srckey, final byte[] dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpoplpush(srckey, dstkey);
-        }
+        return execute(jedis -> jedis.rpoplpush(srckey, dstkey), pipeline -> pipeline.rpoplpush(srckey, dstkey));
 	}
 
 	/**
@@ -1384,9 +1767,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sadd(final byte[] key, final byte[]... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sadd(key, members);
-        }
+        return execute(jedis -> jedis.sadd(key, members), pipeline -> pipeline.sadd(key, members));
 	}
 
 	/**
@@ -1400,9 +1781,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> smembers(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.smembers(key);
-        }
+        return execute(jedis -> jedis.smembers(key), pipeline -> pipeline.smembers(key));
 	}
 
 	/**
@@ -1418,9 +1797,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long srem(final byte[] key, final byte[]... member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srem(key, member);
-        }
+        return execute(jedis -> jedis.srem(key, member), pipeline -> pipeline.srem(key, member));
 	}
 
 	/**
@@ -1437,16 +1814,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] spop(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.spop(key);
-        }
+        return execute(jedis -> jedis.spop(key), pipeline -> pipeline.spop(key));
 	}
 
 	@Override
 	public Set<byte[]> spop(final byte[] key, final long count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.spop(key, count);
-        }
+        return execute(jedis -> jedis.spop(key, count), pipeline -> pipeline.spop(key, count));
 	}
 
 	/**
@@ -1471,9 +1844,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long smove(final byte[] srckey, final byte[] dstkey, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.smove(srckey, dstkey, member);
-        }
+        return execute(jedis -> jedis.smove(srckey, dstkey, member), pipeline -> pipeline.smove(srckey, dstkey, member));
 	}
 
 	/**
@@ -1486,9 +1857,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long scard(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.scard(key);
-        }
+        return execute(jedis -> jedis.scard(key), pipeline -> pipeline.scard(key));
 	}
 
 	/**
@@ -1503,9 +1872,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean sismember(final byte[] key, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sismember(key, member);
-        }
+        return execute(jedis -> jedis.sismember(key, member), pipeline -> pipeline.sismember(key, member));
 	}
 
 	/**
@@ -1526,9 +1893,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> sinter(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sinter(keys);
-        }
+        return execute(jedis -> jedis.sinter(keys), pipeline -> pipeline.sinter(keys));
 	}
 
 	/**
@@ -1544,9 +1909,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sinterstore(final byte[] dstkey, final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sinterstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sinterstore(dstkey, keys), pipeline -> pipeline.sinterstore(dstkey, keys));
 	}
 
 	/**
@@ -1564,9 +1927,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> sunion(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sunion(keys);
-        }
+        return execute(jedis -> jedis.sunion(keys), pipeline -> pipeline.sunion(keys));
 	}
 
 	/**
@@ -1581,9 +1942,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sunionstore(final byte[] dstkey, final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sunionstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sunionstore(dstkey, keys), pipeline -> pipeline.sunionstore(dstkey, keys));
 	}
 
 	/**
@@ -1610,9 +1969,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> sdiff(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sdiff(keys);
-        }
+        return execute(jedis -> jedis.sdiff(keys), pipeline -> pipeline.sdiff(keys));
 	}
 
 	/**
@@ -1625,9 +1982,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sdiffstore(final byte[] dstkey, final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sdiffstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sdiffstore(dstkey, keys), pipeline -> pipeline.sdiffstore(dstkey, keys));
 	}
 
 	/**
@@ -1643,16 +1998,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] srandmember(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srandmember(key);
-        }
+        return execute(jedis -> jedis.srandmember(key), pipeline -> pipeline.srandmember(key));
 	}
 
 	@Override
 	public List<byte[]> srandmember(final byte[] key, final int count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srandmember(key, count);
-        }
+        return execute(jedis -> jedis.srandmember(key, count), pipeline -> pipeline.srandmember(key, count));
 	}
 
 	/**
@@ -1674,37 +2025,27 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zadd(final byte[] key, final double score, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, score, member);
-        }
+        return execute(jedis -> jedis.zadd(key, score, member), pipeline -> pipeline.zadd(key, score, member));
 	}
 
 	@Override
 	public Long zadd(final byte[] key, final double score, final byte[] member, final ZAddParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, score, member, params);
-        }
+        return execute(jedis -> jedis.zadd(key, score, member, params), pipeline -> pipeline.zadd(key, score, member, params));
 	}
 
 	@Override
 	public Long zadd(final byte[] key, final Map<byte[], Double> scoreMembers){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, scoreMembers);
-        }
+        return execute(jedis -> jedis.zadd(key, scoreMembers), pipeline -> pipeline.zadd(key, scoreMembers));
 	}
 
 	@Override
 	public Long zadd(final byte[] key, final Map<byte[], Double> scoreMembers, final ZAddParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, scoreMembers, params);
-        }
+        return execute(jedis -> jedis.zadd(key, scoreMembers, params), pipeline -> pipeline.zadd(key, scoreMembers, params));
 	}
 
 	@Override
 	public Set<byte[]> zrange(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrange(key, start, stop), pipeline -> pipeline.zrange(key, start, stop));
 	}
 
 	/**
@@ -1721,9 +2062,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrem(final byte[] key, final byte[]... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrem(key, members);
-        }
+        return execute(jedis -> jedis.zrem(key, members), pipeline -> pipeline.zrem(key, members));
 	}
 
 	/**
@@ -1747,16 +2086,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double zincrby(final byte[] key, final double increment, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zincrby(key, increment, member);
-        }
+        return execute(jedis -> jedis.zincrby(key, increment, member), pipeline -> pipeline.zincrby(key, increment, member));
 	}
 
 	@Override
 	public Double zincrby(final byte[] key, final double increment, final byte[] member, final ZIncrByParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zincrby(key, increment, member, params);
-        }
+        return execute(jedis -> jedis.zincrby(key, increment, member, params), pipeline -> pipeline.zincrby(key, increment, member, params));
 	}
 
 	/**
@@ -1778,9 +2113,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrank(final byte[] key, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrank(key, member);
-        }
+        return execute(jedis -> jedis.zrank(key, member), pipeline -> pipeline.zrank(key, member));
 	}
 
 	/**
@@ -1802,30 +2135,22 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrevrank(final byte[] key, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrank(key, member);
-        }
+        return execute(jedis -> jedis.zrevrank(key, member), pipeline -> pipeline.zrevrank(key, member));
 	}
 
 	@Override
 	public Set<byte[]> zrevrange(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrevrange(key, start, stop), pipeline -> pipeline.zrevrange(key, start, stop));
 	}
 
 	@Override
 	public Set<Tuple> zrangeWithScores(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeWithScores(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrangeWithScores(key, start, stop), pipeline -> pipeline.zrangeWithScores(key, start, stop));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeWithScores(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeWithScores(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrevrangeWithScores(key, start, stop), pipeline -> pipeline.zrevrangeWithScores(key, start, stop));
 	}
 
 	/**
@@ -1839,9 +2164,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zcard(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcard(key);
-        }
+        return execute(jedis -> jedis.zcard(key), pipeline -> pipeline.zcard(key));
 	}
 
 	/**
@@ -1857,23 +2180,17 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double zscore(final byte[] key, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscore(key, member);
-        }
+        return execute(jedis -> jedis.zscore(key, member), pipeline -> pipeline.zscore(key, member));
 	}
 
 	@Override
 	public String watch(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.watch(keys);
-        }
+        return execute(jedis -> jedis.watch(keys), null);
 	}
 
 	@Override
 	public String unwatch(){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.unwatch();
-        }
+        return execute(jedis -> jedis.unwatch(), null);
 	}
 
 	/**
@@ -1892,9 +2209,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> sort(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key);
-        }
+        return execute(jedis -> jedis.sort(key), pipeline -> pipeline.sort(key));
 	}
 
 	/**
@@ -1974,9 +2289,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> sort(final byte[] key, final SortingParams sortingParameters){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, sortingParameters);
-        }
+        return execute(jedis -> jedis.sort(key, sortingParameters), pipeline -> pipeline.sort(key, sortingParameters));
 	}
 
 	/**
@@ -2044,9 +2357,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> blpop(final int timeout, final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(timeout, keys);
-        }
+        return execute(jedis -> jedis.blpop(timeout, keys), null);
 	}
 
 
@@ -2063,9 +2374,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sort(final byte[] key, final SortingParams sortingParameters, final byte[] dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, sortingParameters, dstkey);
-        }
+        return execute(jedis -> jedis.sort(key, sortingParameters, dstkey), pipeline -> pipeline.sort(key, sortingParameters, dstkey));
 	}
 
 	/**
@@ -2084,9 +2393,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sort(final byte[] key, final byte[] dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, dstkey);
-        }
+        return execute(jedis -> jedis.sort(key, dstkey), pipeline -> pipeline.sort(key, dstkey));
 	}
 
 	/**
@@ -2154,37 +2461,27 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<byte[]> brpop(final int timeout, final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(timeout, keys);
-        }
+        return execute(jedis -> jedis.brpop(timeout, keys), null);
 	}
 
 	@Override
 	public List<byte[]> blpop(final byte[]... args){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(args);
-        }
+        return execute(jedis -> jedis.blpop(args), null);
 	}
 
 	@Override
 	public List<byte[]> brpop(final byte[]... args){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(args);
-        }
+        return execute(jedis -> jedis.brpop(args), null);
 	}
 
 	@Override
 	public Long zcount(final byte[] key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
 	}
 
 	@Override
 	public Long zcount(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
 	}
 
 	/**
@@ -2237,16 +2534,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<byte[]> zrangeByScore(final byte[] key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
 	}
 
 	@Override
 	public Set<byte[]> zrangeByScore(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
 	}
 
 	/**
@@ -2300,17 +2593,13 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public Set<byte[]> zrangeByScore(final byte[] key, final double min, final double max,
 	                                 final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScore(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScore(key, min, max, offset, count), pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<byte[]> zrangeByScore(final byte[] key, final byte[] min, final byte[] max,
 	                                 final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScore(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScore(key, min, max, offset, count), pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
 	}
 
 	/**
@@ -2363,16 +2652,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScoreWithScores(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
 	}
 
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScoreWithScores(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
 	}
 
 	/**
@@ -2426,77 +2711,57 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final double min, final double max,
 	                                          final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScoreWithScores(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max,
 	                                          final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScoreWithScores(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByScore(final byte[] key, final double max, final double min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScore(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScore(key, max, min), pipeline -> pipeline.zrevrangeByScore(key, max, min));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScore(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScore(key, max, min), pipeline -> pipeline.zrevrangeByScore(key, max, min));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByScore(final byte[] key, final double max, final double min,
 	                                    final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScore(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min,
 	                                    final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScore(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final double max, final double min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScoreWithScores(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final double max,
 	                                             final double min, final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScoreWithScores(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final byte[] max, final byte[] min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScoreWithScores(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final byte[] max,
 	                                             final byte[] min, final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScoreWithScores(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
 	}
 
 	/**
@@ -2511,9 +2776,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zremrangeByRank(final byte[] key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByRank(key, start, stop);
-        }
+        return execute(jedis -> jedis.zremrangeByRank(key, start, stop), pipeline -> pipeline.zremrangeByRank(key, start, stop));
 	}
 
 	/**
@@ -2532,16 +2795,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zremrangeByScore(final byte[] key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByScore(key, min, max), pipeline -> pipeline.zremrangeByScore(key, min, max));
 	}
 
 	@Override
 	public Long zremrangeByScore(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByScore(key, min, max), pipeline -> pipeline.zremrangeByScore(key, min, max));
 	}
 
 	/**
@@ -2576,9 +2835,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zunionstore(final byte[] dstkey, final byte[]... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zunionstore(dstkey, sets);
-        }
+        return execute(jedis -> jedis.zunionstore(dstkey, sets), pipeline -> pipeline.zunionstore(dstkey, sets));
 	}
 
 	/**
@@ -2614,9 +2871,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zunionstore(final byte[] dstkey, final ZParams params, final byte[]... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zunionstore(dstkey, params, sets);
-        }
+        return execute(jedis -> jedis.zunionstore(dstkey, params, sets), pipeline -> pipeline.zunionstore(dstkey, params, sets));
 	}
 
 	/**
@@ -2651,9 +2906,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zinterstore(final byte[] dstkey, final byte[]... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zinterstore(dstkey, sets);
-        }
+        return execute(jedis -> jedis.zinterstore(dstkey, sets), pipeline -> pipeline.zinterstore(dstkey, sets));
 	}
 
 	/**
@@ -2689,73 +2942,53 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zinterstore(final byte[] dstkey, final ZParams params, final byte[]... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zinterstore(dstkey, params, sets);
-        }
+        return execute(jedis -> jedis.zinterstore(dstkey, params, sets), pipeline -> pipeline.zinterstore(dstkey, params, sets));
 	}
 
 	@Override
 	public Long zlexcount(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zlexcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zlexcount(key, min, max), pipeline -> pipeline.zlexcount(key, min, max));
 	}
 
 	@Override
 	public Set<byte[]> zrangeByLex(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByLex(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByLex(key, min, max), pipeline -> pipeline.zrangeByLex(key, min, max));
 	}
 
 	@Override
 	public Set<byte[]> zrangeByLex(final byte[] key, final byte[] min, final byte[] max,
 	                               final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByLex(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByLex(key, min, max, offset, count), pipeline -> pipeline.zrangeByLex(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByLex(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByLex(key, max, min), pipeline -> pipeline.zrevrangeByLex(key, max, min));
 	}
 
 	@Override
 	public Set<byte[]> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min, final int offset, final int count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByLex(key, max, min, offset, count);
-        }
+        return execute(jedis -> jedis.zrevrangeByLex(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByLex(key, max, min, offset, count));
 	}
 
 	@Override
 	public Long zremrangeByLex(final byte[] key, final byte[] min, final byte[] max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByLex(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByLex(key, min, max), pipeline -> pipeline.zremrangeByLex(key, min, max));
 	}
 
 	@Override
 	public Long linsert(byte[] key, BinaryClient.LIST_POSITION where, byte[] pivot, byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.linsert(key, where, pivot, value);
-        }
+        return execute(jedis -> jedis.linsert(key, where, pivot, value), pipeline -> pipeline.linsert(key, where, pivot, value));
 	}
 
 	@Override
 	public Long strlen(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.strlen(key);
-        }
+        return execute(jedis -> jedis.strlen(key), pipeline -> pipeline.strlen(key));
 	}
 
 	@Override
 	public Long lpushx(final byte[] key, final byte[]... string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpushx(key, string);
-        }
+        return execute(jedis -> jedis.lpushx(key, string), pipeline -> pipeline.lpushx(key, string));
 	}
 
 	/**
@@ -2769,45 +3002,33 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long persist(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.persist(key);
-        }
+        return execute(jedis -> jedis.persist(key), pipeline -> pipeline.persist(key));
 	}
 
 	@Override
 	public Long rpushx(final byte[] key, final byte[]... string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpushx(key, string);
-        }
+        return execute(jedis -> jedis.rpushx(key, string), pipeline -> pipeline.rpushx(key, string));
 	}
 
 	@Override
 	public List<byte[]> blpop(byte[] arg){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(arg);
-        }
+        return execute(jedis -> jedis.blpop(arg), null);
 	}
 
 	@Override
 	public List<byte[]> brpop(byte[] arg){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(arg);
-        }
+        return execute(jedis -> jedis.brpop(arg), null);
 	}
 
 	@Override
 	public byte[] echo(final byte[] string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.echo(string);
-        }
+        return execute(jedis -> jedis.echo(string), pipeline -> pipeline.echo(string));
 	}
 
 	@Override
 	public Long linsert(final byte[] key, final ListPosition where, final byte[] pivot,
 	                    final byte[] value){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.linsert(key, where, pivot, value);
-		}
+		return execute(jedis -> jedis.linsert(key, where, pivot, value), pipeline -> pipeline.linsert(key, where, pivot, value));
 	}
 
 	/**
@@ -2820,9 +3041,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public byte[] brpoplpush(final byte[] source, final byte[] destination, final int timeout){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpoplpush(source, destination, timeout);
-        }
+        return execute(jedis -> jedis.brpoplpush(source, destination, timeout), null);
 	}
 
 	/**
@@ -2835,16 +3054,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean setbit(final byte[] key, final long offset, final boolean value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setbit(key, offset, value);
-        }
+        return execute(jedis -> jedis.setbit(key, offset, value), null);
 	}
 
 	@Override
 	public Boolean setbit(final byte[] key, final long offset, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setbit(key, offset, value);
-        }
+        return execute(jedis -> jedis.setbit(key, offset, value), pipeline -> pipeline.setbit(key, offset, value));
 	}
 
 	/**
@@ -2856,30 +3071,22 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean getbit(final byte[] key, final long offset){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getbit(key, offset);
-        }
+        return execute(jedis -> jedis.getbit(key, offset), pipeline -> pipeline.getbit(key, offset));
 	}
 
 	@Override
 	public Long setrange(final byte[] key, final long offset, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setrange(key, offset, value);
-        }
+        return execute(jedis -> jedis.setrange(key, offset, value), pipeline -> pipeline.setrange(key, offset, value));
 	}
 
 	@Override
 	public byte[] getrange(final byte[] key, final long startOffset, final long endOffset){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getrange(key, startOffset, endOffset);
-        }
+        return execute(jedis -> jedis.getrange(key, startOffset, endOffset), null);
 	}
 
 	@Override
 	public Long publish(final byte[] channel, final byte[] message){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.publish(channel, message);
-        }
+        return execute(jedis -> jedis.publish(channel, message), pipeline -> pipeline.publish(channel, message));
 	}
 
     /**
@@ -2896,12 +3103,18 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
      * с помощью слушателя можно отменить подписку методом {@link #unsubscribe(BinaryJedisPubSubListener)}.
      */
     public BinaryJedisPubSubListener subscribe(BinaryJedisPubSubListener listener, byte[]... channels){
-        for (byte[] channel : channels) {
-            binaryPubSubWrapper.subscribe(listener, channel);
-        }
+        binaryPubSubWrapper.subscribeAll(listener, Arrays.asList(channels));
         return listener;
     }
 
+    /**
+     * Работает так же, как и {@link #subscribe(BinaryJedisPubSubListener, byte[]...)}, но возвращает future, который завершится,
+     * когда Redis подтвердит подписку на все каналы, см. {@link BinaryJedisPubSubWrapper#subscribeAll(BinaryJedisPubSubListener, Collection)}.
+     */
+    public CompletableFuture<BinaryJedisPubSubListener> subscribeAll(BinaryJedisPubSubListener listener, Collection<byte[]> channels){
+        return binaryPubSubWrapper.subscribeAll(listener, channels);
+    }
+
     /**
      * Отменить подписку по указанному слушателю.
      *
@@ -2915,6 +3128,37 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         return binaryPubSubWrapper.unsubscribe(listener);
     }
 
+    /**
+     * Подписаться на прослушивание каналов по шаблонам.
+     *
+     * <p>Этот метод является альтернативой метода {@link #psubscribe(BinaryJedisPubSub, byte[]...)} и работает так же,
+     * как и {@link #subscribe(BinaryJedisPubSubListener, byte[]...)}: подписка создается в общем соединении обертки
+     * {@link BinaryJedisPubSubWrapper} и не блокирует поток.
+     *
+     * @param listener слушатель, который будет вызываться, когда будет приходить сообщение на каналы,
+     *                 подходящие под шаблоны.
+     * @param patterns шаблоны каналов.
+     * @return слушатель, переданный параметром {@code listener}. Он выступает индентификатором подписки,
+     * с помощью слушателя можно отменить подписку методом {@link #punsubscribe(BinaryJedisPubSubPatternListener)}.
+     */
+    public BinaryJedisPubSubPatternListener psubscribe(BinaryJedisPubSubPatternListener listener, byte[]... patterns){
+        for (byte[] pattern : patterns) {
+            binaryPubSubWrapper.psubscribe(listener, pattern);
+        }
+        return listener;
+    }
+
+    /**
+     * Отменить подписку по шаблонам по указанному слушателю.
+     *
+     * @param listener слушатель, используемый в подписках по шаблону, которые должны быть отменены.
+     * @return true, если была отменена хотя бы одна подписка. Если подписок с указанным слушателем не было найдено,
+     * тогда вернет false.
+     */
+    public boolean punsubscribe(BinaryJedisPubSubPatternListener listener) {
+        return binaryPubSubWrapper.punsubscribe(listener);
+    }
+
     /**
      * @deprecated не рекомендуется к использованию.
      * Есть альтернативный метод {@link #subscribe(BinaryJedisPubSubListener, byte[]...)},
@@ -2929,6 +3173,10 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         }
 	}
 
+    /**
+     * Есть альтернативный метод {@link #psubscribe(BinaryJedisPubSubPatternListener, byte[]...)}, который не блокирует поток
+     * и использует общее соединение подписок.
+     */
 	@Override
 	public void psubscribe(BinaryJedisPubSub jedisPubSub, byte[]... patterns){
         try(Jedis jedis = pool.getResource()){
@@ -2938,65 +3186,47 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 
 	@Override
 	public Long bitcount(final byte[] key, final long start, final long end){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitcount(key, start, end);
-        }
+        return execute(jedis -> jedis.bitcount(key, start, end), pipeline -> pipeline.bitcount(key, start, end));
 	}
 
 	@Override
 	public Long bitop(final BitOP op, final byte[] destKey, final byte[]... srcKeys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitop(op, destKey, srcKeys);
-        }
+        return execute(jedis -> jedis.bitop(op, destKey, srcKeys), pipeline -> pipeline.bitop(op, destKey, srcKeys));
 	}
 
 	@Override
 	public byte[] dump(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.dump(key);
-        }
+        return execute(jedis -> jedis.dump(key), pipeline -> pipeline.dump(key));
 	}
 
 	@Override
 	public String restore(final byte[] key, final int ttl, final byte[] serializedValue){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.restore(key, ttl, serializedValue);
-        }
+        return execute(jedis -> jedis.restore(key, ttl, serializedValue), pipeline -> pipeline.restore(key, ttl, serializedValue));
 	}
 
 	@Override
 	public String restoreReplace(final byte[] key, final int ttl, final byte[] serializedValue){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.restoreReplace(key, ttl, serializedValue);
-        }
+        return execute(jedis -> jedis.restoreReplace(key, ttl, serializedValue), pipeline -> pipeline.restoreReplace(key, ttl, serializedValue));
 	}
 
 	@Deprecated
 	public Long pexpire(final byte[] key, final int milliseconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpire(key, milliseconds);
-        }
+        return execute(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
 	}
 
 	@Override
 	public Long pexpire(final byte[] key, final long milliseconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpire(key, milliseconds);
-        }
+        return execute(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
 	}
 
 	@Override
 	public Long pexpireAt(final byte[] key, final long millisecondsTimestamp){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpireAt(key, millisecondsTimestamp);
-        }
+        return execute(jedis -> jedis.pexpireAt(key, millisecondsTimestamp), pipeline -> pipeline.pexpireAt(key, millisecondsTimestamp));
 	}
 
 	@Override
 	public Long pttl(final byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pttl(key);
-        }
+        return execute(jedis -> jedis.pttl(key), pipeline -> pipeline.pttl(key));
 	}
 
 	/**
@@ -3010,200 +3240,154 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String psetex(final byte[] key, final long milliseconds, final byte[] value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.psetex(key, milliseconds, value);
-        }
+        return execute(jedis -> jedis.psetex(key, milliseconds, value), pipeline -> pipeline.psetex(key, milliseconds, value));
 	}
 
 	@Override
 	public Long pfadd(final byte[] key, final byte[]... elements){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfadd(key, elements);
-        }
+        return execute(jedis -> jedis.pfadd(key, elements), pipeline -> pipeline.pfadd(key, elements));
 	}
 
 	@Override
 	public long pfcount(byte[] key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfcount(key);
-        }
+        return execute(jedis -> jedis.pfcount(key), null);
 	}
 
 	@Override
 	public String pfmerge(final byte[] destkey, final byte[]... sourcekeys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfmerge(destkey, sourcekeys);
-        }
+        return execute(jedis -> jedis.pfmerge(destkey, sourcekeys), pipeline -> pipeline.pfmerge(destkey, sourcekeys));
 	}
 
 	@Override
 	public Long pfcount(final byte[]... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfcount(keys);
-        }
+        return execute(jedis -> jedis.pfcount(keys), pipeline -> pipeline.pfcount(keys));
+	}
+
+	public ScanResult<byte[]> scan(final byte[] cursor){
+        return execute(jedis -> jedis.scan(cursor), null);
+	}
+
+	public ScanResult<byte[]> scan(final byte[] cursor, final ScanParams params){
+        return execute(jedis -> jedis.scan(cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key, final byte[] cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hscan(key, cursor);
-        }
+        return execute(jedis -> jedis.hscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key, final byte[] cursor,
 	                                                   final ScanParams params){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.hscan(key, cursor, params);
-		}
+		return execute(jedis -> jedis.hscan(key, cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sscan(key, cursor);
-        }
+        return execute(jedis -> jedis.sscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor, final ScanParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sscan(key, cursor, params);
-        }
+        return execute(jedis -> jedis.sscan(key, cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscan(key, cursor);
-        }
+        return execute(jedis -> jedis.zscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor, final ScanParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscan(key, cursor, params);
-        }
+        return execute(jedis -> jedis.zscan(key, cursor, params), null);
 	}
 
 	@Override
 	public Long geoadd(final byte[] key, final double longitude, final double latitude, final byte[] member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geoadd(key, longitude, latitude, member);
-        }
+        return execute(jedis -> jedis.geoadd(key, longitude, latitude, member), pipeline -> pipeline.geoadd(key, longitude, latitude, member));
 	}
 
 	@Override
 	public Long geoadd(final byte[] key, final Map<byte[], GeoCoordinate> memberCoordinateMap){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geoadd(key, memberCoordinateMap);
-        }
+        return execute(jedis -> jedis.geoadd(key, memberCoordinateMap), pipeline -> pipeline.geoadd(key, memberCoordinateMap));
 	}
 
 	@Override
 	public Double geodist(final byte[] key, final byte[] member1, final byte[] member2){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geodist(key, member1, member2);
-        }
+        return execute(jedis -> jedis.geodist(key, member1, member2), pipeline -> pipeline.geodist(key, member1, member2));
 	}
 
 	@Override
 	public Double geodist(final byte[] key, final byte[] member1, final byte[] member2, final GeoUnit unit){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geodist(key, member1, member2, unit);
-        }
+        return execute(jedis -> jedis.geodist(key, member1, member2, unit), pipeline -> pipeline.geodist(key, member1, member2, unit));
 	}
 
 	@Override
 	public List<byte[]> geohash(final byte[] key, final byte[]... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geohash(key, members);
-        }
+        return execute(jedis -> jedis.geohash(key, members), pipeline -> pipeline.geohash(key, members));
 	}
 
 	@Override
 	public List<GeoCoordinate> geopos(final byte[] key, final byte[]... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geopos(key, members);
-        }
+        return execute(jedis -> jedis.geopos(key, members), pipeline -> pipeline.geopos(key, members));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadius(final byte[] key, final double longitude, final double latitude,
 	                                         final double radius, final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadius(key, longitude, latitude, radius, unit);
-		}
+		return execute(jedis -> jedis.georadius(key, longitude, latitude, radius, unit), pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusReadonly(final byte[] key, final double longitude, final double latitude,
 	                                                 final double radius, final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusReadonly(key, longitude, latitude, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit), pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadius(final byte[] key, final double longitude, final double latitude,
 	                                         final double radius, final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadius(key, longitude, latitude, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadius(key, longitude, latitude, radius, unit, param), pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusReadonly(final byte[] key, final double longitude, final double latitude,
 	                                                 final double radius, final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param), pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMember(final byte[] key, final byte[] member, final double radius,
 	                                                 final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMember(key, member, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusByMember(key, member, radius, unit), pipeline -> pipeline.georadiusByMember(key, member, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMemberReadonly(final byte[] key, final byte[] member, final double radius,
 	                                                         final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMemberReadonly(key, member, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit), pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMember(final byte[] key, final byte[] member, final double radius,
 	                                                 final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMember(key, member, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusByMember(key, member, radius, unit, param), pipeline -> pipeline.georadiusByMember(key, member, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMemberReadonly(final byte[] key, final byte[] member, final double radius,
 	                                                         final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMemberReadonly(key, member, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit, param), pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit, param));
 	}
 
 	@Override
 	public List<Long> bitfield(final byte[] key, final byte[]... arguments){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitfield(key, arguments);
-        }
+        return execute(jedis -> jedis.bitfield(key, arguments), pipeline -> pipeline.bitfield(key, arguments));
 	}
 
 	@Override
 	public Long hstrlen(final byte[] key, final byte[] field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hstrlen(key, field);
-        }
+        return execute(jedis -> jedis.hstrlen(key, field), pipeline -> pipeline.hstrlen(key, field));
 	}
 
 	/**
@@ -3218,9 +3402,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String set(final String key, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value);
-        }
+        return execute(jedis -> jedis.set(key, value), pipeline -> pipeline.set(key, value));
 	}
 
 	/**
@@ -3238,9 +3420,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public String set(final String key, final String value, final String nxxx, final String expx,
 	                  final long time){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.set(key, value, nxxx, expx, time);
-		}
+		return execute(jedis -> jedis.set(key, value, nxxx, expx, time), null);
 	}
 
 	/**
@@ -3254,9 +3434,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String set(final String key, final String value, final String expx, final long time){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value, expx, time);
-        }
+        return execute(jedis -> jedis.set(key, value, expx, time), null);
 	}
 
 	/**
@@ -3270,9 +3448,15 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String get(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.get(key);
+        JedisNearCache nearCache = this.nearCache;
+        if (nearCache != null) {
+            if (interceptors.length == 0) {
+                return nearCache.get(key);
+            }
+            // попадание в кеш тоже проходит через перехватчики и учитывается в статистике
+            return execute(jedis -> jedis.get(key), pipeline -> pipeline.get(key), () -> nearCache.get(key));
         }
+        return execute(jedis -> jedis.get(key), pipeline -> pipeline.get(key));
 	}
 
 	/**
@@ -3285,9 +3469,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long exists(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.exists(keys);
-        }
+        return execute(jedis -> jedis.exists(keys), pipeline -> pipeline.exists(keys));
 	}
 
 	/**
@@ -3300,9 +3482,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean exists(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.exists(key);
-        }
+        return execute(jedis -> jedis.exists(key), pipeline -> pipeline.exists(key));
 	}
 
 	/**
@@ -3315,16 +3495,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long del(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.del(keys);
-        }
+        return execute(jedis -> jedis.del(keys), pipeline -> pipeline.del(keys));
 	}
 
 	@Override
 	public Long del(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.del(key);
-        }
+        return execute(jedis -> jedis.del(key), pipeline -> pipeline.del(key));
 	}
 
 	/**
@@ -3343,16 +3519,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long unlink(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.unlink(keys);
-        }
+        return execute(jedis -> jedis.unlink(keys), pipeline -> pipeline.unlink(keys));
 	}
 
 	@Override
 	public Long unlink(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.unlink(key);
-        }
+        return execute(jedis -> jedis.unlink(key), pipeline -> pipeline.unlink(key));
 	}
 
 	/**
@@ -3367,16 +3539,15 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String type(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.type(key);
-        }
+        return execute(jedis -> jedis.type(key), pipeline -> pipeline.type(key));
 	}
 
+	/**
+	 * Для обхода больших баз используйте {@link #scanAll(ScanParams)}.
+	 */
 	@Override
 	public Set<String> keys(final String pattern){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.keys(pattern);
-        }
+        return execute(jedis -> jedis.keys(pattern), null);
 	}
 
 	/**
@@ -3389,9 +3560,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String randomKey(){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.randomKey();
-        }
+        return execute(jedis -> jedis.randomKey(), pipeline -> pipeline.randomKey());
 	}
 
 	/**
@@ -3406,9 +3575,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String rename(final String oldkey, final String newkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rename(oldkey, newkey);
-        }
+        return execute(jedis -> jedis.rename(oldkey, newkey), pipeline -> pipeline.rename(oldkey, newkey));
 	}
 
 	/**
@@ -3422,9 +3589,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long renamenx(final String oldkey, final String newkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.renamenx(oldkey, newkey);
-        }
+        return execute(jedis -> jedis.renamenx(oldkey, newkey), pipeline -> pipeline.renamenx(oldkey, newkey));
 	}
 
 	/**
@@ -3450,9 +3615,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long expire(final String key, final int seconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.expire(key, seconds);
-        }
+        return execute(jedis -> jedis.expire(key, seconds), pipeline -> pipeline.expire(key, seconds));
 	}
 
 	/**
@@ -3480,9 +3643,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long expireAt(final String key, final long unixTime){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.expireAt(key, unixTime);
-        }
+        return execute(jedis -> jedis.expireAt(key, unixTime), pipeline -> pipeline.expireAt(key, unixTime));
 	}
 
 	/**
@@ -3498,9 +3659,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long ttl(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.ttl(key);
-        }
+        return execute(jedis -> jedis.ttl(key), pipeline -> pipeline.ttl(key));
 	}
 
 	/**
@@ -3512,16 +3671,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long touch(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.touch(keys);
-        }
+        return execute(jedis -> jedis.touch(keys), pipeline -> pipeline.touch(keys));
 	}
 
 	@Override
 	public Long touch(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.touch(key);
-        }
+        return execute(jedis -> jedis.touch(key), pipeline -> pipeline.touch(key));
 	}
 
 	/**
@@ -3537,16 +3692,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long move(final String key, final int dbIndex){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.move(key, dbIndex);
-        }
+        return execute(jedis -> jedis.move(key, dbIndex), pipeline -> pipeline.move(key, dbIndex));
 	}
 
 	@Override
 	public Long bitcount(String key){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.bitcount(key);
-		}
+		return execute(jedis -> jedis.bitcount(key), pipeline -> pipeline.bitcount(key));
 	}
 
 	/**
@@ -3562,9 +3713,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String getSet(final String key, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getSet(key, value);
-        }
+        return execute(jedis -> jedis.getSet(key, value), pipeline -> pipeline.getSet(key, value));
 	}
 
 	/**
@@ -3579,9 +3728,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> mget(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.mget(keys);
-        }
+        return execute(jedis -> jedis.mget(keys), pipeline -> pipeline.mget(keys));
 	}
 
 	/**
@@ -3596,9 +3743,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long setnx(final String key, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setnx(key, value);
-        }
+        return execute(jedis -> jedis.setnx(key, value), pipeline -> pipeline.setnx(key, value));
 	}
 
 	/**
@@ -3615,9 +3760,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String setex(final String key, final int seconds, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setex(key, seconds, value);
-        }
+        return execute(jedis -> jedis.setex(key, seconds, value), pipeline -> pipeline.setex(key, seconds, value));
 	}
 
 	/**
@@ -3639,9 +3782,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String mset(final String... keysvalues){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.mset(keysvalues);
-        }
+        return execute(jedis -> jedis.mset(keysvalues), pipeline -> pipeline.mset(keysvalues));
 	}
 
 	/**
@@ -3664,9 +3805,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long msetnx(final String... keysvalues){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.msetnx(keysvalues);
-        }
+        return execute(jedis -> jedis.msetnx(keysvalues), pipeline -> pipeline.msetnx(keysvalues));
 	}
 
 	/**
@@ -3690,9 +3829,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long decrBy(final String key, final long decrement){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.decrBy(key, decrement);
-        }
+        return execute(jedis -> jedis.decrBy(key, decrement), pipeline -> pipeline.decrBy(key, decrement));
 	}
 
 	/**
@@ -3715,9 +3852,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long decr(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.decr(key);
-        }
+        return execute(jedis -> jedis.decr(key), pipeline -> pipeline.decr(key));
 	}
 
 	/**
@@ -3741,9 +3876,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long incrBy(final String key, final long increment){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incrBy(key, increment);
-        }
+        return execute(jedis -> jedis.incrBy(key, increment), pipeline -> pipeline.incrBy(key, increment));
 	}
 
 	/**
@@ -3764,9 +3897,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double incrByFloat(final String key, final double increment){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incrByFloat(key, increment);
-        }
+        return execute(jedis -> jedis.incrByFloat(key, increment), pipeline -> pipeline.incrByFloat(key, increment));
 	}
 
 	/**
@@ -3789,9 +3920,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long incr(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.incr(key);
-        }
+        return execute(jedis -> jedis.incr(key), pipeline -> pipeline.incr(key));
 	}
 
 	/**
@@ -3809,9 +3938,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long append(final String key, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.append(key, value);
-        }
+        return execute(jedis -> jedis.append(key, value), pipeline -> pipeline.append(key, value));
 	}
 
 	/**
@@ -3833,9 +3960,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String substr(final String key, final int start, final int end){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.substr(key, start, end);
-        }
+        return execute(jedis -> jedis.substr(key, start, end), pipeline -> pipeline.substr(key, start, end));
 	}
 
 	/**
@@ -3853,16 +3978,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hset(final String key, final String field, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hset(key, field, value);
-        }
+        return execute(jedis -> jedis.hset(key, field, value), pipeline -> pipeline.hset(key, field, value));
 	}
 
 	@Override
 	public Long hset(final String key, final Map<String, String> hash){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hset(key, hash);
-        }
+        return execute(jedis -> jedis.hset(key, hash), pipeline -> pipeline.hset(key, hash));
 	}
 
 	/**
@@ -3878,9 +3999,15 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String hget(final String key, final String field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hget(key, field);
+        JedisNearCache nearCache = this.nearCache;
+        if (nearCache != null) {
+            if (interceptors.length == 0) {
+                return nearCache.hget(key, field);
+            }
+            return execute(jedis -> jedis.hget(key, field), pipeline -> pipeline.hget(key, field),
+                () -> nearCache.hget(key, field));
         }
+        return execute(jedis -> jedis.hget(key, field), pipeline -> pipeline.hget(key, field));
 	}
 
 	/**
@@ -3895,9 +4022,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hsetnx(final String key, final String field, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hsetnx(key, field, value);
-        }
+        return execute(jedis -> jedis.hsetnx(key, field, value), pipeline -> pipeline.hsetnx(key, field, value));
 	}
 
 	/**
@@ -3913,9 +4038,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String hmset(final String key, final Map<String, String> hash){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hmset(key, hash);
-        }
+        return execute(jedis -> jedis.hmset(key, hash), pipeline -> pipeline.hmset(key, hash));
 	}
 
 	/**
@@ -3933,9 +4056,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> hmget(final String key, final String... fields){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hmget(key, fields);
-        }
+        return execute(jedis -> jedis.hmget(key, fields), pipeline -> pipeline.hmget(key, fields));
 	}
 
 	/**
@@ -3955,9 +4076,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hincrBy(final String key, final String field, final long value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hincrBy(key, field, value);
-        }
+        return execute(jedis -> jedis.hincrBy(key, field, value), pipeline -> pipeline.hincrBy(key, field, value));
 	}
 
 	/**
@@ -3979,9 +4098,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double hincrByFloat(final String key, final String field, final double value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hincrByFloat(key, field, value);
-        }
+        return execute(jedis -> jedis.hincrByFloat(key, field, value), pipeline -> pipeline.hincrByFloat(key, field, value));
 	}
 
 	/**
@@ -3994,9 +4111,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean hexists(final String key, final String field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hexists(key, field);
-        }
+        return execute(jedis -> jedis.hexists(key, field), pipeline -> pipeline.hexists(key, field));
 	}
 
 	/**
@@ -4011,9 +4126,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hdel(final String key, final String... fields){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hdel(key, fields);
-        }
+        return execute(jedis -> jedis.hdel(key, fields), pipeline -> pipeline.hdel(key, fields));
 	}
 
 	/**
@@ -4027,9 +4140,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long hlen(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hlen(key);
-        }
+        return execute(jedis -> jedis.hlen(key), pipeline -> pipeline.hlen(key));
 	}
 
 	/**
@@ -4042,9 +4153,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<String> hkeys(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hkeys(key);
-        }
+        return execute(jedis -> jedis.hkeys(key), pipeline -> pipeline.hkeys(key));
 	}
 
 	/**
@@ -4057,24 +4166,30 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> hvals(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hvals(key);
-        }
+        return execute(jedis -> jedis.hvals(key), pipeline -> pipeline.hvals(key));
 	}
 
 	/**
 	 * Return all the fields and associated values in a hash.
 	 * <p>
 	 * <b>Time complexity:</b> O(N), where N is the total number of entries
+	 * <p>
+	 * Для обхода больших хешей используйте {@link #hscanAll(String, ScanParams)}.
 	 *
 	 * @param key
 	 * @return All the fields and values contained into a hash.
 	 */
 	@Override
 	public Map<String, String> hgetAll(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hgetAll(key);
+        JedisNearCache nearCache = this.nearCache;
+        if (nearCache != null) {
+            if (interceptors.length == 0) {
+                return nearCache.hgetAll(key);
+            }
+            return execute(jedis -> jedis.hgetAll(key), pipeline -> pipeline.hgetAll(key),
+                () -> nearCache.hgetAll(key));
         }
+        return execute(jedis -> jedis.hgetAll(key), pipeline -> pipeline.hgetAll(key));
 	}
 
 	/**
@@ -4091,9 +4206,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long rpush(final String key, final String... strings){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpush(key, strings);
-        }
+        return execute(jedis -> jedis.rpush(key, strings), pipeline -> pipeline.rpush(key, strings));
 	}
 
 	/**
@@ -4110,9 +4223,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long lpush(final String key, final String... strings){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpush(key, strings);
-        }
+        return execute(jedis -> jedis.lpush(key, strings), pipeline -> pipeline.lpush(key, strings));
 	}
 
 	/**
@@ -4127,9 +4238,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long llen(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.llen(key);
-        }
+        return execute(jedis -> jedis.llen(key), pipeline -> pipeline.llen(key));
 	}
 
 	/**
@@ -4167,9 +4276,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> lrange(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.lrange(key, start, stop), pipeline -> pipeline.lrange(key, start, stop));
 	}
 
 	/**
@@ -4205,9 +4312,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String ltrim(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.ltrim(key, start, stop);
-        }
+        return execute(jedis -> jedis.ltrim(key, start, stop), pipeline -> pipeline.ltrim(key, start, stop));
 	}
 
 	/**
@@ -4229,9 +4334,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String lindex(final String key, final long index){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lindex(key, index);
-        }
+        return execute(jedis -> jedis.lindex(key, index), pipeline -> pipeline.lindex(key, index));
 	}
 
 	/**
@@ -4256,9 +4359,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String lset(final String key, final long index, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lset(key, index, value);
-        }
+        return execute(jedis -> jedis.lset(key, index, value), pipeline -> pipeline.lset(key, index, value));
 	}
 
 	/**
@@ -4279,9 +4380,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long lrem(final String key, final long count, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lrem(key, count, value);
-        }
+        return execute(jedis -> jedis.lrem(key, count, value), pipeline -> pipeline.lrem(key, count, value));
 	}
 
 	/**
@@ -4297,9 +4396,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String lpop(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpop(key);
-        }
+        return execute(jedis -> jedis.lpop(key), pipeline -> pipeline.lpop(key));
 	}
 
 	/**
@@ -4315,9 +4412,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String rpop(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpop(key);
-        }
+        return execute(jedis -> jedis.rpop(key), pipeline -> pipeline.rpop(key));
 	}
 
 	/**
@@ -4338,9 +4433,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String rpoplpush(final String srckey, final String dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpoplpush(srckey, dstkey);
-        }
+        return execute(jedis -> jedis.rpoplpush(srckey, dstkey), pipeline -> pipeline.rpoplpush(srckey, dstkey));
 	}
 
 	/**
@@ -4357,9 +4450,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sadd(final String key, final String... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sadd(key, members);
-        }
+        return execute(jedis -> jedis.sadd(key, members), pipeline -> pipeline.sadd(key, members));
 	}
 
 	/**
@@ -4367,15 +4458,15 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * {@link #sinter(String...) SINTER}.
 	 * <p>
 	 * Time complexity O(N)
+	 * <p>
+	 * Для обхода больших множеств используйте {@link #sscanAll(String, ScanParams)}.
 	 *
 	 * @param key
 	 * @return Multi bulk reply
 	 */
 	@Override
 	public Set<String> smembers(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.smembers(key);
-        }
+        return execute(jedis -> jedis.smembers(key), pipeline -> pipeline.smembers(key));
 	}
 
 	/**
@@ -4391,9 +4482,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long srem(final String key, final String... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srem(key, members);
-        }
+        return execute(jedis -> jedis.srem(key, members), pipeline -> pipeline.srem(key, members));
 	}
 
 	/**
@@ -4410,16 +4499,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String spop(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.spop(key);
-        }
+        return execute(jedis -> jedis.spop(key), pipeline -> pipeline.spop(key));
 	}
 
 	@Override
 	public Set<String> spop(final String key, final long count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.spop(key, count);
-        }
+        return execute(jedis -> jedis.spop(key, count), pipeline -> pipeline.spop(key, count));
 	}
 
 	/**
@@ -4444,9 +4529,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long smove(final String srckey, final String dstkey, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.smove(srckey, dstkey, member);
-        }
+        return execute(jedis -> jedis.smove(srckey, dstkey, member), pipeline -> pipeline.smove(srckey, dstkey, member));
 	}
 
 	/**
@@ -4459,9 +4542,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long scard(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.scard(key);
-        }
+        return execute(jedis -> jedis.scard(key), pipeline -> pipeline.scard(key));
 	}
 
 	/**
@@ -4476,9 +4557,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean sismember(final String key, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sismember(key, member);
-        }
+        return execute(jedis -> jedis.sismember(key, member), pipeline -> pipeline.sismember(key, member));
 	}
 
 	/**
@@ -4499,9 +4578,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<String> sinter(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sinter(keys);
-        }
+        return execute(jedis -> jedis.sinter(keys), pipeline -> pipeline.sinter(keys));
 	}
 
 	/**
@@ -4517,9 +4594,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sinterstore(final String dstkey, final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sinterstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sinterstore(dstkey, keys), pipeline -> pipeline.sinterstore(dstkey, keys));
 	}
 
 	/**
@@ -4537,9 +4612,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<String> sunion(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sunion(keys);
-        }
+        return execute(jedis -> jedis.sunion(keys), pipeline -> pipeline.sunion(keys));
 	}
 
 	/**
@@ -4554,9 +4627,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sunionstore(final String dstkey, final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sunionstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sunionstore(dstkey, keys), pipeline -> pipeline.sunionstore(dstkey, keys));
 	}
 
 	/**
@@ -4583,9 +4654,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<String> sdiff(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sdiff(keys);
-        }
+        return execute(jedis -> jedis.sdiff(keys), pipeline -> pipeline.sdiff(keys));
 	}
 
 	/**
@@ -4598,9 +4667,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sdiffstore(final String dstkey, final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sdiffstore(dstkey, keys);
-        }
+        return execute(jedis -> jedis.sdiffstore(dstkey, keys), pipeline -> pipeline.sdiffstore(dstkey, keys));
 	}
 
 	/**
@@ -4616,16 +4683,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String srandmember(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srandmember(key);
-        }
+        return execute(jedis -> jedis.srandmember(key), pipeline -> pipeline.srandmember(key));
 	}
 
 	@Override
 	public List<String> srandmember(final String key, final int count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.srandmember(key, count);
-        }
+        return execute(jedis -> jedis.srandmember(key, count), pipeline -> pipeline.srandmember(key, count));
 	}
 
 	/**
@@ -4647,38 +4710,28 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zadd(final String key, final double score, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, score, member);
-        }
+        return execute(jedis -> jedis.zadd(key, score, member), pipeline -> pipeline.zadd(key, score, member));
 	}
 
 	@Override
 	public Long zadd(final String key, final double score, final String member,
 	                 final ZAddParams params){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zadd(key, score, member, params);
-		}
+		return execute(jedis -> jedis.zadd(key, score, member, params), pipeline -> pipeline.zadd(key, score, member, params));
 	}
 
 	@Override
 	public Long zadd(String key, Map<String, Double> scoreMembers){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, scoreMembers);
-        }
+        return execute(jedis -> jedis.zadd(key, scoreMembers), pipeline -> pipeline.zadd(key, scoreMembers));
 	}
 
 	@Override
 	public Long zadd(final String key, final Map<String, Double> scoreMembers, final ZAddParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zadd(key, scoreMembers, params);
-        }
+        return execute(jedis -> jedis.zadd(key, scoreMembers, params), pipeline -> pipeline.zadd(key, scoreMembers, params));
 	}
 
 	@Override
 	public Set<String> zrange(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrange(key, start, stop), pipeline -> pipeline.zrange(key, start, stop));
 	}
 
 	/**
@@ -4695,9 +4748,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrem(final String key, final String... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrem(key, members);
-        }
+        return execute(jedis -> jedis.zrem(key, members), pipeline -> pipeline.zrem(key, members));
 	}
 
 	/**
@@ -4721,16 +4772,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double zincrby(final String key, final double increment, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zincrby(key, increment, member);
-        }
+        return execute(jedis -> jedis.zincrby(key, increment, member), pipeline -> pipeline.zincrby(key, increment, member));
 	}
 
 	@Override
 	public Double zincrby(final String key, final double increment, final String member, final ZIncrByParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zincrby(key, increment, member, params);
-        }
+        return execute(jedis -> jedis.zincrby(key, increment, member, params), pipeline -> pipeline.zincrby(key, increment, member, params));
 	}
 
 	/**
@@ -4752,9 +4799,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrank(final String key, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrank(key, member);
-        }
+        return execute(jedis -> jedis.zrank(key, member), pipeline -> pipeline.zrank(key, member));
 	}
 
 	/**
@@ -4776,30 +4821,22 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zrevrank(final String key, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrank(key, member);
-        }
+        return execute(jedis -> jedis.zrevrank(key, member), pipeline -> pipeline.zrevrank(key, member));
 	}
 
 	@Override
 	public Set<String> zrevrange(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrange(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrevrange(key, start, stop), pipeline -> pipeline.zrevrange(key, start, stop));
 	}
 
 	@Override
 	public Set<Tuple> zrangeWithScores(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeWithScores(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrangeWithScores(key, start, stop), pipeline -> pipeline.zrangeWithScores(key, start, stop));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeWithScores(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeWithScores(key, start, stop);
-        }
+        return execute(jedis -> jedis.zrevrangeWithScores(key, start, stop), pipeline -> pipeline.zrevrangeWithScores(key, start, stop));
 	}
 
 	/**
@@ -4813,9 +4850,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zcard(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcard(key);
-        }
+        return execute(jedis -> jedis.zcard(key), pipeline -> pipeline.zcard(key));
 	}
 
 	/**
@@ -4831,16 +4866,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Double zscore(final String key, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscore(key, member);
-        }
+        return execute(jedis -> jedis.zscore(key, member), pipeline -> pipeline.zscore(key, member));
 	}
 
 	@Override
 	public String watch(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.watch(keys);
-        }
+        return execute(jedis -> jedis.watch(keys), null);
 	}
 
 	/**
@@ -4859,9 +4890,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> sort(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key);
-        }
+        return execute(jedis -> jedis.sort(key), pipeline -> pipeline.sort(key));
 	}
 
 	/**
@@ -4941,9 +4970,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> sort(final String key, final SortingParams sortingParameters){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, sortingParameters);
-        }
+        return execute(jedis -> jedis.sort(key, sortingParameters), pipeline -> pipeline.sort(key, sortingParameters));
 	}
 
 	/**
@@ -5011,24 +5038,18 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> blpop(final int timeout, final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(timeout, keys);
-        }
+        return execute(jedis -> jedis.blpop(timeout, keys), null);
 	}
 
 
 	@Override
 	public List<String> blpop(final String... args){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(args);
-        }
+        return execute(jedis -> jedis.blpop(args), null);
 	}
 
 	@Override
 	public List<String> brpop(final String... args){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(args);
-        }
+        return execute(jedis -> jedis.brpop(args), null);
 	}
 
 	/**
@@ -5037,9 +5058,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	@Deprecated
 	public List<String> blpop(String arg){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(arg);
-        }
+        return execute(jedis -> jedis.blpop(arg), null);
 	}
 
 	/**
@@ -5048,9 +5067,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	@Deprecated
 	public List<String> brpop(String arg){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(arg);
-        }
+        return execute(jedis -> jedis.brpop(arg), null);
 	}
 
 	/**
@@ -5066,9 +5083,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sort(final String key, final SortingParams sortingParameters, final String dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, sortingParameters, dstkey);
-        }
+        return execute(jedis -> jedis.sort(key, sortingParameters, dstkey), pipeline -> pipeline.sort(key, sortingParameters, dstkey));
 	}
 
 	/**
@@ -5087,9 +5102,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long sort(final String key, final String dstkey){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sort(key, dstkey);
-        }
+        return execute(jedis -> jedis.sort(key, dstkey), pipeline -> pipeline.sort(key, dstkey));
 	}
 
 	/**
@@ -5157,23 +5170,17 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public List<String> brpop(final int timeout, final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(timeout, keys);
-        }
+        return execute(jedis -> jedis.brpop(timeout, keys), null);
 	}
 
 	@Override
 	public Long zcount(final String key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
 	}
 
 	@Override
 	public Long zcount(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
 	}
 
 	/**
@@ -5227,16 +5234,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<String> zrangeByScore(final String key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
 	}
 
 	@Override
 	public Set<String> zrangeByScore(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
 	}
 
 	/**
@@ -5290,17 +5293,13 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public Set<String> zrangeByScore(final String key, final double min, final double max,
 	                                 final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScore(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScore(key, min, max, offset, count), pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<String> zrangeByScore(final String key, final String min, final String max,
 	                                 final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScore(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScore(key, min, max, offset, count), pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
 	}
 
 	/**
@@ -5353,16 +5352,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final String key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScoreWithScores(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
 	}
 
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByScoreWithScores(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
 	}
 
 	/**
@@ -5416,77 +5411,57 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final String key, final double min, final double max,
 	                                          final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScoreWithScores(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrangeByScoreWithScores(final String key, final String min, final String max,
 	                                          final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByScoreWithScores(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count), pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<String> zrevrangeByScore(final String key, final double max, final double min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScore(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScore(key, max, min), pipeline -> pipeline.zrevrangeByScore(key, max, min));
 	}
 
 	@Override
 	public Set<String> zrevrangeByScore(final String key, final String max, final String min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScore(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScore(key, max, min), pipeline -> pipeline.zrevrangeByScore(key, max, min));
 	}
 
 	@Override
 	public Set<String> zrevrangeByScore(final String key, final double max, final double min,
 	                                    final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScore(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final String key, final double max, final double min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScoreWithScores(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final String key, final double max,
 	                                             final double min, final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScoreWithScores(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final String key, final String max,
 	                                             final String min, final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScoreWithScores(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<String> zrevrangeByScore(final String key, final String max, final String min,
 	                                    final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrevrangeByScore(key, max, min, offset, count);
-		}
+		return execute(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
 	}
 
 	@Override
 	public Set<Tuple> zrevrangeByScoreWithScores(final String key, final String max, final String min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByScoreWithScores(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min), pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
 	}
 
 	/**
@@ -5501,9 +5476,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zremrangeByRank(final String key, final long start, final long stop){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByRank(key, start, stop);
-        }
+        return execute(jedis -> jedis.zremrangeByRank(key, start, stop), pipeline -> pipeline.zremrangeByRank(key, start, stop));
 	}
 
 	/**
@@ -5522,16 +5495,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zremrangeByScore(final String key, final double min, final double max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByScore(key, min, max), pipeline -> pipeline.zremrangeByScore(key, min, max));
 	}
 
 	@Override
 	public Long zremrangeByScore(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByScore(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByScore(key, min, max), pipeline -> pipeline.zremrangeByScore(key, min, max));
 	}
 
 	/**
@@ -5567,9 +5536,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zunionstore(final String dstkey, final String... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zunionstore(dstkey, sets);
-        }
+        return execute(jedis -> jedis.zunionstore(dstkey, sets), pipeline -> pipeline.zunionstore(dstkey, sets));
 	}
 
 	/**
@@ -5606,9 +5573,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zunionstore(final String dstkey, final ZParams params, final String... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zunionstore(dstkey, params, sets);
-        }
+        return execute(jedis -> jedis.zunionstore(dstkey, params, sets), pipeline -> pipeline.zunionstore(dstkey, params, sets));
 	}
 
 	/**
@@ -5644,9 +5609,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zinterstore(final String dstkey, final String... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zinterstore(dstkey, sets);
-        }
+        return execute(jedis -> jedis.zinterstore(dstkey, sets), pipeline -> pipeline.zinterstore(dstkey, sets));
 	}
 
 	/**
@@ -5683,73 +5646,53 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long zinterstore(final String dstkey, final ZParams params, final String... sets){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zinterstore(dstkey, params, sets);
-        }
+        return execute(jedis -> jedis.zinterstore(dstkey, params, sets), pipeline -> pipeline.zinterstore(dstkey, params, sets));
 	}
 
 	@Override
 	public Long zlexcount(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zlexcount(key, min, max);
-        }
+        return execute(jedis -> jedis.zlexcount(key, min, max), pipeline -> pipeline.zlexcount(key, min, max));
 	}
 
 	@Override
 	public Set<String> zrangeByLex(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrangeByLex(key, min, max);
-        }
+        return execute(jedis -> jedis.zrangeByLex(key, min, max), pipeline -> pipeline.zrangeByLex(key, min, max));
 	}
 
 	@Override
 	public Set<String> zrangeByLex(final String key, final String min, final String max,
 	                               final int offset, final int count){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.zrangeByLex(key, min, max, offset, count);
-		}
+		return execute(jedis -> jedis.zrangeByLex(key, min, max, offset, count), pipeline -> pipeline.zrangeByLex(key, min, max, offset, count));
 	}
 
 	@Override
 	public Set<String> zrevrangeByLex(final String key, final String max, final String min){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByLex(key, max, min);
-        }
+        return execute(jedis -> jedis.zrevrangeByLex(key, max, min), pipeline -> pipeline.zrevrangeByLex(key, max, min));
 	}
 
 	@Override
 	public Set<String> zrevrangeByLex(final String key, final String max, final String min, final int offset, final int count){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zrevrangeByLex(key, max, min, offset, count);
-        }
+        return execute(jedis -> jedis.zrevrangeByLex(key, max, min, offset, count), pipeline -> pipeline.zrevrangeByLex(key, max, min, offset, count));
 	}
 
 	@Override
 	public Long zremrangeByLex(final String key, final String min, final String max){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zremrangeByLex(key, min, max);
-        }
+        return execute(jedis -> jedis.zremrangeByLex(key, min, max), pipeline -> pipeline.zremrangeByLex(key, min, max));
 	}
 
 	@Override
 	public Long linsert(String key, BinaryClient.LIST_POSITION where, String pivot, String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.linsert(key, where, pivot, value);
-        }
+        return execute(jedis -> jedis.linsert(key, where, pivot, value), pipeline -> pipeline.linsert(key, where, pivot, value));
 	}
 
 	@Override
 	public Long strlen(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.strlen(key);
-        }
+        return execute(jedis -> jedis.strlen(key), pipeline -> pipeline.strlen(key));
 	}
 
 	@Override
 	public Long lpushx(final String key, final String... string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.lpushx(key, string);
-        }
+        return execute(jedis -> jedis.lpushx(key, string), pipeline -> pipeline.lpushx(key, string));
 	}
 
 	/**
@@ -5763,31 +5706,23 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Long persist(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.persist(key);
-        }
+        return execute(jedis -> jedis.persist(key), pipeline -> pipeline.persist(key));
 	}
 
 	@Override
 	public Long rpushx(final String key, final String... string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.rpushx(key, string);
-        }
+        return execute(jedis -> jedis.rpushx(key, string), pipeline -> pipeline.rpushx(key, string));
 	}
 
 	@Override
 	public String echo(final String string){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.echo(string);
-        }
+        return execute(jedis -> jedis.echo(string), pipeline -> pipeline.echo(string));
 	}
 
 	@Override
 	public Long linsert(final String key, final ListPosition where, final String pivot,
 	                    final String value){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.linsert(key, where, pivot, value);
-		}
+		return execute(jedis -> jedis.linsert(key, where, pivot, value), pipeline -> pipeline.linsert(key, where, pivot, value));
 	}
 
 	/**
@@ -5800,9 +5735,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String brpoplpush(final String source, final String destination, final int timeout){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpoplpush(source, destination, timeout);
-        }
+        return execute(jedis -> jedis.brpoplpush(source, destination, timeout), null);
 	}
 
 	/**
@@ -5815,16 +5748,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean setbit(final String key, final long offset, final boolean value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setbit(key, offset, value);
-        }
+        return execute(jedis -> jedis.setbit(key, offset, value), pipeline -> pipeline.setbit(key, offset, value));
 	}
 
 	@Override
 	public Boolean setbit(final String key, final long offset, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setbit(key, offset, value);
-        }
+        return execute(jedis -> jedis.setbit(key, offset, value), null);
 	}
 
 	/**
@@ -5836,44 +5765,32 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public Boolean getbit(final String key, final long offset){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getbit(key, offset);
-        }
+        return execute(jedis -> jedis.getbit(key, offset), pipeline -> pipeline.getbit(key, offset));
 	}
 
 	@Override
 	public Long setrange(final String key, final long offset, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.setrange(key, offset, value);
-        }
+        return execute(jedis -> jedis.setrange(key, offset, value), pipeline -> pipeline.setrange(key, offset, value));
 	}
 
 	@Override
 	public String getrange(final String key, final long startOffset, final long endOffset){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.getrange(key, startOffset, endOffset);
-        }
+        return execute(jedis -> jedis.getrange(key, startOffset, endOffset), pipeline -> pipeline.getrange(key, startOffset, endOffset));
 	}
 
 	@Override
 	public Long bitpos(final String key, final boolean value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitpos(key, value);
-        }
+        return execute(jedis -> jedis.bitpos(key, value), pipeline -> pipeline.bitpos(key, value));
 	}
 
 	@Override
 	public Long bitpos(final String key, final boolean value, final BitPosParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitpos(key, value, params);
-        }
+        return execute(jedis -> jedis.bitpos(key, value, params), pipeline -> pipeline.bitpos(key, value, params));
 	}
 
 	@Override
 	public Long publish(final String channel, final String message){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.publish(channel, message);
-        }
+        return execute(jedis -> jedis.publish(channel, message), pipeline -> pipeline.publish(channel, message));
 	}
 
     /**
@@ -5890,12 +5807,18 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
      * с помощью слушателя можно отменить подписку методом {@link #unsubscribe(JedisPubSubListener)}.
      */
     public JedisPubSubListener subscribe(JedisPubSubListener listener, String... channels){
-        for (String channel : channels) {
-            pubSubWrapper.subscribe(listener, channel);
-        }
+        pubSubWrapper.subscribeAll(listener, Arrays.asList(channels));
         return listener;
     }
 
+    /**
+     * Работает так же, как и {@link #subscribe(JedisPubSubListener, String...)}, но возвращает future, который завершится,
+     * когда Redis подтвердит подписку на все каналы, см. {@link JedisPubSubWrapper#subscribeAll(JedisPubSubListener, Collection)}.
+     */
+    public CompletableFuture<JedisPubSubListener> subscribeAll(JedisPubSubListener listener, Collection<String> channels){
+        return pubSubWrapper.subscribeAll(listener, channels);
+    }
+
     /**
      * Отменить подписку по указанному слушателю.
      *
@@ -5909,6 +5832,37 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         return pubSubWrapper.unsubscribe(listener);
     }
 
+    /**
+     * Подписаться на прослушивание каналов по шаблонам.
+     *
+     * <p>Этот метод является альтернативой метода {@link #psubscribe(JedisPubSub, String...)} и работает так же,
+     * как и {@link #subscribe(JedisPubSubListener, String...)}: подписка создается в общем соединении обертки
+     * {@link JedisPubSubWrapper} и не блокирует поток.
+     *
+     * @param listener слушатель, который будет вызываться, когда будет приходить сообщение на каналы,
+     *                 подходящие под шаблоны.
+     * @param patterns шаблоны каналов.
+     * @return слушатель, переданный параметром {@code listener}. Он выступает индентификатором подписки,
+     * с помощью слушателя можно отменить подписку методом {@link #punsubscribe(JedisPubSubPatternListener)}.
+     */
+    public JedisPubSubPatternListener psubscribe(JedisPubSubPatternListener listener, String... patterns){
+        for (String pattern : patterns) {
+            pubSubWrapper.psubscribe(listener, pattern);
+        }
+        return listener;
+    }
+
+    /**
+     * Отменить подписку по шаблонам по указанному слушателю.
+     *
+     * @param listener слушатель, используемый в подписках по шаблону, которые должны быть отменены.
+     * @return true, если была отменена хотя бы одна подписка. Если подписок с указанным слушателем не было найдено,
+     * тогда вернет false.
+     */
+    public boolean punsubscribe(JedisPubSubPatternListener listener) {
+        return pubSubWrapper.punsubscribe(listener);
+    }
+
     /**
      * @deprecated не рекомендуется к использованию.
      * Есть альтернативный метод {@link #subscribe(JedisPubSubListener, String...)},
@@ -5923,6 +5877,10 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         }
 	}
 
+    /**
+     * Есть альтернативный метод {@link #psubscribe(JedisPubSubPatternListener, String...)}, который не блокирует поток
+     * и использует общее соединение подписок.
+     */
 	@Override
 	public void psubscribe(JedisPubSub jedisPubSub, String... patterns){
         try(Jedis jedis = pool.getResource()){
@@ -5932,65 +5890,47 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 
 	@Override
 	public Long bitcount(final String key, final long start, final long end){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitcount(key, start, end);
-        }
+        return execute(jedis -> jedis.bitcount(key, start, end), pipeline -> pipeline.bitcount(key, start, end));
 	}
 
 	@Override
 	public Long bitop(final BitOP op, final String destKey, final String... srcKeys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitop(op, destKey, srcKeys);
-        }
+        return execute(jedis -> jedis.bitop(op, destKey, srcKeys), pipeline -> pipeline.bitop(op, destKey, srcKeys));
 	}
 
 	@Override
 	public byte[] dump(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.dump(key);
-        }
+        return execute(jedis -> jedis.dump(key), pipeline -> pipeline.dump(key));
 	}
 
 	@Override
 	public String restore(final String key, final int ttl, final byte[] serializedValue){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.restore(key, ttl, serializedValue);
-        }
+        return execute(jedis -> jedis.restore(key, ttl, serializedValue), pipeline -> pipeline.restore(key, ttl, serializedValue));
 	}
 
 	@Deprecated
 	public Long pexpire(final String key, final int milliseconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpire(key, milliseconds);
-        }
+        return execute(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
 	}
 
 	@Override
 	public Long pexpire(final String key, final long milliseconds){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpire(key, milliseconds);
-        }
+        return execute(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
 	}
 
 	@Override
 	public Long pexpireAt(final String key, final long millisecondsTimestamp){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pexpireAt(key, millisecondsTimestamp);
-        }
+        return execute(jedis -> jedis.pexpireAt(key, millisecondsTimestamp), pipeline -> pipeline.pexpireAt(key, millisecondsTimestamp));
 	}
 
 	@Override
 	public Long pttl(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pttl(key);
-        }
+        return execute(jedis -> jedis.pttl(key), pipeline -> pipeline.pttl(key));
 	}
 
 	@Deprecated
 	public String psetex(final String key, final int milliseconds, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.psetex(key, milliseconds, value);
-        }
+        return execute(jedis -> jedis.psetex(key, milliseconds, value), pipeline -> pipeline.psetex(key, milliseconds, value));
 	}
 
 	/**
@@ -6004,16 +5944,12 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 */
 	@Override
 	public String psetex(final String key, final long milliseconds, final String value){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.psetex(key, milliseconds, value);
-        }
+        return execute(jedis -> jedis.psetex(key, milliseconds, value), pipeline -> pipeline.psetex(key, milliseconds, value));
 	}
 
 	@Override
 	public String set(final String key, final String value, final String nxxx){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.set(key, value, nxxx);
-        }
+        return execute(jedis -> jedis.set(key, value, nxxx), pipeline -> pipeline.set(key, value, nxxx));
 	}
 
 	@Override
@@ -6024,9 +5960,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * @see https://github.com/xetorthio/jedis/issues/531
 	 */
 	public ScanResult<String> scan(int cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.scan(cursor);
-        }
+        return execute(jedis -> jedis.scan(cursor), null);
 	}
 
 	@Override
@@ -6037,9 +5971,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * @see https://github.com/xetorthio/jedis/issues/531
 	 */
 	public ScanResult<Map.Entry<String, String>> hscan(final String key, int cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hscan(key, cursor);
-        }
+        return execute(jedis -> jedis.hscan(key, cursor), null);
 	}
 
 	@Override
@@ -6050,9 +5982,7 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * @see https://github.com/xetorthio/jedis/issues/531
 	 */
 	public ScanResult<String> sscan(final String key, int cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sscan(key, cursor);
-        }
+        return execute(jedis -> jedis.sscan(key, cursor), null);
 	}
 
 	@Override
@@ -6063,228 +5993,166 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
 	 * @see https://github.com/xetorthio/jedis/issues/531
 	 */
 	public ScanResult<Tuple> zscan(final String key, int cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscan(key, cursor);
-        }
+        return execute(jedis -> jedis.zscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<String> scan(final String cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.scan(cursor);
-        }
+        return execute(jedis -> jedis.scan(cursor), null);
 	}
 
 	@Override
 	public ScanResult<String> scan(final String cursor, final ScanParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.scan(cursor, params);
-        }
+        return execute(jedis -> jedis.scan(cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<Map.Entry<String, String>> hscan(final String key, final String cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hscan(key, cursor);
-        }
+        return execute(jedis -> jedis.hscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<Map.Entry<String, String>> hscan(final String key, final String cursor,
 	                                                   final ScanParams params){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.hscan(key, cursor, params);
-		}
+		return execute(jedis -> jedis.hscan(key, cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<String> sscan(final String key, final String cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sscan(key, cursor);
-        }
+        return execute(jedis -> jedis.sscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<String> sscan(final String key, final String cursor, final ScanParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.sscan(key, cursor, params);
-        }
+        return execute(jedis -> jedis.sscan(key, cursor, params), null);
 	}
 
 	@Override
 	public ScanResult<Tuple> zscan(final String key, final String cursor){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscan(key, cursor);
-        }
+        return execute(jedis -> jedis.zscan(key, cursor), null);
 	}
 
 	@Override
 	public ScanResult<Tuple> zscan(final String key, final String cursor, final ScanParams params){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.zscan(key, cursor, params);
-        }
+        return execute(jedis -> jedis.zscan(key, cursor, params), null);
 	}
 
 	@Override
 	public Long pfadd(final String key, final String... elements){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfadd(key, elements);
-        }
+        return execute(jedis -> jedis.pfadd(key, elements), pipeline -> pipeline.pfadd(key, elements));
 	}
 
 	@Override
 	public long pfcount(final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfcount(key);
-        }
+        return execute(jedis -> jedis.pfcount(key), null);
 	}
 
 	@Override
 	public long pfcount(final String... keys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfcount(keys);
-        }
+        return execute(jedis -> jedis.pfcount(keys), null);
 	}
 
 	@Override
 	public String pfmerge(final String destkey, final String... sourcekeys){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.pfmerge(destkey, sourcekeys);
-        }
+        return execute(jedis -> jedis.pfmerge(destkey, sourcekeys), pipeline -> pipeline.pfmerge(destkey, sourcekeys));
 	}
 
 	@Override
 	public List<String> blpop(final int timeout, final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.blpop(timeout, key);
-        }
+        return execute(jedis -> jedis.blpop(timeout, key), null);
 	}
 
 	@Override
 	public List<String> brpop(final int timeout, final String key){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.brpop(timeout, key);
-        }
+        return execute(jedis -> jedis.brpop(timeout, key), null);
 	}
 
 	@Override
 	public Long geoadd(final String key, final double longitude, final double latitude, final String member){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geoadd(key, longitude, latitude, member);
-        }
+        return execute(jedis -> jedis.geoadd(key, longitude, latitude, member), pipeline -> pipeline.geoadd(key, longitude, latitude, member));
 	}
 
 	@Override
 	public Long geoadd(final String key, final Map<String, GeoCoordinate> memberCoordinateMap){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geoadd(key, memberCoordinateMap);
-        }
+        return execute(jedis -> jedis.geoadd(key, memberCoordinateMap), pipeline -> pipeline.geoadd(key, memberCoordinateMap));
 	}
 
 	@Override
 	public Double geodist(final String key, final String member1, final String member2){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geodist(key, member1, member2);
-        }
+        return execute(jedis -> jedis.geodist(key, member1, member2), pipeline -> pipeline.geodist(key, member1, member2));
 	}
 
 	@Override
 	public Double geodist(final String key, final String member1, final String member2, final GeoUnit unit){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geodist(key, member1, member2, unit);
-        }
+        return execute(jedis -> jedis.geodist(key, member1, member2, unit), pipeline -> pipeline.geodist(key, member1, member2, unit));
 	}
 
 	@Override
 	public List<String> geohash(final String key, String... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geohash(key, members);
-        }
+        return execute(jedis -> jedis.geohash(key, members), pipeline -> pipeline.geohash(key, members));
 	}
 
 	@Override
 	public List<GeoCoordinate> geopos(final String key, String... members){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.geopos(key, members);
-        }
+        return execute(jedis -> jedis.geopos(key, members), pipeline -> pipeline.geopos(key, members));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadius(final String key, final double longitude, final double latitude,
 	                                         final double radius, final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadius(key, longitude, latitude, radius, unit);
-		}
+		return execute(jedis -> jedis.georadius(key, longitude, latitude, radius, unit), pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusReadonly(final String key, final double longitude, final double latitude,
 	                                                 final double radius, final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusReadonly(key, longitude, latitude, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit), pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadius(final String key, final double longitude, final double latitude,
 	                                         final double radius, final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadius(key, longitude, latitude, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadius(key, longitude, latitude, radius, unit, param), pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusReadonly(final String key, final double longitude, final double latitude,
 	                                                 final double radius, final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param), pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMember(final String key, final String member, final double radius,
 	                                                 final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMember(key, member, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusByMember(key, member, radius, unit), pipeline -> pipeline.georadiusByMember(key, member, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMemberReadonly(final String key, final String member, final double radius,
 	                                                         final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMemberReadonly(key, member, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit, param), pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit, param));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMemberReadonly(final String key, final String member, final double radius,
 	                                                         final GeoUnit unit){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMemberReadonly(key, member, radius, unit);
-		}
+		return execute(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit), pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit));
 	}
 
 	@Override
 	public List<GeoRadiusResponse> georadiusByMember(final String key, final String member, final double radius,
 	                                                 final GeoUnit unit, final GeoRadiusParam param){
-		try(Jedis jedis = pool.getResource()){
-			return jedis.georadiusByMember(key, member, radius, unit, param);
-		}
+		return execute(jedis -> jedis.georadiusByMember(key, member, radius, unit, param), pipeline -> pipeline.georadiusByMember(key, member, radius, unit, param));
 	}
 
 	@Override
 	public List<Long> bitfield(final String key, final String... arguments){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.bitfield(key, arguments);
-        }
+        return execute(jedis -> jedis.bitfield(key, arguments), pipeline -> pipeline.bitfield(key, arguments));
 	}
 
 	@Override
 	public Long hstrlen(final String key, final String field){
-        try(Jedis jedis = pool.getResource()){
-            return jedis.hstrlen(key, field);
-        }
+        return execute(jedis -> jedis.hstrlen(key, field), pipeline -> pipeline.hstrlen(key, field));
 	}
 
     @Override
@@ -6293,7 +6161,11 @@ public class JedisWrapper implements JedisCommands, MultiKeyCommands, BinaryJedi
         // являются идемпотентными и не кидают исключений
         // по этому их можно просто закрывать без дополнительных проверок
         // и try catch блоков
+        disableNearCache();
+        disableMetrics();
         pubSubWrapper.close();
         binaryPubSubWrapper.close();
+        disableAutoPipelining();
+        disableReplicas();
     }
 }
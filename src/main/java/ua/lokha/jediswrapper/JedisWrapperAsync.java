@@ -0,0 +1,1444 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import redis.clients.jedis.*;
+import redis.clients.jedis.params.geo.GeoRadiusParam;
+import redis.clients.jedis.params.sortedset.ZAddParams;
+import redis.clients.jedis.params.sortedset.ZIncrByParams;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Асинхронная версия {@link JedisWrapper}. Повторяет методы {@link JedisCommands} и {@link BinaryJedisCommands},
+ * только вместо результата возвращает {@link CompletableFuture} с результатом. Это позволяет запустить
+ * сразу несколько независимых команд и дождаться их вместе, вместо того чтобы выполнять их по очереди.
+ *
+ * <p>Получить этот объект можно из {@link JedisWrapper#async(Executor)}.
+ *
+ * <p>Команды выполняются в {@link #getExecutor()}, каждая в отдельно взятом ресурсе {@link Jedis}.
+ * Если в {@link JedisWrapper} включен автоматический pipeline {@link JedisWrapper#enableAutoPipelining(int, int, long)},
+ * то команды, у которых есть аналог в {@link Pipeline}, вместо этого ставятся в очередь автоматического pipeline
+ * и не занимают поток {@link #getExecutor()}. В таком случае одновременно запущенные команды
+ * отправляются в Redis общими пачками.
+ * Так же, если задан неблокирующий транспорт {@link JedisWrapper#setNioTransport(JedisNioTransport)}, то такие
+ * команды отправляются через него.
+ *
+ * <p>Результаты команд автоматического pipeline и транспорта завершаются в их потоках, по этому тяжелую обработку
+ * результата следует делать в async методах {@link CompletableFuture}, например,
+ * {@link CompletableFuture#thenApplyAsync(Function, Executor)}.
+ *
+ * <p>Пример использования:
+ * <pre>
+ *     JedisWrapperAsync async = jedisWrapper.async(executor);
+ *     CompletableFuture&lt;String&gt; value1 = async.get("key1");
+ *     CompletableFuture&lt;String&gt; value2 = async.get("key2");
+ *     CompletableFuture.allOf(value1, value2).join();
+ * </pre>
+ */
+public class JedisWrapperAsync {
+
+    /**
+     * Обертка, через которую выполняются команды.
+     */
+    @Getter
+    private final JedisWrapper wrapper;
+
+    /**
+     * Executor, в котором выполняются команды, которые не отправляются через автоматический pipeline.
+     */
+    @Getter
+    private final Executor executor;
+
+    /**
+     * @param wrapper  обертка, через которую выполняются команды.
+     * @param executor обработчик, в котором будут выполняться команды, которые не отправляются
+     *                 через автоматический pipeline.
+     */
+    public JedisWrapperAsync(JedisWrapper wrapper, Executor executor) {
+        this.wrapper = wrapper;
+        this.executor = executor;
+    }
+
+    private <T> CompletableFuture<T> async(Function<Jedis, T> action) {
+        return wrapper.executeAsync(action, null, executor);
+    }
+
+    private <T> CompletableFuture<T> async(Function<Jedis, T> action, Function<Pipeline, Response<T>> pipelinedAction) {
+        return wrapper.executeAsync(action, pipelinedAction, executor);
+    }
+
+    public CompletableFuture<String> set(final String key, final String value) {
+        return async(jedis -> jedis.set(key, value), pipeline -> pipeline.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value, final String nxxx, final String expx,
+                                         final long time) {
+        return async(jedis -> jedis.set(key, value, nxxx, expx, time));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value, final String expx, final long time) {
+        return async(jedis -> jedis.set(key, value, expx, time));
+    }
+
+    public CompletableFuture<String> set(final String key, final String value, final String nxxx) {
+        return async(jedis -> jedis.set(key, value, nxxx), pipeline -> pipeline.set(key, value, nxxx));
+    }
+
+    public CompletableFuture<String> get(final String key) {
+        return async(jedis -> jedis.get(key), pipeline -> pipeline.get(key));
+    }
+
+    public CompletableFuture<Boolean> exists(final String key) {
+        return async(jedis -> jedis.exists(key), pipeline -> pipeline.exists(key));
+    }
+
+    public CompletableFuture<Long> persist(final String key) {
+        return async(jedis -> jedis.persist(key), pipeline -> pipeline.persist(key));
+    }
+
+    public CompletableFuture<String> type(final String key) {
+        return async(jedis -> jedis.type(key), pipeline -> pipeline.type(key));
+    }
+
+    public CompletableFuture<byte[]> dump(final String key) {
+        return async(jedis -> jedis.dump(key), pipeline -> pipeline.dump(key));
+    }
+
+    public CompletableFuture<String> restore(final String key, final int ttl, final byte[] serializedValue) {
+        return async(jedis -> jedis.restore(key, ttl, serializedValue),
+            pipeline -> pipeline.restore(key, ttl, serializedValue));
+    }
+
+    public CompletableFuture<Long> expire(final String key, final int seconds) {
+        return async(jedis -> jedis.expire(key, seconds), pipeline -> pipeline.expire(key, seconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final String key, final long milliseconds) {
+        return async(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> expireAt(final String key, final long unixTime) {
+        return async(jedis -> jedis.expireAt(key, unixTime), pipeline -> pipeline.expireAt(key, unixTime));
+    }
+
+    public CompletableFuture<Long> pexpireAt(final String key, final long millisecondsTimestamp) {
+        return async(jedis -> jedis.pexpireAt(key, millisecondsTimestamp),
+            pipeline -> pipeline.pexpireAt(key, millisecondsTimestamp));
+    }
+
+    public CompletableFuture<Long> ttl(final String key) {
+        return async(jedis -> jedis.ttl(key), pipeline -> pipeline.ttl(key));
+    }
+
+    public CompletableFuture<Long> pttl(final String key) {
+        return async(jedis -> jedis.pttl(key), pipeline -> pipeline.pttl(key));
+    }
+
+    public CompletableFuture<Long> touch(final String key) {
+        return async(jedis -> jedis.touch(key), pipeline -> pipeline.touch(key));
+    }
+
+    public CompletableFuture<Boolean> setbit(final String key, final long offset, final boolean value) {
+        return async(jedis -> jedis.setbit(key, offset, value), pipeline -> pipeline.setbit(key, offset, value));
+    }
+
+    public CompletableFuture<Boolean> setbit(final String key, final long offset, final String value) {
+        return async(jedis -> jedis.setbit(key, offset, value));
+    }
+
+    public CompletableFuture<Boolean> getbit(final String key, final long offset) {
+        return async(jedis -> jedis.getbit(key, offset), pipeline -> pipeline.getbit(key, offset));
+    }
+
+    public CompletableFuture<Long> setrange(final String key, final long offset, final String value) {
+        return async(jedis -> jedis.setrange(key, offset, value), pipeline -> pipeline.setrange(key, offset, value));
+    }
+
+    public CompletableFuture<String> getrange(final String key, final long startOffset, final long endOffset) {
+        return async(jedis -> jedis.getrange(key, startOffset, endOffset),
+            pipeline -> pipeline.getrange(key, startOffset, endOffset));
+    }
+
+    public CompletableFuture<String> getSet(final String key, final String value) {
+        return async(jedis -> jedis.getSet(key, value), pipeline -> pipeline.getSet(key, value));
+    }
+
+    public CompletableFuture<Long> setnx(final String key, final String value) {
+        return async(jedis -> jedis.setnx(key, value), pipeline -> pipeline.setnx(key, value));
+    }
+
+    public CompletableFuture<String> setex(final String key, final int seconds, final String value) {
+        return async(jedis -> jedis.setex(key, seconds, value), pipeline -> pipeline.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> psetex(final String key, final long milliseconds, final String value) {
+        return async(jedis -> jedis.psetex(key, milliseconds, value),
+            pipeline -> pipeline.psetex(key, milliseconds, value));
+    }
+
+    public CompletableFuture<Long> decrBy(final String key, final long decrement) {
+        return async(jedis -> jedis.decrBy(key, decrement), pipeline -> pipeline.decrBy(key, decrement));
+    }
+
+    public CompletableFuture<Long> decr(final String key) {
+        return async(jedis -> jedis.decr(key), pipeline -> pipeline.decr(key));
+    }
+
+    public CompletableFuture<Long> incrBy(final String key, final long increment) {
+        return async(jedis -> jedis.incrBy(key, increment), pipeline -> pipeline.incrBy(key, increment));
+    }
+
+    public CompletableFuture<Double> incrByFloat(final String key, final double increment) {
+        return async(jedis -> jedis.incrByFloat(key, increment), pipeline -> pipeline.incrByFloat(key, increment));
+    }
+
+    public CompletableFuture<Long> incr(final String key) {
+        return async(jedis -> jedis.incr(key), pipeline -> pipeline.incr(key));
+    }
+
+    public CompletableFuture<Long> append(final String key, final String value) {
+        return async(jedis -> jedis.append(key, value), pipeline -> pipeline.append(key, value));
+    }
+
+    public CompletableFuture<String> substr(final String key, final int start, final int end) {
+        return async(jedis -> jedis.substr(key, start, end), pipeline -> pipeline.substr(key, start, end));
+    }
+
+    public CompletableFuture<Long> hset(final String key, final String field, final String value) {
+        return async(jedis -> jedis.hset(key, field, value), pipeline -> pipeline.hset(key, field, value));
+    }
+
+    public CompletableFuture<Long> hset(final String key, final Map<String, String> hash) {
+        return async(jedis -> jedis.hset(key, hash), pipeline -> pipeline.hset(key, hash));
+    }
+
+    public CompletableFuture<String> hget(final String key, final String field) {
+        return async(jedis -> jedis.hget(key, field), pipeline -> pipeline.hget(key, field));
+    }
+
+    public CompletableFuture<Long> hsetnx(final String key, final String field, final String value) {
+        return async(jedis -> jedis.hsetnx(key, field, value), pipeline -> pipeline.hsetnx(key, field, value));
+    }
+
+    public CompletableFuture<String> hmset(final String key, final Map<String, String> hash) {
+        return async(jedis -> jedis.hmset(key, hash), pipeline -> pipeline.hmset(key, hash));
+    }
+
+    public CompletableFuture<List<String>> hmget(final String key, final String... fields) {
+        return async(jedis -> jedis.hmget(key, fields), pipeline -> pipeline.hmget(key, fields));
+    }
+
+    public CompletableFuture<Long> hincrBy(final String key, final String field, final long value) {
+        return async(jedis -> jedis.hincrBy(key, field, value), pipeline -> pipeline.hincrBy(key, field, value));
+    }
+
+    public CompletableFuture<Double> hincrByFloat(final String key, final String field, final double value) {
+        return async(jedis -> jedis.hincrByFloat(key, field, value),
+            pipeline -> pipeline.hincrByFloat(key, field, value));
+    }
+
+    public CompletableFuture<Boolean> hexists(final String key, final String field) {
+        return async(jedis -> jedis.hexists(key, field), pipeline -> pipeline.hexists(key, field));
+    }
+
+    public CompletableFuture<Long> hdel(final String key, final String... fields) {
+        return async(jedis -> jedis.hdel(key, fields), pipeline -> pipeline.hdel(key, fields));
+    }
+
+    public CompletableFuture<Long> hlen(final String key) {
+        return async(jedis -> jedis.hlen(key), pipeline -> pipeline.hlen(key));
+    }
+
+    public CompletableFuture<Set<String>> hkeys(final String key) {
+        return async(jedis -> jedis.hkeys(key), pipeline -> pipeline.hkeys(key));
+    }
+
+    public CompletableFuture<List<String>> hvals(final String key) {
+        return async(jedis -> jedis.hvals(key), pipeline -> pipeline.hvals(key));
+    }
+
+    public CompletableFuture<Map<String, String>> hgetAll(final String key) {
+        return async(jedis -> jedis.hgetAll(key), pipeline -> pipeline.hgetAll(key));
+    }
+
+    public CompletableFuture<Long> rpush(final String key, final String... strings) {
+        return async(jedis -> jedis.rpush(key, strings), pipeline -> pipeline.rpush(key, strings));
+    }
+
+    public CompletableFuture<Long> lpush(final String key, final String... strings) {
+        return async(jedis -> jedis.lpush(key, strings), pipeline -> pipeline.lpush(key, strings));
+    }
+
+    public CompletableFuture<Long> llen(final String key) {
+        return async(jedis -> jedis.llen(key), pipeline -> pipeline.llen(key));
+    }
+
+    public CompletableFuture<List<String>> lrange(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.lrange(key, start, stop), pipeline -> pipeline.lrange(key, start, stop));
+    }
+
+    public CompletableFuture<String> ltrim(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.ltrim(key, start, stop), pipeline -> pipeline.ltrim(key, start, stop));
+    }
+
+    public CompletableFuture<String> lindex(final String key, final long index) {
+        return async(jedis -> jedis.lindex(key, index), pipeline -> pipeline.lindex(key, index));
+    }
+
+    public CompletableFuture<String> lset(final String key, final long index, final String value) {
+        return async(jedis -> jedis.lset(key, index, value), pipeline -> pipeline.lset(key, index, value));
+    }
+
+    public CompletableFuture<Long> lrem(final String key, final long count, final String value) {
+        return async(jedis -> jedis.lrem(key, count, value), pipeline -> pipeline.lrem(key, count, value));
+    }
+
+    public CompletableFuture<String> lpop(final String key) {
+        return async(jedis -> jedis.lpop(key), pipeline -> pipeline.lpop(key));
+    }
+
+    public CompletableFuture<String> rpop(final String key) {
+        return async(jedis -> jedis.rpop(key), pipeline -> pipeline.rpop(key));
+    }
+
+    public CompletableFuture<Long> sadd(final String key, final String... members) {
+        return async(jedis -> jedis.sadd(key, members), pipeline -> pipeline.sadd(key, members));
+    }
+
+    public CompletableFuture<Set<String>> smembers(final String key) {
+        return async(jedis -> jedis.smembers(key), pipeline -> pipeline.smembers(key));
+    }
+
+    public CompletableFuture<Long> srem(final String key, final String... members) {
+        return async(jedis -> jedis.srem(key, members), pipeline -> pipeline.srem(key, members));
+    }
+
+    public CompletableFuture<String> spop(final String key) {
+        return async(jedis -> jedis.spop(key), pipeline -> pipeline.spop(key));
+    }
+
+    public CompletableFuture<Set<String>> spop(final String key, final long count) {
+        return async(jedis -> jedis.spop(key, count), pipeline -> pipeline.spop(key, count));
+    }
+
+    public CompletableFuture<Long> scard(final String key) {
+        return async(jedis -> jedis.scard(key), pipeline -> pipeline.scard(key));
+    }
+
+    public CompletableFuture<Boolean> sismember(final String key, final String member) {
+        return async(jedis -> jedis.sismember(key, member), pipeline -> pipeline.sismember(key, member));
+    }
+
+    public CompletableFuture<String> srandmember(final String key) {
+        return async(jedis -> jedis.srandmember(key), pipeline -> pipeline.srandmember(key));
+    }
+
+    public CompletableFuture<List<String>> srandmember(final String key, final int count) {
+        return async(jedis -> jedis.srandmember(key, count), pipeline -> pipeline.srandmember(key, count));
+    }
+
+    public CompletableFuture<Long> strlen(final String key) {
+        return async(jedis -> jedis.strlen(key), pipeline -> pipeline.strlen(key));
+    }
+
+    public CompletableFuture<Long> zadd(final String key, final double score, final String member) {
+        return async(jedis -> jedis.zadd(key, score, member), pipeline -> pipeline.zadd(key, score, member));
+    }
+
+    public CompletableFuture<Long> zadd(final String key, final double score, final String member,
+                                        final ZAddParams params) {
+        return async(jedis -> jedis.zadd(key, score, member, params),
+            pipeline -> pipeline.zadd(key, score, member, params));
+    }
+
+    public CompletableFuture<Long> zadd(final String key, final Map<String, Double> scoreMembers) {
+        return async(jedis -> jedis.zadd(key, scoreMembers), pipeline -> pipeline.zadd(key, scoreMembers));
+    }
+
+    public CompletableFuture<Long> zadd(final String key, final Map<String, Double> scoreMembers,
+                                        final ZAddParams params) {
+        return async(jedis -> jedis.zadd(key, scoreMembers, params),
+            pipeline -> pipeline.zadd(key, scoreMembers, params));
+    }
+
+    public CompletableFuture<Set<String>> zrange(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.zrange(key, start, stop), pipeline -> pipeline.zrange(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zrem(final String key, final String... members) {
+        return async(jedis -> jedis.zrem(key, members), pipeline -> pipeline.zrem(key, members));
+    }
+
+    public CompletableFuture<Double> zincrby(final String key, final double increment, final String member) {
+        return async(jedis -> jedis.zincrby(key, increment, member),
+            pipeline -> pipeline.zincrby(key, increment, member));
+    }
+
+    public CompletableFuture<Double> zincrby(final String key, final double increment, final String member,
+                                             final ZIncrByParams params) {
+        return async(jedis -> jedis.zincrby(key, increment, member, params),
+            pipeline -> pipeline.zincrby(key, increment, member, params));
+    }
+
+    public CompletableFuture<Long> zrank(final String key, final String member) {
+        return async(jedis -> jedis.zrank(key, member), pipeline -> pipeline.zrank(key, member));
+    }
+
+    public CompletableFuture<Long> zrevrank(final String key, final String member) {
+        return async(jedis -> jedis.zrevrank(key, member), pipeline -> pipeline.zrevrank(key, member));
+    }
+
+    public CompletableFuture<Set<String>> zrevrange(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.zrevrange(key, start, stop), pipeline -> pipeline.zrevrange(key, start, stop));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeWithScores(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.zrangeWithScores(key, start, stop),
+            pipeline -> pipeline.zrangeWithScores(key, start, stop));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeWithScores(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.zrevrangeWithScores(key, start, stop),
+            pipeline -> pipeline.zrevrangeWithScores(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zcard(final String key) {
+        return async(jedis -> jedis.zcard(key), pipeline -> pipeline.zcard(key));
+    }
+
+    public CompletableFuture<Double> zscore(final String key, final String member) {
+        return async(jedis -> jedis.zscore(key, member), pipeline -> pipeline.zscore(key, member));
+    }
+
+    public CompletableFuture<List<String>> sort(final String key) {
+        return async(jedis -> jedis.sort(key), pipeline -> pipeline.sort(key));
+    }
+
+    public CompletableFuture<List<String>> sort(final String key, final SortingParams sortingParameters) {
+        return async(jedis -> jedis.sort(key, sortingParameters), pipeline -> pipeline.sort(key, sortingParameters));
+    }
+
+    public CompletableFuture<Long> zcount(final String key, final double min, final double max) {
+        return async(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
+    }
+
+    public CompletableFuture<Long> zcount(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByScore(final String key, final double min, final double max) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByScore(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByScore(final String key, final double max, final double min) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByScore(final String key, final double min, final double max,
+                                                        final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByScore(final String key, final String max, final String min) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByScore(final String key, final String min, final String max,
+                                                        final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByScore(final String key, final double max, final double min,
+                                                           final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final String key, final double min, final double max) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final String key, final double max,
+                                                                    final double min) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final String key, final double min, final double max,
+                                                                 final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByScore(final String key, final String max, final String min,
+                                                           final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final String key, final String max,
+                                                                    final String min) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final String key, final String min, final String max,
+                                                                 final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final String key, final double max,
+                                                                    final double min, final int offset,
+                                                                    final int count) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final String key, final String max,
+                                                                    final String min, final int offset,
+                                                                    final int count) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Long> zremrangeByRank(final String key, final long start, final long stop) {
+        return async(jedis -> jedis.zremrangeByRank(key, start, stop),
+            pipeline -> pipeline.zremrangeByRank(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zremrangeByScore(final String key, final double min, final double max) {
+        return async(jedis -> jedis.zremrangeByScore(key, min, max),
+            pipeline -> pipeline.zremrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Long> zremrangeByScore(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zremrangeByScore(key, min, max),
+            pipeline -> pipeline.zremrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Long> zlexcount(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zlexcount(key, min, max), pipeline -> pipeline.zlexcount(key, min, max));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByLex(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zrangeByLex(key, min, max), pipeline -> pipeline.zrangeByLex(key, min, max));
+    }
+
+    public CompletableFuture<Set<String>> zrangeByLex(final String key, final String min, final String max,
+                                                      final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByLex(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByLex(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByLex(final String key, final String max, final String min) {
+        return async(jedis -> jedis.zrevrangeByLex(key, max, min), pipeline -> pipeline.zrevrangeByLex(key, max, min));
+    }
+
+    public CompletableFuture<Set<String>> zrevrangeByLex(final String key, final String max, final String min,
+                                                         final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByLex(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByLex(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Long> zremrangeByLex(final String key, final String min, final String max) {
+        return async(jedis -> jedis.zremrangeByLex(key, min, max), pipeline -> pipeline.zremrangeByLex(key, min, max));
+    }
+
+    public CompletableFuture<Long> linsert(final String key, final BinaryClient.LIST_POSITION where, final String pivot,
+                                           final String value) {
+        return async(jedis -> jedis.linsert(key, where, pivot, value),
+            pipeline -> pipeline.linsert(key, where, pivot, value));
+    }
+
+    public CompletableFuture<Long> linsert(final String key, final ListPosition where, final String pivot,
+                                           final String value) {
+        return async(jedis -> jedis.linsert(key, where, pivot, value),
+            pipeline -> pipeline.linsert(key, where, pivot, value));
+    }
+
+    public CompletableFuture<Long> lpushx(final String key, final String... string) {
+        return async(jedis -> jedis.lpushx(key, string), pipeline -> pipeline.lpushx(key, string));
+    }
+
+    public CompletableFuture<Long> rpushx(final String key, final String... string) {
+        return async(jedis -> jedis.rpushx(key, string), pipeline -> pipeline.rpushx(key, string));
+    }
+
+    public CompletableFuture<List<String>> blpop(final String arg) {
+        return async(jedis -> jedis.blpop(arg));
+    }
+
+    public CompletableFuture<List<String>> blpop(final int timeout, final String key) {
+        return async(jedis -> jedis.blpop(timeout, key));
+    }
+
+    public CompletableFuture<List<String>> brpop(final String arg) {
+        return async(jedis -> jedis.brpop(arg));
+    }
+
+    public CompletableFuture<List<String>> brpop(final int timeout, final String key) {
+        return async(jedis -> jedis.brpop(timeout, key));
+    }
+
+    public CompletableFuture<Long> del(final String key) {
+        return async(jedis -> jedis.del(key), pipeline -> pipeline.del(key));
+    }
+
+    public CompletableFuture<Long> unlink(final String key) {
+        return async(jedis -> jedis.unlink(key), pipeline -> pipeline.unlink(key));
+    }
+
+    public CompletableFuture<String> echo(final String string) {
+        return async(jedis -> jedis.echo(string), pipeline -> pipeline.echo(string));
+    }
+
+    public CompletableFuture<Long> move(final String key, final int dbIndex) {
+        return async(jedis -> jedis.move(key, dbIndex), pipeline -> pipeline.move(key, dbIndex));
+    }
+
+    public CompletableFuture<Long> bitcount(final String key) {
+        return async(jedis -> jedis.bitcount(key), pipeline -> pipeline.bitcount(key));
+    }
+
+    public CompletableFuture<Long> bitcount(final String key, final long start, final long end) {
+        return async(jedis -> jedis.bitcount(key, start, end), pipeline -> pipeline.bitcount(key, start, end));
+    }
+
+    public CompletableFuture<Long> bitpos(final String key, final boolean value) {
+        return async(jedis -> jedis.bitpos(key, value), pipeline -> pipeline.bitpos(key, value));
+    }
+
+    public CompletableFuture<Long> bitpos(final String key, final boolean value, final BitPosParams params) {
+        return async(jedis -> jedis.bitpos(key, value, params), pipeline -> pipeline.bitpos(key, value, params));
+    }
+
+    public CompletableFuture<ScanResult<Map.Entry<String, String>>> hscan(final String key, final int cursor) {
+        return async(jedis -> jedis.hscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<String>> sscan(final String key, final int cursor) {
+        return async(jedis -> jedis.sscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Tuple>> zscan(final String key, final int cursor) {
+        return async(jedis -> jedis.zscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Map.Entry<String, String>>> hscan(final String key, final String cursor) {
+        return async(jedis -> jedis.hscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Map.Entry<String, String>>> hscan(final String key, final String cursor,
+                                                                          final ScanParams params) {
+        return async(jedis -> jedis.hscan(key, cursor, params));
+    }
+
+    public CompletableFuture<ScanResult<String>> sscan(final String key, final String cursor) {
+        return async(jedis -> jedis.sscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<String>> sscan(final String key, final String cursor, final ScanParams params) {
+        return async(jedis -> jedis.sscan(key, cursor, params));
+    }
+
+    public CompletableFuture<ScanResult<Tuple>> zscan(final String key, final String cursor) {
+        return async(jedis -> jedis.zscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Tuple>> zscan(final String key, final String cursor, final ScanParams params) {
+        return async(jedis -> jedis.zscan(key, cursor, params));
+    }
+
+    public CompletableFuture<Long> pfadd(final String key, final String... elements) {
+        return async(jedis -> jedis.pfadd(key, elements), pipeline -> pipeline.pfadd(key, elements));
+    }
+
+    public CompletableFuture<Long> pfcount(final String key) {
+        return async(jedis -> jedis.pfcount(key));
+    }
+
+    public CompletableFuture<Long> geoadd(final String key, final double longitude, final double latitude,
+                                          final String member) {
+        return async(jedis -> jedis.geoadd(key, longitude, latitude, member),
+            pipeline -> pipeline.geoadd(key, longitude, latitude, member));
+    }
+
+    public CompletableFuture<Long> geoadd(final String key, final Map<String, GeoCoordinate> memberCoordinateMap) {
+        return async(jedis -> jedis.geoadd(key, memberCoordinateMap),
+            pipeline -> pipeline.geoadd(key, memberCoordinateMap));
+    }
+
+    public CompletableFuture<Double> geodist(final String key, final String member1, final String member2) {
+        return async(jedis -> jedis.geodist(key, member1, member2),
+            pipeline -> pipeline.geodist(key, member1, member2));
+    }
+
+    public CompletableFuture<Double> geodist(final String key, final String member1, final String member2,
+                                             final GeoUnit unit) {
+        return async(jedis -> jedis.geodist(key, member1, member2, unit),
+            pipeline -> pipeline.geodist(key, member1, member2, unit));
+    }
+
+    public CompletableFuture<List<String>> geohash(final String key, final String... members) {
+        return async(jedis -> jedis.geohash(key, members), pipeline -> pipeline.geohash(key, members));
+    }
+
+    public CompletableFuture<List<GeoCoordinate>> geopos(final String key, final String... members) {
+        return async(jedis -> jedis.geopos(key, members), pipeline -> pipeline.geopos(key, members));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadius(final String key, final double longitude,
+                                                                final double latitude, final double radius,
+                                                                final GeoUnit unit) {
+        return async(jedis -> jedis.georadius(key, longitude, latitude, radius, unit),
+            pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusReadonly(final String key, final double longitude,
+                                                                        final double latitude, final double radius,
+                                                                        final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit),
+            pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadius(final String key, final double longitude,
+                                                                final double latitude, final double radius,
+                                                                final GeoUnit unit, final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadius(key, longitude, latitude, radius, unit, param),
+            pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusReadonly(final String key, final double longitude,
+                                                                        final double latitude, final double radius,
+                                                                        final GeoUnit unit,
+                                                                        final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param),
+            pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMember(final String key, final String member,
+                                                                        final double radius, final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusByMember(key, member, radius, unit),
+            pipeline -> pipeline.georadiusByMember(key, member, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMemberReadonly(final String key, final String member,
+                                                                                final double radius,
+                                                                                final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit),
+            pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMember(final String key, final String member,
+                                                                        final double radius, final GeoUnit unit,
+                                                                        final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusByMember(key, member, radius, unit, param),
+            pipeline -> pipeline.georadiusByMember(key, member, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMemberReadonly(final String key, final String member,
+                                                                                final double radius, final GeoUnit unit,
+                                                                                final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit, param),
+            pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit, param));
+    }
+
+    public CompletableFuture<List<Long>> bitfield(final String key, final String... arguments) {
+        return async(jedis -> jedis.bitfield(key, arguments), pipeline -> pipeline.bitfield(key, arguments));
+    }
+
+    public CompletableFuture<Long> hstrlen(final String key, final String field) {
+        return async(jedis -> jedis.hstrlen(key, field), pipeline -> pipeline.hstrlen(key, field));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value) {
+        return async(jedis -> jedis.set(key, value), pipeline -> pipeline.set(key, value));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value, final byte[] nxxx) {
+        return async(jedis -> jedis.set(key, value, nxxx), pipeline -> pipeline.set(key, value, nxxx));
+    }
+
+    public CompletableFuture<String> set(final byte[] key, final byte[] value, final byte[] nxxx, final byte[] expx,
+                                         final long time) {
+        return async(jedis -> jedis.set(key, value, nxxx, expx, time));
+    }
+
+    public CompletableFuture<byte[]> get(final byte[] key) {
+        return async(jedis -> jedis.get(key), pipeline -> pipeline.get(key));
+    }
+
+    public CompletableFuture<Boolean> exists(final byte[] key) {
+        return async(jedis -> jedis.exists(key), pipeline -> pipeline.exists(key));
+    }
+
+    public CompletableFuture<Long> persist(final byte[] key) {
+        return async(jedis -> jedis.persist(key), pipeline -> pipeline.persist(key));
+    }
+
+    public CompletableFuture<String> type(final byte[] key) {
+        return async(jedis -> jedis.type(key), pipeline -> pipeline.type(key));
+    }
+
+    public CompletableFuture<byte[]> dump(final byte[] key) {
+        return async(jedis -> jedis.dump(key), pipeline -> pipeline.dump(key));
+    }
+
+    public CompletableFuture<String> restore(final byte[] key, final int ttl, final byte[] serializedValue) {
+        return async(jedis -> jedis.restore(key, ttl, serializedValue),
+            pipeline -> pipeline.restore(key, ttl, serializedValue));
+    }
+
+    public CompletableFuture<String> restoreReplace(final byte[] key, final int ttl, final byte[] serializedValue) {
+        return async(jedis -> jedis.restoreReplace(key, ttl, serializedValue),
+            pipeline -> pipeline.restoreReplace(key, ttl, serializedValue));
+    }
+
+    public CompletableFuture<Long> expire(final byte[] key, final int seconds) {
+        return async(jedis -> jedis.expire(key, seconds), pipeline -> pipeline.expire(key, seconds));
+    }
+
+    public CompletableFuture<Long> pexpire(final byte[] key, final long milliseconds) {
+        return async(jedis -> jedis.pexpire(key, milliseconds), pipeline -> pipeline.pexpire(key, milliseconds));
+    }
+
+    public CompletableFuture<Long> expireAt(final byte[] key, final long unixTime) {
+        return async(jedis -> jedis.expireAt(key, unixTime), pipeline -> pipeline.expireAt(key, unixTime));
+    }
+
+    public CompletableFuture<Long> pexpireAt(final byte[] key, final long millisecondsTimestamp) {
+        return async(jedis -> jedis.pexpireAt(key, millisecondsTimestamp),
+            pipeline -> pipeline.pexpireAt(key, millisecondsTimestamp));
+    }
+
+    public CompletableFuture<Long> ttl(final byte[] key) {
+        return async(jedis -> jedis.ttl(key), pipeline -> pipeline.ttl(key));
+    }
+
+    public CompletableFuture<Long> pttl(final byte[] key) {
+        return async(jedis -> jedis.pttl(key), pipeline -> pipeline.pttl(key));
+    }
+
+    public CompletableFuture<Long> touch(final byte[] key) {
+        return async(jedis -> jedis.touch(key), pipeline -> pipeline.touch(key));
+    }
+
+    public CompletableFuture<Boolean> setbit(final byte[] key, final long offset, final boolean value) {
+        return async(jedis -> jedis.setbit(key, offset, value));
+    }
+
+    public CompletableFuture<Boolean> setbit(final byte[] key, final long offset, final byte[] value) {
+        return async(jedis -> jedis.setbit(key, offset, value), pipeline -> pipeline.setbit(key, offset, value));
+    }
+
+    public CompletableFuture<Boolean> getbit(final byte[] key, final long offset) {
+        return async(jedis -> jedis.getbit(key, offset), pipeline -> pipeline.getbit(key, offset));
+    }
+
+    public CompletableFuture<Long> setrange(final byte[] key, final long offset, final byte[] value) {
+        return async(jedis -> jedis.setrange(key, offset, value), pipeline -> pipeline.setrange(key, offset, value));
+    }
+
+    public CompletableFuture<byte[]> getrange(final byte[] key, final long startOffset, final long endOffset) {
+        return async(jedis -> jedis.getrange(key, startOffset, endOffset));
+    }
+
+    public CompletableFuture<byte[]> getSet(final byte[] key, final byte[] value) {
+        return async(jedis -> jedis.getSet(key, value), pipeline -> pipeline.getSet(key, value));
+    }
+
+    public CompletableFuture<Long> setnx(final byte[] key, final byte[] value) {
+        return async(jedis -> jedis.setnx(key, value), pipeline -> pipeline.setnx(key, value));
+    }
+
+    public CompletableFuture<String> setex(final byte[] key, final int seconds, final byte[] value) {
+        return async(jedis -> jedis.setex(key, seconds, value), pipeline -> pipeline.setex(key, seconds, value));
+    }
+
+    public CompletableFuture<String> psetex(final byte[] key, final long milliseconds, final byte[] value) {
+        return async(jedis -> jedis.psetex(key, milliseconds, value),
+            pipeline -> pipeline.psetex(key, milliseconds, value));
+    }
+
+    public CompletableFuture<Long> decrBy(final byte[] key, final long decrement) {
+        return async(jedis -> jedis.decrBy(key, decrement), pipeline -> pipeline.decrBy(key, decrement));
+    }
+
+    public CompletableFuture<Long> decr(final byte[] key) {
+        return async(jedis -> jedis.decr(key), pipeline -> pipeline.decr(key));
+    }
+
+    public CompletableFuture<Long> incrBy(final byte[] key, final long increment) {
+        return async(jedis -> jedis.incrBy(key, increment), pipeline -> pipeline.incrBy(key, increment));
+    }
+
+    public CompletableFuture<Double> incrByFloat(final byte[] key, final double increment) {
+        return async(jedis -> jedis.incrByFloat(key, increment), pipeline -> pipeline.incrByFloat(key, increment));
+    }
+
+    public CompletableFuture<Long> incr(final byte[] key) {
+        return async(jedis -> jedis.incr(key), pipeline -> pipeline.incr(key));
+    }
+
+    public CompletableFuture<Long> append(final byte[] key, final byte[] value) {
+        return async(jedis -> jedis.append(key, value), pipeline -> pipeline.append(key, value));
+    }
+
+    public CompletableFuture<byte[]> substr(final byte[] key, final int start, final int end) {
+        return async(jedis -> jedis.substr(key, start, end));
+    }
+
+    public CompletableFuture<Long> hset(final byte[] key, final byte[] field, final byte[] value) {
+        return async(jedis -> jedis.hset(key, field, value), pipeline -> pipeline.hset(key, field, value));
+    }
+
+    public CompletableFuture<Long> hset(final byte[] key, final Map<byte[], byte[]> hash) {
+        return async(jedis -> jedis.hset(key, hash), pipeline -> pipeline.hset(key, hash));
+    }
+
+    public CompletableFuture<byte[]> hget(final byte[] key, final byte[] field) {
+        return async(jedis -> jedis.hget(key, field), pipeline -> pipeline.hget(key, field));
+    }
+
+    public CompletableFuture<Long> hsetnx(final byte[] key, final byte[] field, final byte[] value) {
+        return async(jedis -> jedis.hsetnx(key, field, value), pipeline -> pipeline.hsetnx(key, field, value));
+    }
+
+    public CompletableFuture<String> hmset(final byte[] key, final Map<byte[], byte[]> hash) {
+        return async(jedis -> jedis.hmset(key, hash), pipeline -> pipeline.hmset(key, hash));
+    }
+
+    public CompletableFuture<List<byte[]>> hmget(final byte[] key, final byte[]... fields) {
+        return async(jedis -> jedis.hmget(key, fields), pipeline -> pipeline.hmget(key, fields));
+    }
+
+    public CompletableFuture<Long> hincrBy(final byte[] key, final byte[] field, final long value) {
+        return async(jedis -> jedis.hincrBy(key, field, value), pipeline -> pipeline.hincrBy(key, field, value));
+    }
+
+    public CompletableFuture<Double> hincrByFloat(final byte[] key, final byte[] field, final double value) {
+        return async(jedis -> jedis.hincrByFloat(key, field, value),
+            pipeline -> pipeline.hincrByFloat(key, field, value));
+    }
+
+    public CompletableFuture<Boolean> hexists(final byte[] key, final byte[] field) {
+        return async(jedis -> jedis.hexists(key, field), pipeline -> pipeline.hexists(key, field));
+    }
+
+    public CompletableFuture<Long> hdel(final byte[] key, final byte[]... fields) {
+        return async(jedis -> jedis.hdel(key, fields), pipeline -> pipeline.hdel(key, fields));
+    }
+
+    public CompletableFuture<Long> hlen(final byte[] key) {
+        return async(jedis -> jedis.hlen(key), pipeline -> pipeline.hlen(key));
+    }
+
+    public CompletableFuture<Set<byte[]>> hkeys(final byte[] key) {
+        return async(jedis -> jedis.hkeys(key), pipeline -> pipeline.hkeys(key));
+    }
+
+    public CompletableFuture<List<byte[]>> hvals(final byte[] key) {
+        return async(jedis -> jedis.hvals(key), pipeline -> pipeline.hvals(key));
+    }
+
+    public CompletableFuture<Map<byte[], byte[]>> hgetAll(final byte[] key) {
+        return async(jedis -> jedis.hgetAll(key), pipeline -> pipeline.hgetAll(key));
+    }
+
+    public CompletableFuture<Long> rpush(final byte[] key, final byte[]... strings) {
+        return async(jedis -> jedis.rpush(key, strings), pipeline -> pipeline.rpush(key, strings));
+    }
+
+    public CompletableFuture<Long> lpush(final byte[] key, final byte[]... strings) {
+        return async(jedis -> jedis.lpush(key, strings), pipeline -> pipeline.lpush(key, strings));
+    }
+
+    public CompletableFuture<Long> llen(final byte[] key) {
+        return async(jedis -> jedis.llen(key), pipeline -> pipeline.llen(key));
+    }
+
+    public CompletableFuture<List<byte[]>> lrange(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.lrange(key, start, stop), pipeline -> pipeline.lrange(key, start, stop));
+    }
+
+    public CompletableFuture<String> ltrim(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.ltrim(key, start, stop), pipeline -> pipeline.ltrim(key, start, stop));
+    }
+
+    public CompletableFuture<byte[]> lindex(final byte[] key, final long index) {
+        return async(jedis -> jedis.lindex(key, index), pipeline -> pipeline.lindex(key, index));
+    }
+
+    public CompletableFuture<String> lset(final byte[] key, final long index, final byte[] value) {
+        return async(jedis -> jedis.lset(key, index, value), pipeline -> pipeline.lset(key, index, value));
+    }
+
+    public CompletableFuture<Long> lrem(final byte[] key, final long count, final byte[] value) {
+        return async(jedis -> jedis.lrem(key, count, value), pipeline -> pipeline.lrem(key, count, value));
+    }
+
+    public CompletableFuture<byte[]> lpop(final byte[] key) {
+        return async(jedis -> jedis.lpop(key), pipeline -> pipeline.lpop(key));
+    }
+
+    public CompletableFuture<byte[]> rpop(final byte[] key) {
+        return async(jedis -> jedis.rpop(key), pipeline -> pipeline.rpop(key));
+    }
+
+    public CompletableFuture<Long> sadd(final byte[] key, final byte[]... members) {
+        return async(jedis -> jedis.sadd(key, members), pipeline -> pipeline.sadd(key, members));
+    }
+
+    public CompletableFuture<Set<byte[]>> smembers(final byte[] key) {
+        return async(jedis -> jedis.smembers(key), pipeline -> pipeline.smembers(key));
+    }
+
+    public CompletableFuture<Long> srem(final byte[] key, final byte[]... member) {
+        return async(jedis -> jedis.srem(key, member), pipeline -> pipeline.srem(key, member));
+    }
+
+    public CompletableFuture<byte[]> spop(final byte[] key) {
+        return async(jedis -> jedis.spop(key), pipeline -> pipeline.spop(key));
+    }
+
+    public CompletableFuture<Set<byte[]>> spop(final byte[] key, final long count) {
+        return async(jedis -> jedis.spop(key, count), pipeline -> pipeline.spop(key, count));
+    }
+
+    public CompletableFuture<Long> scard(final byte[] key) {
+        return async(jedis -> jedis.scard(key), pipeline -> pipeline.scard(key));
+    }
+
+    public CompletableFuture<Boolean> sismember(final byte[] key, final byte[] member) {
+        return async(jedis -> jedis.sismember(key, member), pipeline -> pipeline.sismember(key, member));
+    }
+
+    public CompletableFuture<byte[]> srandmember(final byte[] key) {
+        return async(jedis -> jedis.srandmember(key), pipeline -> pipeline.srandmember(key));
+    }
+
+    public CompletableFuture<List<byte[]>> srandmember(final byte[] key, final int count) {
+        return async(jedis -> jedis.srandmember(key, count), pipeline -> pipeline.srandmember(key, count));
+    }
+
+    public CompletableFuture<Long> strlen(final byte[] key) {
+        return async(jedis -> jedis.strlen(key), pipeline -> pipeline.strlen(key));
+    }
+
+    public CompletableFuture<Long> zadd(final byte[] key, final double score, final byte[] member) {
+        return async(jedis -> jedis.zadd(key, score, member), pipeline -> pipeline.zadd(key, score, member));
+    }
+
+    public CompletableFuture<Long> zadd(final byte[] key, final double score, final byte[] member,
+                                        final ZAddParams params) {
+        return async(jedis -> jedis.zadd(key, score, member, params),
+            pipeline -> pipeline.zadd(key, score, member, params));
+    }
+
+    public CompletableFuture<Long> zadd(final byte[] key, final Map<byte[], Double> scoreMembers) {
+        return async(jedis -> jedis.zadd(key, scoreMembers), pipeline -> pipeline.zadd(key, scoreMembers));
+    }
+
+    public CompletableFuture<Long> zadd(final byte[] key, final Map<byte[], Double> scoreMembers,
+                                        final ZAddParams params) {
+        return async(jedis -> jedis.zadd(key, scoreMembers, params),
+            pipeline -> pipeline.zadd(key, scoreMembers, params));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrange(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.zrange(key, start, stop), pipeline -> pipeline.zrange(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zrem(final byte[] key, final byte[]... members) {
+        return async(jedis -> jedis.zrem(key, members), pipeline -> pipeline.zrem(key, members));
+    }
+
+    public CompletableFuture<Double> zincrby(final byte[] key, final double increment, final byte[] member) {
+        return async(jedis -> jedis.zincrby(key, increment, member),
+            pipeline -> pipeline.zincrby(key, increment, member));
+    }
+
+    public CompletableFuture<Double> zincrby(final byte[] key, final double increment, final byte[] member,
+                                             final ZIncrByParams params) {
+        return async(jedis -> jedis.zincrby(key, increment, member, params),
+            pipeline -> pipeline.zincrby(key, increment, member, params));
+    }
+
+    public CompletableFuture<Long> zrank(final byte[] key, final byte[] member) {
+        return async(jedis -> jedis.zrank(key, member), pipeline -> pipeline.zrank(key, member));
+    }
+
+    public CompletableFuture<Long> zrevrank(final byte[] key, final byte[] member) {
+        return async(jedis -> jedis.zrevrank(key, member), pipeline -> pipeline.zrevrank(key, member));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrange(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.zrevrange(key, start, stop), pipeline -> pipeline.zrevrange(key, start, stop));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeWithScores(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.zrangeWithScores(key, start, stop),
+            pipeline -> pipeline.zrangeWithScores(key, start, stop));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeWithScores(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.zrevrangeWithScores(key, start, stop),
+            pipeline -> pipeline.zrevrangeWithScores(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zcard(final byte[] key) {
+        return async(jedis -> jedis.zcard(key), pipeline -> pipeline.zcard(key));
+    }
+
+    public CompletableFuture<Double> zscore(final byte[] key, final byte[] member) {
+        return async(jedis -> jedis.zscore(key, member), pipeline -> pipeline.zscore(key, member));
+    }
+
+    public CompletableFuture<List<byte[]>> sort(final byte[] key) {
+        return async(jedis -> jedis.sort(key), pipeline -> pipeline.sort(key));
+    }
+
+    public CompletableFuture<List<byte[]>> sort(final byte[] key, final SortingParams sortingParameters) {
+        return async(jedis -> jedis.sort(key, sortingParameters), pipeline -> pipeline.sort(key, sortingParameters));
+    }
+
+    public CompletableFuture<Long> zcount(final byte[] key, final double min, final double max) {
+        return async(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
+    }
+
+    public CompletableFuture<Long> zcount(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zcount(key, min, max), pipeline -> pipeline.zcount(key, min, max));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByScore(final byte[] key, final double min, final double max) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByScore(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max), pipeline -> pipeline.zrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByScore(final byte[] key, final double max, final double min) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByScore(final byte[] key, final double min, final double max,
+                                                        final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByScore(final byte[] key, final byte[] min, final byte[] max,
+                                                        final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScore(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScore(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByScore(final byte[] key, final double max, final double min,
+                                                           final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final byte[] key, final double min, final double max) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final byte[] key, final double max,
+                                                                    final double min) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final byte[] key, final double min, final double max,
+                                                                 final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min,
+                                                           final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByScore(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScore(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final byte[] key, final byte[] max,
+                                                                    final byte[] min) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max,
+                                                                 final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByScoreWithScores(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByScoreWithScores(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final byte[] key, final double max,
+                                                                    final double min, final int offset,
+                                                                    final int count) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Set<Tuple>> zrevrangeByScoreWithScores(final byte[] key, final byte[] max,
+                                                                    final byte[] min, final int offset,
+                                                                    final int count) {
+        return async(jedis -> jedis.zrevrangeByScoreWithScores(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByScoreWithScores(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Long> zremrangeByRank(final byte[] key, final long start, final long stop) {
+        return async(jedis -> jedis.zremrangeByRank(key, start, stop),
+            pipeline -> pipeline.zremrangeByRank(key, start, stop));
+    }
+
+    public CompletableFuture<Long> zremrangeByScore(final byte[] key, final double min, final double max) {
+        return async(jedis -> jedis.zremrangeByScore(key, min, max),
+            pipeline -> pipeline.zremrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Long> zremrangeByScore(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zremrangeByScore(key, min, max),
+            pipeline -> pipeline.zremrangeByScore(key, min, max));
+    }
+
+    public CompletableFuture<Long> zlexcount(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zlexcount(key, min, max), pipeline -> pipeline.zlexcount(key, min, max));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByLex(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zrangeByLex(key, min, max), pipeline -> pipeline.zrangeByLex(key, min, max));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrangeByLex(final byte[] key, final byte[] min, final byte[] max,
+                                                      final int offset, final int count) {
+        return async(jedis -> jedis.zrangeByLex(key, min, max, offset, count),
+            pipeline -> pipeline.zrangeByLex(key, min, max, offset, count));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min) {
+        return async(jedis -> jedis.zrevrangeByLex(key, max, min), pipeline -> pipeline.zrevrangeByLex(key, max, min));
+    }
+
+    public CompletableFuture<Set<byte[]>> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min,
+                                                         final int offset, final int count) {
+        return async(jedis -> jedis.zrevrangeByLex(key, max, min, offset, count),
+            pipeline -> pipeline.zrevrangeByLex(key, max, min, offset, count));
+    }
+
+    public CompletableFuture<Long> zremrangeByLex(final byte[] key, final byte[] min, final byte[] max) {
+        return async(jedis -> jedis.zremrangeByLex(key, min, max), pipeline -> pipeline.zremrangeByLex(key, min, max));
+    }
+
+    public CompletableFuture<Long> linsert(final byte[] key, final BinaryClient.LIST_POSITION where, final byte[] pivot,
+                                           final byte[] value) {
+        return async(jedis -> jedis.linsert(key, where, pivot, value),
+            pipeline -> pipeline.linsert(key, where, pivot, value));
+    }
+
+    public CompletableFuture<Long> linsert(final byte[] key, final ListPosition where, final byte[] pivot,
+                                           final byte[] value) {
+        return async(jedis -> jedis.linsert(key, where, pivot, value),
+            pipeline -> pipeline.linsert(key, where, pivot, value));
+    }
+
+    public CompletableFuture<Long> lpushx(final byte[] key, final byte[]... string) {
+        return async(jedis -> jedis.lpushx(key, string), pipeline -> pipeline.lpushx(key, string));
+    }
+
+    public CompletableFuture<Long> rpushx(final byte[] key, final byte[]... string) {
+        return async(jedis -> jedis.rpushx(key, string), pipeline -> pipeline.rpushx(key, string));
+    }
+
+    public CompletableFuture<List<byte[]>> blpop(final byte[] arg) {
+        return async(jedis -> jedis.blpop(arg));
+    }
+
+    public CompletableFuture<List<byte[]>> brpop(final byte[] arg) {
+        return async(jedis -> jedis.brpop(arg));
+    }
+
+    public CompletableFuture<Long> del(final byte[] key) {
+        return async(jedis -> jedis.del(key), pipeline -> pipeline.del(key));
+    }
+
+    public CompletableFuture<Long> unlink(final byte[] key) {
+        return async(jedis -> jedis.unlink(key), pipeline -> pipeline.unlink(key));
+    }
+
+    public CompletableFuture<byte[]> echo(final byte[] string) {
+        return async(jedis -> jedis.echo(string), pipeline -> pipeline.echo(string));
+    }
+
+    public CompletableFuture<Long> move(final byte[] key, final int dbIndex) {
+        return async(jedis -> jedis.move(key, dbIndex), pipeline -> pipeline.move(key, dbIndex));
+    }
+
+    public CompletableFuture<Long> bitcount(final byte[] key) {
+        return async(jedis -> jedis.bitcount(key), pipeline -> pipeline.bitcount(key));
+    }
+
+    public CompletableFuture<Long> bitcount(final byte[] key, final long start, final long end) {
+        return async(jedis -> jedis.bitcount(key, start, end), pipeline -> pipeline.bitcount(key, start, end));
+    }
+
+    public CompletableFuture<Long> pfadd(final byte[] key, final byte[]... elements) {
+        return async(jedis -> jedis.pfadd(key, elements), pipeline -> pipeline.pfadd(key, elements));
+    }
+
+    public CompletableFuture<Long> pfcount(final byte[] key) {
+        return async(jedis -> jedis.pfcount(key));
+    }
+
+    public CompletableFuture<Long> geoadd(final byte[] key, final double longitude, final double latitude,
+                                          final byte[] member) {
+        return async(jedis -> jedis.geoadd(key, longitude, latitude, member),
+            pipeline -> pipeline.geoadd(key, longitude, latitude, member));
+    }
+
+    public CompletableFuture<Long> geoadd(final byte[] key, final Map<byte[], GeoCoordinate> memberCoordinateMap) {
+        return async(jedis -> jedis.geoadd(key, memberCoordinateMap),
+            pipeline -> pipeline.geoadd(key, memberCoordinateMap));
+    }
+
+    public CompletableFuture<Double> geodist(final byte[] key, final byte[] member1, final byte[] member2) {
+        return async(jedis -> jedis.geodist(key, member1, member2),
+            pipeline -> pipeline.geodist(key, member1, member2));
+    }
+
+    public CompletableFuture<Double> geodist(final byte[] key, final byte[] member1, final byte[] member2,
+                                             final GeoUnit unit) {
+        return async(jedis -> jedis.geodist(key, member1, member2, unit),
+            pipeline -> pipeline.geodist(key, member1, member2, unit));
+    }
+
+    public CompletableFuture<List<byte[]>> geohash(final byte[] key, final byte[]... members) {
+        return async(jedis -> jedis.geohash(key, members), pipeline -> pipeline.geohash(key, members));
+    }
+
+    public CompletableFuture<List<GeoCoordinate>> geopos(final byte[] key, final byte[]... members) {
+        return async(jedis -> jedis.geopos(key, members), pipeline -> pipeline.geopos(key, members));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadius(final byte[] key, final double longitude,
+                                                                final double latitude, final double radius,
+                                                                final GeoUnit unit) {
+        return async(jedis -> jedis.georadius(key, longitude, latitude, radius, unit),
+            pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusReadonly(final byte[] key, final double longitude,
+                                                                        final double latitude, final double radius,
+                                                                        final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit),
+            pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadius(final byte[] key, final double longitude,
+                                                                final double latitude, final double radius,
+                                                                final GeoUnit unit, final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadius(key, longitude, latitude, radius, unit, param),
+            pipeline -> pipeline.georadius(key, longitude, latitude, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusReadonly(final byte[] key, final double longitude,
+                                                                        final double latitude, final double radius,
+                                                                        final GeoUnit unit,
+                                                                        final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusReadonly(key, longitude, latitude, radius, unit, param),
+            pipeline -> pipeline.georadiusReadonly(key, longitude, latitude, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMember(final byte[] key, final byte[] member,
+                                                                        final double radius, final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusByMember(key, member, radius, unit),
+            pipeline -> pipeline.georadiusByMember(key, member, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMemberReadonly(final byte[] key, final byte[] member,
+                                                                                final double radius,
+                                                                                final GeoUnit unit) {
+        return async(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit),
+            pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMember(final byte[] key, final byte[] member,
+                                                                        final double radius, final GeoUnit unit,
+                                                                        final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusByMember(key, member, radius, unit, param),
+            pipeline -> pipeline.georadiusByMember(key, member, radius, unit, param));
+    }
+
+    public CompletableFuture<List<GeoRadiusResponse>> georadiusByMemberReadonly(final byte[] key, final byte[] member,
+                                                                                final double radius, final GeoUnit unit,
+                                                                                final GeoRadiusParam param) {
+        return async(jedis -> jedis.georadiusByMemberReadonly(key, member, radius, unit, param),
+            pipeline -> pipeline.georadiusByMemberReadonly(key, member, radius, unit, param));
+    }
+
+    public CompletableFuture<ScanResult<Map.Entry<byte[], byte[]>>> hscan(final byte[] key, final byte[] cursor) {
+        return async(jedis -> jedis.hscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Map.Entry<byte[], byte[]>>> hscan(final byte[] key, final byte[] cursor,
+                                                                          final ScanParams params) {
+        return async(jedis -> jedis.hscan(key, cursor, params));
+    }
+
+    public CompletableFuture<ScanResult<byte[]>> sscan(final byte[] key, final byte[] cursor) {
+        return async(jedis -> jedis.sscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<byte[]>> sscan(final byte[] key, final byte[] cursor, final ScanParams params) {
+        return async(jedis -> jedis.sscan(key, cursor, params));
+    }
+
+    public CompletableFuture<ScanResult<Tuple>> zscan(final byte[] key, final byte[] cursor) {
+        return async(jedis -> jedis.zscan(key, cursor));
+    }
+
+    public CompletableFuture<ScanResult<Tuple>> zscan(final byte[] key, final byte[] cursor, final ScanParams params) {
+        return async(jedis -> jedis.zscan(key, cursor, params));
+    }
+
+    public CompletableFuture<List<Long>> bitfield(final byte[] key, final byte[]... arguments) {
+        return async(jedis -> jedis.bitfield(key, arguments), pipeline -> pipeline.bitfield(key, arguments));
+    }
+
+    public CompletableFuture<Long> hstrlen(final byte[] key, final byte[] field) {
+        return async(jedis -> jedis.hstrlen(key, field), pipeline -> pipeline.hstrlen(key, field));
+    }
+}
@@ -0,0 +1,351 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.extern.java.Log;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поток с {@link Selector}, который обслуживает несколько неблокирующих соединений {@link Connection} с Redis.
+ * Все операции с сокетами выполняются только в этом потоке, другие потоки лишь ставят запросы в очередь.
+ */
+@Log
+class NioEventLoop implements AutoCloseable {
+
+    private final Selector selector;
+
+    @Getter
+    private final Thread thread;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeup = new AtomicBoolean();
+
+    private volatile boolean closed = false;
+
+    NioEventLoop(String name) {
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new JedisConnectionException(e);
+        }
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Выполнить задачу в потоке этого цикла.
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (Thread.currentThread() != thread && wakeup.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                selector.select();
+                wakeup.set(false);
+
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Exception e) {
+                        log.severe("Ошибка выполнения задачи в " + thread.getName() + ": " + e);
+                    }
+                }
+
+                for (SelectionKey key : selector.selectedKeys()) {
+                    ((Connection) key.attachment()).handle(key);
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (IOException e) {
+            log.severe("Цикл " + thread.getName() + " завершился с ошибкой: " + e);
+        } finally {
+            JedisConnectionException closedException = new JedisConnectionException("this resource is closed");
+            for (SelectionKey key : selector.keys()) {
+                ((Connection) key.attachment()).fail(closedException);
+            }
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run(); // задачи отправки увидят закрытый цикл и завершат запросы с ошибкой
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+    }
+
+    /**
+     * Запрос, ожидающий ответа. Ответы приходят строго в порядке отправки запросов,
+     * по этому запрос сопоставляется с ответом по очереди.
+     */
+    interface Request {
+
+        /**
+         * Команда в формате RESP.
+         */
+        byte[] getBytes();
+
+        /**
+         * Пришел ответ от Redis.
+         */
+        void onReply(Object reply);
+
+        /**
+         * Запрос не выполнен из-за ошибки соединения.
+         */
+        void onFailure(Exception e);
+    }
+
+    /**
+     * Неблокирующее соединение с Redis. Переподключается при отправке следующего запроса,
+     * если предыдущее соединение оборвалось.
+     */
+    static class Connection {
+        private final NioEventLoop loop;
+        private final InetSocketAddress address;
+        private final byte[][] handshake;
+
+        private final Queue<Request> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        /**
+         * Количество запросов, которые поставлены в очередь, но еще не получили ответ.
+         */
+        @Getter
+        private final AtomicInteger pending = new AtomicInteger();
+
+        // далее поля используются только в потоке loop
+        private final ArrayDeque<Request> inFlight = new ArrayDeque<>();
+        private final RespReader reader = new RespReader();
+        private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+        private ByteBuffer readBuffer = ByteBuffer.allocate(64 * 1024);
+        private SocketChannel channel;
+        private SelectionKey key;
+        private boolean connected;
+        private Request writing;
+        private int writingOffset;
+
+        /**
+         * @param handshake команды в формате RESP, которые нужно отправить первыми после каждого подключения
+         *                  (например, {@code AUTH}).
+         */
+        Connection(NioEventLoop loop, InetSocketAddress address, byte[]... handshake) {
+            this.loop = loop;
+            this.address = address;
+            this.handshake = handshake;
+        }
+
+        /**
+         * Поставить запрос в очередь на отправку. Можно вызывать из любого потока.
+         */
+        void send(Request request) {
+            pending.incrementAndGet();
+            outbound.add(request);
+            if (flushScheduled.compareAndSet(false, true)) {
+                loop.execute(this::flush);
+            }
+        }
+
+        private void flush() {
+            flushScheduled.set(false);
+            if (loop.isClosed()) {
+                this.fail(new JedisConnectionException("this resource is closed"));
+                return;
+            }
+            try {
+                if (channel == null) {
+                    this.connect();
+                }
+                if (connected) {
+                    this.write();
+                }
+            } catch (Exception e) {
+                this.fail(e);
+            }
+        }
+
+        private void connect() throws IOException {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            if (channel.connect(address)) {
+                key = channel.register(loop.selector, SelectionKey.OP_READ, this);
+                this.connected();
+            } else {
+                key = channel.register(loop.selector, SelectionKey.OP_CONNECT, this);
+            }
+        }
+
+        private void connected() {
+            connected = true;
+            for (byte[] command : handshake) {
+                writeBuffer.put(command);
+                inFlight.add(new HandshakeRequest());
+            }
+        }
+
+        private void handle(SelectionKey key) {
+            try {
+                if (!key.isValid()) {
+                    return;
+                }
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                    this.connected();
+                    this.write();
+                    return;
+                }
+                if (key.isReadable()) {
+                    this.read();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    this.write();
+                }
+            } catch (Exception e) {
+                this.fail(e);
+            }
+        }
+
+        private void write() throws IOException {
+            while (true) {
+                while (writeBuffer.hasRemaining()) {
+                    if (writing == null) {
+                        writing = outbound.poll();
+                        if (writing == null) {
+                            break;
+                        }
+                        // ответ не может прийти раньше отправки, по этому порядок в inFlight совпадает с порядком ответов
+                        inFlight.add(writing);
+                        writingOffset = 0;
+                    }
+                    byte[] bytes = writing.getBytes();
+                    int length = Math.min(writeBuffer.remaining(), bytes.length - writingOffset);
+                    writeBuffer.put(bytes, writingOffset, length);
+                    writingOffset += length;
+                    if (writingOffset == bytes.length) {
+                        writing = null;
+                    }
+                }
+
+                writeBuffer.flip();
+                if (!writeBuffer.hasRemaining()) {
+                    writeBuffer.clear();
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                channel.write(writeBuffer);
+                boolean blocked = writeBuffer.hasRemaining();
+                writeBuffer.compact();
+                if (blocked) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        }
+
+        private void read() throws IOException {
+            if (channel.read(readBuffer) < 0) {
+                throw new JedisConnectionException("Unexpected end of stream.");
+            }
+            readBuffer.flip();
+            Object reply;
+            while ((reply = reader.read(readBuffer)) != RespReader.INCOMPLETE) {
+                Request request = inFlight.poll();
+                if (request == null) {
+                    throw new JedisConnectionException("Reply without request.");
+                }
+                if (!(request instanceof HandshakeRequest)) {
+                    pending.decrementAndGet();
+                }
+                request.onReply(reply);
+            }
+            readBuffer = RespReader.compact(readBuffer);
+        }
+
+        /**
+         * Закрыть соединение и завершить с ошибкой все запросы, которые ждут ответа.
+         */
+        private void fail(Exception e) {
+            if (channel != null) {
+                log.severe("Соединение с " + address + " оборвалось: " + e);
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+            }
+            channel = null;
+            key = null;
+            connected = false;
+            writing = null;
+            writeBuffer.clear();
+            readBuffer.clear();
+            reader.reset();
+
+            Exception cause = e instanceof JedisConnectionException ? e : new JedisConnectionException(e);
+            Request request;
+            while ((request = inFlight.poll()) != null) {
+                if (!(request instanceof HandshakeRequest)) {
+                    pending.decrementAndGet();
+                }
+                request.onFailure(cause);
+            }
+            while ((request = outbound.poll()) != null) {
+                pending.decrementAndGet();
+                request.onFailure(cause);
+            }
+        }
+
+        /**
+         * Ответы на запросы подключения. Ошибка, например, неверный пароль, только записывается в лог,
+         * а последующие запросы сами получат ошибку от Redis.
+         */
+        private class HandshakeRequest implements Request {
+            @Override
+            public byte[] getBytes() {
+                throw new UnsupportedOperationException(); // записывается в буфер сразу при подключении
+            }
+
+            @Override
+            public void onReply(Object reply) {
+                if (reply instanceof Exception) {
+                    log.severe("Ошибка подключения к " + address + ": " + ((Exception) reply).getMessage());
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+            }
+        }
+    }
+}
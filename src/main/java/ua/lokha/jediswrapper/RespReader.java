@@ -0,0 +1,170 @@
+package ua.lokha.jediswrapper;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Потоковый разбор ответов RESP2 из неблокирующего соединения. Данные могут приходить частями,
+ * по этому разбор продолжается с того места, где закончились данные в прошлый раз.
+ *
+ * <p>Ответы возвращаются в том же виде, что и {@link redis.clients.jedis.Protocol#read}: статус и bulk
+ * как {@code byte[]}, число как {@link Long}, массив как {@link List}, ошибка как {@link JedisDataException}.
+ *
+ * <p>Не потокобезопасен, используется только в потоке {@link NioEventLoop}.
+ */
+class RespReader {
+
+    /**
+     * Возвращается из {@link #read(ByteBuffer)}, если в буфере еще нет полного ответа.
+     */
+    static final Object INCOMPLETE = new Object();
+
+    /**
+     * Незаконченные массивы, в которые складываются вложенные элементы.
+     */
+    private final Deque<Frame> frames = new ArrayDeque<>();
+
+    /**
+     * Прочитать следующий полный ответ из буфера.
+     *
+     * @param buffer буфер в режиме чтения. Позиция сдвигается на прочитанные данные.
+     * @return ответ или {@link #INCOMPLETE}, если данных пока не хватает.
+     */
+    Object read(ByteBuffer buffer) {
+        while (true) {
+            int start = buffer.position();
+            int lineEnd = findCrLf(buffer, start);
+            if (lineEnd < 0) {
+                return INCOMPLETE;
+            }
+            byte type = buffer.get(start);
+            Object value;
+            switch (type) {
+                case '+':
+                    value = readLineBytes(buffer, start + 1, lineEnd);
+                    break;
+                case '-':
+                    value = new JedisDataException(SafeEncoder.encode(readLineBytes(buffer, start + 1, lineEnd)));
+                    break;
+                case ':':
+                    value = parseLong(buffer, start + 1, lineEnd);
+                    break;
+                case '$': {
+                    int length = (int) parseLong(buffer, start + 1, lineEnd);
+                    if (length < 0) {
+                        buffer.position(lineEnd + 2);
+                        value = null;
+                        break;
+                    }
+                    int dataStart = lineEnd + 2;
+                    if (buffer.limit() - dataStart < length + 2) {
+                        buffer.position(start); // ждем, пока придет весь bulk целиком
+                        return INCOMPLETE;
+                    }
+                    byte[] bytes = new byte[length];
+                    buffer.position(dataStart);
+                    buffer.get(bytes);
+                    buffer.position(dataStart + length + 2);
+                    value = bytes;
+                    break;
+                }
+                case '*': {
+                    int count = (int) parseLong(buffer, start + 1, lineEnd);
+                    buffer.position(lineEnd + 2);
+                    if (count > 0) {
+                        frames.push(new Frame(count));
+                        continue;
+                    }
+                    value = count < 0 ? null : new ArrayList<>(0);
+                    break;
+                }
+                default:
+                    throw new JedisConnectionException("Unknown reply: " + (char) type);
+            }
+            if (type != '$') {
+                buffer.position(lineEnd + 2);
+            }
+
+            // вложить элемент в незаконченные массивы
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                frame.items.add(value);
+                if (frame.items.size() < frame.count) {
+                    break;
+                }
+                frames.pop();
+                value = frame.items;
+            }
+            if (frames.isEmpty()) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Сбросить состояние разбора, например, после обрыва соединения.
+     */
+    void reset() {
+        frames.clear();
+    }
+
+    /**
+     * Подготовить буфер к следующему чтению из соединения. Непрочитанный остаток переносится в начало,
+     * а если буфер заполнен одним незаконченным ответом, то он увеличивается.
+     *
+     * @param buffer буфер в режиме чтения.
+     * @return буфер в режиме записи.
+     */
+    static ByteBuffer compact(ByteBuffer buffer) {
+        if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+            ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+            bigger.put(buffer);
+            return bigger;
+        }
+        buffer.compact();
+        return buffer;
+    }
+
+    private static int findCrLf(ByteBuffer buffer, int from) {
+        for (int i = from; i < buffer.limit() - 1; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] readLineBytes(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return bytes;
+    }
+
+    private static long parseLong(ByteBuffer buffer, int from, int to) {
+        boolean negative = buffer.get(from) == '-';
+        long value = 0;
+        for (int i = negative ? from + 1 : from; i < to; i++) {
+            value = value * 10 + (buffer.get(i) - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static class Frame {
+        private final int count;
+        private final List<Object> items;
+
+        private Frame(int count) {
+            this.count = count;
+            this.items = new ArrayList<>(count);
+        }
+    }
+}
@@ -0,0 +1,2042 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Lombok;
+import redis.clients.jedis.*;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.params.geo.GeoRadiusParam;
+import redis.clients.jedis.params.sortedset.ZAddParams;
+import redis.clients.jedis.params.sortedset.ZIncrByParams;
+import redis.clients.util.Hashing;
+import redis.clients.util.MurmurHash;
+import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Распределяет ключи по нескольким серверам Redis (шардам). Для каждого шарда создается свой {@link JedisWrapper},
+ * а команда отправляется в обертку шарда, на котором хранится ее ключ. Вызывающий код, написанный для
+ * {@link JedisCommands} и {@link BinaryJedisCommands}, менять не нужно.
+ *
+ * <ul>
+ *     <li>Команды с одним ключом отправляются на шард, который выбирается консистентным хешированием ключа
+ *     (160 виртуальных узлов на шард, MurmurHash). При добавлении шарда переезжает только часть ключей.</li>
+ *     <li>Если в ключе есть хеш-тег, например {@code user:{42}:name}, хешируется только тег, по этому ключи
+ *     с одинаковым тегом всегда находятся на одном шарде.</li>
+ *     <li>{@code MGET}, {@code MSET}, {@code DEL}, {@code EXISTS}, {@code UNLINK} и {@code TOUCH} разбиваются
+ *     по шардам, части выполняются параллельно, а результаты собираются в исходном порядке ключей.</li>
+ *     <li>{@code RENAME} и {@code RENAMENX} выполняются, только если оба ключа на одном шарде, иначе будет ошибка
+ *     {@link JedisDataException} с {@code CROSSSLOT}. Остальные команды с несколькими ключами выполняются
+ *     на шарде {@link #getCommonShard(String...)}.</li>
+ *     <li>{@code KEYS} выполняется на всех шардах. Остальные команды без ключей ({@code SCAN},
+ *     {@code PUBLISH} и т.д.) надо выполнять на шардах из {@link #getShards()}.</li>
+ * </ul>
+ *
+ * <p>Pipeline, транзакции, подписки, автоматический pipeline, неблокирующий транспорт, реплики, локальный кеш,
+ * перехватчики и статистика работают с одним сервером, по этому их надо использовать через шард
+ * {@link #getShard(String)} или настраивать для каждого шарда из {@link #getShards()}.
+ */
+public class ShardedJedisWrapper implements JedisCommands, BinaryJedisCommands, AutoCloseable {
+
+    private static final int virtualNodes = 160;
+
+    /**
+     * Обертки над пулами шардов в порядке, в котором пулы были переданы в конструктор.
+     */
+    @Getter
+    private final List<JedisWrapper> shards;
+
+    /**
+     * Executor, в котором выполняются части команд, затрагивающих несколько шардов.
+     */
+    @Getter
+    private final Executor splitExecutor;
+
+    /**
+     * Пул потоков, созданный для {@link #splitExecutor} этой оберткой, или {@code null}, если executor
+     * передан в конструктор. Закрывается вместе с оберткой.
+     */
+    private final ExecutorService ownSplitExecutor;
+
+    /**
+     * Кольцо консистентного хеширования: отсортированные хеши виртуальных узлов и номера их шардов.
+     */
+    private final long[] ring;
+    private final int[] ringShards;
+
+    /**
+     * Работает так же, как и {@link #ShardedJedisWrapper(List, Executor, Executor)}.
+     * <p>Для параметра {@code executor} задается значение по умолчанию {@code Runnable::run}, что означает
+     * обрабатывать сообщения в потоке подписки.
+     * <p>Для параметра {@code splitExecutor} создается отдельный пул потоков, который закрывается в {@link #close()}.
+     * Части команд ждут ответа Redis, по этому общий {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * для них не подходит.
+     */
+    public ShardedJedisWrapper(List<? extends Pool<Jedis>> pools) {
+        this(pools, Runnable::run, null);
+    }
+
+    /**
+     * @param pools         пулы соединений шардов. Порядок пулов определяет распределение ключей, по этому он
+     *                      должен быть одинаковым во всех приложениях, которые работают с этими шардами.
+     * @param executor      обработчик, в котором будет вызываться обработка сообщений, приходящих на каналы
+     *                      подписки шардов.
+     * @param splitExecutor обработчик, в котором параллельно выполняются части команд с ключами на разных шардах.
+     *                      Части блокируются на ожидании ответа Redis. Этот executor обертка не закрывает.
+     */
+    public ShardedJedisWrapper(List<? extends Pool<Jedis>> pools, Executor executor, Executor splitExecutor) {
+        if (pools.isEmpty()) {
+            throw new IllegalArgumentException("pools is empty");
+        }
+        if (splitExecutor == null) {
+            ownSplitExecutor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "ShardedJedisWrapper Split");
+                thread.setDaemon(true);
+                return thread;
+            });
+            splitExecutor = ownSplitExecutor;
+        } else {
+            ownSplitExecutor = null;
+        }
+        this.splitExecutor = splitExecutor;
+
+        List<JedisWrapper> shards = new ArrayList<>(pools.size());
+        for (Pool<Jedis> pool : pools) {
+            shards.add(new JedisWrapper(pool, executor));
+        }
+        this.shards = Collections.unmodifiableList(shards);
+
+        long[][] nodes = new long[pools.size() * virtualNodes][];
+        for (int shard = 0; shard < pools.size(); shard++) {
+            for (int node = 0; node < virtualNodes; node++) {
+                long hash = Hashing.MURMUR_HASH.hash("SHARD-" + shard + "-NODE-" + node);
+                nodes[shard * virtualNodes + node] = new long[]{hash, shard};
+            }
+        }
+        Arrays.sort(nodes, (a, b) -> Long.compare(a[0], b[0]));
+        ring = new long[nodes.length];
+        ringShards = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            ring[i] = nodes[i][0];
+            ringShards[i] = (int) nodes[i][1];
+        }
+    }
+
+    /**
+     * Получить шард, на котором хранится ключ.
+     */
+    public JedisWrapper getShard(String key) {
+        return shards.get(this.shardIndex(SafeEncoder.encode(key)));
+    }
+
+    /**
+     * Получить шард, на котором хранится ключ.
+     */
+    public JedisWrapper getShard(byte[] key) {
+        return shards.get(this.shardIndex(key));
+    }
+
+    /**
+     * Получить шард, на котором хранятся все ключи, например, чтобы выполнить на нем {@code SINTER}
+     * или {@code MULTI} для ключей с одним хеш-тегом.
+     *
+     * @throws JedisDataException с {@code CROSSSLOT}, если ключи на разных шардах.
+     */
+    public JedisWrapper getCommonShard(String... keys) {
+        return this.getCommonShard(SafeEncoder.encodeMany(keys));
+    }
+
+    /**
+     * Работает так же, как и {@link #getCommonShard(String...)}.
+     */
+    public JedisWrapper getCommonShard(byte[]... keys) {
+        if (keys.length == 0) {
+            throw new IllegalArgumentException("keys is empty");
+        }
+        int shard = this.shardIndex(keys[0]);
+        for (int i = 1; i < keys.length; i++) {
+            if (this.shardIndex(keys[i]) != shard) {
+                throw new JedisDataException("CROSSSLOT Keys in request don't hash to the same shard");
+            }
+        }
+        return shards.get(shard);
+    }
+
+    /**
+     * Номер шарда для ключа. Если в ключе есть непустой хеш-тег {@code {...}}, хешируется только он.
+     */
+    int shardIndex(byte[] key) {
+        int offset = 0;
+        int length = key.length;
+        for (int open = 0; open < key.length; open++) {
+            if (key[open] == '{') {
+                for (int close = open + 1; close < key.length; close++) {
+                    if (key[close] == '}') {
+                        if (close > open + 1) {
+                            offset = open + 1;
+                            length = close - offset;
+                        }
+                        break;
+                    }
+                }
+                break;
+            }
+        }
+        long hash = MurmurHash.hash64A(key, offset, length, 0x1234ABCD);
+
+        int index = Arrays.binarySearch(ring, hash);
+        if (index < 0) {
+            index = -index - 1; // первый узел с хешем больше ключа
+        }
+        return ringShards[index == ring.length ? 0 : index];
+    }
+
+    public List<String> mget(final String... keys) {
+        return this.mergeLists(this.split(keys, 1, String[]::new, JedisWrapper::mget), keys.length);
+    }
+
+    public List<byte[]> mget(final byte[]... keys) {
+        return this.mergeLists(this.split(keys, 1, byte[][]::new, JedisWrapper::mget), keys.length);
+    }
+
+    public String mset(final String... keysvalues) {
+        return this.split(keysvalues, 2, String[]::new, JedisWrapper::mset).get(0).result;
+    }
+
+    public String mset(final byte[]... keysvalues) {
+        return this.split(keysvalues, 2, byte[][]::new, JedisWrapper::mset).get(0).result;
+    }
+
+    public Long del(final String... keys) {
+        return sum(this.split(keys, 1, String[]::new, JedisWrapper::del));
+    }
+
+    public Long del(final byte[]... keys) {
+        return sum(this.split(keys, 1, byte[][]::new, JedisWrapper::del));
+    }
+
+    public Long exists(final String... keys) {
+        return sum(this.split(keys, 1, String[]::new, JedisWrapper::exists));
+    }
+
+    public Long exists(final byte[]... keys) {
+        return sum(this.split(keys, 1, byte[][]::new, JedisWrapper::exists));
+    }
+
+    public Long unlink(final String... keys) {
+        return sum(this.split(keys, 1, String[]::new, JedisWrapper::unlink));
+    }
+
+    public Long unlink(final byte[]... keys) {
+        return sum(this.split(keys, 1, byte[][]::new, JedisWrapper::unlink));
+    }
+
+    public Long touch(final String... keys) {
+        return sum(this.split(keys, 1, String[]::new, JedisWrapper::touch));
+    }
+
+    public Long touch(final byte[]... keys) {
+        return sum(this.split(keys, 1, byte[][]::new, JedisWrapper::touch));
+    }
+
+    /**
+     * Переименовать ключ, если оба ключа на одном шарде.
+     *
+     * @throws JedisDataException с {@code CROSSSLOT}, если ключи на разных шардах.
+     */
+    public String rename(final String oldkey, final String newkey) {
+        return this.getCommonShard(oldkey, newkey).rename(oldkey, newkey);
+    }
+
+    /**
+     * Работает так же, как и {@link #rename(String, String)}.
+     */
+    public String rename(final byte[] oldkey, final byte[] newkey) {
+        return this.getCommonShard(oldkey, newkey).rename(oldkey, newkey);
+    }
+
+    /**
+     * Переименовать ключ, если нового ключа еще нет и оба ключа на одном шарде.
+     *
+     * @throws JedisDataException с {@code CROSSSLOT}, если ключи на разных шардах.
+     */
+    public Long renamenx(final String oldkey, final String newkey) {
+        return this.getCommonShard(oldkey, newkey).renamenx(oldkey, newkey);
+    }
+
+    /**
+     * Работает так же, как и {@link #renamenx(String, String)}.
+     */
+    public Long renamenx(final byte[] oldkey, final byte[] newkey) {
+        return this.getCommonShard(oldkey, newkey).renamenx(oldkey, newkey);
+    }
+
+    /**
+     * Найти ключи по шаблону на всех шардах.
+     */
+    public Set<String> keys(final String pattern) {
+        Set<String> keys = new HashSet<>();
+        for (Set<String> shardKeys : this.onAllShards(shard -> shard.keys(pattern))) {
+            keys.addAll(shardKeys);
+        }
+        return keys;
+    }
+
+    /**
+     * Работает так же, как и {@link #keys(String)}.
+     */
+    public Set<byte[]> keys(final byte[] pattern) {
+        Set<byte[]> keys = new HashSet<>();
+        for (Set<byte[]> shardKeys : this.onAllShards(shard -> shard.keys(pattern))) {
+            keys.addAll(shardKeys);
+        }
+        return keys;
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#hscanAll(String, ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<Map.Entry<String, String>> hscanAll(String key, ScanParams params) {
+        return this.getShard(key).hscanAll(key, params);
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#hscanAll(byte[], ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<Map.Entry<byte[], byte[]>> hscanAll(byte[] key, ScanParams params) {
+        return this.getShard(key).hscanAll(key, params);
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#sscanAll(String, ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<String> sscanAll(String key, ScanParams params) {
+        return this.getShard(key).sscanAll(key, params);
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#sscanAll(byte[], ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<byte[]> sscanAll(byte[] key, ScanParams params) {
+        return this.getShard(key).sscanAll(key, params);
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#zscanAll(String, ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<Tuple> zscanAll(String key, ScanParams params) {
+        return this.getShard(key).zscanAll(key, params);
+    }
+
+    /**
+     * Работает так же, как и {@link JedisWrapper#zscanAll(byte[], ScanParams)} на шарде ключа.
+     */
+    public JedisScanIterator<Tuple> zscanAll(byte[] key, ScanParams params) {
+        return this.getShard(key).zscanAll(key, params);
+    }
+
+    /**
+     * Часть команды с несколькими ключами, которая выполняется на одном шарде.
+     */
+    private static class Part<K, R> {
+        private JedisWrapper shard;
+        /**
+         * Позиции ключей этой части в исходной команде.
+         */
+        private int[] positions;
+        private K[] args;
+        private R result;
+    }
+
+    /**
+     * Разбить аргументы команды по шардам ключей и выполнить части параллельно. Одна часть выполняется
+     * в вызывающем потоке, остальные в {@link #splitExecutor}.
+     *
+     * @param args     аргументы команды, ключ каждой записи стоит первым.
+     * @param stride   сколько аргументов в одной записи, например {@code 2} для ключа и значения {@code MSET}.
+     * @param newArray создание массива аргументов части.
+     * @param call     выполнение команды с аргументами части на обертке ее шарда.
+     * @return части с результатами.
+     */
+    private <K, R> List<Part<K, R>> split(K[] args, int stride, IntFunction<K[]> newArray,
+                                          BiFunction<JedisWrapper, K[], R> call) {
+        int entries = args.length / stride;
+        int[] shardOf = new int[entries];
+        int[] counts = new int[shards.size()];
+        for (int i = 0; i < entries; i++) {
+            Object key = args[i * stride];
+            shardOf[i] = this.shardIndex(key instanceof String ? SafeEncoder.encode((String) key) : (byte[]) key);
+            counts[shardOf[i]]++;
+        }
+
+        List<Part<K, R>> parts = new ArrayList<>();
+        List<Part<K, R>> byShard = new ArrayList<>(Collections.nCopies(shards.size(), null));
+        for (int shard = 0; shard < counts.length; shard++) {
+            if (counts[shard] == 0) {
+                continue;
+            }
+            Part<K, R> part = new Part<>();
+            part.shard = shards.get(shard);
+            if (counts[shard] == entries) {
+                part.args = args; // все ключи на одном шарде, разбивать нечего
+            } else {
+                part.args = newArray.apply(counts[shard] * stride);
+            }
+            part.positions = new int[counts[shard]];
+            byShard.set(shard, part);
+            parts.add(part);
+            counts[shard] = 0;
+        }
+        for (int i = 0; i < entries; i++) {
+            Part<K, R> part = byShard.get(shardOf[i]);
+            int position = counts[shardOf[i]]++;
+            part.positions[position] = i;
+            if (part.args != args) {
+                System.arraycopy(args, i * stride, part.args, position * stride, stride);
+            }
+        }
+
+        if (parts.isEmpty()) {
+            // команда без ключей, Redis сам вернет ошибку о количестве аргументов
+            Part<K, R> part = new Part<>();
+            part.shard = shards.get(0);
+            part.positions = new int[0];
+            part.args = args;
+            parts.add(part);
+        }
+
+        List<R> results = this.parallel(parts, part -> call.apply(part.shard, part.args));
+        for (int i = 0; i < parts.size(); i++) {
+            parts.get(i).result = results.get(i);
+        }
+        return parts;
+    }
+
+    /**
+     * Выполнить команду на всех шардах параллельно.
+     *
+     * @return результаты в порядке шардов {@link #getShards()}.
+     */
+    private <R> List<R> onAllShards(Function<JedisWrapper, R> call) {
+        return this.parallel(shards, call);
+    }
+
+    /**
+     * Выполнить {@code call} для каждого элемента параллельно: первый элемент в вызывающем потоке, остальные
+     * в {@link #splitExecutor}.
+     *
+     * @return результаты в порядке элементов.
+     */
+    private <T, R> List<R> parallel(List<T> items, Function<T, R> call) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size() - 1);
+        for (int i = 1; i < items.size(); i++) {
+            T item = items.get(i);
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(item), splitExecutor));
+        }
+        List<R> results = new ArrayList<>(items.size());
+        results.add(call.apply(items.get(0)));
+        try {
+            for (CompletableFuture<R> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw Lombok.sneakyThrow(e.getCause());
+        }
+        return results;
+    }
+
+    private <K, T> List<T> mergeLists(List<Part<K, List<T>>> parts, int size) {
+        if (parts.size() == 1) {
+            return parts.get(0).result;
+        }
+        List<T> result = new ArrayList<>(Collections.nCopies(size, null));
+        for (Part<K, List<T>> part : parts) {
+            for (int i = 0; i < part.positions.length; i++) {
+                result.set(part.positions[i], part.result.get(i));
+            }
+        }
+        return result;
+    }
+
+    private static <K> Long sum(List<Part<K, Long>> parts) {
+        long sum = 0;
+        for (Part<K, Long> part : parts) {
+            sum += part.result;
+        }
+        return sum;
+    }
+
+    /**
+     * Закрыть обертки шардов {@link #getShards()} и пул потоков {@link #splitExecutor}, если он был создан
+     * этой оберткой. Пулы соединений не закрываются.
+     */
+    @Override
+    public void close() {
+        for (JedisWrapper shard : shards) {
+            shard.close();
+        }
+        if (ownSplitExecutor != null) {
+            ownSplitExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public String set(final byte[] key, final byte[] value) {
+        return getShard(key).set(key, value);
+    }
+
+    @Override
+    public String set(final byte[] key, final byte[] value, final byte[] nxxx) {
+        return getShard(key).set(key, value, nxxx);
+    }
+
+    @Override
+    public String set(final byte[] key, final byte[] value, final byte[] nxxx, final byte[] expx, final long time) {
+        return getShard(key).set(key, value, nxxx, expx, time);
+    }
+
+    @Override
+    public byte[] get(final byte[] key) {
+        return getShard(key).get(key);
+    }
+
+    @Override
+    public Boolean exists(final byte[] key) {
+        return getShard(key).exists(key);
+    }
+
+    @Override
+    public Long del(final byte[] key) {
+        return getShard(key).del(key);
+    }
+
+    @Override
+    public Long unlink(final byte[] key) {
+        return getShard(key).unlink(key);
+    }
+
+    @Override
+    public String type(final byte[] key) {
+        return getShard(key).type(key);
+    }
+
+    @Override
+    public Long expire(final byte[] key, final int seconds) {
+        return getShard(key).expire(key, seconds);
+    }
+
+    @Override
+    public Long expireAt(final byte[] key, final long unixTime) {
+        return getShard(key).expireAt(key, unixTime);
+    }
+
+    @Override
+    public Long ttl(final byte[] key) {
+        return getShard(key).ttl(key);
+    }
+
+    @Override
+    public Long touch(final byte[] key) {
+        return getShard(key).touch(key);
+    }
+
+    @Override
+    public Long move(final byte[] key, final int dbIndex) {
+        return getShard(key).move(key, dbIndex);
+    }
+
+    @Override
+    public Long bitcount(final byte[] key) {
+        return getShard(key).bitcount(key);
+    }
+
+    @Override
+    public byte[] getSet(final byte[] key, final byte[] value) {
+        return getShard(key).getSet(key, value);
+    }
+
+    @Override
+    public Long setnx(final byte[] key, final byte[] value) {
+        return getShard(key).setnx(key, value);
+    }
+
+    @Override
+    public String setex(final byte[] key, final int seconds, final byte[] value) {
+        return getShard(key).setex(key, seconds, value);
+    }
+
+    @Override
+    public Long decrBy(final byte[] key, final long decrement) {
+        return getShard(key).decrBy(key, decrement);
+    }
+
+    @Override
+    public Long decr(final byte[] key) {
+        return getShard(key).decr(key);
+    }
+
+    @Override
+    public Long incrBy(final byte[] key, final long increment) {
+        return getShard(key).incrBy(key, increment);
+    }
+
+    @Override
+    public Double incrByFloat(final byte[] key, final double increment) {
+        return getShard(key).incrByFloat(key, increment);
+    }
+
+    @Override
+    public Long incr(final byte[] key) {
+        return getShard(key).incr(key);
+    }
+
+    @Override
+    public Long append(final byte[] key, final byte[] value) {
+        return getShard(key).append(key, value);
+    }
+
+    @Override
+    public byte[] substr(final byte[] key, final int start, final int end) {
+        return getShard(key).substr(key, start, end);
+    }
+
+    @Override
+    public Long hset(final byte[] key, final byte[] field, final byte[] value) {
+        return getShard(key).hset(key, field, value);
+    }
+
+    @Override
+    public Long hset(final byte[] key, final Map<byte[], byte[]> hash) {
+        return getShard(key).hset(key, hash);
+    }
+
+    @Override
+    public byte[] hget(final byte[] key, final byte[] field) {
+        return getShard(key).hget(key, field);
+    }
+
+    @Override
+    public Long hsetnx(final byte[] key, final byte[] field, final byte[] value) {
+        return getShard(key).hsetnx(key, field, value);
+    }
+
+    @Override
+    public String hmset(final byte[] key, final Map<byte[], byte[]> hash) {
+        return getShard(key).hmset(key, hash);
+    }
+
+    @Override
+    public List<byte[]> hmget(final byte[] key, final byte[]... fields) {
+        return getShard(key).hmget(key, fields);
+    }
+
+    @Override
+    public Long hincrBy(final byte[] key, final byte[] field, final long value) {
+        return getShard(key).hincrBy(key, field, value);
+    }
+
+    @Override
+    public Double hincrByFloat(final byte[] key, final byte[] field, final double value) {
+        return getShard(key).hincrByFloat(key, field, value);
+    }
+
+    @Override
+    public Boolean hexists(final byte[] key, final byte[] field) {
+        return getShard(key).hexists(key, field);
+    }
+
+    @Override
+    public Long hdel(final byte[] key, final byte[]... fields) {
+        return getShard(key).hdel(key, fields);
+    }
+
+    @Override
+    public Long hlen(final byte[] key) {
+        return getShard(key).hlen(key);
+    }
+
+    @Override
+    public Set<byte[]> hkeys(final byte[] key) {
+        return getShard(key).hkeys(key);
+    }
+
+    @Override
+    public List<byte[]> hvals(final byte[] key) {
+        return getShard(key).hvals(key);
+    }
+
+    @Override
+    public Map<byte[], byte[]> hgetAll(final byte[] key) {
+        return getShard(key).hgetAll(key);
+    }
+
+    @Override
+    public Long rpush(final byte[] key, final byte[]... strings) {
+        return getShard(key).rpush(key, strings);
+    }
+
+    @Override
+    public Long lpush(final byte[] key, final byte[]... strings) {
+        return getShard(key).lpush(key, strings);
+    }
+
+    @Override
+    public Long llen(final byte[] key) {
+        return getShard(key).llen(key);
+    }
+
+    @Override
+    public List<byte[]> lrange(final byte[] key, final long start, final long stop) {
+        return getShard(key).lrange(key, start, stop);
+    }
+
+    @Override
+    public String ltrim(final byte[] key, final long start, final long stop) {
+        return getShard(key).ltrim(key, start, stop);
+    }
+
+    @Override
+    public byte[] lindex(final byte[] key, final long index) {
+        return getShard(key).lindex(key, index);
+    }
+
+    @Override
+    public String lset(final byte[] key, final long index, final byte[] value) {
+        return getShard(key).lset(key, index, value);
+    }
+
+    @Override
+    public Long lrem(final byte[] key, final long count, final byte[] value) {
+        return getShard(key).lrem(key, count, value);
+    }
+
+    @Override
+    public byte[] lpop(final byte[] key) {
+        return getShard(key).lpop(key);
+    }
+
+    @Override
+    public byte[] rpop(final byte[] key) {
+        return getShard(key).rpop(key);
+    }
+
+    @Override
+    public Long sadd(final byte[] key, final byte[]... members) {
+        return getShard(key).sadd(key, members);
+    }
+
+    @Override
+    public Set<byte[]> smembers(final byte[] key) {
+        return getShard(key).smembers(key);
+    }
+
+    @Override
+    public Long srem(final byte[] key, final byte[]... member) {
+        return getShard(key).srem(key, member);
+    }
+
+    @Override
+    public byte[] spop(final byte[] key) {
+        return getShard(key).spop(key);
+    }
+
+    @Override
+    public Set<byte[]> spop(final byte[] key, final long count) {
+        return getShard(key).spop(key, count);
+    }
+
+    @Override
+    public Long scard(final byte[] key) {
+        return getShard(key).scard(key);
+    }
+
+    @Override
+    public Boolean sismember(final byte[] key, final byte[] member) {
+        return getShard(key).sismember(key, member);
+    }
+
+    @Override
+    public byte[] srandmember(final byte[] key) {
+        return getShard(key).srandmember(key);
+    }
+
+    @Override
+    public List<byte[]> srandmember(final byte[] key, final int count) {
+        return getShard(key).srandmember(key, count);
+    }
+
+    @Override
+    public Long zadd(final byte[] key, final double score, final byte[] member) {
+        return getShard(key).zadd(key, score, member);
+    }
+
+    @Override
+    public Long zadd(final byte[] key, final double score, final byte[] member, final ZAddParams params) {
+        return getShard(key).zadd(key, score, member, params);
+    }
+
+    @Override
+    public Long zadd(final byte[] key, final Map<byte[], Double> scoreMembers) {
+        return getShard(key).zadd(key, scoreMembers);
+    }
+
+    @Override
+    public Long zadd(final byte[] key, final Map<byte[], Double> scoreMembers, final ZAddParams params) {
+        return getShard(key).zadd(key, scoreMembers, params);
+    }
+
+    @Override
+    public Set<byte[]> zrange(final byte[] key, final long start, final long stop) {
+        return getShard(key).zrange(key, start, stop);
+    }
+
+    @Override
+    public Long zrem(final byte[] key, final byte[]... members) {
+        return getShard(key).zrem(key, members);
+    }
+
+    @Override
+    public Double zincrby(final byte[] key, final double increment, final byte[] member) {
+        return getShard(key).zincrby(key, increment, member);
+    }
+
+    @Override
+    public Double zincrby(final byte[] key, final double increment, final byte[] member, final ZIncrByParams params) {
+        return getShard(key).zincrby(key, increment, member, params);
+    }
+
+    @Override
+    public Long zrank(final byte[] key, final byte[] member) {
+        return getShard(key).zrank(key, member);
+    }
+
+    @Override
+    public Long zrevrank(final byte[] key, final byte[] member) {
+        return getShard(key).zrevrank(key, member);
+    }
+
+    @Override
+    public Set<byte[]> zrevrange(final byte[] key, final long start, final long stop) {
+        return getShard(key).zrevrange(key, start, stop);
+    }
+
+    @Override
+    public Set<Tuple> zrangeWithScores(final byte[] key, final long start, final long stop) {
+        return getShard(key).zrangeWithScores(key, start, stop);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeWithScores(final byte[] key, final long start, final long stop) {
+        return getShard(key).zrevrangeWithScores(key, start, stop);
+    }
+
+    @Override
+    public Long zcard(final byte[] key) {
+        return getShard(key).zcard(key);
+    }
+
+    @Override
+    public Double zscore(final byte[] key, final byte[] member) {
+        return getShard(key).zscore(key, member);
+    }
+
+    @Override
+    public List<byte[]> sort(final byte[] key) {
+        return getShard(key).sort(key);
+    }
+
+    @Override
+    public List<byte[]> sort(final byte[] key, final SortingParams sortingParameters) {
+        return getShard(key).sort(key, sortingParameters);
+    }
+
+    @Override
+    public Long zcount(final byte[] key, final double min, final double max) {
+        return getShard(key).zcount(key, min, max);
+    }
+
+    @Override
+    public Long zcount(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zcount(key, min, max);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByScore(final byte[] key, final double min, final double max) {
+        return getShard(key).zrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByScore(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByScore(final byte[] key, final double min, final double max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScore(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByScore(final byte[] key, final byte[] min, final byte[] max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScore(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final double min, final double max) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final double min, final double max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final byte[] key, final byte[] min, final byte[] max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByScore(final byte[] key, final double max, final double min) {
+        return getShard(key).zrevrangeByScore(key, max, min);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min) {
+        return getShard(key).zrevrangeByScore(key, max, min);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByScore(final byte[] key, final double max, final double min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByScore(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByScore(final byte[] key, final byte[] max, final byte[] min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByScore(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final double max, final double min) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final double max, final double min,
+        final int offset, final int count) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final byte[] max, final byte[] min) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final byte[] key, final byte[] max, final byte[] min,
+        final int offset, final int count) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min, offset, count);
+    }
+
+    @Override
+    public Long zremrangeByRank(final byte[] key, final long start, final long stop) {
+        return getShard(key).zremrangeByRank(key, start, stop);
+    }
+
+    @Override
+    public Long zremrangeByScore(final byte[] key, final double min, final double max) {
+        return getShard(key).zremrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Long zremrangeByScore(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zremrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Long zlexcount(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zlexcount(key, min, max);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByLex(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zrangeByLex(key, min, max);
+    }
+
+    @Override
+    public Set<byte[]> zrangeByLex(final byte[] key, final byte[] min, final byte[] max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByLex(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min) {
+        return getShard(key).zrevrangeByLex(key, max, min);
+    }
+
+    @Override
+    public Set<byte[]> zrevrangeByLex(final byte[] key, final byte[] max, final byte[] min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByLex(key, max, min, offset, count);
+    }
+
+    @Override
+    public Long zremrangeByLex(final byte[] key, final byte[] min, final byte[] max) {
+        return getShard(key).zremrangeByLex(key, min, max);
+    }
+
+    @Override
+    public Long linsert(final byte[] key, final BinaryClient.LIST_POSITION where, final byte[] pivot,
+        final byte[] value) {
+        return getShard(key).linsert(key, where, pivot, value);
+    }
+
+    @Override
+    public Long strlen(final byte[] key) {
+        return getShard(key).strlen(key);
+    }
+
+    @Override
+    public Long lpushx(final byte[] key, final byte[]... string) {
+        return getShard(key).lpushx(key, string);
+    }
+
+    @Override
+    public Long persist(final byte[] key) {
+        return getShard(key).persist(key);
+    }
+
+    @Override
+    public Long rpushx(final byte[] key, final byte[]... string) {
+        return getShard(key).rpushx(key, string);
+    }
+
+    @Override
+    public List<byte[]> blpop(final byte[] arg) {
+        return getShard(arg).blpop(arg);
+    }
+
+    @Override
+    public List<byte[]> brpop(final byte[] arg) {
+        return getShard(arg).brpop(arg);
+    }
+
+    @Override
+    public byte[] echo(final byte[] string) {
+        return getShard(string).echo(string);
+    }
+
+    @Override
+    public Long linsert(final byte[] key, final ListPosition where, final byte[] pivot, final byte[] value) {
+        return getShard(key).linsert(key, where, pivot, value);
+    }
+
+    @Override
+    public Boolean setbit(final byte[] key, final long offset, final boolean value) {
+        return getShard(key).setbit(key, offset, value);
+    }
+
+    @Override
+    public Boolean setbit(final byte[] key, final long offset, final byte[] value) {
+        return getShard(key).setbit(key, offset, value);
+    }
+
+    @Override
+    public Boolean getbit(final byte[] key, final long offset) {
+        return getShard(key).getbit(key, offset);
+    }
+
+    @Override
+    public Long setrange(final byte[] key, final long offset, final byte[] value) {
+        return getShard(key).setrange(key, offset, value);
+    }
+
+    @Override
+    public byte[] getrange(final byte[] key, final long startOffset, final long endOffset) {
+        return getShard(key).getrange(key, startOffset, endOffset);
+    }
+
+    @Override
+    public Long bitcount(final byte[] key, final long start, final long end) {
+        return getShard(key).bitcount(key, start, end);
+    }
+
+    @Override
+    public byte[] dump(final byte[] key) {
+        return getShard(key).dump(key);
+    }
+
+    @Override
+    public String restore(final byte[] key, final int ttl, final byte[] serializedValue) {
+        return getShard(key).restore(key, ttl, serializedValue);
+    }
+
+    @Override
+    public String restoreReplace(final byte[] key, final int ttl, final byte[] serializedValue) {
+        return getShard(key).restoreReplace(key, ttl, serializedValue);
+    }
+
+    @Override
+    public Long pexpire(final byte[] key, final long milliseconds) {
+        return getShard(key).pexpire(key, milliseconds);
+    }
+
+    @Override
+    public Long pexpireAt(final byte[] key, final long millisecondsTimestamp) {
+        return getShard(key).pexpireAt(key, millisecondsTimestamp);
+    }
+
+    @Override
+    public Long pttl(final byte[] key) {
+        return getShard(key).pttl(key);
+    }
+
+    @Override
+    public String psetex(final byte[] key, final long milliseconds, final byte[] value) {
+        return getShard(key).psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public Long pfadd(final byte[] key, final byte[]... elements) {
+        return getShard(key).pfadd(key, elements);
+    }
+
+    @Override
+    public long pfcount(final byte[] key) {
+        return getShard(key).pfcount(key);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key, final byte[] cursor) {
+        return getShard(key).hscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key, final byte[] cursor, final ScanParams params) {
+        return getShard(key).hscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor) {
+        return getShard(key).sscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor, final ScanParams params) {
+        return getShard(key).sscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor) {
+        return getShard(key).zscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor, final ScanParams params) {
+        return getShard(key).zscan(key, cursor, params);
+    }
+
+    @Override
+    public Long geoadd(final byte[] key, final double longitude, final double latitude, final byte[] member) {
+        return getShard(key).geoadd(key, longitude, latitude, member);
+    }
+
+    @Override
+    public Long geoadd(final byte[] key, final Map<byte[], GeoCoordinate> memberCoordinateMap) {
+        return getShard(key).geoadd(key, memberCoordinateMap);
+    }
+
+    @Override
+    public Double geodist(final byte[] key, final byte[] member1, final byte[] member2) {
+        return getShard(key).geodist(key, member1, member2);
+    }
+
+    @Override
+    public Double geodist(final byte[] key, final byte[] member1, final byte[] member2, final GeoUnit unit) {
+        return getShard(key).geodist(key, member1, member2, unit);
+    }
+
+    @Override
+    public List<byte[]> geohash(final byte[] key, final byte[]... members) {
+        return getShard(key).geohash(key, members);
+    }
+
+    @Override
+    public List<GeoCoordinate> geopos(final byte[] key, final byte[]... members) {
+        return getShard(key).geopos(key, members);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadius(final byte[] key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadius(key, longitude, latitude, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusReadonly(final byte[] key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadiusReadonly(key, longitude, latitude, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadius(final byte[] key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadius(key, longitude, latitude, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusReadonly(final byte[] key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusReadonly(key, longitude, latitude, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMember(final byte[] key, final byte[] member, final double radius,
+        final GeoUnit unit) {
+        return getShard(key).georadiusByMember(key, member, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMemberReadonly(final byte[] key, final byte[] member,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadiusByMemberReadonly(key, member, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMember(final byte[] key, final byte[] member, final double radius,
+        final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusByMember(key, member, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMemberReadonly(final byte[] key, final byte[] member,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusByMemberReadonly(key, member, radius, unit, param);
+    }
+
+    @Override
+    public List<Long> bitfield(final byte[] key, final byte[]... arguments) {
+        return getShard(key).bitfield(key, arguments);
+    }
+
+    @Override
+    public Long hstrlen(final byte[] key, final byte[] field) {
+        return getShard(key).hstrlen(key, field);
+    }
+
+    @Override
+    public String set(final String key, final String value) {
+        return getShard(key).set(key, value);
+    }
+
+    @Override
+    public String set(final String key, final String value, final String nxxx, final String expx, final long time) {
+        return getShard(key).set(key, value, nxxx, expx, time);
+    }
+
+    @Override
+    public String set(final String key, final String value, final String expx, final long time) {
+        return getShard(key).set(key, value, expx, time);
+    }
+
+    @Override
+    public String get(final String key) {
+        return getShard(key).get(key);
+    }
+
+    @Override
+    public Boolean exists(final String key) {
+        return getShard(key).exists(key);
+    }
+
+    @Override
+    public Long del(final String key) {
+        return getShard(key).del(key);
+    }
+
+    @Override
+    public Long unlink(final String key) {
+        return getShard(key).unlink(key);
+    }
+
+    @Override
+    public String type(final String key) {
+        return getShard(key).type(key);
+    }
+
+    @Override
+    public Long expire(final String key, final int seconds) {
+        return getShard(key).expire(key, seconds);
+    }
+
+    @Override
+    public Long expireAt(final String key, final long unixTime) {
+        return getShard(key).expireAt(key, unixTime);
+    }
+
+    @Override
+    public Long ttl(final String key) {
+        return getShard(key).ttl(key);
+    }
+
+    @Override
+    public Long touch(final String key) {
+        return getShard(key).touch(key);
+    }
+
+    @Override
+    public Long move(final String key, final int dbIndex) {
+        return getShard(key).move(key, dbIndex);
+    }
+
+    @Override
+    public Long bitcount(final String key) {
+        return getShard(key).bitcount(key);
+    }
+
+    @Override
+    public String getSet(final String key, final String value) {
+        return getShard(key).getSet(key, value);
+    }
+
+    @Override
+    public Long setnx(final String key, final String value) {
+        return getShard(key).setnx(key, value);
+    }
+
+    @Override
+    public String setex(final String key, final int seconds, final String value) {
+        return getShard(key).setex(key, seconds, value);
+    }
+
+    @Override
+    public Long decrBy(final String key, final long decrement) {
+        return getShard(key).decrBy(key, decrement);
+    }
+
+    @Override
+    public Long decr(final String key) {
+        return getShard(key).decr(key);
+    }
+
+    @Override
+    public Long incrBy(final String key, final long increment) {
+        return getShard(key).incrBy(key, increment);
+    }
+
+    @Override
+    public Double incrByFloat(final String key, final double increment) {
+        return getShard(key).incrByFloat(key, increment);
+    }
+
+    @Override
+    public Long incr(final String key) {
+        return getShard(key).incr(key);
+    }
+
+    @Override
+    public Long append(final String key, final String value) {
+        return getShard(key).append(key, value);
+    }
+
+    @Override
+    public String substr(final String key, final int start, final int end) {
+        return getShard(key).substr(key, start, end);
+    }
+
+    @Override
+    public Long hset(final String key, final String field, final String value) {
+        return getShard(key).hset(key, field, value);
+    }
+
+    @Override
+    public Long hset(final String key, final Map<String, String> hash) {
+        return getShard(key).hset(key, hash);
+    }
+
+    @Override
+    public String hget(final String key, final String field) {
+        return getShard(key).hget(key, field);
+    }
+
+    @Override
+    public Long hsetnx(final String key, final String field, final String value) {
+        return getShard(key).hsetnx(key, field, value);
+    }
+
+    @Override
+    public String hmset(final String key, final Map<String, String> hash) {
+        return getShard(key).hmset(key, hash);
+    }
+
+    @Override
+    public List<String> hmget(final String key, final String... fields) {
+        return getShard(key).hmget(key, fields);
+    }
+
+    @Override
+    public Long hincrBy(final String key, final String field, final long value) {
+        return getShard(key).hincrBy(key, field, value);
+    }
+
+    @Override
+    public Double hincrByFloat(final String key, final String field, final double value) {
+        return getShard(key).hincrByFloat(key, field, value);
+    }
+
+    @Override
+    public Boolean hexists(final String key, final String field) {
+        return getShard(key).hexists(key, field);
+    }
+
+    @Override
+    public Long hdel(final String key, final String... fields) {
+        return getShard(key).hdel(key, fields);
+    }
+
+    @Override
+    public Long hlen(final String key) {
+        return getShard(key).hlen(key);
+    }
+
+    @Override
+    public Set<String> hkeys(final String key) {
+        return getShard(key).hkeys(key);
+    }
+
+    @Override
+    public List<String> hvals(final String key) {
+        return getShard(key).hvals(key);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(final String key) {
+        return getShard(key).hgetAll(key);
+    }
+
+    @Override
+    public Long rpush(final String key, final String... strings) {
+        return getShard(key).rpush(key, strings);
+    }
+
+    @Override
+    public Long lpush(final String key, final String... strings) {
+        return getShard(key).lpush(key, strings);
+    }
+
+    @Override
+    public Long llen(final String key) {
+        return getShard(key).llen(key);
+    }
+
+    @Override
+    public List<String> lrange(final String key, final long start, final long stop) {
+        return getShard(key).lrange(key, start, stop);
+    }
+
+    @Override
+    public String ltrim(final String key, final long start, final long stop) {
+        return getShard(key).ltrim(key, start, stop);
+    }
+
+    @Override
+    public String lindex(final String key, final long index) {
+        return getShard(key).lindex(key, index);
+    }
+
+    @Override
+    public String lset(final String key, final long index, final String value) {
+        return getShard(key).lset(key, index, value);
+    }
+
+    @Override
+    public Long lrem(final String key, final long count, final String value) {
+        return getShard(key).lrem(key, count, value);
+    }
+
+    @Override
+    public String lpop(final String key) {
+        return getShard(key).lpop(key);
+    }
+
+    @Override
+    public String rpop(final String key) {
+        return getShard(key).rpop(key);
+    }
+
+    @Override
+    public Long sadd(final String key, final String... members) {
+        return getShard(key).sadd(key, members);
+    }
+
+    @Override
+    public Set<String> smembers(final String key) {
+        return getShard(key).smembers(key);
+    }
+
+    @Override
+    public Long srem(final String key, final String... members) {
+        return getShard(key).srem(key, members);
+    }
+
+    @Override
+    public String spop(final String key) {
+        return getShard(key).spop(key);
+    }
+
+    @Override
+    public Set<String> spop(final String key, final long count) {
+        return getShard(key).spop(key, count);
+    }
+
+    @Override
+    public Long scard(final String key) {
+        return getShard(key).scard(key);
+    }
+
+    @Override
+    public Boolean sismember(final String key, final String member) {
+        return getShard(key).sismember(key, member);
+    }
+
+    @Override
+    public String srandmember(final String key) {
+        return getShard(key).srandmember(key);
+    }
+
+    @Override
+    public List<String> srandmember(final String key, final int count) {
+        return getShard(key).srandmember(key, count);
+    }
+
+    @Override
+    public Long zadd(final String key, final double score, final String member) {
+        return getShard(key).zadd(key, score, member);
+    }
+
+    @Override
+    public Long zadd(final String key, final double score, final String member, final ZAddParams params) {
+        return getShard(key).zadd(key, score, member, params);
+    }
+
+    @Override
+    public Long zadd(final String key, final Map<String, Double> scoreMembers) {
+        return getShard(key).zadd(key, scoreMembers);
+    }
+
+    @Override
+    public Long zadd(final String key, final Map<String, Double> scoreMembers, final ZAddParams params) {
+        return getShard(key).zadd(key, scoreMembers, params);
+    }
+
+    @Override
+    public Set<String> zrange(final String key, final long start, final long stop) {
+        return getShard(key).zrange(key, start, stop);
+    }
+
+    @Override
+    public Long zrem(final String key, final String... members) {
+        return getShard(key).zrem(key, members);
+    }
+
+    @Override
+    public Double zincrby(final String key, final double increment, final String member) {
+        return getShard(key).zincrby(key, increment, member);
+    }
+
+    @Override
+    public Double zincrby(final String key, final double increment, final String member, final ZIncrByParams params) {
+        return getShard(key).zincrby(key, increment, member, params);
+    }
+
+    @Override
+    public Long zrank(final String key, final String member) {
+        return getShard(key).zrank(key, member);
+    }
+
+    @Override
+    public Long zrevrank(final String key, final String member) {
+        return getShard(key).zrevrank(key, member);
+    }
+
+    @Override
+    public Set<String> zrevrange(final String key, final long start, final long stop) {
+        return getShard(key).zrevrange(key, start, stop);
+    }
+
+    @Override
+    public Set<Tuple> zrangeWithScores(final String key, final long start, final long stop) {
+        return getShard(key).zrangeWithScores(key, start, stop);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeWithScores(final String key, final long start, final long stop) {
+        return getShard(key).zrevrangeWithScores(key, start, stop);
+    }
+
+    @Override
+    public Long zcard(final String key) {
+        return getShard(key).zcard(key);
+    }
+
+    @Override
+    public Double zscore(final String key, final String member) {
+        return getShard(key).zscore(key, member);
+    }
+
+    @Override
+    public List<String> sort(final String key) {
+        return getShard(key).sort(key);
+    }
+
+    @Override
+    public List<String> sort(final String key, final SortingParams sortingParameters) {
+        return getShard(key).sort(key, sortingParameters);
+    }
+
+    @Override
+    @Deprecated
+    public List<String> blpop(final String arg) {
+        return getShard(arg).blpop(arg);
+    }
+
+    @Override
+    @Deprecated
+    public List<String> brpop(final String arg) {
+        return getShard(arg).brpop(arg);
+    }
+
+    @Override
+    public Long zcount(final String key, final double min, final double max) {
+        return getShard(key).zcount(key, min, max);
+    }
+
+    @Override
+    public Long zcount(final String key, final String min, final String max) {
+        return getShard(key).zcount(key, min, max);
+    }
+
+    @Override
+    public Set<String> zrangeByScore(final String key, final double min, final double max) {
+        return getShard(key).zrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Set<String> zrangeByScore(final String key, final String min, final String max) {
+        return getShard(key).zrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Set<String> zrangeByScore(final String key, final double min, final double max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScore(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<String> zrangeByScore(final String key, final String min, final String max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScore(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final String key, final double min, final double max) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final String key, final String min, final String max) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final String key, final double min, final double max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrangeByScoreWithScores(final String key, final String min, final String max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByScoreWithScores(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(final String key, final double max, final double min) {
+        return getShard(key).zrevrangeByScore(key, max, min);
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(final String key, final String max, final String min) {
+        return getShard(key).zrevrangeByScore(key, max, min);
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(final String key, final double max, final double min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByScore(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final String key, final double max, final double min) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final String key, final double max, final double min,
+        final int offset, final int count) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final String key, final String max, final String min,
+        final int offset, final int count) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<String> zrevrangeByScore(final String key, final String max, final String min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByScore(key, max, min, offset, count);
+    }
+
+    @Override
+    public Set<Tuple> zrevrangeByScoreWithScores(final String key, final String max, final String min) {
+        return getShard(key).zrevrangeByScoreWithScores(key, max, min);
+    }
+
+    @Override
+    public Long zremrangeByRank(final String key, final long start, final long stop) {
+        return getShard(key).zremrangeByRank(key, start, stop);
+    }
+
+    @Override
+    public Long zremrangeByScore(final String key, final double min, final double max) {
+        return getShard(key).zremrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Long zremrangeByScore(final String key, final String min, final String max) {
+        return getShard(key).zremrangeByScore(key, min, max);
+    }
+
+    @Override
+    public Long zlexcount(final String key, final String min, final String max) {
+        return getShard(key).zlexcount(key, min, max);
+    }
+
+    @Override
+    public Set<String> zrangeByLex(final String key, final String min, final String max) {
+        return getShard(key).zrangeByLex(key, min, max);
+    }
+
+    @Override
+    public Set<String> zrangeByLex(final String key, final String min, final String max, final int offset,
+        final int count) {
+        return getShard(key).zrangeByLex(key, min, max, offset, count);
+    }
+
+    @Override
+    public Set<String> zrevrangeByLex(final String key, final String max, final String min) {
+        return getShard(key).zrevrangeByLex(key, max, min);
+    }
+
+    @Override
+    public Set<String> zrevrangeByLex(final String key, final String max, final String min, final int offset,
+        final int count) {
+        return getShard(key).zrevrangeByLex(key, max, min, offset, count);
+    }
+
+    @Override
+    public Long zremrangeByLex(final String key, final String min, final String max) {
+        return getShard(key).zremrangeByLex(key, min, max);
+    }
+
+    @Override
+    public Long linsert(final String key, final BinaryClient.LIST_POSITION where, final String pivot,
+        final String value) {
+        return getShard(key).linsert(key, where, pivot, value);
+    }
+
+    @Override
+    public Long strlen(final String key) {
+        return getShard(key).strlen(key);
+    }
+
+    @Override
+    public Long lpushx(final String key, final String... string) {
+        return getShard(key).lpushx(key, string);
+    }
+
+    @Override
+    public Long persist(final String key) {
+        return getShard(key).persist(key);
+    }
+
+    @Override
+    public Long rpushx(final String key, final String... string) {
+        return getShard(key).rpushx(key, string);
+    }
+
+    @Override
+    public String echo(final String string) {
+        return getShard(string).echo(string);
+    }
+
+    @Override
+    public Long linsert(final String key, final ListPosition where, final String pivot, final String value) {
+        return getShard(key).linsert(key, where, pivot, value);
+    }
+
+    @Override
+    public Boolean setbit(final String key, final long offset, final boolean value) {
+        return getShard(key).setbit(key, offset, value);
+    }
+
+    @Override
+    public Boolean setbit(final String key, final long offset, final String value) {
+        return getShard(key).setbit(key, offset, value);
+    }
+
+    @Override
+    public Boolean getbit(final String key, final long offset) {
+        return getShard(key).getbit(key, offset);
+    }
+
+    @Override
+    public Long setrange(final String key, final long offset, final String value) {
+        return getShard(key).setrange(key, offset, value);
+    }
+
+    @Override
+    public String getrange(final String key, final long startOffset, final long endOffset) {
+        return getShard(key).getrange(key, startOffset, endOffset);
+    }
+
+    @Override
+    public Long bitpos(final String key, final boolean value) {
+        return getShard(key).bitpos(key, value);
+    }
+
+    @Override
+    public Long bitpos(final String key, final boolean value, final BitPosParams params) {
+        return getShard(key).bitpos(key, value, params);
+    }
+
+    @Override
+    public Long bitcount(final String key, final long start, final long end) {
+        return getShard(key).bitcount(key, start, end);
+    }
+
+    @Override
+    public byte[] dump(final String key) {
+        return getShard(key).dump(key);
+    }
+
+    @Override
+    public String restore(final String key, final int ttl, final byte[] serializedValue) {
+        return getShard(key).restore(key, ttl, serializedValue);
+    }
+
+    @Override
+    public Long pexpire(final String key, final long milliseconds) {
+        return getShard(key).pexpire(key, milliseconds);
+    }
+
+    @Override
+    public Long pexpireAt(final String key, final long millisecondsTimestamp) {
+        return getShard(key).pexpireAt(key, millisecondsTimestamp);
+    }
+
+    @Override
+    public Long pttl(final String key) {
+        return getShard(key).pttl(key);
+    }
+
+    @Override
+    public String psetex(final String key, final long milliseconds, final String value) {
+        return getShard(key).psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public String set(final String key, final String value, final String nxxx) {
+        return getShard(key).set(key, value, nxxx);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<String, String>> hscan(final String key, final int cursor) {
+        return getShard(key).hscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<String> sscan(final String key, final int cursor) {
+        return getShard(key).sscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Tuple> zscan(final String key, final int cursor) {
+        return getShard(key).zscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<String, String>> hscan(final String key, final String cursor) {
+        return getShard(key).hscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<String, String>> hscan(final String key, final String cursor, final ScanParams params) {
+        return getShard(key).hscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<String> sscan(final String key, final String cursor) {
+        return getShard(key).sscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<String> sscan(final String key, final String cursor, final ScanParams params) {
+        return getShard(key).sscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<Tuple> zscan(final String key, final String cursor) {
+        return getShard(key).zscan(key, cursor);
+    }
+
+    @Override
+    public ScanResult<Tuple> zscan(final String key, final String cursor, final ScanParams params) {
+        return getShard(key).zscan(key, cursor, params);
+    }
+
+    @Override
+    public Long pfadd(final String key, final String... elements) {
+        return getShard(key).pfadd(key, elements);
+    }
+
+    @Override
+    public long pfcount(final String key) {
+        return getShard(key).pfcount(key);
+    }
+
+    @Override
+    public List<String> blpop(final int timeout, final String key) {
+        return getShard(key).blpop(timeout, key);
+    }
+
+    @Override
+    public List<String> brpop(final int timeout, final String key) {
+        return getShard(key).brpop(timeout, key);
+    }
+
+    @Override
+    public Long geoadd(final String key, final double longitude, final double latitude, final String member) {
+        return getShard(key).geoadd(key, longitude, latitude, member);
+    }
+
+    @Override
+    public Long geoadd(final String key, final Map<String, GeoCoordinate> memberCoordinateMap) {
+        return getShard(key).geoadd(key, memberCoordinateMap);
+    }
+
+    @Override
+    public Double geodist(final String key, final String member1, final String member2) {
+        return getShard(key).geodist(key, member1, member2);
+    }
+
+    @Override
+    public Double geodist(final String key, final String member1, final String member2, final GeoUnit unit) {
+        return getShard(key).geodist(key, member1, member2, unit);
+    }
+
+    @Override
+    public List<String> geohash(final String key, final String... members) {
+        return getShard(key).geohash(key, members);
+    }
+
+    @Override
+    public List<GeoCoordinate> geopos(final String key, final String... members) {
+        return getShard(key).geopos(key, members);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadius(final String key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadius(key, longitude, latitude, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusReadonly(final String key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadiusReadonly(key, longitude, latitude, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadius(final String key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadius(key, longitude, latitude, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusReadonly(final String key, final double longitude, final double latitude,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusReadonly(key, longitude, latitude, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMember(final String key, final String member, final double radius,
+        final GeoUnit unit) {
+        return getShard(key).georadiusByMember(key, member, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMemberReadonly(final String key, final String member,
+        final double radius, final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusByMemberReadonly(key, member, radius, unit, param);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMemberReadonly(final String key, final String member,
+        final double radius, final GeoUnit unit) {
+        return getShard(key).georadiusByMemberReadonly(key, member, radius, unit);
+    }
+
+    @Override
+    public List<GeoRadiusResponse> georadiusByMember(final String key, final String member, final double radius,
+        final GeoUnit unit, final GeoRadiusParam param) {
+        return getShard(key).georadiusByMember(key, member, radius, unit, param);
+    }
+
+    @Override
+    public List<Long> bitfield(final String key, final String... arguments) {
+        return getShard(key).bitfield(key, arguments);
+    }
+
+    @Override
+    public Long hstrlen(final String key, final String field) {
+        return getShard(key).hstrlen(key, field);
+    }
+}
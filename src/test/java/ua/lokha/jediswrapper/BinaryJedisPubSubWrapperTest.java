@@ -10,10 +10,17 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.util.SafeEncoder;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BinaryJedisPubSubWrapperTest {
     private JedisPool pool;
@@ -95,6 +102,33 @@ public class BinaryJedisPubSubWrapperTest {
         }
     }
 
+    @Test
+    public void resubscribedAfterConnectionDrop() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort(), 30000);
+             BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run)) {
+            server.setLatency(5, TimeUnit.MILLISECONDS);
+            CountDownLatch latch = new CountDownLatch(1);
+            wrapper.subscribe((channel, message) -> latch.countDown(), SafeEncoder.encode("channel-name"));
+            int resubscribeCount = wrapper.getResubscribeCount();
+
+            server.dropConnections();
+
+            long resubStart = System.currentTimeMillis();
+            while (wrapper.getResubscribeCount() == resubscribeCount || !wrapper.getPubSub().isSubscribed()) {
+                if (System.currentTimeMillis() - resubStart > 10_000) {
+                    Assert.fail("timeout await resubscribed");
+                }
+                Thread.sleep(10);
+            }
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish(SafeEncoder.encode("channel-name"), SafeEncoder.encode("message"));
+            }
+            Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
     @Test
     public void unsubscribed() throws Exception {
         BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run, false);
@@ -136,12 +170,142 @@ public class BinaryJedisPubSubWrapperTest {
                 }
             }, SafeEncoder.encode("channel-name"));
             try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "channel-name");
                 jedis.publish(SafeEncoder.encode("channel-name"), SafeEncoder.encode("message"));
             }
             Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
         }
     }
 
+    @Test
+    public void subscribeBuffer() throws Exception {
+        try (BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run)) {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            ByteBufferJedisPubSubListener listener = wrapper.subscribeBuffer((channel, message) -> {
+                Assert.assertTrue(message.isReadOnly());
+                received.add(ByteBufferJedisPubSubListener.decode(channel) + ":" + ByteBufferJedisPubSubListener.decode(message));
+                message.position(message.limit()); // позиция своя у каждого слушателя
+            }, SafeEncoder.encode("buffer-channel"));
+            wrapper.subscribeBuffer(ByteBufferJedisPubSubListener.decoded(ByteBuffer::remaining,
+                (channel, length) -> received.add(channel + ":" + length)), SafeEncoder.encode("buffer-channel"));
+            Assert.assertTrue(wrapper.getSubscribes().isEmpty());
+
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "buffer-channel");
+                jedis.publish("buffer-channel", "message");
+            }
+            List<String> messages = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                messages.add(received.poll(10, TimeUnit.SECONDS));
+            }
+            Collections.sort(messages);
+            Assert.assertEquals(Arrays.asList("buffer-channel:7", "buffer-channel:message"), messages);
+
+            Assert.assertTrue(wrapper.unsubscribe(listener));
+            Assert.assertFalse(wrapper.unsubscribe(listener));
+        }
+    }
+
+    @Test
+    public void sharedConnection() throws Exception {
+        try (JedisPubSubWrapper stringWrapper = new JedisPubSubWrapper(pool, Runnable::run, false);
+             BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(stringWrapper)) {
+            Assert.assertSame(stringWrapper.getThread(), wrapper.getThread());
+
+            CountDownLatch binaryLatch = new CountDownLatch(2);
+            CountDownLatch stringLatch = new CountDownLatch(1);
+            wrapper.subscribe((channel, message) -> {
+                if (Arrays.equals(message, SafeEncoder.encode("message"))) {
+                    binaryLatch.countDown();
+                }
+            }, SafeEncoder.encode("shared-channel"));
+            stringWrapper.subscribe((channel, message) -> {
+                if (message.equals("message")) {
+                    stringLatch.countDown();
+                }
+            }, "shared-channel");
+            Assert.assertEquals(1, wrapper.getSubscribes().size());
+            Assert.assertEquals(1, stringWrapper.getSubscribes().get("shared-channel").size());
+
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "shared-channel");
+                jedis.publish("shared-channel", "message");
+                Assert.assertTrue("timeout await publish", stringLatch.await(10, TimeUnit.SECONDS));
+
+                // закрытие строковой обертки не должно останавливать бинарную
+                stringWrapper.close();
+                Assert.assertTrue(stringWrapper.isClosed());
+                Assert.assertFalse(wrapper.isClosed());
+
+                jedis.publish("shared-channel", "message");
+            }
+            Assert.assertTrue("timeout await publish", binaryLatch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void subscribeChurnDuringDelivery() throws Exception {
+        try (BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run)) {
+            int count = 2000;
+            byte[] stable = SafeEncoder.encode("binary-churn-stable");
+            List<String> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(count);
+            wrapper.subscribe((channel, message) -> {
+                received.add(SafeEncoder.encode(message));
+                latch.countDown();
+            }, stable);
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, SafeEncoder.encode(stable));
+            }
+
+            // подписки и отписки в другом потоке, в том числе на тот же канал
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread churn = new Thread(() -> {
+                for (int i = 0; !stop.get(); i++) {
+                    BinaryJedisPubSubListener listener = (channel, message) -> {
+                    };
+                    wrapper.subscribe(listener, SafeEncoder.encode("binary-churn-" + (i % 10)));
+                    wrapper.subscribe(listener, stable);
+                    wrapper.unsubscribe(listener);
+                }
+            });
+            churn.start();
+            try (Jedis jedis = pool.getResource()) {
+                for (int i = 0; i < count; i++) {
+                    jedis.publish(stable, SafeEncoder.encode(String.valueOf(i)));
+                }
+            }
+            Assert.assertTrue("timeout await messages", latch.await(10, TimeUnit.SECONDS));
+            stop.set(true);
+            churn.join();
+
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(String.valueOf(i), received.get(i));
+            }
+            Assert.assertEquals(1, wrapper.getSubscribes().get(new ByteArrayWrapper(stable)).size());
+        }
+    }
+
+    @Test
+    public void psubscribe() throws Exception {
+        try (BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run)) {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            BinaryJedisPubSubPatternListener listener = wrapper.psubscribe((pattern, channel, message) ->
+                received.add(SafeEncoder.encode(pattern) + " " + SafeEncoder.encode(channel) + " " +
+                    SafeEncoder.encode(message)), SafeEncoder.encode("binary-news.*"));
+
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumPat(jedis, 1);
+                jedis.publish(SafeEncoder.encode("binary-news.sport"), SafeEncoder.encode("goal"));
+            }
+            Assert.assertEquals("binary-news.* binary-news.sport goal", received.poll(10, TimeUnit.SECONDS));
+
+            Assert.assertTrue(wrapper.punsubscribe(listener));
+            Assert.assertFalse(wrapper.punsubscribe(listener));
+            Assert.assertTrue(wrapper.getPatternSubscribes().isEmpty());
+        }
+    }
+
     @Test
     public void pause() throws Exception {
         try (BinaryJedisPubSubWrapper wrapper = new BinaryJedisPubSubWrapper(pool, Runnable::run)) {
@@ -158,6 +322,7 @@ public class BinaryJedisPubSubWrapperTest {
                 }
             }, SafeEncoder.encode("channel-name"));
             try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "channel-name");
                 jedis.publish("channel-name", "notPause");
             }
             Assert.assertTrue("timeout await publish", notPauseLatch.await(10, TimeUnit.SECONDS));
@@ -9,9 +9,22 @@ import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPubSub;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class JedisPubSubWrapperTest {
     private JedisPool pool;
@@ -93,6 +106,197 @@ public class JedisPubSubWrapperTest {
         }
     }
 
+    @Test
+    public void resubscribedAfterConnectionDrop() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort(), 30000);
+             JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            CountDownLatch latch = new CountDownLatch(1);
+            wrapper.subscribe((channel, message) -> latch.countDown(), "channel-name");
+            int resubscribeCount = wrapper.getResubscribeCount();
+
+            server.dropConnections();
+
+            long resubStart = System.currentTimeMillis();
+            while (wrapper.getResubscribeCount() == resubscribeCount || !wrapper.getPubSub().isSubscribed()) {
+                if (System.currentTimeMillis() - resubStart > 10_000) {
+                    Assert.fail("timeout await resubscribed");
+                }
+                Thread.sleep(10);
+            }
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish("channel-name", "message");
+            }
+            Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void reconnectWithBackoff() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort(), 30000);
+             JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            wrapper.setBackoff(new JedisBackoff(10, 50, 2, 0.5));
+            BlockingQueue<Integer> restored = new LinkedBlockingQueue<>();
+            AtomicLong downtime = new AtomicLong();
+            wrapper.setReconnectListener((connection, resubscribeCount, downtimeMillis, channels) -> {
+                downtime.set(downtimeMillis);
+                restored.add(channels);
+            });
+            CountDownLatch latch = new CountDownLatch(1);
+            wrapper.subscribe((channel, message) -> latch.countDown(), "channel-name");
+            wrapper.subscribe((channel, message) -> {
+            }, "other-channel");
+
+            server.setRejectConnections(true);
+            server.dropConnections();
+            Thread.sleep(300); // несколько неудачных попыток с задержкой
+            server.setRejectConnections(false);
+
+            Integer channels = restored.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull("timeout await reconnect", channels);
+            Assert.assertEquals(2, channels.intValue());
+            Assert.assertTrue(downtime.get() >= 300);
+            Assert.assertTrue(wrapper.getDowntimeMillis() >= 300);
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish("channel-name", "message");
+            }
+            Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void heartbeatReconnectsSilentConnection() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort(), 30000);
+             JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            CountDownLatch latch = new CountDownLatch(1);
+            wrapper.subscribe((channel, message) -> latch.countDown(), "channel-name");
+            wrapper.enableHeartbeat(50, 500, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(wrapper.isHeartbeatEnabled());
+            int resubscribeCount = wrapper.getResubscribeCount();
+
+            Thread.sleep(700); // соединение отвечает на проверки, переподключения быть не должно
+            Assert.assertEquals(0, wrapper.getHeartbeatTimeouts());
+            Assert.assertEquals(resubscribeCount, wrapper.getResubscribeCount());
+
+            // соединение перестает отвечать, но не закрывается
+            server.setLatency(5, TimeUnit.SECONDS);
+            long start = System.currentTimeMillis();
+            while (wrapper.getHeartbeatTimeouts() == 0) {
+                if (System.currentTimeMillis() - start > 10_000) {
+                    Assert.fail("timeout await heartbeat timeout");
+                }
+                Thread.sleep(10);
+            }
+            server.setLatency(0, TimeUnit.MILLISECONDS);
+
+            start = System.currentTimeMillis();
+            while (wrapper.getResubscribeCount() == resubscribeCount || !wrapper.isSubscribed()) {
+                if (System.currentTimeMillis() - start > 10_000) {
+                    Assert.fail("timeout await resubscribed");
+                }
+                Thread.sleep(10);
+            }
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish("channel-name", "message");
+            }
+            Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+
+            wrapper.disableHeartbeat();
+            Assert.assertFalse(wrapper.isHeartbeatEnabled());
+        }
+    }
+
+    @Test
+    public void conflation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, executor)) {
+            wrapper.enableConflation("conflated-channel");
+            CountDownLatch busy = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch last = new CountDownLatch(1);
+            List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+            JedisPubSubListener listener = (channel, message) -> {
+                int value = Integer.parseInt(message);
+                received.add(value);
+                if (value == 0) {
+                    busy.countDown();
+                    release.await(); // слушатель занят, пока публикуются остальные сообщения
+                }
+                if (value == 99) {
+                    last.countDown();
+                }
+            };
+            wrapper.subscribe(listener, "conflated-channel");
+
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "conflated-channel");
+                jedis.publish("conflated-channel", "0");
+                Assert.assertTrue("timeout await first message", busy.await(10, TimeUnit.SECONDS));
+                for (int i = 1; i < 100; i++) {
+                    jedis.publish("conflated-channel", String.valueOf(i));
+                }
+                // последнее сообщение дошло до потока подписки
+                long start = System.currentTimeMillis();
+                while (wrapper.getConflatedCount() < 98) {
+                    if (System.currentTimeMillis() - start > 10_000) {
+                        Assert.fail("timeout await conflation: " + wrapper.getConflatedCount());
+                    }
+                    Thread.sleep(10);
+                }
+            }
+            release.countDown();
+
+            Assert.assertTrue("timeout await last message", last.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(Arrays.asList(0, 99), received);
+
+            Assert.assertEquals(1, wrapper.getEngine().getConflationSlots());
+            Assert.assertTrue(wrapper.unsubscribe(listener));
+            Assert.assertEquals(0, wrapper.getEngine().getConflationSlots());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void subscribeBatch() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            BlockingQueue<List<String>> batches = new LinkedBlockingQueue<>();
+            BatchJedisPubSubListener listener = wrapper.subscribeBatch((channel, messages) -> {
+                Assert.assertEquals("batch-channel", channel);
+                batches.add(messages);
+            }, "batch-channel", 10, 200, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(wrapper.getSubscribes().isEmpty());
+
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "batch-channel");
+                for (int i = 0; i < 25; i++) {
+                    jedis.publish("batch-channel", String.valueOf(i));
+                }
+            }
+            List<String> received = new ArrayList<>();
+            List<Integer> sizes = new ArrayList<>();
+            while (received.size() < 25) {
+                List<String> batch = batches.poll(10, TimeUnit.SECONDS);
+                Assert.assertNotNull("timeout await batch", batch);
+                received.addAll(batch);
+                sizes.add(batch.size());
+            }
+            // два полных пакета и остаток по задержке
+            Assert.assertEquals(Arrays.asList(10, 10, 5), sizes);
+            for (int i = 0; i < 25; i++) {
+                Assert.assertEquals(String.valueOf(i), received.get(i));
+            }
+
+            Assert.assertTrue(wrapper.unsubscribe(listener));
+            Assert.assertFalse(wrapper.unsubscribe(listener));
+        }
+    }
+
     @Test
     public void unsubscribed() throws Exception {
         JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run, false);
@@ -133,10 +337,268 @@ public class JedisPubSubWrapperTest {
                     latch.countDown();
                 }
             }, "channel-name");
+            int resubscribeCount = wrapper.getResubscribeCount();
+            wrapper.getPubSub().ping(); // проверка соединения не должна обрывать общую подписку
             try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "channel-name");
                 jedis.publish("channel-name", "message");
             }
             Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+            Assert.assertEquals(resubscribeCount, wrapper.getResubscribeCount());
+        }
+    }
+
+    @Test
+    public void subscribeAll() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            List<String> channels = new ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                channels.add("bulk-channel-" + i);
+            }
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            JedisPubSubListener listener = (channel, message) -> received.add(channel + " " + message);
+            Assert.assertSame(listener, wrapper.subscribeAll(listener, channels).get(10, TimeUnit.SECONDS));
+            Assert.assertEquals(5000, wrapper.getSubscribes().size());
+
+            // повторная подписка на уже подтвержденные каналы завершается сразу
+            JedisPubSubListener other = (channel, message) -> {
+            };
+            Assert.assertTrue(wrapper.subscribeAll(other, channels.subList(0, 10)).isDone());
+
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish("bulk-channel-0", "first");
+                jedis.publish("bulk-channel-4999", "last");
+            }
+            Assert.assertEquals("bulk-channel-0 first", received.poll(10, TimeUnit.SECONDS));
+            Assert.assertEquals("bulk-channel-4999 last", received.poll(10, TimeUnit.SECONDS));
+
+            Assert.assertTrue(wrapper.unsubscribe(listener));
+            Assert.assertEquals(10, wrapper.getSubscribes().size());
+            Assert.assertTrue(wrapper.unsubscribe(other));
+            Assert.assertTrue(wrapper.getSubscribes().isEmpty());
+        }
+    }
+
+    @Test
+    public void multipleConnections() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run, false, 4)) {
+            Assert.assertEquals(4, wrapper.getConnectionCount());
+            Assert.assertTrue(wrapper.isSubscribed());
+            Assert.assertEquals(4, wrapper.getResubscribeCount());
+
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            CountDownLatch latch = new CountDownLatch(100);
+            JedisPubSubListener listener = (channel, message) -> {
+                threads.add(Thread.currentThread().getName());
+                latch.countDown();
+            };
+            List<String> channels = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                channels.add("connections-channel-" + i);
+            }
+            wrapper.subscribeAll(listener, channels.subList(0, 50)).get(10, TimeUnit.SECONDS);
+            for (String channel : channels.subList(50, 100)) {
+                wrapper.subscribe(listener, channel);
+            }
+
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, channels.toArray(new String[0]));
+                for (String channel : channels) {
+                    jedis.publish(channel, "message");
+                }
+            }
+            Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue("channels must be read by several connections", threads.size() > 1);
+
+            Assert.assertTrue(wrapper.unsubscribe(listener));
+            Assert.assertTrue(wrapper.getSubscribes().isEmpty());
+        }
+    }
+
+    @Test
+    public void subscribeChurnDuringDelivery() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            int count = 2000;
+            List<String> received = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch latch = new CountDownLatch(count);
+            wrapper.subscribe((channel, message) -> {
+                received.add(message);
+                latch.countDown();
+            }, "churn-stable");
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "churn-stable");
+            }
+
+            // подписки и отписки в другом потоке, в том числе на тот же канал
+            AtomicBoolean stop = new AtomicBoolean();
+            Thread churn = new Thread(() -> {
+                for (int i = 0; !stop.get(); i++) {
+                    JedisPubSubListener listener = (channel, message) -> {
+                    };
+                    wrapper.subscribe(listener, "churn-" + (i % 10));
+                    wrapper.subscribe(listener, "churn-stable");
+                    wrapper.unsubscribe(listener);
+                }
+            });
+            churn.start();
+            try (Jedis jedis = pool.getResource()) {
+                for (int i = 0; i < count; i++) {
+                    jedis.publish("churn-stable", String.valueOf(i));
+                }
+            }
+            Assert.assertTrue("timeout await messages", latch.await(10, TimeUnit.SECONDS));
+            stop.set(true);
+            churn.join();
+
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(String.valueOf(i), received.get(i));
+            }
+            Assert.assertEquals(1, wrapper.getSubscribes().get("churn-stable").size());
+        }
+    }
+
+    @Test
+    public void orderedExecutor() throws Exception {
+        try (JedisOrderedExecutor executor = new JedisOrderedExecutor(4, 16);
+             JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, executor)) {
+            int channels = 8;
+            int count = 200;
+            Map<String, List<String>> received = new ConcurrentHashMap<>();
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            CountDownLatch latch = new CountDownLatch(channels * count);
+            JedisPubSubListener listener = (channel, message) -> {
+                threads.add(Thread.currentThread().getName());
+                received.computeIfAbsent(channel, key -> Collections.synchronizedList(new ArrayList<>())).add(message);
+                latch.countDown();
+            };
+            for (int c = 0; c < channels; c++) {
+                wrapper.subscribe(listener, "ordered-" + c);
+            }
+            try (Jedis jedis = pool.getResource()) {
+                for (int c = 0; c < channels; c++) {
+                    awaitNumSub(jedis, 1, "ordered-" + c);
+                }
+                for (int i = 0; i < count; i++) {
+                    for (int c = 0; c < channels; c++) {
+                        jedis.publish("ordered-" + c, String.valueOf(i));
+                    }
+                }
+            }
+            Assert.assertTrue("timeout await messages", latch.await(10, TimeUnit.SECONDS));
+
+            for (int c = 0; c < channels; c++) {
+                List<String> messages = received.get("ordered-" + c);
+                for (int i = 0; i < count; i++) {
+                    Assert.assertEquals(String.valueOf(i), messages.get(i));
+                }
+            }
+            Assert.assertTrue("channels are not processed in parallel: " + threads, threads.size() > 1);
+        }
+    }
+
+    @Test
+    public void psubscribe() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool pool = new JedisPool(new GenericObjectPoolConfig(), server.getHost(), server.getPort(), 30000);
+             JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            JedisPubSubPatternListener listener = wrapper.psubscribe((pattern, channel, message) ->
+                received.add(pattern + " " + channel + " " + message), "news.*");
+            Assert.assertTrue(wrapper.getPatternSubscribes().get("news.*").contains(listener));
+
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumPat(jedis, 1);
+                jedis.publish("news.sport", "goal");
+                jedis.publish("weather", "rain");
+            }
+            Assert.assertEquals("news.* news.sport goal", received.poll(10, TimeUnit.SECONDS));
+
+            // подписка по шаблону восстанавливается после обрыва соединения
+            int resubscribeCount = wrapper.getResubscribeCount();
+            server.dropConnections();
+            long resubStart = System.currentTimeMillis();
+            String message;
+            do {
+                Assert.assertTrue("timeout await resubscribed", System.currentTimeMillis() - resubStart < 10_000);
+                if (wrapper.getResubscribeCount() > resubscribeCount) {
+                    try (Jedis jedis = pool.getResource()) {
+                        jedis.publish("news.politics", "vote");
+                    }
+                }
+                message = received.poll(100, TimeUnit.MILLISECONDS);
+            } while (message == null);
+            Assert.assertEquals("news.* news.politics vote", message);
+
+            Assert.assertTrue(wrapper.punsubscribe(listener));
+            Assert.assertFalse(wrapper.punsubscribe(listener));
+            Assert.assertNull(wrapper.getPatternSubscribes().get("news.*"));
+            wrapper.psubscribe((pattern, channel, text) -> {
+            }, "other.*"); // close должен отписать и шаблоны
+        }
+    }
+
+    @Test
+    public void dispatchQueue() throws Exception {
+        for (JedisDispatchQueue.OverflowPolicy policy : JedisDispatchQueue.OverflowPolicy.values()) {
+            try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+                JedisDispatchQueue queue = wrapper.enableDispatchQueue(10, policy);
+                CountDownLatch release = new CountDownLatch(1);
+                List<String> received = Collections.synchronizedList(new ArrayList<>());
+                wrapper.subscribe((channel, message) -> {
+                    release.await(); // слушатель не успевает, пока его не отпустят
+                    received.add(message);
+                }, "dispatch-queue");
+                try (Jedis jedis = pool.getResource()) {
+                    awaitNumSub(jedis, 1, "dispatch-queue");
+                }
+
+                int count = 50;
+                Thread publisher = new Thread(() -> {
+                    try (Jedis jedis = pool.getResource()) {
+                        for (int i = 0; i < count; i++) {
+                            jedis.publish("dispatch-queue", String.valueOf(i));
+                        }
+                    }
+                });
+                publisher.start();
+                long start = System.currentTimeMillis();
+                // при BLOCK поток подписки ждет места в очереди, по этому дойдут не все сообщения
+                int offered = policy == JedisDispatchQueue.OverflowPolicy.BLOCK ? 12 : count;
+                while (queue.getOffered() < offered) {
+                    Assert.assertTrue("timeout await messages", System.currentTimeMillis() - start < 10_000);
+                    Thread.sleep(10);
+                }
+                Assert.assertTrue(queue.getSize() <= 10);
+                release.countDown();
+                publisher.join();
+                while (queue.getOffered() < count || received.size() + queue.getDropped() < count) {
+                    Assert.assertTrue("timeout await delivery", System.currentTimeMillis() - start < 10_000);
+                    Thread.sleep(10);
+                }
+
+                switch (policy) {
+                    case BLOCK:
+                        Assert.assertEquals(0, queue.getDropped());
+                        Assert.assertTrue(queue.getBlockedNanos() > 0);
+                        for (int i = 0; i < count; i++) {
+                            Assert.assertEquals(String.valueOf(i), received.get(i));
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        Assert.assertTrue(received.size() + " received", received.size() <= 11);
+                        Assert.assertEquals("0", received.get(0));
+                        break;
+                    case DROP_OLDEST:
+                        Assert.assertTrue(received.size() + " received", received.size() <= 11);
+                        Assert.assertEquals("49", received.get(received.size() - 1));
+                        break;
+                    case SAMPLE:
+                        Assert.assertTrue(received.size() + " received", received.size() <= 11);
+                        Assert.assertTrue(queue.getDropped() > 0);
+                        break;
+                }
+                Assert.assertEquals(count, received.size() + queue.getDropped());
+            }
         }
     }
 
@@ -156,6 +618,7 @@ public class JedisPubSubWrapperTest {
                 }
             }, "channel-name");
             try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "channel-name");
                 jedis.publish("channel-name", "notPause");
             }
             Assert.assertTrue("timeout await publish", notPauseLatch.await(10, TimeUnit.SECONDS));
@@ -166,6 +629,129 @@ public class JedisPubSubWrapperTest {
                 jedis.publish("channel-name", "pause");
             }
             Assert.assertFalse("pause not work", pauseLatch.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, wrapper.getPauseDropped());
+        }
+    }
+
+    @Test
+    public void pauseBuffer() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            wrapper.enablePauseBuffer(5, JedisDispatchQueue.OverflowPolicy.DROP_OLDEST);
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            wrapper.subscribe((channel, message) -> received.add(message), "channel-name");
+            try (Jedis jedis = pool.getResource()) {
+                awaitNumSub(jedis, 1, "channel-name");
+            }
+
+            wrapper.setPause(true);
+            try (Jedis jedis = pool.getResource()) {
+                for (int i = 0; i < 8; i++) {
+                    jedis.publish("channel-name", String.valueOf(i));
+                }
+            }
+            long start = System.currentTimeMillis();
+            while (wrapper.getPauseBuffered() + wrapper.getPauseDropped() < 8) {
+                if (System.currentTimeMillis() - start > 10_000) {
+                    Assert.fail("timeout await paused messages");
+                }
+                Thread.sleep(10);
+            }
+            Assert.assertTrue(received.isEmpty());
+            Assert.assertEquals(5, wrapper.getPauseBuffered());
+            Assert.assertEquals(3, wrapper.getPauseDropped());
+
+            wrapper.setPause(false);
+            Assert.assertEquals(0, wrapper.getPauseBuffered());
+            try (Jedis jedis = pool.getResource()) {
+                jedis.publish("channel-name", "after");
+            }
+            // самые старые сообщения отброшены, остальные доставлены по порядку перед новым
+            for (String expected : Arrays.asList("3", "4", "5", "6", "7", "after")) {
+                Assert.assertEquals(expected, received.poll(10, TimeUnit.SECONDS));
+            }
+
+            try {
+                wrapper.enablePauseBuffer(5, JedisDispatchQueue.OverflowPolicy.BLOCK);
+                Assert.fail("BLOCK is not supported");
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void channelChurn() throws Exception {
+        try (JedisPubSubWrapper wrapper = new JedisPubSubWrapper(pool, Runnable::run)) {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            List<JedisPubSubListener> listeners = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                JedisPubSubListener listener = (channel, message) -> received.add(channel);
+                listeners.add(listener);
+                wrapper.subscribe(listener, "churn-channel-" + i);
+            }
+            // отписка оставляет удаленные записи в карте каналов, поиск должен идти дальше них
+            for (int i = 0; i < 200; i += 2) {
+                Assert.assertTrue(wrapper.unsubscribe(listeners.get(i)));
+            }
+            wrapper.subscribe((channel, message) -> received.add(channel), "churn-channel-0");
+            Assert.assertEquals(101, wrapper.getSubscribes().size());
+
+            try (Jedis jedis = pool.getResource()) {
+                // отписки и повторная подписка уходят по одному соединению, по этому выполняются по порядку
+                awaitNumSub(jedis, 0, "churn-channel-198");
+                awaitNumSub(jedis, 1, "churn-channel-0", "churn-channel-1", "churn-channel-199");
+                for (int i = 0; i < 200; i++) {
+                    jedis.publish("churn-channel-" + i, "message");
+                }
+            }
+            Set<String> expected = new HashSet<>();
+            expected.add("churn-channel-0");
+            for (int i = 1; i < 200; i += 2) {
+                expected.add("churn-channel-" + i);
+            }
+            Set<String> actual = new HashSet<>();
+            for (int i = 0; i < expected.size(); i++) {
+                actual.add(received.poll(10, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(expected, actual);
+            Assert.assertNull(received.poll(200, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Ждет, пока у каждого канала будет ровно {@code count} подписчиков на сервере.
+     * Подписка отправляется асинхронно, а публикация с другого соединения может выполниться раньше нее.
+     */
+    static void awaitNumSub(Jedis jedis, long count, String... channels) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (true) {
+            Map<String, String> numSub = jedis.pubsubNumSub(channels);
+            boolean done = true;
+            for (String channel : channels) {
+                if (Long.parseLong(numSub.get(channel)) != count) {
+                    done = false;
+                    break;
+                }
+            }
+            if (done) {
+                return;
+            }
+            if (System.currentTimeMillis() - start > 10_000) {
+                Assert.fail("timeout await subscribes: " + numSub);
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Ждет, пока на сервере будет ровно {@code count} подписок по шаблону.
+     */
+    static void awaitNumPat(Jedis jedis, long count) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (jedis.pubsubNumPat() != count) {
+            if (System.currentTimeMillis() - start > 10_000) {
+                Assert.fail("timeout await pattern subscribes: " + jedis.pubsubNumPat());
+            }
+            Thread.sleep(1);
         }
     }
 }
\ No newline at end of file
@@ -13,13 +13,26 @@ import org.junit.Test;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.SortingParams;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.Pool;
 import redis.clients.util.SafeEncoder;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -64,7 +77,9 @@ public class JedisWrapperTest {
                     latch.countDown();
                 }
             }, "channel-name");
-
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "channel-name");
+            }
             wrapper.publish("channel-name", "message");
             Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
         }
@@ -76,7 +91,9 @@ public class JedisWrapperTest {
                     latch.countDown();
                 }
             }, SafeEncoder.encode("channel-name"));
-
+            try (Jedis jedis = pool.getResource()) {
+                JedisPubSubWrapperTest.awaitNumSub(jedis, 1, "channel-name");
+            }
             wrapper.publish(SafeEncoder.encode("channel-name"), SafeEncoder.encode("message"));
             Assert.assertTrue("timeout await publish", latch.await(10, TimeUnit.SECONDS));
         }
@@ -198,6 +215,555 @@ public class JedisWrapperTest {
         }
     }
 
+    @Test
+    public void autoPipelining() throws Exception {
+        try (JedisWrapper wrapper = new JedisWrapper(pool)) {
+            JedisAutoPipeline autoPipeline = wrapper.enableAutoPipelining(1, 64, 100);
+            int threads = 16;
+            int commands = 200;
+            CountDownLatch latch = new CountDownLatch(threads);
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                new Thread(() -> {
+                    try {
+                        for (int j = 0; j < commands; j++) {
+                            String key = "auto-pipeline-key" + thread + "-" + j;
+                            wrapper.set(key, String.valueOf(j));
+                            assertEquals(String.valueOf(j), wrapper.get(key));
+                            wrapper.del(key);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+            assertTrue("timeout await commands", latch.await(30, TimeUnit.SECONDS));
+            assertTrue(errors.toString(), errors.isEmpty());
+            assertEquals(threads * commands * 3, autoPipeline.getCommandCount());
+            assertTrue(autoPipeline.getFlushCount() < autoPipeline.getCommandCount());
+
+            // ошибка одной команды не должна ломать остальные команды пачки
+            wrapper.set("auto-pipeline-string", "not a number");
+            try {
+                wrapper.incr("auto-pipeline-string");
+                fail("incr of not a number must fail");
+            } catch (JedisDataException ignored) {
+            }
+            assertEquals("not a number", wrapper.get("auto-pipeline-string"));
+        }
+    }
+
+    @Test
+    public void async() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (JedisWrapper wrapper = new JedisWrapper(pool)) {
+            asyncFanOut(wrapper.async(executor));
+
+            wrapper.enableAutoPipelining(1, 64, 0);
+            asyncFanOut(wrapper.async(executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void asyncFanOut(JedisWrapperAsync async) {
+        List<CompletableFuture<String>> sets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sets.add(async.set("async-key" + i, String.valueOf(i)));
+        }
+        CompletableFuture.allOf(sets.toArray(new CompletableFuture[0])).join();
+
+        List<CompletableFuture<String>> gets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            gets.add(async.get("async-key" + i));
+        }
+        for (int i = 0; i < 50; i++) {
+            assertEquals(String.valueOf(i), gets.get(i).join());
+        }
+        assertEquals(Long.valueOf(1), async.del(SafeEncoder.encode("async-key0")).join());
+    }
+
+    @Test
+    public void nioTransport() throws Exception {
+        try (JedisWrapper wrapper = new JedisWrapper(pool);
+             JedisNioTransport transport = new JedisNioTransport(RedisCredentials.host, RedisCredentials.port,
+                 RedisCredentials.password, 0, 2, 1, 30000)) {
+            wrapper.setNioTransport(transport);
+            int threads = 16;
+            int commands = 200;
+            CountDownLatch latch = new CountDownLatch(threads);
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < threads; i++) {
+                int thread = i;
+                new Thread(() -> {
+                    try {
+                        for (int j = 0; j < commands; j++) {
+                            String key = "nio-key" + thread + "-" + j;
+                            wrapper.hset(key, "field", String.valueOf(j));
+                            assertEquals(Collections.singletonMap("field", String.valueOf(j)), wrapper.hgetAll(key));
+                            assertEquals(Long.valueOf(1), wrapper.del(key));
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    } finally {
+                        latch.countDown();
+                    }
+                }).start();
+            }
+            assertTrue("timeout await commands", latch.await(30, TimeUnit.SECONDS));
+            assertTrue(errors.toString(), errors.isEmpty());
+
+            // значение больше буферов соединения
+            char[] chars = new char[300_000];
+            Arrays.fill(chars, 'x');
+            String big = new String(chars);
+            wrapper.set("nio-big", big);
+            assertEquals(big, wrapper.get("nio-big"));
+            assertEquals(Arrays.asList(big, null), wrapper.mget("nio-big", "nio-missing"));
+            assertNull(wrapper.get("nio-missing"));
+
+            assertEquals("OK", wrapper.set("nio-string", "not a number"));
+            try {
+                wrapper.incr("nio-string");
+                fail("incr of not a number must fail");
+            } catch (JedisDataException ignored) {
+            }
+            assertEquals("not a number", wrapper.get("nio-string"));
+            assertEquals(0, transport.getPendingCount());
+        }
+    }
+
+    @Test
+    public void nearCache() throws Exception {
+        try (JedisWrapper wrapper = new JedisWrapper(pool);
+             Jedis other = pool.getResource()) {
+            other.configSet("notify-keyspace-events", "Eg$hxe");
+            other.del("near-key", "near-hash");
+            JedisNearCache cache = wrapper.enableNearCache(1000, 1024 * 1024);
+
+            assertNull(wrapper.get("near-key"));
+            other.set("near-key", "v1");
+            awaitTrue(() -> "v1".equals(wrapper.get("near-key")));
+            long hits = cache.getHitCount();
+            assertEquals("v1", wrapper.get("near-key"));
+            assertEquals(hits + 1, cache.getHitCount());
+            other.setbit("near-key", 0, true); // SETBIT отправляет событие setbit, а не set
+            awaitTrue(() -> !"v1".equals(wrapper.get("near-key")));
+            other.set("near-key", "v1");
+            awaitTrue(() -> "v1".equals(wrapper.get("near-key")));
+
+            // попадания и промахи кеша проходят через перехватчики по одному разу
+            List<String> calls = new ArrayList<>();
+            JedisInterceptor interceptor = new JedisInterceptor() {
+                @Override
+                public <T> T intercept(JedisInvocation<T> invocation) {
+                    calls.add(invocation.getName() + " " + SafeEncoder.encode(invocation.getKeys()[0]));
+                    return invocation.proceed();
+                }
+            };
+            wrapper.addInterceptor(interceptor);
+            hits = cache.getHitCount();
+            assertEquals("v1", wrapper.get("near-key"));
+            assertEquals(hits + 1, cache.getHitCount());
+            assertNull(wrapper.get("near-missing"));
+            assertEquals(Arrays.asList("GET near-key", "GET near-missing"), calls);
+            wrapper.removeInterceptor(interceptor);
+
+            other.hset("near-hash", "f1", "a");
+            awaitTrue(() -> "a".equals(wrapper.hget("near-hash", "f1")));
+            assertNull(wrapper.hget("near-hash", "f2"));
+            other.hset("near-hash", "f2", "b");
+            awaitTrue(() -> "b".equals(wrapper.hget("near-hash", "f2")));
+            Map<String, String> expected = new HashMap<>();
+            expected.put("f1", "a");
+            expected.put("f2", "b");
+            assertEquals(expected, wrapper.hgetAll("near-hash"));
+            assertEquals("a", wrapper.hget("near-hash", "f1"));
+            other.del("near-hash");
+            awaitTrue(() -> wrapper.hgetAll("near-hash").isEmpty());
+
+            // вытеснение
+            for (int i = 0; i < 3000; i++) {
+                wrapper.get("near-evict" + i);
+            }
+            assertTrue(cache.getSize() <= 1000);
+            assertTrue(cache.getEvictionCount() > 0);
+            cache.clear();
+            assertEquals(0, cache.getSize());
+            assertEquals(0, cache.getBytes());
+
+            wrapper.disableNearCache();
+            assertTrue(cache.isClosed());
+            other.set("near-key", "v2");
+            assertEquals("v2", wrapper.get("near-key"));
+            assertTrue(other.del("near-key") == 1);
+        }
+    }
+
+    @Test
+    public void interceptors() {
+        try (JedisWrapper wrapper = new JedisWrapper(pool)) {
+            List<String> calls = new ArrayList<>();
+            JedisInterceptor interceptor = new JedisInterceptor() {
+                @Override
+                public <T> T intercept(JedisInvocation<T> invocation) {
+                    StringBuilder call = new StringBuilder(invocation.getName());
+                    for (byte[] key : invocation.getKeys()) {
+                        call.append(' ').append(SafeEncoder.encode(key));
+                    }
+                    calls.add(call.toString());
+                    return invocation.proceed();
+                }
+            };
+            JedisInterceptor retry = new JedisInterceptor() {
+                @Override
+                public <T> T intercept(JedisInvocation<T> invocation) {
+                    try {
+                        return invocation.proceed();
+                    } catch (JedisDataException e) {
+                        return invocation.proceed();
+                    }
+                }
+            };
+            wrapper.addInterceptor(retry);
+            wrapper.addInterceptor(interceptor);
+            assertEquals(Arrays.asList(retry, interceptor), wrapper.getInterceptors());
+
+            wrapper.set("intercept-key", "value");
+            assertEquals("value", wrapper.get("intercept-key"));
+            wrapper.mset("intercept-key1", "1", "intercept-key2", "2");
+            assertEquals(Collections.singleton("intercept-key"), wrapper.keys("intercept-key"));
+            wrapper.rpush("intercept-list", "1");
+            assertEquals(Arrays.asList("intercept-list", "1"), wrapper.brpop(1, "intercept-list", "intercept-key0"));
+            wrapper.rpush("intercept-list", "1");
+            // шаблон GET совпадает с ключевым словом STORE, но ключом назначения не является
+            assertEquals(Long.valueOf(1), wrapper.sort("intercept-list", new SortingParams().get("store"), "intercept-sorted"));
+            try {
+                wrapper.lpush("intercept-key", "value"); // WRONGTYPE, повторяется перехватчиком retry
+                fail("lpush to string must fail");
+            } catch (JedisDataException ignored) {
+            }
+            assertEquals(Long.valueOf(5), wrapper.del("intercept-key", "intercept-key1", "intercept-key2", "intercept-list", "intercept-sorted"));
+            assertEquals(Arrays.asList(
+                "SET intercept-key",
+                "GET intercept-key",
+                "MSET intercept-key1 intercept-key2",
+                "KEYS",
+                "RPUSH intercept-list",
+                "BRPOP intercept-list intercept-key0",
+                "RPUSH intercept-list",
+                "SORT intercept-list intercept-sorted",
+                "LPUSH intercept-key",
+                "LPUSH intercept-key",
+                "DEL intercept-key intercept-key1 intercept-key2 intercept-list intercept-sorted"
+            ), calls);
+
+            assertTrue(wrapper.removeInterceptor(interceptor));
+            assertFalse(wrapper.removeInterceptor(interceptor));
+            wrapper.get("intercept-key");
+            assertEquals(11, calls.size());
+        }
+    }
+
+    @Test
+    public void metrics() throws Exception {
+        try (JedisWrapper wrapper = new JedisWrapper(pool)) {
+            JedisMetrics metrics = wrapper.enableMetrics();
+            metrics.setTrackPayload(true);
+            for (int i = 0; i < 100; i++) {
+                wrapper.set("metrics-key", "value");
+                wrapper.get("metrics-key");
+            }
+            try {
+                wrapper.incr("metrics-key");
+                fail("incr of not a number must fail");
+            } catch (JedisDataException ignored) {
+            }
+            wrapper.del("metrics-key");
+
+            Map<String, JedisCommandStats> commands = metrics.getCommands();
+            assertEquals(new HashSet<>(Arrays.asList("SET", "GET", "INCR", "DEL")), commands.keySet());
+            JedisCommandStats get = commands.get("GET");
+            assertEquals(100, get.getCalls());
+            assertEquals(0, get.getErrors());
+            assertEquals(500, get.getBytesReceived());
+            assertTrue(get.getP50Micros() > 0 && get.getP50Micros() <= get.getP999Micros());
+            assertEquals(1, commands.get("INCR").getErrors());
+            assertEquals(202, metrics.getCalls());
+
+            ObjectName name = metrics.registerMBean("test");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertEquals(202L, server.getAttribute(name, "Calls"));
+            assertEquals(1L, server.getAttribute(name, "Errors"));
+            wrapper.disableMetrics();
+            assertFalse(server.isRegistered(name));
+            assertTrue(wrapper.getInterceptors().isEmpty());
+        }
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(50_000_000, histogram.getPercentile(50), 50_000_000 / 32.0);
+        assertEquals(99_900_000, histogram.getPercentile(99.9), 99_900_000 / 32.0);
+        assertEquals(100_000_000, histogram.getMax());
+    }
+
+    @Test
+    public void scanAll() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (JedisWrapper wrapper = new JedisWrapper(pool)) {
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < 250; i++) {
+                expected.add("scan-all:" + i);
+                wrapper.set("scan-all:" + i, "value");
+                wrapper.hset("scan-all-hash", "field" + i, "value" + i);
+                wrapper.sadd("scan-all-set", "member" + i);
+                wrapper.zadd("scan-all-zset", i, "member" + i);
+            }
+            ScanParams params = new ScanParams().match("scan-all:*").count(20);
+
+            try (JedisScanIterator<String> keys = wrapper.scanAll(params)) {
+                Set<String> actual = new HashSet<>();
+                keys.forEachRemaining(actual::add);
+                assertEquals(expected, actual);
+                assertTrue(keys.getPages() > 1);
+                assertFalse(keys.hasNext());
+            }
+
+            try (JedisScanIterator<String> keys = wrapper.scanAll(params)) {
+                keys.setPrefetchExecutor(executor);
+                assertEquals(expected, keys.stream().collect(Collectors.toSet()));
+            }
+
+            JedisScanIterator<String> closed = wrapper.scanAll(params);
+            closed.setPrefetchExecutor(executor);
+            assertTrue(closed.hasNext());
+            closed.close();
+            closed.close(); // idempotent
+            try {
+                closed.hasNext();
+                fail("closed iterator must fail");
+            } catch (IllegalStateException ignored) {
+            }
+
+            ScanParams count = new ScanParams().count(20);
+            try (JedisScanIterator<Map.Entry<String, String>> hash = wrapper.hscanAll("scan-all-hash", count)) {
+                Map<String, String> actual = new HashMap<>();
+                hash.forEachRemaining(entry -> actual.put(entry.getKey(), entry.getValue()));
+                assertEquals(wrapper.hgetAll("scan-all-hash"), actual);
+            }
+            try (JedisScanIterator<byte[]> set = wrapper.sscanAll(SafeEncoder.encode("scan-all-set"), count)) {
+                assertEquals(wrapper.smembers("scan-all-set"),
+                    set.stream().map(SafeEncoder::encode).collect(Collectors.toSet()));
+            }
+            try (JedisScanIterator<Tuple> zset = wrapper.zscanAll("scan-all-zset", count)) {
+                assertEquals(250, zset.stream().map(Tuple::getElement).distinct().count());
+            }
+
+            for (String key : expected) {
+                wrapper.del(key);
+            }
+            wrapper.del("scan-all-hash", "scan-all-set", "scan-all-zset");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sharded() throws Exception {
+        try (RespServer first = new RespServer();
+             RespServer second = new RespServer();
+             JedisPool firstPool = new JedisPool(first.getHost(), first.getPort());
+             JedisPool secondPool = new JedisPool(second.getHost(), second.getPort());
+             ShardedJedisWrapper wrapper = new ShardedJedisWrapper(Arrays.asList(firstPool, secondPool))) {
+            String[] keys = new String[100];
+            String[] keysValues = new String[keys.length * 2];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = "sharded-" + i;
+                keysValues[i * 2] = keys[i];
+                keysValues[i * 2 + 1] = "value-" + i;
+            }
+            assertEquals("OK", wrapper.mset(keysValues));
+
+            // ключи разошлись по обоим серверам и лежат там, где их ищет getShard
+            int onFirst = 0;
+            for (int i = 0; i < keys.length; i++) {
+                RespServer server = wrapper.getShard(keys[i]) == wrapper.getShards().get(0) ? first : second;
+                try (Jedis jedis = new Jedis(server.getHost(), server.getPort())) {
+                    assertEquals("value-" + i, jedis.get(keys[i]));
+                }
+                if (server == first) {
+                    onFirst++;
+                }
+                assertEquals("value-" + i, wrapper.get(keys[i]));
+                assertEquals("value-" + i, SafeEncoder.encode(wrapper.get(SafeEncoder.encode(keys[i]))));
+            }
+            assertTrue("keys are not spread across shards: " + onFirst, onFirst > 20 && onFirst < 80);
+
+            List<String> values = wrapper.mget(keys);
+            for (int i = 0; i < keys.length; i++) {
+                assertEquals("value-" + i, values.get(i));
+            }
+            assertEquals(Arrays.asList("value-5", null, "value-3"), wrapper.mget("sharded-5", "sharded-none", "sharded-3"));
+            assertEquals(100L, (long) wrapper.exists(keys));
+            assertEquals(100L, (long) wrapper.touch(keys));
+
+            // ключи с одним хеш-тегом на одном шарде, по этому команды с несколькими ключами работают
+            for (int i = 0; i < 20; i++) {
+                assertSame(wrapper.getShard("{user}:a"), wrapper.getShard("{user}:" + i));
+            }
+            wrapper.set("{user}:a", "a");
+            assertEquals("OK", wrapper.rename("{user}:a", "{user}:b"));
+            assertEquals("a", wrapper.get("{user}:b"));
+
+            String other = keys[0];
+            for (String key : keys) {
+                if (wrapper.getShard(key) != wrapper.getShard("sharded-0")) {
+                    other = key;
+                    break;
+                }
+            }
+            try {
+                wrapper.rename("sharded-0", other);
+                fail("rename across shards must fail");
+            } catch (JedisDataException e) {
+                assertTrue(e.getMessage().startsWith("CROSSSLOT"));
+            }
+
+            try {
+                wrapper.getCommonShard("sharded-0", other);
+                fail("keys on different shards must not have a common shard");
+            } catch (JedisDataException e) {
+                assertTrue(e.getMessage().startsWith("CROSSSLOT"));
+            }
+            assertSame(wrapper.getShard("{user}:b"), wrapper.getCommonShard("{user}:a", "{user}:b"));
+
+            // KEYS собирает ключи со всех шардов
+            Set<String> expected = new HashSet<>(Arrays.asList(keys));
+            expected.add("{user}:b");
+            assertEquals(expected, wrapper.keys("*"));
+
+            assertEquals(101L, (long) wrapper.del(SafeEncoder.encodeMany(
+                Stream.concat(Arrays.stream(keys), Stream.of("{user}:b")).toArray(String[]::new))));
+            assertEquals(0L, (long) wrapper.exists(keys));
+        }
+
+        try {
+            new ShardedJedisWrapper(Collections.emptyList());
+            fail("empty pools must be rejected");
+        } catch (IllegalArgumentException ignored) {
+        }
+    }
+
+    @Test
+    public void replicas() throws Exception {
+        try (RespServer first = new RespServer();
+             RespServer second = new RespServer();
+             JedisPool firstPool = new JedisPool(first.getHost(), first.getPort());
+             JedisPool secondPool = new JedisPool(second.getHost(), second.getPort());
+             JedisWrapper wrapper = new JedisWrapper(pool)) {
+            // реплики специально расходятся с мастером, чтобы было видно, откуда прочитано значение
+            wrapper.set("replicas-key", "master");
+            for (JedisPool replica : Arrays.asList(firstPool, secondPool)) {
+                try (Jedis jedis = replica.getResource()) {
+                    jedis.set("replicas-key", "replica");
+                }
+            }
+
+            JedisReplicas replicas = wrapper.enableReplicas(Arrays.asList(firstPool, secondPool),
+                JedisReplicas.Balancing.LEAST_OUTSTANDING);
+            for (int i = 0; i < 20; i++) {
+                assertEquals("replica", wrapper.get("replicas-key"));
+            }
+            assertEquals(20, replicas.getReplicas().stream().mapToLong(JedisReplicas.Replica::getRequests).sum());
+            assertEquals("master", replicas.onMaster(() -> wrapper.get("replicas-key")));
+
+            // запись всегда идет на мастер
+            wrapper.set("replicas-written", "value");
+            assertEquals("value", replicas.onMaster(() -> wrapper.get("replicas-written")));
+            assertNull(wrapper.get("replicas-written"));
+
+            replicas.setReadYourWritesMillis(TimeUnit.MINUTES.toMillis(1));
+            wrapper.set("replicas-written", "value");
+            assertEquals("value", wrapper.get("replicas-written"));
+            assertEquals("replica", CompletableFuture.supplyAsync(() -> wrapper.get("replicas-key")).get());
+            replicas.setReadYourWritesMillis(0);
+
+            replicas = wrapper.enableReplicas(Arrays.asList(firstPool, secondPool),
+                JedisReplicas.Balancing.LATENCY_WEIGHTED);
+            second.setLatency(20, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < 50; i++) {
+                assertEquals("replica", wrapper.get("replicas-key"));
+            }
+            JedisReplicas.Replica fast = replicas.getReplicas().get(0);
+            JedisReplicas.Replica slow = replicas.getReplicas().get(1);
+            assertTrue(fast.getRequests() + " <= " + slow.getRequests(), fast.getRequests() > slow.getRequests());
+
+            // недоступная реплика не ломает чтение
+            second.setLatency(0, TimeUnit.MILLISECONDS);
+            first.close();
+            second.close();
+            long masterReads = replicas.getMasterReads();
+            assertEquals("master", wrapper.get("replicas-key"));
+            assertEquals(masterReads + 1, replicas.getMasterReads());
+
+            wrapper.disableReplicas();
+            assertNull(wrapper.getReplicas());
+            wrapper.del("replicas-key", "replicas-written");
+        }
+    }
+
+    @Test
+    public void nearCacheWithReplicas() throws Exception {
+        try (RespServer server = new RespServer();
+             JedisPool replicaPool = new JedisPool(server.getHost(), server.getPort());
+             JedisWrapper wrapper = new JedisWrapper(pool);
+             Jedis other = pool.getResource()) {
+            other.configSet("notify-keyspace-events", "Eg$hxe");
+            other.set("near-replicas-key", "master");
+            other.del("near-replicas-hash");
+            other.hset("near-replicas-hash", "f1", "master");
+            // реплика отстает от мастера
+            try (Jedis replica = replicaPool.getResource()) {
+                replica.set("near-replicas-key", "stale");
+                replica.hset("near-replicas-hash", "f1", "stale");
+            }
+
+            JedisReplicas replicas = wrapper.enableReplicas(Collections.singletonList(replicaPool),
+                JedisReplicas.Balancing.LEAST_OUTSTANDING);
+            assertEquals("stale", wrapper.get("near-replicas-key"));
+
+            JedisNearCache cache = wrapper.enableNearCache(1000, 1024 * 1024);
+            assertEquals("master", wrapper.get("near-replicas-key"));
+            assertEquals("master", wrapper.hget("near-replicas-hash", "f1"));
+            assertEquals(Collections.singletonMap("f1", "master"), wrapper.hgetAll("near-replicas-hash"));
+            long hits = cache.getHitCount();
+            assertEquals("master", wrapper.get("near-replicas-key"));
+            assertEquals(hits + 1, cache.getHitCount());
+            assertEquals(1, replicas.getReplicas().get(0).getRequests());
+
+            wrapper.disableNearCache();
+            assertEquals("stale", wrapper.get("near-replicas-key"));
+            wrapper.disableReplicas();
+            other.del("near-replicas-key", "near-replicas-hash");
+        }
+    }
+
+    /**
+     * Ждать, пока условие не станет истинным, но не дольше 5 секунд.
+     */
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("timeout await condition", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
     /**
      * Проверить, свободен ли ресурс {@link Jedis} для взятия из указанного пула.
      */
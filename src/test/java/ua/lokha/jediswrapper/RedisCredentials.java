@@ -1,7 +1,28 @@
 package ua.lokha.jediswrapper;
 
+import lombok.SneakyThrows;
+
 public class RedisCredentials {
     public static String host = "localhost";
     public static int port = 6379;
     public static String password = null;
+
+    /**
+     * Встроенный сервер, если тесты запущены с {@code -Dredis.embedded=true}, иначе {@code null}.
+     */
+    public static RespServer embedded;
+
+    static {
+        if (Boolean.getBoolean("redis.embedded")) {
+            startEmbedded();
+        }
+    }
+
+    @SneakyThrows
+    private static void startEmbedded() {
+        embedded = new RespServer();
+        host = embedded.getHost();
+        port = embedded.getPort();
+        password = null;
+    }
 }
@@ -0,0 +1,2633 @@
+package ua.lokha.jediswrapper;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.java.Log;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Легковесный сервер RESP2 в том же процессе для тестов и бенчмарков.
+ *
+ * <p>Слушает свободный локальный порт и поддерживает строки, хеши, списки, множества, отсортированные множества,
+ * время жизни ключей, {@code MULTI}/{@code EXEC}/{@code WATCH}, {@code SCAN}, {@code PUBLISH}/{@code SUBSCRIBE}/
+ * {@code PSUBSCRIBE} и уведомления {@code notify-keyspace-events} с той же семантикой, что и Redis.
+ * Каждое соединение читает свой поток, а команды выполняются по одной под общей блокировкой, как в
+ * однопоточном Redis. Порядок выполнения гарантируется только внутри соединения: как и с настоящим Redis,
+ * {@code PUBLISH} с другого соединения может выполниться раньше только что отправленного {@code SUBSCRIBE},
+ * по этому тест должен дождаться подписки (например, через {@code PUBSUB NUMSUB}) перед публикацией.
+ *
+ * <p>Для проверки поведения клиента под нагрузкой и при обрывах можно задать задержку ответа
+ * {@link #setLatency(long, TimeUnit)}, разорвать все соединения {@link #dropConnections()} или временно
+ * перестать принимать новые {@link #setRejectConnections(boolean)}.
+ */
+@Log
+public class RespServer implements AutoCloseable {
+
+    private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] QUEUED = "+QUEUED\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL_ARRAY = "*-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final String WRONGTYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+    private static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+    private static final String NOT_FLOAT = "ERR value is not a valid float";
+    private static final String SYNTAX = "ERR syntax error";
+
+    private static final int DATABASES = 16;
+
+    private final ServerSocket serverSocket;
+    private final Set<Session> sessions = new CopyOnWriteArraySet<>();
+
+    /**
+     * Данные по базам: ключ (байты в ISO-8859-1) → значение. Значением может быть {@code byte[]} (строка),
+     * {@link LinkedHashMap} (хеш), {@link ArrayList} (список), {@link LinkedHashSet} (множество) или {@link ZSet}.
+     */
+    private final List<Map<String, Object>> databases = new ArrayList<>();
+    private final List<Map<String, Long>> expires = new ArrayList<>();
+
+    /**
+     * Версии ключей для {@code WATCH}, увеличиваются при любом изменении ключа.
+     */
+    private final List<Map<String, Long>> versions = new ArrayList<>();
+
+    private final Map<String, Set<Session>> channels = new HashMap<>();
+    private final Map<String, Set<Session>> patterns = new HashMap<>();
+
+    private final Thread acceptThread;
+    private final Thread expireThread;
+
+    private volatile long latencyNanos;
+
+    /**
+     * Если {@code true}, новые соединения сразу закрываются. Уже открытые соединения продолжают работать.
+     */
+    @Getter
+    @Setter
+    private volatile boolean rejectConnections;
+
+    /**
+     * Значение {@code notify-keyspace-events}, как в {@code CONFIG SET}.
+     */
+    @Getter
+    private volatile String notifyKeyspaceEvents = "";
+
+    @Getter
+    private volatile boolean closed;
+
+    /**
+     * Запустить сервер на свободном порту локального интерфейса.
+     */
+    public RespServer() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Запустить сервер на указанном порту локального интерфейса.
+     *
+     * @param port порт или {@code 0}, чтобы выбрать свободный.
+     */
+    public RespServer(int port) throws IOException {
+        for (int i = 0; i < DATABASES; i++) {
+            databases.add(new HashMap<>());
+            expires.add(new HashMap<>());
+            versions.add(new HashMap<>());
+        }
+        serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+
+        acceptThread = new Thread(this::accept, this.getClass().getSimpleName() + " Accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+
+        expireThread = new Thread(this::expireCycle, this.getClass().getSimpleName() + " Expire");
+        expireThread.setDaemon(true);
+        expireThread.start();
+    }
+
+    public String getHost() {
+        return serverSocket.getInetAddress().getHostAddress();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Задержка перед ответом на каждую пачку команд, пришедшую одним чтением. Для pipeline задержка
+     * добавляется один раз, как время прохождения по сети.
+     */
+    public void setLatency(long latency, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+    }
+
+    public long getLatency(TimeUnit unit) {
+        return unit.convert(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Количество открытых соединений.
+     */
+    public int getConnections() {
+        return sessions.size();
+    }
+
+    /**
+     * Разорвать все открытые соединения, как при перезапуске сервера. Данные сохраняются.
+     */
+    public void dropConnections() {
+        for (Session session : sessions) {
+            session.close();
+        }
+    }
+
+    /**
+     * Удалить все данные во всех базах.
+     */
+    public synchronized void flushAll() {
+        for (int i = 0; i < DATABASES; i++) {
+            databases.get(i).clear();
+            expires.get(i).clear();
+            versions.get(i).clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        expireThread.interrupt();
+        dropConnections();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                if (rejectConnections) {
+                    socket.close();
+                    continue;
+                }
+                socket.setTcpNoDelay(true);
+                Session session = new Session(socket);
+                sessions.add(session);
+                Thread thread = new Thread(session::run, this.getClass().getSimpleName() + " Session");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                if (!closed) {
+                    log.severe("Ошибка при приеме соединения: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Активное удаление просроченных ключей, чтобы уведомления {@code expired} приходили без обращения к ключу.
+     */
+    private void expireCycle() {
+        while (!closed) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                for (int db = 0; db < DATABASES; db++) {
+                    Iterator<Map.Entry<String, Long>> iterator = expires.get(db).entrySet().iterator();
+                    List<String> expired = new ArrayList<>();
+                    while (iterator.hasNext()) {
+                        Map.Entry<String, Long> entry = iterator.next();
+                        if (entry.getValue() <= now) {
+                            expired.add(entry.getKey());
+                        }
+                    }
+                    for (String key : expired) {
+                        expireIfNeeded(db, key);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Хранилище
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private boolean expireIfNeeded(int db, String key) {
+        Long deadline = expires.get(db).get(key);
+        if (deadline == null || deadline > System.currentTimeMillis()) {
+            return false;
+        }
+        databases.get(db).remove(key);
+        expires.get(db).remove(key);
+        touch(db, key);
+        notifyKeyspace('x', "expired", db, key);
+        return true;
+    }
+
+    private Object lookup(int db, String key) {
+        expireIfNeeded(db, key);
+        return databases.get(db).get(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookup(int db, String key, Class<T> type) {
+        Object value = lookup(db, key);
+        if (value == null) {
+            return null;
+        }
+        if (!type.isInstance(value)) {
+            throw new CommandException(WRONGTYPE);
+        }
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T lookupOrCreate(int db, String key, Class<T> type, Function<String, T> factory) {
+        T value = lookup(db, key, type);
+        if (value == null) {
+            value = factory.apply(key);
+            databases.get(db).put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Удалить пустую коллекцию, как это делает Redis.
+     */
+    private void removeIfEmpty(int db, String key) {
+        Object value = databases.get(db).get(key);
+        if ((value instanceof Map && ((Map<?, ?>) value).isEmpty())
+            || (value instanceof Collection && ((Collection<?>) value).isEmpty())
+            || (value instanceof ZSet && ((ZSet) value).size() == 0)) {
+            remove(db, key);
+        }
+    }
+
+    private boolean remove(int db, String key) {
+        expires.get(db).remove(key);
+        if (databases.get(db).remove(key) != null) {
+            touch(db, key);
+            return true;
+        }
+        return false;
+    }
+
+    private void put(int db, String key, Object value) {
+        databases.get(db).put(key, value);
+        expires.get(db).remove(key);
+        touch(db, key);
+    }
+
+    /**
+     * Отметить изменение ключа для {@code WATCH} и разбудить клиентов, ожидающих {@code BLPOP}/{@code BRPOP}.
+     */
+    private void touch(int db, String key) {
+        versions.get(db).merge(key, 1L, Long::sum);
+        this.notifyAll();
+    }
+
+    private long version(int db, String key) {
+        return versions.get(db).getOrDefault(key, 0L);
+    }
+
+    private static String type(Object value) {
+        if (value == null) {
+            return "none";
+        }
+        if (value instanceof byte[]) {
+            return "string";
+        }
+        if (value instanceof Map) {
+            return "hash";
+        }
+        if (value instanceof List) {
+            return "list";
+        }
+        if (value instanceof Set) {
+            return "set";
+        }
+        return "zset";
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Pub/Sub
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private int publish(String channel, byte[] message) {
+        int receivers = 0;
+        // send закрывает оборванное соединение и удаляет его из подписок, по этому обход идет по копиям
+        for (Session session : new ArrayList<>(channels.getOrDefault(channel, Collections.emptySet()))) {
+            session.send(encode("message", channel, message));
+            receivers++;
+        }
+        for (Map.Entry<String, Set<Session>> entry : new ArrayList<>(patterns.entrySet())) {
+            if (match(entry.getKey(), channel)) {
+                for (Session session : new ArrayList<>(entry.getValue())) {
+                    session.send(encode("pmessage", entry.getKey(), channel, message));
+                    receivers++;
+                }
+            }
+        }
+        return receivers;
+    }
+
+    /**
+     * Отправить уведомление {@code __keyspace@db__} и {@code __keyevent@db__}, если класс события включен
+     * в {@code notify-keyspace-events}.
+     *
+     * @param type класс события: {@code g $ l s h z x e}.
+     */
+    private void notifyKeyspace(char type, String event, int db, String key) {
+        String flags = notifyKeyspaceEvents;
+        if (flags.isEmpty()) {
+            return;
+        }
+        boolean enabled = flags.indexOf(type) >= 0 || (flags.indexOf('A') >= 0 && "g$lshzxe".indexOf(type) >= 0);
+        if (!enabled) {
+            return;
+        }
+        if (flags.indexOf('K') >= 0) {
+            publish("__keyspace@" + db + "__:" + key, event.getBytes(StandardCharsets.ISO_8859_1));
+        }
+        if (flags.indexOf('E') >= 0) {
+            publish("__keyevent@" + db + "__:" + event, key.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Соединение
+    // ---------------------------------------------------------------------------------------------------------------
+
+    private class Session {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        /**
+         * Ответ на текущую пачку команд, отправляется одной записью.
+         */
+        private final ByteArrayOutputStream reply = new ByteArrayOutputStream();
+
+        private final Set<String> subscriptions = new LinkedHashSet<>();
+        private final Set<String> psubscriptions = new LinkedHashSet<>();
+
+        private int db;
+        private String name;
+        private List<byte[][]> transaction;
+        private boolean transactionFailed;
+        private Map<String, Long> watched;
+        private int watchedDb;
+
+        private Session(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = socket.getOutputStream();
+        }
+
+        private void run() {
+            try {
+                boolean batchStarted = false;
+                while (!closed) {
+                    byte[][] command = readCommand();
+                    if (!batchStarted) {
+                        batchStarted = true;
+                        long deadline = System.nanoTime() + latencyNanos;
+                        for (long left = latencyNanos; left > 0; left = deadline - System.nanoTime()) {
+                            LockSupport.parkNanos(left); // точнее Thread.sleep для задержек меньше миллисекунды
+                        }
+                    }
+                    if (command.length == 0) {
+                        continue;
+                    }
+                    try {
+                        dispatch(command);
+                    } catch (CommandException e) {
+                        writeError(e.getMessage());
+                    } catch (RuntimeException e) {
+                        writeError("ERR " + e);
+                    }
+                    if (in.available() == 0) {
+                        batchStarted = false;
+                        flush();
+                    }
+                    if (command.length == 1 && name(command).equals("QUIT")) {
+                        break;
+                    }
+                }
+            } catch (IOException | InterruptedException ignored) {
+                // соединение закрыто
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!sessions.remove(this)) {
+                return;
+            }
+            synchronized (RespServer.this) {
+                for (String channel : subscriptions) {
+                    unsubscribe(channels, channel);
+                }
+                for (String pattern : psubscriptions) {
+                    unsubscribe(patterns, pattern);
+                }
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        private void unsubscribe(Map<String, Set<Session>> map, String name) {
+            Set<Session> set = map.get(name);
+            if (set != null) {
+                set.remove(this);
+                if (set.isEmpty()) {
+                    map.remove(name);
+                }
+            }
+        }
+
+        /**
+         * Отправить сообщение подписки в соединение из другого потока.
+         */
+        private void send(byte[] bytes) {
+            synchronized (out) {
+                try {
+                    out.write(bytes);
+                    out.flush();
+                } catch (IOException e) {
+                    close();
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            if (reply.size() == 0) {
+                return;
+            }
+            synchronized (out) {
+                reply.writeTo(out);
+                out.flush();
+            }
+            reply.reset();
+        }
+
+        private void dispatch(byte[][] command) throws IOException, InterruptedException {
+            String name = name(command);
+            if (!subscriptions.isEmpty() || !psubscriptions.isEmpty()) {
+                switch (name) {
+                    case "SUBSCRIBE":
+                    case "UNSUBSCRIBE":
+                    case "PSUBSCRIBE":
+                    case "PUNSUBSCRIBE":
+                    case "QUIT":
+                        break;
+                    case "PING":
+                        write(encode("pong", command.length > 1 ? command[1] : new byte[0]));
+                        return;
+                    default:
+                        throw new CommandException("ERR only (P)SUBSCRIBE / (P)UNSUBSCRIBE / PING / QUIT " +
+                            "allowed in this context");
+                }
+            }
+            if (transaction != null) {
+                switch (name) {
+                    case "EXEC":
+                    case "DISCARD":
+                    case "MULTI":
+                    case "WATCH":
+                        break;
+                    default:
+                        if (!COMMANDS.contains(name)) {
+                            transactionFailed = true;
+                            throw new CommandException("ERR unknown command '" + name.toLowerCase() + "'");
+                        }
+                        transaction.add(command);
+                        write(QUEUED);
+                        return;
+                }
+            }
+            synchronized (RespServer.this) {
+                execute(name, command, false);
+                if (name.endsWith("SUBSCRIBE")) {
+                    // подтверждение подписки должно прийти раньше сообщений, которые отправят другие соединения
+                    flush();
+                }
+            }
+        }
+
+        // -----------------------------------------------------------------------------------------------------------
+        // Команды
+        // -----------------------------------------------------------------------------------------------------------
+
+        private void execute(String name, byte[][] c, boolean inTransaction) throws InterruptedException {
+            switch (name) {
+                // Соединение и сервер
+                case "PING":
+                    arity(c, 1, 2);
+                    if (c.length == 2) {
+                        writeBulk(c[1]);
+                    } else {
+                        writeStatus("PONG");
+                    }
+                    break;
+                case "ECHO":
+                    arity(c, 2, 2);
+                    writeBulk(c[1]);
+                    break;
+                case "QUIT":
+                    write(OK);
+                    break;
+                case "AUTH":
+                    arity(c, 2, 3);
+                    write(OK);
+                    break;
+                case "SELECT": {
+                    arity(c, 2, 2);
+                    int index = (int) integer(c[1]);
+                    if (index < 0 || index >= DATABASES) {
+                        throw new CommandException("ERR DB index is out of range");
+                    }
+                    db = index;
+                    write(OK);
+                    break;
+                }
+                case "CLIENT":
+                    arity(c, 2, Integer.MAX_VALUE);
+                    switch (name(c, 1)) {
+                        case "SETNAME":
+                            arity(c, 3, 3);
+                            this.name = string(c[2]);
+                            write(OK);
+                            break;
+                        case "GETNAME":
+                            writeBulk(this.name == null ? null : bytes(this.name));
+                            break;
+                        default:
+                            write(OK);
+                    }
+                    break;
+                case "CONFIG":
+                    arity(c, 3, 4);
+                    if (name(c, 1).equals("SET") && c.length == 4) {
+                        if (string(c[2]).equalsIgnoreCase("notify-keyspace-events")) {
+                            notifyKeyspaceEvents = string(c[3]);
+                        }
+                        write(OK);
+                    } else if (name(c, 1).equals("GET")) {
+                        if (match(string(c[2]).toLowerCase(), "notify-keyspace-events")) {
+                            writeArrayHeader(2);
+                            writeBulk(bytes("notify-keyspace-events"));
+                            writeBulk(bytes(notifyKeyspaceEvents));
+                        } else {
+                            writeArrayHeader(0);
+                        }
+                    } else {
+                        throw new CommandException(SYNTAX);
+                    }
+                    break;
+                case "FLUSHDB":
+                    for (String key : new ArrayList<>(databases.get(db).keySet())) {
+                        remove(db, key);
+                    }
+                    write(OK);
+                    break;
+                case "FLUSHALL":
+                    for (int i = 0; i < DATABASES; i++) {
+                        for (String key : new ArrayList<>(databases.get(i).keySet())) {
+                            remove(i, key);
+                        }
+                    }
+                    write(OK);
+                    break;
+                case "DBSIZE":
+                    for (String key : new ArrayList<>(expires.get(db).keySet())) {
+                        expireIfNeeded(db, key);
+                    }
+                    writeInteger(databases.get(db).size());
+                    break;
+
+                // Ключи
+                case "DEL":
+                case "UNLINK": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    int count = 0;
+                    for (int i = 1; i < c.length; i++) {
+                        String key = string(c[i]);
+                        if (lookup(db, key) != null && remove(db, key)) {
+                            notifyKeyspace('g', "del", db, key);
+                            count++;
+                        }
+                    }
+                    writeInteger(count);
+                    break;
+                }
+                case "EXISTS":
+                case "TOUCH": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    int count = 0;
+                    for (int i = 1; i < c.length; i++) {
+                        if (lookup(db, string(c[i])) != null) {
+                            count++;
+                        }
+                    }
+                    writeInteger(count);
+                    break;
+                }
+                case "TYPE":
+                    arity(c, 2, 2);
+                    writeStatus(type(lookup(db, string(c[1]))));
+                    break;
+                case "KEYS": {
+                    arity(c, 2, 2);
+                    String pattern = string(c[1]);
+                    List<byte[]> result = new ArrayList<>();
+                    for (String key : new ArrayList<>(databases.get(db).keySet())) {
+                        if (lookup(db, key) != null && match(pattern, key)) {
+                            result.add(bytes(key));
+                        }
+                    }
+                    writeArray(result);
+                    break;
+                }
+                case "SCAN":
+                    arity(c, 2, Integer.MAX_VALUE);
+                    for (String key : new ArrayList<>(expires.get(db).keySet())) {
+                        expireIfNeeded(db, key);
+                    }
+                    scan(databases.get(db).keySet(), c, 2, key -> Collections.singletonList(bytes(key)));
+                    break;
+                case "RENAME":
+                case "RENAMENX": {
+                    arity(c, 3, 3);
+                    String from = string(c[1]);
+                    String to = string(c[2]);
+                    Object value = lookup(db, from);
+                    if (value == null) {
+                        throw new CommandException("ERR no such key");
+                    }
+                    if (name.equals("RENAMENX") && lookup(db, to) != null) {
+                        writeInteger(0);
+                        break;
+                    }
+                    Long deadline = expires.get(db).get(from);
+                    remove(db, from);
+                    put(db, to, value);
+                    if (deadline != null) {
+                        expires.get(db).put(to, deadline);
+                    }
+                    notifyKeyspace('g', "rename_from", db, from);
+                    notifyKeyspace('g', "rename_to", db, to);
+                    if (name.equals("RENAMENX")) {
+                        writeInteger(1);
+                    } else {
+                        write(OK);
+                    }
+                    break;
+                }
+                case "SORT":
+                    sort(c);
+                    break;
+                case "EXPIRE":
+                case "PEXPIRE":
+                case "EXPIREAT":
+                case "PEXPIREAT": {
+                    arity(c, 3, 3);
+                    String key = string(c[1]);
+                    long value = integer(c[2]);
+                    long deadline;
+                    switch (name) {
+                        case "EXPIRE":
+                            deadline = System.currentTimeMillis() + value * 1000;
+                            break;
+                        case "PEXPIRE":
+                            deadline = System.currentTimeMillis() + value;
+                            break;
+                        case "EXPIREAT":
+                            deadline = value * 1000;
+                            break;
+                        default:
+                            deadline = value;
+                    }
+                    if (lookup(db, key) == null) {
+                        writeInteger(0);
+                        break;
+                    }
+                    if (deadline <= System.currentTimeMillis()) {
+                        remove(db, key);
+                        notifyKeyspace('g', "del", db, key);
+                    } else {
+                        expires.get(db).put(key, deadline);
+                        touch(db, key);
+                        notifyKeyspace('g', "expire", db, key);
+                    }
+                    writeInteger(1);
+                    break;
+                }
+                case "TTL":
+                case "PTTL": {
+                    arity(c, 2, 2);
+                    String key = string(c[1]);
+                    if (lookup(db, key) == null) {
+                        writeInteger(-2);
+                        break;
+                    }
+                    Long deadline = expires.get(db).get(key);
+                    if (deadline == null) {
+                        writeInteger(-1);
+                        break;
+                    }
+                    long millis = deadline - System.currentTimeMillis();
+                    writeInteger(name.equals("TTL") ? (millis + 500) / 1000 : millis);
+                    break;
+                }
+                case "PERSIST": {
+                    arity(c, 2, 2);
+                    String key = string(c[1]);
+                    if (lookup(db, key) != null && expires.get(db).remove(key) != null) {
+                        touch(db, key);
+                        notifyKeyspace('g', "persist", db, key);
+                        writeInteger(1);
+                    } else {
+                        writeInteger(0);
+                    }
+                    break;
+                }
+
+                // Строки
+                case "GET": {
+                    arity(c, 2, 2);
+                    writeBulk(lookup(db, string(c[1]), byte[].class));
+                    break;
+                }
+                case "SET":
+                    set(c);
+                    break;
+                case "SETNX": {
+                    arity(c, 3, 3);
+                    String key = string(c[1]);
+                    if (lookup(db, key) != null) {
+                        writeInteger(0);
+                        break;
+                    }
+                    put(db, key, c[2]);
+                    notifyKeyspace('$', "set", db, key);
+                    writeInteger(1);
+                    break;
+                }
+                case "SETEX":
+                case "PSETEX": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    long ttl = integer(c[2]);
+                    if (ttl <= 0) {
+                        throw new CommandException("ERR invalid expire time in " + name.toLowerCase());
+                    }
+                    put(db, key, c[3]);
+                    expires.get(db).put(key, System.currentTimeMillis() + (name.equals("SETEX") ? ttl * 1000 : ttl));
+                    notifyKeyspace('$', "set", db, key);
+                    notifyKeyspace('g', "expire", db, key);
+                    write(OK);
+                    break;
+                }
+                case "GETSET": {
+                    arity(c, 3, 3);
+                    String key = string(c[1]);
+                    byte[] previous = lookup(db, key, byte[].class);
+                    put(db, key, c[2]);
+                    notifyKeyspace('$', "set", db, key);
+                    writeBulk(previous);
+                    break;
+                }
+                case "MGET": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    writeArrayHeader(c.length - 1);
+                    for (int i = 1; i < c.length; i++) {
+                        Object value = lookup(db, string(c[i]));
+                        writeBulk(value instanceof byte[] ? (byte[]) value : null);
+                    }
+                    break;
+                }
+                case "MSET":
+                case "MSETNX": {
+                    if (c.length < 3 || c.length % 2 == 0) {
+                        throw wrongArguments(name);
+                    }
+                    if (name.equals("MSETNX")) {
+                        for (int i = 1; i < c.length; i += 2) {
+                            if (lookup(db, string(c[i])) != null) {
+                                writeInteger(0);
+                                return;
+                            }
+                        }
+                    }
+                    for (int i = 1; i < c.length; i += 2) {
+                        String key = string(c[i]);
+                        put(db, key, c[i + 1]);
+                        notifyKeyspace('$', "set", db, key);
+                    }
+                    if (name.equals("MSETNX")) {
+                        writeInteger(1);
+                    } else {
+                        write(OK);
+                    }
+                    break;
+                }
+                case "INCR":
+                    arity(c, 2, 2);
+                    writeInteger(incrBy(string(c[1]), 1));
+                    break;
+                case "DECR":
+                    arity(c, 2, 2);
+                    writeInteger(incrBy(string(c[1]), -1));
+                    break;
+                case "INCRBY":
+                    arity(c, 3, 3);
+                    writeInteger(incrBy(string(c[1]), integer(c[2])));
+                    break;
+                case "DECRBY":
+                    arity(c, 3, 3);
+                    writeInteger(incrBy(string(c[1]), Math.negateExact(integer(c[2]))));
+                    break;
+                case "INCRBYFLOAT": {
+                    arity(c, 3, 3);
+                    String key = string(c[1]);
+                    byte[] value = lookup(db, key, byte[].class);
+                    double result = (value == null ? 0 : decimal(value)) + decimal(c[2]);
+                    if (Double.isNaN(result) || Double.isInfinite(result)) {
+                        throw new CommandException("ERR increment would produce NaN or Infinity");
+                    }
+                    byte[] bytes = bytes(formatDouble(result));
+                    keepTtlPut(key, bytes);
+                    notifyKeyspace('$', "incrbyfloat", db, key);
+                    writeBulk(bytes);
+                    break;
+                }
+                case "APPEND": {
+                    arity(c, 3, 3);
+                    String key = string(c[1]);
+                    byte[] value = lookup(db, key, byte[].class);
+                    byte[] result = value == null ? c[2] : concat(value, c[2]);
+                    keepTtlPut(key, result);
+                    notifyKeyspace('$', "append", db, key);
+                    writeInteger(result.length);
+                    break;
+                }
+                case "STRLEN": {
+                    arity(c, 2, 2);
+                    byte[] value = lookup(db, string(c[1]), byte[].class);
+                    writeInteger(value == null ? 0 : value.length);
+                    break;
+                }
+                case "GETRANGE":
+                case "SUBSTR": {
+                    arity(c, 4, 4);
+                    byte[] value = lookup(db, string(c[1]), byte[].class);
+                    if (value == null) {
+                        writeBulk(new byte[0]);
+                        break;
+                    }
+                    int[] range = range(integer(c[2]), integer(c[3]), value.length);
+                    writeBulk(range == null ? new byte[0] : Arrays.copyOfRange(value, range[0], range[1] + 1));
+                    break;
+                }
+                case "SETRANGE": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    long offset = integer(c[2]);
+                    if (offset < 0 || offset > 512 * 1024 * 1024) {
+                        throw new CommandException("ERR offset is out of range");
+                    }
+                    byte[] value = lookup(db, key, byte[].class);
+                    if (value == null) {
+                        value = new byte[0];
+                    }
+                    if (c[3].length == 0) {
+                        writeInteger(value.length);
+                        break;
+                    }
+                    byte[] result = Arrays.copyOf(value, Math.max(value.length, (int) offset + c[3].length));
+                    System.arraycopy(c[3], 0, result, (int) offset, c[3].length);
+                    keepTtlPut(key, result);
+                    notifyKeyspace('$', "setrange", db, key);
+                    writeInteger(result.length);
+                    break;
+                }
+                case "GETBIT": {
+                    arity(c, 3, 3);
+                    long offset = bitOffset(c[2]);
+                    byte[] value = lookup(db, string(c[1]), byte[].class);
+                    int index = (int) (offset >> 3);
+                    writeInteger(value == null || index >= value.length ? 0 : (value[index] >> (7 - (offset & 7))) & 1);
+                    break;
+                }
+                case "SETBIT": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    long offset = bitOffset(c[2]);
+                    String bit = string(c[3]);
+                    if (!bit.equals("0") && !bit.equals("1")) {
+                        throw new CommandException("ERR bit is not an integer or out of range");
+                    }
+                    byte[] value = lookup(db, key, byte[].class);
+                    if (value == null) {
+                        value = new byte[0];
+                    }
+                    int index = (int) (offset >> 3);
+                    byte[] result = Arrays.copyOf(value, Math.max(value.length, index + 1));
+                    int mask = 1 << (7 - (offset & 7));
+                    int previous = (result[index] & mask) != 0 ? 1 : 0;
+                    result[index] = (byte) (bit.equals("1") ? result[index] | mask : result[index] & ~mask);
+                    keepTtlPut(key, result);
+                    notifyKeyspace('$', "setbit", db, key);
+                    writeInteger(previous);
+                    break;
+                }
+
+                // Хеши
+                case "HGET": {
+                    arity(c, 3, 3);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    writeBulk(hash == null ? null : hash.get(string(c[2])));
+                    break;
+                }
+                case "HSET":
+                case "HMSET": {
+                    if (c.length < 4 || c.length % 2 != 0) {
+                        throw wrongArguments(name);
+                    }
+                    String key = string(c[1]);
+                    Map<String, byte[]> hash = lookupOrCreate(db, key, LinkedHashMap.class, k -> new LinkedHashMap<>());
+                    int created = 0;
+                    for (int i = 2; i < c.length; i += 2) {
+                        if (hash.put(string(c[i]), c[i + 1]) == null) {
+                            created++;
+                        }
+                    }
+                    touch(db, key);
+                    notifyKeyspace('h', "hset", db, key);
+                    if (name.equals("HSET")) {
+                        writeInteger(created);
+                    } else {
+                        write(OK);
+                    }
+                    break;
+                }
+                case "HSETNX": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    Map<String, byte[]> hash = lookupOrCreate(db, key, LinkedHashMap.class, k -> new LinkedHashMap<>());
+                    if (hash.putIfAbsent(string(c[2]), c[3]) == null) {
+                        touch(db, key);
+                        notifyKeyspace('h', "hset", db, key);
+                        writeInteger(1);
+                    } else {
+                        writeInteger(0);
+                    }
+                    break;
+                }
+                case "HMGET": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    writeArrayHeader(c.length - 2);
+                    for (int i = 2; i < c.length; i++) {
+                        writeBulk(hash == null ? null : hash.get(string(c[i])));
+                    }
+                    break;
+                }
+                case "HGETALL": {
+                    arity(c, 2, 2);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    List<byte[]> result = new ArrayList<>();
+                    if (hash != null) {
+                        for (Map.Entry<String, byte[]> entry : hash.entrySet()) {
+                            result.add(bytes(entry.getKey()));
+                            result.add(entry.getValue());
+                        }
+                    }
+                    writeArray(result);
+                    break;
+                }
+                case "HKEYS":
+                case "HVALS": {
+                    arity(c, 2, 2);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    List<byte[]> result = new ArrayList<>();
+                    if (hash != null) {
+                        for (Map.Entry<String, byte[]> entry : hash.entrySet()) {
+                            result.add(name.equals("HKEYS") ? bytes(entry.getKey()) : entry.getValue());
+                        }
+                    }
+                    writeArray(result);
+                    break;
+                }
+                case "HDEL": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    String key = string(c[1]);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    int count = 0;
+                    if (hash != null) {
+                        for (int i = 2; i < c.length; i++) {
+                            if (hash.remove(string(c[i])) != null) {
+                                count++;
+                            }
+                        }
+                    }
+                    if (count > 0) {
+                        touch(db, key);
+                        notifyKeyspace('h', "hdel", db, key);
+                        removeIfEmpty(db, key);
+                        if (lookup(db, key) == null) {
+                            notifyKeyspace('g', "del", db, key);
+                        }
+                    }
+                    writeInteger(count);
+                    break;
+                }
+                case "HEXISTS": {
+                    arity(c, 3, 3);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    writeInteger(hash != null && hash.containsKey(string(c[2])) ? 1 : 0);
+                    break;
+                }
+                case "HLEN": {
+                    arity(c, 2, 2);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    writeInteger(hash == null ? 0 : hash.size());
+                    break;
+                }
+                case "HSTRLEN": {
+                    arity(c, 3, 3);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    byte[] value = hash == null ? null : hash.get(string(c[2]));
+                    writeInteger(value == null ? 0 : value.length);
+                    break;
+                }
+                case "HINCRBY": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    Map<String, byte[]> hash = lookupOrCreate(db, key, LinkedHashMap.class, k -> new LinkedHashMap<>());
+                    String field = string(c[2]);
+                    byte[] value = hash.get(field);
+                    long result;
+                    try {
+                        result = Math.addExact(value == null ? 0 : integer(value, "ERR hash value is not an integer"),
+                            integer(c[3]));
+                    } catch (ArithmeticException e) {
+                        removeIfEmpty(db, key);
+                        throw new CommandException("ERR increment or decrement would overflow");
+                    } catch (CommandException e) {
+                        removeIfEmpty(db, key);
+                        throw e;
+                    }
+                    hash.put(field, bytes(Long.toString(result)));
+                    touch(db, key);
+                    notifyKeyspace('h', "hincrby", db, key);
+                    writeInteger(result);
+                    break;
+                }
+                case "HINCRBYFLOAT": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    Map<String, byte[]> hash = lookupOrCreate(db, key, LinkedHashMap.class, k -> new LinkedHashMap<>());
+                    String field = string(c[2]);
+                    byte[] value = hash.get(field);
+                    double result;
+                    try {
+                        result = (value == null ? 0 : decimal(value)) + decimal(c[3]);
+                    } catch (CommandException e) {
+                        removeIfEmpty(db, key);
+                        throw e;
+                    }
+                    byte[] bytes = bytes(formatDouble(result));
+                    hash.put(field, bytes);
+                    touch(db, key);
+                    notifyKeyspace('h', "hincrbyfloat", db, key);
+                    writeBulk(bytes);
+                    break;
+                }
+                case "HSCAN": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    Map<String, byte[]> hash = hash(c[1]);
+                    Map<String, byte[]> source = hash == null ? Collections.emptyMap() : hash;
+                    scan(source.keySet(), c, 3, field -> Arrays.asList(bytes(field), source.get(field)));
+                    break;
+                }
+
+                // Списки
+                case "LPUSH":
+                case "RPUSH":
+                case "LPUSHX":
+                case "RPUSHX": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    String key = string(c[1]);
+                    boolean onlyExisting = name.endsWith("X");
+                    List<byte[]> list = onlyExisting
+                        ? lookup(db, key, ArrayList.class)
+                        : lookupOrCreate(db, key, ArrayList.class, k -> new ArrayList<>());
+                    if (list == null) {
+                        writeInteger(0);
+                        break;
+                    }
+                    for (int i = 2; i < c.length; i++) {
+                        if (name.startsWith("L")) {
+                            list.add(0, c[i]);
+                        } else {
+                            list.add(c[i]);
+                        }
+                    }
+                    touch(db, key);
+                    notifyKeyspace('l', name.startsWith("L") ? "lpush" : "rpush", db, key);
+                    writeInteger(list.size());
+                    break;
+                }
+                case "LPOP":
+                case "RPOP": {
+                    arity(c, 2, 2);
+                    writeBulk(pop(string(c[1]), name.equals("LPOP")));
+                    break;
+                }
+                case "BLPOP":
+                case "BRPOP":
+                    arity(c, 3, Integer.MAX_VALUE);
+                    blockingPop(c, name.equals("BLPOP"), inTransaction);
+                    break;
+                case "RPOPLPUSH": {
+                    arity(c, 3, 3);
+                    lookup(db, string(c[2]), ArrayList.class); // проверка типа до изменения источника
+                    byte[] value = pop(string(c[1]), false);
+                    if (value != null) {
+                        String destination = string(c[2]);
+                        List<byte[]> list = lookupOrCreate(db, destination, ArrayList.class, k -> new ArrayList<>());
+                        list.add(0, value);
+                        touch(db, destination);
+                        notifyKeyspace('l', "lpush", db, destination);
+                    }
+                    writeBulk(value);
+                    break;
+                }
+                case "LLEN": {
+                    arity(c, 2, 2);
+                    List<byte[]> list = list(c[1]);
+                    writeInteger(list == null ? 0 : list.size());
+                    break;
+                }
+                case "LRANGE": {
+                    arity(c, 4, 4);
+                    List<byte[]> list = list(c[1]);
+                    int[] range = list == null ? null : range(integer(c[2]), integer(c[3]), list.size());
+                    writeArray(range == null ? Collections.emptyList() : list.subList(range[0], range[1] + 1));
+                    break;
+                }
+                case "LINDEX": {
+                    arity(c, 3, 3);
+                    List<byte[]> list = list(c[1]);
+                    long index = integer(c[2]);
+                    if (list != null && index < 0) {
+                        index += list.size();
+                    }
+                    writeBulk(list == null || index < 0 || index >= list.size() ? null : list.get((int) index));
+                    break;
+                }
+                case "LSET": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    List<byte[]> list = list(c[1]);
+                    if (list == null) {
+                        throw new CommandException("ERR no such key");
+                    }
+                    long index = integer(c[2]);
+                    if (index < 0) {
+                        index += list.size();
+                    }
+                    if (index < 0 || index >= list.size()) {
+                        throw new CommandException("ERR index out of range");
+                    }
+                    list.set((int) index, c[3]);
+                    touch(db, key);
+                    notifyKeyspace('l', "lset", db, key);
+                    write(OK);
+                    break;
+                }
+                case "LREM": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    List<byte[]> list = list(c[1]);
+                    long count = integer(c[2]);
+                    int removed = 0;
+                    if (list != null) {
+                        if (count >= 0) {
+                            for (int i = 0; i < list.size() && (count == 0 || removed < count); ) {
+                                if (Arrays.equals(list.get(i), c[3])) {
+                                    list.remove(i);
+                                    removed++;
+                                } else {
+                                    i++;
+                                }
+                            }
+                        } else {
+                            for (int i = list.size() - 1; i >= 0 && removed < -count; i--) {
+                                if (Arrays.equals(list.get(i), c[3])) {
+                                    list.remove(i);
+                                    removed++;
+                                }
+                            }
+                        }
+                    }
+                    if (removed > 0) {
+                        touch(db, key);
+                        notifyKeyspace('l', "lrem", db, key);
+                        removeIfEmpty(db, key);
+                    }
+                    writeInteger(removed);
+                    break;
+                }
+                case "LTRIM": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    List<byte[]> list = list(c[1]);
+                    if (list != null) {
+                        int[] range = range(integer(c[2]), integer(c[3]), list.size());
+                        List<byte[]> kept = range == null
+                            ? Collections.emptyList()
+                            : new ArrayList<>(list.subList(range[0], range[1] + 1));
+                        list.clear();
+                        list.addAll(kept);
+                        touch(db, key);
+                        notifyKeyspace('l', "ltrim", db, key);
+                        removeIfEmpty(db, key);
+                    }
+                    write(OK);
+                    break;
+                }
+
+                // Множества
+                case "SADD": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    String key = string(c[1]);
+                    Set<String> set = lookupOrCreate(db, key, LinkedHashSet.class, k -> new LinkedHashSet<>());
+                    int added = 0;
+                    for (int i = 2; i < c.length; i++) {
+                        if (set.add(string(c[i]))) {
+                            added++;
+                        }
+                    }
+                    if (added > 0) {
+                        touch(db, key);
+                        notifyKeyspace('s', "sadd", db, key);
+                    }
+                    writeInteger(added);
+                    break;
+                }
+                case "SREM": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    String key = string(c[1]);
+                    Set<String> set = set(c[1]);
+                    int removed = 0;
+                    if (set != null) {
+                        for (int i = 2; i < c.length; i++) {
+                            if (set.remove(string(c[i]))) {
+                                removed++;
+                            }
+                        }
+                    }
+                    if (removed > 0) {
+                        touch(db, key);
+                        notifyKeyspace('s', "srem", db, key);
+                        removeIfEmpty(db, key);
+                    }
+                    writeInteger(removed);
+                    break;
+                }
+                case "SMEMBERS": {
+                    arity(c, 2, 2);
+                    Set<String> set = set(c[1]);
+                    writeStrings(set == null ? Collections.emptySet() : set);
+                    break;
+                }
+                case "SISMEMBER": {
+                    arity(c, 3, 3);
+                    Set<String> set = set(c[1]);
+                    writeInteger(set != null && set.contains(string(c[2])) ? 1 : 0);
+                    break;
+                }
+                case "SCARD": {
+                    arity(c, 2, 2);
+                    Set<String> set = set(c[1]);
+                    writeInteger(set == null ? 0 : set.size());
+                    break;
+                }
+                case "SPOP":
+                case "SRANDMEMBER": {
+                    arity(c, 2, 3);
+                    String key = string(c[1]);
+                    Set<String> set = set(c[1]);
+                    List<String> members = set == null ? new ArrayList<>() : new ArrayList<>(set);
+                    Collections.shuffle(members, ThreadLocalRandom.current());
+                    if (c.length == 2) {
+                        String member = members.isEmpty() ? null : members.get(0);
+                        if (member != null && name.equals("SPOP")) {
+                            set.remove(member);
+                            touch(db, key);
+                            notifyKeyspace('s', "spop", db, key);
+                            removeIfEmpty(db, key);
+                        }
+                        writeBulk(member == null ? null : bytes(member));
+                        break;
+                    }
+                    long count = integer(c[2]);
+                    if (name.equals("SPOP") && count < 0) {
+                        throw new CommandException("ERR index out of range");
+                    }
+                    List<String> result = new ArrayList<>();
+                    if (count >= 0) {
+                        result.addAll(members.subList(0, (int) Math.min(count, members.size())));
+                    } else {
+                        for (int i = 0; i < -count && !members.isEmpty(); i++) {
+                            result.add(members.get(ThreadLocalRandom.current().nextInt(members.size())));
+                        }
+                    }
+                    if (name.equals("SPOP") && !result.isEmpty()) {
+                        set.removeAll(result);
+                        touch(db, key);
+                        notifyKeyspace('s', "spop", db, key);
+                        removeIfEmpty(db, key);
+                    }
+                    writeStrings(result);
+                    break;
+                }
+                case "SMOVE": {
+                    arity(c, 4, 4);
+                    String source = string(c[1]);
+                    String destination = string(c[2]);
+                    Set<String> from = set(c[1]);
+                    set(c[2]); // проверка типа
+                    String member = string(c[3]);
+                    if (from == null || !from.remove(member)) {
+                        writeInteger(0);
+                        break;
+                    }
+                    touch(db, source);
+                    notifyKeyspace('s', "srem", db, source);
+                    removeIfEmpty(db, source);
+                    Set<String> to = lookupOrCreate(db, destination, LinkedHashSet.class, k -> new LinkedHashSet<>());
+                    to.add(member);
+                    touch(db, destination);
+                    notifyKeyspace('s', "sadd", db, destination);
+                    writeInteger(1);
+                    break;
+                }
+                case "SINTER":
+                case "SUNION":
+                case "SDIFF": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    writeStrings(combine(name, c, 1));
+                    break;
+                }
+                case "SINTERSTORE":
+                case "SUNIONSTORE":
+                case "SDIFFSTORE": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    Set<String> result = combine(name.substring(0, name.length() - 5), c, 2);
+                    String destination = string(c[1]);
+                    remove(db, destination);
+                    if (!result.isEmpty()) {
+                        put(db, destination, result);
+                        notifyKeyspace('s', name.toLowerCase(), db, destination);
+                    }
+                    writeInteger(result.size());
+                    break;
+                }
+                case "SSCAN": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    Set<String> set = set(c[1]);
+                    scan(set == null ? Collections.emptySet() : set, c, 3, member -> Collections.singletonList(bytes(member)));
+                    break;
+                }
+
+                // Отсортированные множества
+                case "ZADD":
+                    zadd(c);
+                    break;
+                case "ZINCRBY": {
+                    arity(c, 4, 4);
+                    String key = string(c[1]);
+                    ZSet zset = lookupOrCreate(db, key, ZSet.class, k -> new ZSet());
+                    String member = string(c[3]);
+                    Double current = zset.score(member);
+                    double result = (current == null ? 0 : current) + decimal(c[2]);
+                    if (Double.isNaN(result)) {
+                        throw new CommandException("ERR resulting score is not a number (NaN)");
+                    }
+                    zset.add(member, result);
+                    touch(db, key);
+                    notifyKeyspace('z', "zincr", db, key);
+                    writeBulk(bytes(formatDouble(result)));
+                    break;
+                }
+                case "ZSCORE": {
+                    arity(c, 3, 3);
+                    ZSet zset = zset(c[1]);
+                    Double score = zset == null ? null : zset.score(string(c[2]));
+                    writeBulk(score == null ? null : bytes(formatDouble(score)));
+                    break;
+                }
+                case "ZREM": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    String key = string(c[1]);
+                    ZSet zset = zset(c[1]);
+                    int removed = 0;
+                    if (zset != null) {
+                        for (int i = 2; i < c.length; i++) {
+                            if (zset.remove(string(c[i]))) {
+                                removed++;
+                            }
+                        }
+                    }
+                    if (removed > 0) {
+                        touch(db, key);
+                        notifyKeyspace('z', "zrem", db, key);
+                        removeIfEmpty(db, key);
+                    }
+                    writeInteger(removed);
+                    break;
+                }
+                case "ZCARD": {
+                    arity(c, 2, 2);
+                    ZSet zset = zset(c[1]);
+                    writeInteger(zset == null ? 0 : zset.size());
+                    break;
+                }
+                case "ZCOUNT": {
+                    arity(c, 4, 4);
+                    ZSet zset = zset(c[1]);
+                    ScoreBound min = ScoreBound.parse(c[2]);
+                    ScoreBound max = ScoreBound.parse(c[3]);
+                    int count = 0;
+                    if (zset != null) {
+                        for (ZSet.Element element : zset.elements) {
+                            if (min.isBelowOrEqual(element.score) && max.isAboveOrEqual(element.score)) {
+                                count++;
+                            }
+                        }
+                    }
+                    writeInteger(count);
+                    break;
+                }
+                case "ZRANK":
+                case "ZREVRANK": {
+                    arity(c, 3, 3);
+                    ZSet zset = zset(c[1]);
+                    int rank = zset == null ? -1 : zset.rank(string(c[2]));
+                    if (rank < 0) {
+                        writeBulk(null);
+                    } else {
+                        writeInteger(name.equals("ZRANK") ? rank : zset.size() - 1 - rank);
+                    }
+                    break;
+                }
+                case "ZRANGE":
+                case "ZREVRANGE": {
+                    arity(c, 4, 5);
+                    boolean withScores = c.length == 5;
+                    if (withScores && !name(c, 4).equals("WITHSCORES")) {
+                        throw new CommandException(SYNTAX);
+                    }
+                    ZSet zset = zset(c[1]);
+                    List<ZSet.Element> elements = zset == null ? new ArrayList<>() : new ArrayList<>(zset.elements);
+                    if (name.equals("ZREVRANGE")) {
+                        Collections.reverse(elements);
+                    }
+                    int[] range = range(integer(c[2]), integer(c[3]), elements.size());
+                    writeElements(range == null ? Collections.emptyList() : elements.subList(range[0], range[1] + 1),
+                        withScores);
+                    break;
+                }
+                case "ZRANGEBYSCORE":
+                case "ZREVRANGEBYSCORE":
+                    arity(c, 4, Integer.MAX_VALUE);
+                    zrangeByScore(c, name.equals("ZREVRANGEBYSCORE"));
+                    break;
+                case "ZSCAN": {
+                    arity(c, 3, Integer.MAX_VALUE);
+                    ZSet zset = zset(c[1]);
+                    ZSet source = zset == null ? new ZSet() : zset;
+                    scan(source.scores.keySet(), c, 3,
+                        member -> Arrays.asList(bytes(member), bytes(formatDouble(source.score(member)))));
+                    break;
+                }
+
+                // Транзакции
+                case "MULTI":
+                    if (transaction != null) {
+                        throw new CommandException("ERR MULTI calls can not be nested");
+                    }
+                    transaction = new ArrayList<>();
+                    transactionFailed = false;
+                    write(OK);
+                    break;
+                case "EXEC": {
+                    if (transaction == null) {
+                        throw new CommandException("ERR EXEC without MULTI");
+                    }
+                    List<byte[][]> queued = transaction;
+                    boolean failed = transactionFailed;
+                    Map<String, Long> watchedKeys = watched;
+                    int watchedKeysDb = watchedDb;
+                    transaction = null;
+                    watched = null;
+                    if (failed) {
+                        throw new CommandException("EXECABORT Transaction discarded because of previous errors.");
+                    }
+                    if (watchedKeys != null) {
+                        for (Map.Entry<String, Long> entry : watchedKeys.entrySet()) {
+                            expireIfNeeded(watchedKeysDb, entry.getKey());
+                            if (version(watchedKeysDb, entry.getKey()) != entry.getValue()) {
+                                write(NIL_ARRAY);
+                                return;
+                            }
+                        }
+                    }
+                    writeArrayHeader(queued.size());
+                    for (byte[][] command : queued) {
+                        try {
+                            execute(name(command), command, true);
+                        } catch (CommandException e) {
+                            writeError(e.getMessage());
+                        }
+                    }
+                    break;
+                }
+                case "DISCARD":
+                    if (transaction == null) {
+                        throw new CommandException("ERR DISCARD without MULTI");
+                    }
+                    transaction = null;
+                    watched = null;
+                    write(OK);
+                    break;
+                case "WATCH":
+                    arity(c, 2, Integer.MAX_VALUE);
+                    if (transaction != null) {
+                        throw new CommandException("ERR WATCH inside MULTI is not allowed");
+                    }
+                    if (watched == null || watchedDb != db) {
+                        watched = new HashMap<>();
+                        watchedDb = db;
+                    }
+                    for (int i = 1; i < c.length; i++) {
+                        String key = string(c[i]);
+                        expireIfNeeded(db, key);
+                        watched.putIfAbsent(key, version(db, key));
+                    }
+                    write(OK);
+                    break;
+                case "UNWATCH":
+                    watched = null;
+                    write(OK);
+                    break;
+
+                // Pub/Sub
+                case "PUBLISH":
+                    arity(c, 3, 3);
+                    writeInteger(publish(string(c[1]), c[2]));
+                    break;
+                case "SUBSCRIBE":
+                case "PSUBSCRIBE": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    boolean pattern = name.equals("PSUBSCRIBE");
+                    for (int i = 1; i < c.length; i++) {
+                        String channel = string(c[i]);
+                        if ((pattern ? psubscriptions : subscriptions).add(channel)) {
+                            (pattern ? patterns : channels).computeIfAbsent(channel, k -> new LinkedHashSet<>())
+                                .add(this);
+                        }
+                        write(encode(name.toLowerCase(), channel, subscriptions.size() + psubscriptions.size()));
+                    }
+                    break;
+                }
+                case "UNSUBSCRIBE":
+                case "PUNSUBSCRIBE": {
+                    boolean pattern = name.equals("PUNSUBSCRIBE");
+                    Set<String> own = pattern ? psubscriptions : subscriptions;
+                    List<String> targets = new ArrayList<>();
+                    for (int i = 1; i < c.length; i++) {
+                        targets.add(string(c[i]));
+                    }
+                    if (targets.isEmpty()) {
+                        targets.addAll(own);
+                    }
+                    if (targets.isEmpty()) {
+                        write(encode(name.toLowerCase(), null, subscriptions.size() + psubscriptions.size()));
+                    }
+                    for (String channel : targets) {
+                        if (own.remove(channel)) {
+                            unsubscribe(pattern ? patterns : channels, channel);
+                        }
+                        write(encode(name.toLowerCase(), channel, subscriptions.size() + psubscriptions.size()));
+                    }
+                    break;
+                }
+                case "PUBSUB": {
+                    arity(c, 2, Integer.MAX_VALUE);
+                    switch (name(c, 1)) {
+                        case "CHANNELS": {
+                            List<byte[]> result = new ArrayList<>();
+                            for (String channel : channels.keySet()) {
+                                if (c.length < 3 || match(string(c[2]), channel)) {
+                                    result.add(bytes(channel));
+                                }
+                            }
+                            writeArray(result);
+                            break;
+                        }
+                        case "NUMSUB":
+                            writeArrayHeader((c.length - 2) * 2);
+                            for (int i = 2; i < c.length; i++) {
+                                writeBulk(c[i]);
+                                writeInteger(channels.getOrDefault(string(c[i]), Collections.emptySet()).size());
+                            }
+                            break;
+                        case "NUMPAT":
+                            writeInteger(patterns.size());
+                            break;
+                        default:
+                            throw new CommandException(SYNTAX);
+                    }
+                    break;
+                }
+                default:
+                    throw new CommandException("ERR unknown command '" + name.toLowerCase() + "'");
+            }
+        }
+
+        private void set(byte[][] c) {
+            arity(c, 3, Integer.MAX_VALUE);
+            String key = string(c[1]);
+            boolean nx = false;
+            boolean xx = false;
+            boolean keepTtl = false;
+            long deadline = 0;
+            for (int i = 3; i < c.length; i++) {
+                String option = name(c, i);
+                switch (option) {
+                    case "NX":
+                        nx = true;
+                        break;
+                    case "XX":
+                        xx = true;
+                        break;
+                    case "KEEPTTL":
+                        keepTtl = true;
+                        break;
+                    case "EX":
+                    case "PX": {
+                        if (i + 1 >= c.length) {
+                            throw new CommandException(SYNTAX);
+                        }
+                        long ttl = integer(c[++i]);
+                        if (ttl <= 0) {
+                            throw new CommandException("ERR invalid expire time in set");
+                        }
+                        deadline = System.currentTimeMillis() + (option.equals("EX") ? ttl * 1000 : ttl);
+                        break;
+                    }
+                    default:
+                        throw new CommandException(SYNTAX);
+                }
+            }
+            if (nx && xx) {
+                throw new CommandException(SYNTAX);
+            }
+            boolean exists = lookup(db, key) != null;
+            if ((nx && exists) || (xx && !exists)) {
+                writeBulk(null);
+                return;
+            }
+            if (keepTtl) {
+                keepTtlPut(key, c[2]);
+            } else {
+                put(db, key, c[2]);
+            }
+            if (deadline > 0) {
+                expires.get(db).put(key, deadline);
+            }
+            notifyKeyspace('$', "set", db, key);
+            if (deadline > 0) {
+                notifyKeyspace('g', "expire", db, key);
+            }
+            write(OK);
+        }
+
+        /**
+         * {@code SORT key [BY pattern] [LIMIT offset count] [GET pattern ...] [ASC|DESC] [ALPHA] [STORE destination]}.
+         */
+        private void sort(byte[][] c) {
+            arity(c, 2, Integer.MAX_VALUE);
+            String by = null;
+            long offset = 0;
+            long count = -1;
+            List<String> gets = new ArrayList<>();
+            boolean desc = false;
+            boolean alpha = false;
+            String store = null;
+            for (int i = 2; i < c.length; i++) {
+                String option = name(c, i);
+                int left = c.length - i - 1;
+                if (option.equals("ASC")) {
+                    desc = false;
+                } else if (option.equals("DESC")) {
+                    desc = true;
+                } else if (option.equals("ALPHA")) {
+                    alpha = true;
+                } else if (option.equals("BY") && left >= 1) {
+                    by = string(c[++i]);
+                } else if (option.equals("GET") && left >= 1) {
+                    gets.add(string(c[++i]));
+                } else if (option.equals("STORE") && left >= 1) {
+                    store = string(c[++i]);
+                } else if (option.equals("LIMIT") && left >= 2) {
+                    offset = integer(c[++i]);
+                    count = integer(c[++i]);
+                } else {
+                    throw new CommandException(SYNTAX);
+                }
+            }
+
+            Object value = lookup(db, string(c[1]));
+            List<byte[]> elements = new ArrayList<>();
+            if (value instanceof List) {
+                //noinspection unchecked
+                elements.addAll((List<byte[]>) value);
+            } else if (value instanceof Set) {
+                //noinspection unchecked
+                for (String member : (Set<String>) value) {
+                    elements.add(bytes(member));
+                }
+            } else if (value instanceof ZSet) {
+                for (ZSet.Element element : ((ZSet) value).elements) {
+                    elements.add(bytes(element.member));
+                }
+            } else if (value != null) {
+                throw new CommandException(WRONGTYPE);
+            }
+
+            // шаблон BY без звездочки отключает сортировку, как в Redis
+            if (by == null || by.indexOf('*') >= 0) {
+                Map<byte[], Object> weights = new IdentityHashMap<>();
+                for (byte[] element : elements) {
+                    byte[] weight = by == null ? element : sortLookup(by, element);
+                    if (alpha) {
+                        weights.put(element, weight == null ? "" : string(weight));
+                    } else {
+                        try {
+                            weights.put(element, weight == null ? 0.0 : Double.parseDouble(string(weight)));
+                        } catch (NumberFormatException e) {
+                            throw new CommandException("ERR One or more scores can't be converted into double");
+                        }
+                    }
+                }
+                Comparator<byte[]> comparator = alpha
+                    ? Comparator.comparing(element -> (String) weights.get(element))
+                    : Comparator.comparingDouble(element -> (Double) weights.get(element));
+                elements.sort(desc ? comparator.reversed() : comparator);
+            }
+
+            int from = (int) Math.max(0, Math.min(offset, elements.size()));
+            int to = count < 0 ? elements.size() : (int) Math.min(elements.size(), from + count);
+            List<byte[]> result = new ArrayList<>();
+            for (byte[] element : elements.subList(from, to)) {
+                if (gets.isEmpty()) {
+                    result.add(element);
+                }
+                for (String get : gets) {
+                    result.add(sortLookup(get, element));
+                }
+            }
+
+            if (store == null) {
+                writeArray(result);
+                return;
+            }
+            if (result.isEmpty()) {
+                if (remove(db, store)) {
+                    notifyKeyspace('g', "del", db, store);
+                }
+            } else {
+                List<byte[]> list = new ArrayList<>();
+                for (byte[] element : result) {
+                    list.add(element == null ? new byte[0] : element);
+                }
+                put(db, store, list);
+                notifyKeyspace('l', "sortstore", db, store);
+            }
+            writeInteger(result.size());
+        }
+
+        /**
+         * Значение по шаблону {@code BY} или {@code GET}: {@code #} - сам элемент, {@code *} заменяется элементом,
+         * а {@code ->} указывает поле хеша. Шаблон без звездочки ничего не находит.
+         */
+        private byte[] sortLookup(String pattern, byte[] element) {
+            if (pattern.equals("#")) {
+                return element;
+            }
+            int star = pattern.indexOf('*');
+            if (star < 0) {
+                return null;
+            }
+            int arrow = pattern.indexOf("->", star);
+            String name = arrow < 0 ? pattern : pattern.substring(0, arrow);
+            Object value = lookup(db, name.substring(0, star) + string(element) + name.substring(star + 1));
+            if (arrow < 0 || arrow + 2 == pattern.length()) {
+                return value instanceof byte[] ? (byte[]) value : null;
+            }
+            //noinspection unchecked
+            return value instanceof Map ? ((Map<String, byte[]>) value).get(pattern.substring(arrow + 2)) : null;
+        }
+
+        /**
+         * Записать значение, сохранив время жизни ключа.
+         */
+        private void keepTtlPut(String key, Object value) {
+            databases.get(db).put(key, value);
+            touch(db, key);
+        }
+
+        private long incrBy(String key, long increment) {
+            byte[] value = lookup(db, key, byte[].class);
+            long result;
+            try {
+                result = Math.addExact(value == null ? 0 : integer(value), increment);
+            } catch (ArithmeticException e) {
+                throw new CommandException("ERR increment or decrement would overflow");
+            }
+            keepTtlPut(key, bytes(Long.toString(result)));
+            notifyKeyspace('$', "incrby", db, key);
+            return result;
+        }
+
+        private byte[] pop(String key, boolean left) {
+            List<byte[]> list = lookup(db, key, ArrayList.class);
+            if (list == null) {
+                return null;
+            }
+            byte[] value = left ? list.remove(0) : list.remove(list.size() - 1);
+            touch(db, key);
+            notifyKeyspace('l', left ? "lpop" : "rpop", db, key);
+            removeIfEmpty(db, key);
+            if (lookup(db, key) == null) {
+                notifyKeyspace('g', "del", db, key);
+            }
+            return value;
+        }
+
+        private void blockingPop(byte[][] c, boolean left, boolean inTransaction) throws InterruptedException {
+            double timeout = decimal(c[c.length - 1], "ERR timeout is not a float or out of range");
+            if (timeout < 0) {
+                throw new CommandException("ERR timeout is negative");
+            }
+            long deadline = timeout == 0 ? Long.MAX_VALUE : System.currentTimeMillis() + (long) (timeout * 1000);
+            while (true) {
+                for (int i = 1; i < c.length - 1; i++) {
+                    String key = string(c[i]);
+                    if (lookup(db, key, ArrayList.class) != null) {
+                        writeArray(Arrays.asList(c[i], pop(key, left)));
+                        return;
+                    }
+                }
+                long wait = deadline - System.currentTimeMillis();
+                if (inTransaction || wait <= 0 || closed || socket.isClosed()) {
+                    write(NIL_ARRAY);
+                    return;
+                }
+                RespServer.this.wait(Math.min(wait, 100));
+            }
+        }
+
+        private Set<String> combine(String operation, byte[][] c, int from) {
+            Set<String> result = null;
+            for (int i = from; i < c.length; i++) {
+                Set<String> set = set(c[i]);
+                Set<String> members = set == null ? Collections.emptySet() : set;
+                if (result == null) {
+                    result = new LinkedHashSet<>(members);
+                } else if (operation.equals("SINTER")) {
+                    result.retainAll(members);
+                } else if (operation.equals("SUNION")) {
+                    result.addAll(members);
+                } else {
+                    result.removeAll(members);
+                }
+            }
+            return result;
+        }
+
+        private void zadd(byte[][] c) {
+            arity(c, 4, Integer.MAX_VALUE);
+            String key = string(c[1]);
+            boolean nx = false;
+            boolean xx = false;
+            boolean ch = false;
+            boolean incr = false;
+            int i = 2;
+            for (; i < c.length; i++) {
+                String option = name(c, i);
+                if (option.equals("NX")) {
+                    nx = true;
+                } else if (option.equals("XX")) {
+                    xx = true;
+                } else if (option.equals("CH")) {
+                    ch = true;
+                } else if (option.equals("INCR")) {
+                    incr = true;
+                } else {
+                    break;
+                }
+            }
+            int pairs = c.length - i;
+            if (pairs == 0 || pairs % 2 != 0 || (nx && xx) || (incr && pairs != 2)) {
+                throw new CommandException(SYNTAX);
+            }
+            double[] scores = new double[pairs / 2];
+            for (int j = 0; j < scores.length; j++) {
+                scores[j] = decimal(c[i + j * 2]);
+            }
+            ZSet zset = lookup(db, key, ZSet.class);
+            if (zset == null) {
+                if (xx) {
+                    if (incr) {
+                        writeBulk(null);
+                    } else {
+                        writeInteger(0);
+                    }
+                    return;
+                }
+                zset = new ZSet();
+                databases.get(db).put(key, zset);
+            }
+            int changed = 0;
+            int added = 0;
+            Double incrResult = null;
+            for (int j = 0; j < scores.length; j++) {
+                String member = string(c[i + j * 2 + 1]);
+                Double current = zset.score(member);
+                if ((nx && current != null) || (xx && current == null)) {
+                    continue;
+                }
+                double score = incr ? (current == null ? 0 : current) + scores[j] : scores[j];
+                if (Double.isNaN(score)) {
+                    removeIfEmpty(db, key);
+                    throw new CommandException("ERR resulting score is not a number (NaN)");
+                }
+                if (current == null) {
+                    added++;
+                    changed++;
+                } else if (current != score) {
+                    changed++;
+                }
+                zset.add(member, score);
+                incrResult = score;
+            }
+            if (changed > 0) {
+                touch(db, key);
+                notifyKeyspace('z', incr ? "zincr" : "zadd", db, key);
+            }
+            removeIfEmpty(db, key);
+            if (incr) {
+                writeBulk(incrResult == null ? null : bytes(formatDouble(incrResult)));
+            } else {
+                writeInteger(ch ? changed : added);
+            }
+        }
+
+        private void zrangeByScore(byte[][] c, boolean reverse) {
+            ZSet zset = zset(c[1]);
+            ScoreBound min = ScoreBound.parse(c[reverse ? 3 : 2]);
+            ScoreBound max = ScoreBound.parse(c[reverse ? 2 : 3]);
+            boolean withScores = false;
+            long offset = 0;
+            long count = -1;
+            for (int i = 4; i < c.length; i++) {
+                String option = name(c, i);
+                if (option.equals("WITHSCORES")) {
+                    withScores = true;
+                } else if (option.equals("LIMIT") && i + 2 < c.length) {
+                    offset = integer(c[++i]);
+                    count = integer(c[++i]);
+                } else {
+                    throw new CommandException(SYNTAX);
+                }
+            }
+            List<ZSet.Element> elements = new ArrayList<>();
+            if (zset != null) {
+                for (ZSet.Element element : zset.elements) {
+                    if (min.isBelowOrEqual(element.score) && max.isAboveOrEqual(element.score)) {
+                        elements.add(element);
+                    }
+                }
+            }
+            if (reverse) {
+                Collections.reverse(elements);
+            }
+            if (offset < 0 || offset >= elements.size()) {
+                elements.clear();
+            } else {
+                long end = count < 0 ? elements.size() : Math.min(elements.size(), offset + count);
+                elements = elements.subList((int) offset, (int) end);
+            }
+            writeElements(elements, withScores);
+        }
+
+        /**
+         * Курсор {@code SCAN} — это значение хеша, с которого продолжается обход. Элементы обходятся в порядке
+         * хешей, по этому каждый элемент, который существует все время обхода, будет возвращен ровно один раз.
+         */
+        private void scan(Collection<String> source, byte[][] c, int optionsFrom,
+                          Function<String, List<byte[]>> reply) {
+            long cursor = unsignedInteger(c[optionsFrom - 1], "ERR invalid cursor");
+            String pattern = null;
+            long count = 10;
+            String type = null;
+            for (int i = optionsFrom; i < c.length; i++) {
+                String option = name(c, i);
+                if (i + 1 >= c.length) {
+                    throw new CommandException(SYNTAX);
+                }
+                if (option.equals("MATCH")) {
+                    pattern = string(c[++i]);
+                } else if (option.equals("COUNT")) {
+                    count = integer(c[++i]);
+                    if (count < 1) {
+                        throw new CommandException(SYNTAX);
+                    }
+                } else if (option.equals("TYPE") && optionsFrom == 2) {
+                    type = string(c[++i]).toLowerCase();
+                } else {
+                    throw new CommandException(SYNTAX);
+                }
+            }
+            List<String> candidates = new ArrayList<>();
+            for (String element : source) {
+                if (scanHash(element) >= cursor) {
+                    candidates.add(element);
+                }
+            }
+            candidates.sort(Comparator.comparingLong(RespServer::scanHash));
+
+            List<byte[]> result = new ArrayList<>();
+            long next = 0;
+            int taken = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                String element = candidates.get(i);
+                long hash = scanHash(element);
+                if (taken >= count && hash != scanHash(candidates.get(i - 1))) {
+                    next = hash;
+                    break;
+                }
+                taken++;
+                if (pattern != null && !match(pattern, element)) {
+                    continue;
+                }
+                if (type != null && !type.equals(type(databases.get(db).get(element)))) {
+                    continue;
+                }
+                result.addAll(reply.apply(element));
+            }
+            writeArrayHeader(2);
+            writeBulk(bytes(Long.toString(next)));
+            writeArray(result);
+        }
+
+        private long bitOffset(byte[] value) {
+            long offset;
+            try {
+                offset = Long.parseLong(string(value));
+            } catch (NumberFormatException e) {
+                offset = -1;
+            }
+            if (offset < 0 || offset >= 512L * 1024 * 1024 * 8) {
+                throw new CommandException("ERR bit offset is not an integer or out of range");
+            }
+            return offset;
+        }
+
+        private Map<String, byte[]> hash(byte[] key) {
+            //noinspection unchecked
+            return lookup(db, string(key), LinkedHashMap.class);
+        }
+
+        private List<byte[]> list(byte[] key) {
+            //noinspection unchecked
+            return lookup(db, string(key), ArrayList.class);
+        }
+
+        private Set<String> set(byte[] key) {
+            //noinspection unchecked
+            return lookup(db, string(key), LinkedHashSet.class);
+        }
+
+        private ZSet zset(byte[] key) {
+            return lookup(db, string(key), ZSet.class);
+        }
+
+        // -----------------------------------------------------------------------------------------------------------
+        // Протокол
+        // -----------------------------------------------------------------------------------------------------------
+
+        private byte[][] readCommand() throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                throw new EOFException();
+            }
+            if (type != '*') {
+                // inline команда, например от telnet
+                ByteArrayOutputStream line = new ByteArrayOutputStream();
+                line.write(type);
+                readLine(line);
+                String text = new String(line.toByteArray(), StandardCharsets.ISO_8859_1).trim();
+                if (text.isEmpty()) {
+                    return new byte[0][];
+                }
+                String[] parts = text.split("\\s+");
+                byte[][] command = new byte[parts.length][];
+                for (int i = 0; i < parts.length; i++) {
+                    command[i] = bytes(parts[i]);
+                }
+                return command;
+            }
+            int count = (int) readLong();
+            byte[][] command = new byte[Math.max(count, 0)][];
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Protocol error: expected '$'");
+                }
+                byte[] bytes = new byte[(int) readLong()];
+                int read = 0;
+                while (read < bytes.length) {
+                    int n = in.read(bytes, read, bytes.length - read);
+                    if (n < 0) {
+                        throw new EOFException();
+                    }
+                    read += n;
+                }
+                if (in.read() != '\r' || in.read() != '\n') {
+                    throw new IOException("Protocol error: expected CRLF");
+                }
+                command[i] = bytes;
+            }
+            return command;
+        }
+
+        private long readLong() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            readLine(line);
+            try {
+                return Long.parseLong(new String(line.toByteArray(), StandardCharsets.US_ASCII));
+            } catch (NumberFormatException e) {
+                throw new IOException("Protocol error: invalid length");
+            }
+        }
+
+        private void readLine(ByteArrayOutputStream line) throws IOException {
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                line.write(b);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Protocol error: expected LF");
+            }
+        }
+
+        private void write(byte[] bytes) {
+            reply.write(bytes, 0, bytes.length);
+        }
+
+        private void writeStatus(String status) {
+            write(bytes('+' + status + "\r\n"));
+        }
+
+        private void writeError(String error) {
+            write(bytes('-' + error + "\r\n"));
+        }
+
+        private void writeInteger(long value) {
+            write(bytes(":" + value + "\r\n"));
+        }
+
+        private void writeArrayHeader(int length) {
+            write(bytes("*" + length + "\r\n"));
+        }
+
+        private void writeBulk(byte[] bytes) {
+            if (bytes == null) {
+                write(NIL);
+                return;
+            }
+            write(bytes("$" + bytes.length + "\r\n"));
+            write(bytes);
+            write(CRLF);
+        }
+
+        private void writeArray(List<byte[]> elements) {
+            writeArrayHeader(elements.size());
+            for (byte[] element : elements) {
+                writeBulk(element);
+            }
+        }
+
+        private void writeStrings(Collection<String> elements) {
+            writeArrayHeader(elements.size());
+            for (String element : elements) {
+                writeBulk(bytes(element));
+            }
+        }
+
+        private void writeElements(List<ZSet.Element> elements, boolean withScores) {
+            writeArrayHeader(withScores ? elements.size() * 2 : elements.size());
+            for (ZSet.Element element : elements) {
+                writeBulk(bytes(element.member));
+                if (withScores) {
+                    writeBulk(bytes(formatDouble(element.score)));
+                }
+            }
+        }
+    }
+
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /**
+     * Команды, которые можно поставить в очередь {@code MULTI}.
+     */
+    private static final Set<String> COMMANDS = new LinkedHashSet<>(Arrays.asList(
+        "PING", "ECHO", "SELECT", "FLUSHDB", "FLUSHALL", "DBSIZE", "CONFIG", "CLIENT",
+        "DEL", "UNLINK", "EXISTS", "TOUCH", "TYPE", "KEYS", "SCAN", "RENAME", "RENAMENX",
+        "EXPIRE", "PEXPIRE", "EXPIREAT", "PEXPIREAT", "TTL", "PTTL", "PERSIST",
+        "GET", "SET", "SETNX", "SETEX", "PSETEX", "GETSET", "MGET", "MSET", "MSETNX",
+        "INCR", "DECR", "INCRBY", "DECRBY", "INCRBYFLOAT", "APPEND", "STRLEN", "GETRANGE", "SUBSTR", "SETRANGE",
+        "HGET", "HSET", "HMSET", "HSETNX", "HMGET", "HGETALL", "HKEYS", "HVALS", "HDEL", "HEXISTS", "HLEN",
+        "HSTRLEN", "HINCRBY", "HINCRBYFLOAT", "HSCAN",
+        "LPUSH", "RPUSH", "LPUSHX", "RPUSHX", "LPOP", "RPOP", "BLPOP", "BRPOP", "RPOPLPUSH", "LLEN", "LRANGE",
+        "LINDEX", "LSET", "LREM", "LTRIM",
+        "SADD", "SREM", "SMEMBERS", "SISMEMBER", "SCARD", "SPOP", "SRANDMEMBER", "SMOVE",
+        "SINTER", "SUNION", "SDIFF", "SINTERSTORE", "SUNIONSTORE", "SDIFFSTORE", "SSCAN",
+        "ZADD", "ZINCRBY", "ZSCORE", "ZREM", "ZCARD", "ZCOUNT", "ZRANK", "ZREVRANK", "ZRANGE", "ZREVRANGE",
+        "ZRANGEBYSCORE", "ZREVRANGEBYSCORE", "ZSCAN",
+        "PUBLISH", "PUBSUB"
+    ));
+
+    // ---------------------------------------------------------------------------------------------------------------
+    // Вспомогательные типы и функции
+    // ---------------------------------------------------------------------------------------------------------------
+
+    /**
+     * Ошибка выполнения команды, отправляется клиенту как ответ {@code -ERR}.
+     */
+    private static class CommandException extends RuntimeException {
+        private CommandException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Отсортированное множество: члены упорядочены по оценке, при равной оценке — лексикографически.
+     */
+    private static class ZSet {
+        private final Map<String, Double> scores = new HashMap<>();
+        private final TreeSet<Element> elements = new TreeSet<>(
+            Comparator.<Element>comparingDouble(element -> element.score).thenComparing(element -> element.member));
+
+        private Double score(String member) {
+            return scores.get(member);
+        }
+
+        private void add(String member, double score) {
+            Double previous = scores.put(member, score);
+            if (previous != null) {
+                elements.remove(new Element(member, previous));
+            }
+            elements.add(new Element(member, score));
+        }
+
+        private boolean remove(String member) {
+            Double previous = scores.remove(member);
+            if (previous == null) {
+                return false;
+            }
+            elements.remove(new Element(member, previous));
+            return true;
+        }
+
+        private int rank(String member) {
+            Double score = scores.get(member);
+            return score == null ? -1 : elements.headSet(new Element(member, score)).size();
+        }
+
+        private int size() {
+            return scores.size();
+        }
+
+        private static class Element {
+            private final String member;
+            private final double score;
+
+            private Element(String member, double score) {
+                this.member = member;
+                this.score = score;
+            }
+        }
+    }
+
+    /**
+     * Граница диапазона оценок в формате {@code ZRANGEBYSCORE}: число, {@code (число}, {@code -inf}, {@code +inf}.
+     */
+    private static class ScoreBound {
+        private final double value;
+        private final boolean exclusive;
+
+        private ScoreBound(double value, boolean exclusive) {
+            this.value = value;
+            this.exclusive = exclusive;
+        }
+
+        private static ScoreBound parse(byte[] bytes) {
+            String text = string(bytes);
+            boolean exclusive = text.startsWith("(");
+            try {
+                return new ScoreBound(parseDouble(exclusive ? text.substring(1) : text), exclusive);
+            } catch (NumberFormatException e) {
+                throw new CommandException("ERR min or max is not a float");
+            }
+        }
+
+        private boolean isBelowOrEqual(double score) {
+            return exclusive ? value < score : value <= score;
+        }
+
+        private boolean isAboveOrEqual(double score) {
+            return exclusive ? value > score : value >= score;
+        }
+    }
+
+    /**
+     * Проверить соответствие строки шаблону в стиле Redis: {@code *}, {@code ?}, {@code [abc]}, {@code [^a-z]}
+     * и экранирование {@code \}.
+     */
+    static boolean match(String pattern, String string) {
+        return match(pattern, 0, string, 0);
+    }
+
+    private static boolean match(String pattern, int p, String string, int s) {
+        while (p < pattern.length()) {
+            char c = pattern.charAt(p);
+            switch (c) {
+                case '*':
+                    while (p + 1 < pattern.length() && pattern.charAt(p + 1) == '*') {
+                        p++;
+                    }
+                    if (p + 1 == pattern.length()) {
+                        return true;
+                    }
+                    for (int i = s; i <= string.length(); i++) {
+                        if (match(pattern, p + 1, string, i)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case '?':
+                    if (s >= string.length()) {
+                        return false;
+                    }
+                    s++;
+                    break;
+                case '[': {
+                    if (s >= string.length()) {
+                        return false;
+                    }
+                    p++;
+                    boolean not = p < pattern.length() && pattern.charAt(p) == '^';
+                    if (not) {
+                        p++;
+                    }
+                    boolean matched = false;
+                    char actual = string.charAt(s);
+                    while (p < pattern.length() && pattern.charAt(p) != ']') {
+                        char from = pattern.charAt(p);
+                        if (from == '\\' && p + 1 < pattern.length()) {
+                            from = pattern.charAt(++p);
+                            matched |= from == actual;
+                        } else if (p + 2 < pattern.length() && pattern.charAt(p + 1) == '-'
+                            && pattern.charAt(p + 2) != ']') {
+                            char to = pattern.charAt(p + 2);
+                            matched |= Math.min(from, to) <= actual && actual <= Math.max(from, to);
+                            p += 2;
+                        } else {
+                            matched |= from == actual;
+                        }
+                        p++;
+                    }
+                    if (matched == not) {
+                        return false;
+                    }
+                    s++;
+                    break;
+                }
+                case '\\':
+                    if (p + 1 < pattern.length()) {
+                        c = pattern.charAt(++p);
+                    }
+                    // fall through
+                default:
+                    if (s >= string.length() || string.charAt(s) != c) {
+                        return false;
+                    }
+                    s++;
+            }
+            p++;
+        }
+        return s == string.length();
+    }
+
+    private static long scanHash(String element) {
+        return Integer.toUnsignedLong(element.hashCode()) + 1;
+    }
+
+    private static void arity(byte[][] c, int min, int max) {
+        if (c.length < min || c.length > max) {
+            throw wrongArguments(name(c));
+        }
+    }
+
+    private static CommandException wrongArguments(String name) {
+        return new CommandException("ERR wrong number of arguments for '" + name.toLowerCase() + "' command");
+    }
+
+    private static String name(byte[][] c) {
+        return name(c, 0);
+    }
+
+    private static String name(byte[][] c, int index) {
+        return new String(c[index], StandardCharsets.ISO_8859_1).toUpperCase();
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(String string) {
+        return string.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static long integer(byte[] bytes) {
+        return integer(bytes, NOT_INTEGER);
+    }
+
+    private static long integer(byte[] bytes, String error) {
+        try {
+            return Long.parseLong(string(bytes));
+        } catch (NumberFormatException e) {
+            throw new CommandException(error);
+        }
+    }
+
+    private static long unsignedInteger(byte[] bytes, String error) {
+        try {
+            return Long.parseUnsignedLong(string(bytes));
+        } catch (NumberFormatException e) {
+            throw new CommandException(error);
+        }
+    }
+
+    private static double decimal(byte[] bytes) {
+        return decimal(bytes, NOT_FLOAT);
+    }
+
+    private static double decimal(byte[] bytes, String error) {
+        try {
+            return parseDouble(string(bytes));
+        } catch (NumberFormatException e) {
+            throw new CommandException(error);
+        }
+    }
+
+    private static double parseDouble(String text) {
+        switch (text.toLowerCase()) {
+            case "inf":
+            case "+inf":
+                return Double.POSITIVE_INFINITY;
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                if (text.isEmpty() || Character.isWhitespace(text.charAt(0))
+                    || Character.isWhitespace(text.charAt(text.length() - 1))) {
+                    throw new NumberFormatException(text);
+                }
+                double value = Double.parseDouble(text);
+                if (Double.isNaN(value)) {
+                    throw new NumberFormatException(text);
+                }
+                return value;
+        }
+    }
+
+    private static String formatDouble(double value) {
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "inf" : "-inf";
+        }
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Преобразовать индексы {@code start}/{@code stop} с поддержкой отрицательных значений в диапазон
+     * {@code [from, to]} внутри {@code size}, или {@code null}, если диапазон пустой.
+     */
+    private static int[] range(long start, long stop, int size) {
+        if (start < 0) {
+            start = Math.max(0, start + size);
+        }
+        if (stop < 0) {
+            stop += size;
+        }
+        stop = Math.min(stop, size - 1);
+        if (start > stop || start >= size) {
+            return null;
+        }
+        return new int[]{(int) start, (int) stop};
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Закодировать сообщение подписки: массив из типа, канала и сообщения, числа подписок или нескольких частей.
+     */
+    private static byte[] encode(String kind, Object... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] header = bytes("*" + (parts.length + 1) + "\r\n");
+        out.write(header, 0, header.length);
+        writeRaw(out, bytes(kind));
+        for (Object part : parts) {
+            if (part == null) {
+                out.write(NIL, 0, NIL.length);
+            } else if (part instanceof Integer) {
+                byte[] integer = bytes(":" + part + "\r\n");
+                out.write(integer, 0, integer.length);
+            } else {
+                writeRaw(out, part instanceof String ? bytes((String) part) : (byte[]) part);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static void writeRaw(ByteArrayOutputStream out, byte[] bytes) {
+        byte[] header = bytes("$" + bytes.length + "\r\n");
+        out.write(header, 0, header.length);
+        out.write(bytes, 0, bytes.length);
+        out.write(CRLF, 0, CRLF.length);
+    }
+}